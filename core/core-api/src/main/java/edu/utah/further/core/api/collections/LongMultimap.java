@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.api.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import edu.utah.further.core.api.context.Api;
+
+/**
+ * A map of primitive <code>long</code> keys to lists of primitive <code>long</code>
+ * values. Keys are stored in an open-addressing hash table with linear probing, and each
+ * key's values in a growable <code>long[]</code>, so that mapping a large identifier set
+ * boxes no key or value and allocates a single array per key.
+ * <p>
+ * Values of a key are kept in insertion order; duplicates are not removed.
+ * <strong>This implementation is not thread safe.</strong>
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Api
+public final class LongMultimap
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Default expected number of keys.
+	 */
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	/**
+	 * Maximum fraction of occupied table slots before the table is doubled.
+	 */
+	private static final double LOAD_FACTOR = 0.5;
+
+	/**
+	 * Fibonacci hashing multiplier.
+	 */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Keys by slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * Values by slot; <code>null</code> marks a free slot.
+	 */
+	private long[][] values;
+
+	/**
+	 * Number of values in use in each slot's value array.
+	 */
+	private int[] valueCounts;
+
+	/**
+	 * Number of keys.
+	 */
+	private int size;
+
+	/**
+	 * Total number of values.
+	 */
+	private int valueCount;
+
+	/**
+	 * Number of keys above which the table is doubled.
+	 */
+	private int threshold;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Create an empty map.
+	 */
+	public LongMultimap()
+	{
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Create an empty map sized to hold a number of keys without re-hashing.
+	 *
+	 * @param expectedSize
+	 *            expected number of keys
+	 */
+	public LongMultimap(final int expectedSize)
+	{
+		if (expectedSize < 0)
+		{
+			throw new IllegalArgumentException("Expected size must be non-negative: "
+					+ expectedSize);
+		}
+		int capacity = 2;
+		while (capacity * LOAD_FACTOR < expectedSize)
+		{
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		final StringBuilder s = new StringBuilder("{");
+		boolean first = true;
+		for (int slot = 0; slot < keys.length; slot++)
+		{
+			if (values[slot] != null)
+			{
+				if (!first)
+				{
+					s.append(", ");
+				}
+				s.append(keys[slot]).append('=').append(Arrays.toString(get(slot)));
+				first = false;
+			}
+		}
+		return s.append('}').toString();
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Add a value to a key's values.
+	 *
+	 * @param key
+	 *            key
+	 * @param value
+	 *            value to append to the key's values
+	 */
+	public void put(final long key, final long value)
+	{
+		int slot = slot(key);
+		if (values[slot] == null)
+		{
+			if (size >= threshold)
+			{
+				allocate(keys.length << 1);
+				slot = slot(key);
+			}
+			keys[slot] = key;
+			values[slot] = new long[1];
+			size++;
+		}
+		else if (valueCounts[slot] == values[slot].length)
+		{
+			values[slot] = Arrays.copyOf(values[slot], values[slot].length << 1);
+		}
+		values[slot][valueCounts[slot]++] = value;
+		valueCount++;
+	}
+
+	/**
+	 * Return the values of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return a copy of the key's values in insertion order, or <code>null</code> if the
+	 *         key is not in this map
+	 */
+	public long[] get(final long key)
+	{
+		final int slot = slot(key);
+		return (values[slot] == null) ? null : get(slot);
+	}
+
+	/**
+	 * Return the first value of a key without copying its values.
+	 *
+	 * @param key
+	 *            key
+	 * @return the first value added to the key
+	 * @throws NoSuchElementException
+	 *             if the key is not in this map
+	 */
+	public long getFirst(final long key)
+	{
+		final int slot = slot(key);
+		if (values[slot] == null)
+		{
+			throw new NoSuchElementException("Key not found: " + key);
+		}
+		return values[slot][0];
+	}
+
+	/**
+	 * @param key
+	 *            key
+	 * @return <code>true</code> if and only if the key is in this map
+	 */
+	public boolean containsKey(final long key)
+	{
+		return values[slot(key)] != null;
+	}
+
+	/**
+	 * @return the keys of this map, in no particular order
+	 */
+	public long[] keys()
+	{
+		final long[] result = new long[size];
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++)
+		{
+			if (values[slot] != null)
+			{
+				result[i++] = keys[slot];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of keys
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return total number of values of all keys
+	 */
+	public int valueCount()
+	{
+		return valueCount;
+	}
+
+	/**
+	 * @return <code>true</code> if and only if this map has no keys
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param slot
+	 *            an occupied slot
+	 * @return a copy of the slot's values
+	 */
+	private long[] get(final int slot)
+	{
+		return Arrays.copyOf(values[slot], valueCounts[slot]);
+	}
+
+	/**
+	 * @param key
+	 *            key
+	 * @return the slot holding the key, or the free slot where it would be added
+	 */
+	private int slot(final long key)
+	{
+		final int mask = keys.length - 1;
+		int slot = (int) ((key * HASH_MULTIPLIER) >>> 32) & mask;
+		while ((values[slot] != null) && (keys[slot] != key))
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * (Re-)allocate the table and move all existing entries to it.
+	 *
+	 * @param capacity
+	 *            new number of slots; a power of two
+	 */
+	private void allocate(final int capacity)
+	{
+		final long[] oldKeys = keys;
+		final long[][] oldValues = values;
+		final int[] oldValueCounts = valueCounts;
+
+		keys = new long[capacity];
+		values = new long[capacity][];
+		valueCounts = new int[capacity];
+		threshold = (int) (capacity * LOAD_FACTOR);
+
+		if (oldKeys != null)
+		{
+			for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++)
+			{
+				if (oldValues[oldSlot] != null)
+				{
+					final int slot = slot(oldKeys[oldSlot]);
+					keys[slot] = oldKeys[oldSlot];
+					values[slot] = oldValues[oldSlot];
+					valueCounts[slot] = oldValueCounts[oldSlot];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.api.time;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.utah.further.core.api.context.Api;
+
+/**
+ * A lock-free latency histogram. Recording only updates atomic counters, so it never
+ * blocks the measured thread.
+ * <p>
+ * Latencies are kept in power-of-two microsecond buckets: bucket <code>i</code> holds
+ * latencies shorter than <code>2^i</code> microseconds (and at least
+ * <code>2^(i-1)</code>). Percentiles are therefore approximate to within a factor of two.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Api
+public final class LatencyHistogram
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Number of buckets. The last one holds all latencies longer than about 18 minutes.
+	 */
+	public static final int NUM_BUCKETS = 32;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Number of recorded latencies.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * Sum of recorded latencies [ns].
+	 */
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	/**
+	 * Longest recorded latency [ns].
+	 */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Latency counts by bucket.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+
+	// ========================= IMPL: Object ==============================
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("count=%d mean=%.2fms p50<%dms p99<%dms max=%dms",
+				Long.valueOf(getCount()), Double.valueOf(getMeanMillis()),
+				Long.valueOf(getPercentileMillis(0.5)),
+				Long.valueOf(getPercentileMillis(0.99)),
+				Long.valueOf(TimeUnit.NANOSECONDS.toMillis(getMaxNanos())));
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param elapsedNanos
+	 *            latency [ns]
+	 */
+	public void record(final long elapsedNanos)
+	{
+		count.incrementAndGet();
+		totalNanos.addAndGet(elapsedNanos);
+		long max;
+		while (elapsedNanos > (max = maxNanos.get()))
+		{
+			if (maxNanos.compareAndSet(max, elapsedNanos))
+			{
+				break;
+			}
+		}
+		buckets.incrementAndGet(bucket(elapsedNanos));
+	}
+
+	/**
+	 * Discard all recorded latencies. Latencies recorded concurrently with this call may
+	 * be partially kept.
+	 */
+	public void reset()
+	{
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+	}
+
+	/**
+	 * Return an upper bound on a latency percentile.
+	 *
+	 * @param fraction
+	 *            percentile fraction in [0,1], e.g. <code>0.99</code>
+	 * @return the latency below which at least <code>fraction</code> of the recorded
+	 *         latencies fall [ms], rounded up to the histogram resolution
+	 */
+	public long getPercentileMillis(final double fraction)
+	{
+		final long[] counts = getCounts();
+		long total = 0;
+		for (final long c : counts)
+		{
+			total += c;
+		}
+		if (total == 0)
+		{
+			return 0;
+		}
+		final long target = (long) Math.ceil(fraction * total);
+		long cumulative = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			cumulative += counts[i];
+			if (cumulative >= target)
+			{
+				return upperBoundMillis(i);
+			}
+		}
+		return upperBoundMillis(NUM_BUCKETS - 1);
+	}
+
+	/**
+	 * @return a copy of the latency counts by bucket
+	 */
+	public long[] getCounts()
+	{
+		final long[] counts = new long[NUM_BUCKETS];
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			counts[i] = buckets.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return mean latency [ms]
+	 */
+	public double getMeanMillis()
+	{
+		final long n = getCount();
+		return (n == 0) ? 0.0 : (getTotalNanos() / (double) n) / 1.0e6;
+	}
+
+	/**
+	 * @return number of recorded latencies
+	 */
+	public long getCount()
+	{
+		return count.get();
+	}
+
+	/**
+	 * @return sum of recorded latencies [ns]
+	 */
+	public long getTotalNanos()
+	{
+		return totalNanos.get();
+	}
+
+	/**
+	 * @return longest recorded latency [ns]
+	 */
+	public long getMaxNanos()
+	{
+		return maxNanos.get();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param elapsedNanos
+	 *            latency [ns]
+	 * @return bucket index
+	 */
+	private static int bucket(final long elapsedNanos)
+	{
+		final long micros = Math.max(0, elapsedNanos / 1000);
+		return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+	}
+
+	/**
+	 * @param bucket
+	 *            bucket index
+	 * @return bucket upper bound [ms], rounded up
+	 */
+	private static long upperBoundMillis(final int bucket)
+	{
+		final long micros = 1L << bucket;
+		return (micros + 999) / 1000;
+	}
+}
@@ -35,7 +35,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
 { UTestMultiExtendsUseCase.class, UTestSortedSetComparator.class,
-		UTestCollectionUtil.class })
+		UTestCollectionUtil.class, UTestLongMultimap.class })
 public final class SuiteCollections
 {
 }
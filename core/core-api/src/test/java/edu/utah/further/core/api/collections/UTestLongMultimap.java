@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.api.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link LongMultimap}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestLongMultimap
+{
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Values are kept per key in insertion order.
+	 */
+	@Test
+	public void putAndGet()
+	{
+		final LongMultimap map = new LongMultimap();
+		map.put(1L, 3L);
+		map.put(2L, 2L);
+		map.put(1L, 1L);
+		map.put(-5L, 0L);
+		map.put(0L, 7L);
+
+		assertEquals(4, map.size());
+		assertEquals(5, map.valueCount());
+		assertArrayEquals(new long[]
+		{ 3L, 1L }, map.get(1L));
+		assertArrayEquals(new long[]
+		{ 2L }, map.get(2L));
+		assertArrayEquals(new long[]
+		{ 0L }, map.get(-5L));
+		assertArrayEquals(new long[]
+		{ 7L }, map.get(0L));
+		assertEquals(3L, map.getFirst(1L));
+		assertTrue(map.containsKey(0L));
+		assertFalse(map.containsKey(3L));
+		assertNull(map.get(3L));
+
+		final long[] keys = map.keys();
+		Arrays.sort(keys);
+		assertArrayEquals(new long[]
+		{ -5L, 0L, 1L, 2L }, keys);
+	}
+
+	/**
+	 * The table grows past its expected size without losing entries.
+	 */
+	@Test
+	public void grow()
+	{
+		final LongMultimap map = new LongMultimap(1);
+		assertTrue(map.isEmpty());
+		for (long key = 0; key < 10000; key++)
+		{
+			map.put(key * 1024L, key);
+			map.put(key * 1024L, -key);
+		}
+		assertEquals(10000, map.size());
+		assertEquals(20000, map.valueCount());
+		for (long key = 0; key < 10000; key++)
+		{
+			assertArrayEquals(new long[]
+			{ key, -key }, map.get(key * 1024L));
+		}
+	}
+
+	/**
+	 * The first value of a missing key does not exist.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void getFirstOfMissingKey()
+	{
+		new LongMultimap().getFirst(1L);
+	}
+}
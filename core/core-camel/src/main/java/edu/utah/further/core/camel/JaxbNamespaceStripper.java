@@ -15,21 +15,20 @@
  */
 package edu.utah.further.core.camel;
 
-import static edu.utah.further.core.api.constant.Strings.EMPTY_STRING;
 import static edu.utah.further.core.api.xml.XmlNamespace.XML_SCHEMA_INSTANCE;
 import static edu.utah.further.core.api.xml.XmlNamespace.XSI_TYPE;
+import static edu.utah.further.core.api.xml.XmlUtil.ELEMENT_END_OPEN;
 import static edu.utah.further.core.api.xml.XmlUtil.closeTag;
+import static edu.utah.further.core.api.xml.XmlUtil.emptyTag;
 import static edu.utah.further.core.api.xml.XmlUtil.getQualifiedElement;
 import static edu.utah.further.core.api.xml.XmlUtil.openTag;
 
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.utah.further.core.api.collections.CollectionUtil;
-import edu.utah.further.core.api.regex.RegExUtil;
 
 /**
  * Strip an XML message body marshalled by JAXB from its root entity tag namespace
@@ -39,8 +38,10 @@ import edu.utah.further.core.api.regex.RegExUtil;
  * TODO 1: refactor to a chain of post-processors, each one doing one thing (e.g. removing
  * doc header, removing root tag namespace, adding default namespace).
  * <p>
- * TODO 2: what if this is a large XML document? or streamed? we probably want only to
- * read the beginning and end of the document to optimize performance.
+ * The body is processed in a single pass that only inspects the document prolog, the
+ * root element start tag and the root element end tag at the end of the document. The
+ * content in between is copied verbatim, so the cost is a single copy of the body
+ * regardless of its size.
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2010 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -62,6 +63,22 @@ public final class JaxbNamespaceStripper
 	private static final Logger log = LoggerFactory
 			.getLogger(JaxbNamespaceStripper.class);
 
+	private static final String XML_DECLARATION_START = "<?xml";
+
+	private static final String PI_START = "<?";
+
+	private static final String PI_END = "?>";
+
+	private static final String COMMENT_START = "<!--";
+
+	private static final String COMMENT_END = "-->";
+
+	private static final String DECLARATION_START = "<!";
+
+	private static final String XMLNS_PREFIX = "xmlns:";
+
+	private static final String HTTP = "http://";
+
 	// ========================= FIELDS ====================================
 
 	/**
@@ -192,7 +209,9 @@ public final class JaxbNamespaceStripper
 	/**
 	 * Add namespace and XMLNS declaration and a root tag of the body.
 	 * <p>
-	 * TODO: optimize this method if it proves slow for long bodies.
+	 * The root element is transformed only if its name is prefixed and it declares an
+	 * <code>http://</code> namespace. Otherwise, the body is returned unchanged, except
+	 * for the removal of the XML document header.
 	 *
 	 * @param rawBody
 	 *            message XML body before transformation
@@ -200,31 +219,55 @@ public final class JaxbNamespaceStripper
 	 */
 	public String stripNamespace(final String rawBody)
 	{
-		String body = rawBody;
+		final int length = rawBody.length();
 
-		// Remove XML document header
-		if (removeDocumentHeader)
+		// Locate the XML document header
+		int headerStart = skipWhitespace(rawBody, 0);
+		int headerEnd = headerStart;
+		if (removeDocumentHeader && rawBody.startsWith(XML_DECLARATION_START, headerStart))
 		{
-			body = body.replaceFirst(
-					"<\\?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"\\?>",
-					EMPTY_STRING);
+			final int end = rawBody.indexOf(PI_END, headerStart);
+			headerEnd = (end < 0) ? headerStart : end + PI_END.length();
+		}
+		else
+		{
+			headerStart = 0;
+			headerEnd = 0;
 		}
 
-		// Find the current root element name
-		final String regex = "<.\\w*:(\\w*) xmlns:.*=\"http://.*\">";
-		final List<String> groups = RegExUtil.capture(body, regex);
-		if (groups.size() < 1)
+		// Find the root element start tag
+		final int rootStart = findRootElement(rawBody, headerEnd);
+		final RootTag root = (rootStart < 0) ? null : parseRootTag(rawBody, rootStart);
+		if ((root == null) || !root.isQualifiedWithHttpNamespace())
 		{
 			// No root tag found, do nothing
-			return body;
+			return removeRange(rawBody, headerStart, headerEnd);
 		}
-		final String oldEntity = groups.get(0);
 
-		// Replace root element opening tag
-		final Map<String, String> attributes = CollectionUtil.newMap();
+		// Find the root element end tag at the end of the document
+		int closeStart = length;
+		int closeEnd = length;
+		if (!root.empty)
+		{
+			closeEnd = lastNonWhitespace(rawBody) + 1;
+			closeStart = rawBody.lastIndexOf(ELEMENT_END_OPEN, closeEnd);
+			if ((closeStart < root.end)
+					|| !rawBody.substring(closeStart + ELEMENT_END_OPEN.length(),
+							closeEnd - 1).trim().equals(root.name))
+			{
+				if (log.isWarnEnabled())
+				{
+					log.warn("Root element " + root.name
+							+ " is not closed at the end of the body, not stripping");
+				}
+				return removeRange(rawBody, headerStart, headerEnd);
+			}
+		}
 
 		// An xsi:type is required only if this oldEntity is a sub-class of newEntity
 		// and if oldEntity is polymorphic.
+		final String oldEntity = root.getLocalName();
+		final Map<String, String> attributes = CollectionUtil.newMap();
 		final String qualifiedOldEntity = getQualifiedElement(newNamespace, oldEntity);
 		final String newEntity = polymorphic ? superEntity : qualifiedOldEntity;
 		if (polymorphic && !oldEntity.equals(newEntity))
@@ -232,35 +275,271 @@ public final class JaxbNamespaceStripper
 			attributes.put(getQualifiedElement(XML_SCHEMA_INSTANCE, XSI_TYPE),
 					qualifiedOldEntity);
 		}
-		final String newOpenTag = openTag(newEntity, attributes).toString();
-		body = body.replaceFirst(regex, newOpenTag);
 
-		body = replaceRootClosingTag(body, oldEntity, newEntity);
+		final StringBuilder body = new StringBuilder(length);
+		body.append(rawBody, 0, headerStart).append(rawBody, headerEnd, rootStart);
+		if (root.empty)
+		{
+			body.append(emptyTag(newEntity, attributes));
+		}
+		else
+		{
+			body
+					.append(openTag(newEntity, attributes))
+					.append(rawBody, root.end, closeStart)
+					.append(closeTag(newEntity));
+		}
+		body.append(rawBody, closeEnd, length);
 
 		if (log.isDebugEnabled())
 		{
 			log.debug("Replaced " + oldEntity + " with " + newEntity);
-			log.debug("Raw body = " + rawBody);
-			log.debug("Stripped body = " + body);
 		}
-		return body;
+		if (log.isTraceEnabled())
+		{
+			log.trace("Raw body = " + rawBody);
+			log.trace("Stripped body = " + body);
+		}
+		return body.toString();
 	}
 
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
-	 * @param rawBody
-	 * @param oldEntity
-	 * @param newEntity
-	 * @return
+	 * Return the index of the root element start tag, skipping processing instructions,
+	 * comments and document type declarations.
+	 *
+	 * @param s
+	 *            XML document
+	 * @param from
+	 *            index to start searching from
+	 * @return index of the root element's <code>&lt;</code> character, or
+	 *         <code>-1</code> if not found
+	 */
+	private static int findRootElement(final String s, final int from)
+	{
+		int i = from;
+		while (true)
+		{
+			i = skipWhitespace(s, i);
+			if ((i >= s.length()) || (s.charAt(i) != '<'))
+			{
+				return -1;
+			}
+			final int end;
+			if (s.startsWith(PI_START, i))
+			{
+				end = indexAfter(s, PI_END, i);
+			}
+			else if (s.startsWith(COMMENT_START, i))
+			{
+				end = indexAfter(s, COMMENT_END, i);
+			}
+			else if (s.startsWith(DECLARATION_START, i))
+			{
+				end = indexAfter(s, ">", i);
+			}
+			else
+			{
+				return i;
+			}
+			if (end < 0)
+			{
+				return -1;
+			}
+			i = end;
+		}
+	}
+
+	/**
+	 * Parse the root element start tag.
+	 *
+	 * @param s
+	 *            XML document
+	 * @param start
+	 *            index of the start tag's <code>&lt;</code> character
+	 * @return root start tag information, or <code>null</code> if the tag is malformed
+	 */
+	private static RootTag parseRootTag(final String s, final int start)
+	{
+		final int length = s.length();
+		int i = start + 1;
+		while ((i < length) && isNameChar(s.charAt(i)))
+		{
+			i++;
+		}
+		final String name = s.substring(start + 1, i);
+		boolean httpNamespace = false;
+		while (i < length)
+		{
+			final char c = s.charAt(i);
+			if (c == '>')
+			{
+				return new RootTag(name, httpNamespace, s.charAt(i - 1) == '/', i + 1);
+			}
+			if ((c == '"') || (c == '\''))
+			{
+				// Attribute value
+				final int end = s.indexOf(c, i + 1);
+				if (end < 0)
+				{
+					return null;
+				}
+				i = end + 1;
+			}
+			else if (s.startsWith(XMLNS_PREFIX, i))
+			{
+				// Namespace declaration: xmlns:alias="value"
+				final int valueStart = i + XMLNS_PREFIX.length();
+				final int equals = s.indexOf('=', valueStart);
+				if (equals < 0)
+				{
+					return null;
+				}
+				final int quote = skipWhitespace(s, equals + 1);
+				httpNamespace |= s.startsWith(HTTP, quote + 1);
+				i = quote;
+			}
+			else
+			{
+				i++;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param c
+	 *            a character
+	 * @return is the character part of an XML qualified element name
 	 */
-	private String replaceRootClosingTag(final String rawBody, final String oldEntity,
-			final String newEntity)
+	private static boolean isNameChar(final char c)
 	{
-		// Replace root element closing tag
-		final String newCloseTag = closeTag(newEntity).toString();
-		final String body = rawBody
-				.replaceFirst("</\\w*:" + oldEntity + ">", newCloseTag);
-		return body;
+		return !Character.isWhitespace(c) && (c != '>') && (c != '/');
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @param from
+	 *            index to start from
+	 * @return index of the first non-whitespace character at or after <code>from</code>
+	 */
+	private static int skipWhitespace(final String s, final int from)
+	{
+		int i = from;
+		while ((i < s.length()) && Character.isWhitespace(s.charAt(i)))
+		{
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @return index of the last non-whitespace character of <code>s</code>
+	 */
+	private static int lastNonWhitespace(final String s)
+	{
+		int i = s.length() - 1;
+		while ((i >= 0) && Character.isWhitespace(s.charAt(i)))
+		{
+			i--;
+		}
+		return i;
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @param token
+	 *            token to search for
+	 * @param from
+	 *            index to start searching from
+	 * @return index right after the first occurrence of <code>token</code>, or
+	 *         <code>-1</code> if not found
+	 */
+	private static int indexAfter(final String s, final String token, final int from)
+	{
+		final int index = s.indexOf(token, from);
+		return (index < 0) ? -1 : index + token.length();
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @param start
+	 *            start index of range to remove
+	 * @param end
+	 *            end index of range to remove
+	 * @return <code>s</code> without the range <code>[start,end)</code>
+	 */
+	private static String removeRange(final String s, final int start, final int end)
+	{
+		return (start == end) ? s : new StringBuilder(s.length() - (end - start))
+				.append(s, 0, start)
+				.append(s, end, s.length())
+				.toString();
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Information parsed from the root element start tag.
+	 */
+	private static final class RootTag
+	{
+		/**
+		 * Qualified element name.
+		 */
+		final String name;
+
+		/**
+		 * Does the tag declare an <code>http://</code> namespace.
+		 */
+		final boolean httpNamespace;
+
+		/**
+		 * Is this an empty-element tag.
+		 */
+		final boolean empty;
+
+		/**
+		 * Index right after the tag's closing <code>&gt;</code> character.
+		 */
+		final int end;
+
+		/**
+		 * @param name
+		 * @param httpNamespace
+		 * @param empty
+		 * @param end
+		 */
+		RootTag(final String name, final boolean httpNamespace, final boolean empty,
+				final int end)
+		{
+			this.name = name;
+			this.httpNamespace = httpNamespace;
+			this.empty = empty;
+			this.end = end;
+		}
+
+		/**
+		 * @return is the element name prefixed and does it declare an
+		 *         <code>http://</code> namespace
+		 */
+		boolean isQualifiedWithHttpNamespace()
+		{
+			return (name.indexOf(':') > 0) && httpNamespace;
+		}
+
+		/**
+		 * @return element name without its namespace prefix
+		 */
+		String getLocalName()
+		{
+			return name.substring(name.indexOf(':') + 1);
+		}
 	}
-}
\ No newline at end of file
+}
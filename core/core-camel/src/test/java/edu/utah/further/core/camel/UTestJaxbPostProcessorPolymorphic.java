@@ -115,6 +115,32 @@ public final class UTestJaxbPostProcessorPolymorphic
 		testStripBody(rawBody, expectedBody);
 	}
 
+	/**
+	 * Test stripping a body whose content has attributes and nested elements with the
+	 * root element's name.
+	 */
+	@Test
+	public void stripBodyWithAttributes() throws Exception
+	{
+		final String rawBody = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><ns2:dsMetaData xmlns:ns2=\""
+				+ XmlNamespace.FQE
+				+ "\"><name lang=\"en\">Default name</name><ns2:dsMetaData/></ns2:dsMetaData>";
+		final String expectedBody = "<data xsi:type=\"ns1:dsMetaData\"><name lang=\"en\">Default name</name><ns2:dsMetaData/></data>";
+		testStripBody(rawBody, expectedBody);
+	}
+
+	/**
+	 * Test stripping an empty root element.
+	 */
+	@Test
+	public void stripEmptyBody() throws Exception
+	{
+		final String rawBody = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><ns2:dsMetaData xmlns:ns2=\""
+				+ XmlNamespace.FQE + "\"/>";
+		final String expectedBody = "<data xsi:type=\"ns1:dsMetaData\"/>";
+		testStripBody(rawBody, expectedBody);
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.chain;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+
+/**
+ * A registry of per-processor request processing statistics. Recording only updates
+ * atomic counters, so it is cheap enough to leave on permanently.
+ * <p>
+ * Processors are usually instantiated per request, so statistics are keyed by processor
+ * name and kept in a shared registry, {@link #getDefault()}, unless another one is
+ * injected. Implements a standard MBean interface, so it can be exported as is, e.g. by
+ * a Spring <code>MBeanExporter</code>.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class ProcessorMetrics implements ProcessorMetricsMBean
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * The shared registry.
+	 */
+	private static final ProcessorMetrics DEFAULT = new ProcessorMetrics();
+
+	/**
+	 * Orders statistics by descending total processing time.
+	 */
+	private static final Comparator<ProcessorStats> BY_TOTAL_TIME = new Comparator<ProcessorStats>()
+	{
+		@Override
+		public int compare(final ProcessorStats o1, final ProcessorStats o2)
+		{
+			return Long.compare(o2.getLatency().getTotalNanos(), o1
+					.getLatency()
+					.getTotalNanos());
+		}
+	};
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Statistics by processor name.
+	 */
+	private final ConcurrentMap<String, ProcessorStats> processors = CollectionUtil
+			.newConcurrentMap();
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @return the shared registry
+	 */
+	public static ProcessorMetrics getDefault()
+	{
+		return DEFAULT;
+	}
+
+	// ========================= IMPL: ProcessorMetricsMBean ===============
+
+	/**
+	 * @see edu.utah.further.core.chain.ProcessorMetricsMBean#getProcessorSummaries()
+	 */
+	@Override
+	public String[] getProcessorSummaries()
+	{
+		final List<ProcessorStats> all = getAll();
+		final String[] summaries = new String[all.size()];
+		for (int i = 0; i < summaries.length; i++)
+		{
+			summaries[i] = all.get(i).toString();
+		}
+		return summaries;
+	}
+
+	/**
+	 * @see edu.utah.further.core.chain.ProcessorMetricsMBean#getProcessorCount()
+	 */
+	@Override
+	public int getProcessorCount()
+	{
+		return processors.size();
+	}
+
+	/**
+	 * @see edu.utah.further.core.chain.ProcessorMetricsMBean#reset()
+	 */
+	@Override
+	public void reset()
+	{
+		processors.clear();
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Record a successful processing.
+	 *
+	 * @param name
+	 *            processor name
+	 * @param elapsedNanos
+	 *            processing time [ns]
+	 * @param handled
+	 *            did the processor handle the request, i.e. terminate the chain
+	 */
+	public void record(final String name, final long elapsedNanos, final boolean handled)
+	{
+		newStatsIfAbsent(name).record(elapsedNanos, handled);
+	}
+
+	/**
+	 * Record a failed processing.
+	 *
+	 * @param name
+	 *            processor name
+	 * @param elapsedNanos
+	 *            processing time [ns]
+	 */
+	public void recordFailure(final String name, final long elapsedNanos)
+	{
+		newStatsIfAbsent(name).recordFailure(elapsedNanos);
+	}
+
+	/**
+	 * @param name
+	 *            processor name
+	 * @return statistics of the processor, or <code>null</code> if it was not recorded
+	 */
+	public ProcessorStats getStats(final String name)
+	{
+		return processors.get(name);
+	}
+
+	/**
+	 * @return statistics of all processors, by descending total processing time
+	 */
+	public List<ProcessorStats> getAll()
+	{
+		final List<ProcessorStats> all = CollectionUtil.newList(processors.values());
+		Collections.sort(all, BY_TOTAL_TIME);
+		return all;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param name
+	 *            processor name
+	 * @return statistics of the processor, created if necessary
+	 */
+	private ProcessorStats newStatsIfAbsent(final String name)
+	{
+		ProcessorStats stats = processors.get(name);
+		if (stats == null)
+		{
+			final ProcessorStats newStats = new ProcessorStats(name);
+			stats = processors.putIfAbsent(name, newStats);
+			if (stats == null)
+			{
+				stats = newStats;
+			}
+		}
+		return stats;
+	}
+}
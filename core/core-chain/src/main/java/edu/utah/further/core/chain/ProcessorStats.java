@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.chain;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.utah.further.core.api.time.LatencyHistogram;
+
+/**
+ * Processing statistics of a single named request processor: a latency histogram and
+ * counts of requests it handled (terminated the chain), passed on, and failed on.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class ProcessorStats
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Processor name.
+	 */
+	private final String name;
+
+	/**
+	 * Processing latency histogram.
+	 */
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * Number of requests handled by the processor.
+	 */
+	private final AtomicLong handled = new AtomicLong();
+
+	/**
+	 * Number of requests passed on to the next processor.
+	 */
+	private final AtomicLong passed = new AtomicLong();
+
+	/**
+	 * Number of failed requests.
+	 */
+	private final AtomicLong failed = new AtomicLong();
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param name
+	 *            processor name
+	 */
+	ProcessorStats(final String name)
+	{
+		this.name = name;
+	}
+
+	// ========================= IMPL: Object ==============================
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%s: total=%dms %s handled=%d passed=%d failed=%d", name,
+				Long.valueOf(TimeUnit.NANOSECONDS.toMillis(latency.getTotalNanos())),
+				latency, Long.valueOf(getHandled()), Long.valueOf(getPassed()),
+				Long.valueOf(getFailed()));
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Record a successful processing.
+	 *
+	 * @param elapsedNanos
+	 *            processing time [ns]
+	 * @param handledRequest
+	 *            did the processor handle the request, i.e. terminate the chain
+	 */
+	void record(final long elapsedNanos, final boolean handledRequest)
+	{
+		latency.record(elapsedNanos);
+		(handledRequest ? handled : passed).incrementAndGet();
+	}
+
+	/**
+	 * Record a failed processing.
+	 *
+	 * @param elapsedNanos
+	 *            processing time [ns]
+	 */
+	void recordFailure(final long elapsedNanos)
+	{
+		latency.record(elapsedNanos);
+		failed.incrementAndGet();
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * @return the processor name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return the processing latency histogram
+	 */
+	public LatencyHistogram getLatency()
+	{
+		return latency;
+	}
+
+	/**
+	 * @return the number of requests handled by the processor
+	 */
+	public long getHandled()
+	{
+		return handled.get();
+	}
+
+	/**
+	 * @return the number of requests passed on to the next processor
+	 */
+	public long getPassed()
+	{
+		return passed.get();
+	}
+
+	/**
+	 * @return the number of failed requests
+	 */
+	public long getFailed()
+	{
+		return failed.get();
+	}
+}
@@ -17,8 +17,9 @@ package edu.utah.further.core.chain;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
-import org.springframework.util.StopWatch;
 
 import edu.utah.further.core.api.chain.ChainRequest;
 import edu.utah.further.core.api.chain.RequestHandler;
@@ -26,7 +27,8 @@ import edu.utah.further.core.api.chain.RequestProcessor;
 
 /**
  * A utility decorator of a {@link RequestProcessor} that times the request processing
- * time.
+ * time. Each call is also recorded in a {@link ProcessorMetrics} registry under the
+ * decorated processor's name.
  * <p>
  * TODO: move to an AOP aspect in the future.
  * <p>
@@ -58,9 +60,14 @@ public final class TimedRequestProcessor implements RequestProcessor
 	private final RequestProcessor processor;
 
 	/**
-	 * Records processing time.
+	 * Records processing statistics.
 	 */
-	private double elapsedTime;
+	private final ProcessorMetrics metrics;
+
+	/**
+	 * Last call's processing time [ns].
+	 */
+	private volatile long elapsedNanos;
 
 	// ========================= CONSTRUCTORS ==============================
 
@@ -68,9 +75,21 @@ public final class TimedRequestProcessor implements RequestProcessor
 	 * @param processor
 	 */
 	public TimedRequestProcessor(final RequestProcessor processor)
+	{
+		this(processor, ProcessorMetrics.getDefault());
+	}
+
+	/**
+	 * @param processor
+	 * @param metrics
+	 *            records processing statistics
+	 */
+	public TimedRequestProcessor(final RequestProcessor processor,
+			final ProcessorMetrics metrics)
 	{
 		super();
 		this.processor = processor;
+		this.metrics = metrics;
 	}
 
 	// ========================= IMPLEMENTATION: RequestProcessor ==========
@@ -89,18 +108,20 @@ public final class TimedRequestProcessor implements RequestProcessor
 	@Override
 	public final boolean process(final ChainRequest request)
 	{
-		final StopWatch watch = new StopWatch();
-		watch.start();
-		final boolean handledByThisNode = processor.process(request);
-		watch.stop();
-
-		// Returns the average elapsed time of all calls to the handle() code
-		// since the application comes up
-		// this.elapsedTime = report.getAverageTime(); // report.getTotalTime();
-		// logger.debug("Average analysis time (Stopwatch): "
-		// + report.getAverageTime());
-
-		this.elapsedTime = watch.getTotalTimeSeconds();
+		final long start = System.nanoTime();
+		final boolean handledByThisNode;
+		try
+		{
+			handledByThisNode = processor.process(request);
+		}
+		catch (final RuntimeException | Error e)
+		{
+			this.elapsedNanos = System.nanoTime() - start;
+			metrics.recordFailure(processor.getName(), elapsedNanos);
+			throw e;
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		metrics.record(processor.getName(), elapsedNanos, handledByThisNode);
 		return handledByThisNode;
 	}
 
@@ -128,11 +149,11 @@ public final class TimedRequestProcessor implements RequestProcessor
 	// ========================= GETTERS & SETTERS =========================
 
 	/**
-	 * @return the elapsedTime
+	 * @return the last call's processing time [sec]
 	 */
 	public double getElapsedTime()
 	{
-		return elapsedTime;
+		return elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
 	}
 
 	/*
@@ -34,7 +34,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestChain.class })
+{ UTestChain.class, UTestProcessorMetrics.class })
 public final class SuiteCoreChain
 {
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.chain;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+
+/**
+ * Tests the processor metrics fed by {@link TimedRequestProcessor}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestProcessorMetrics
+{
+	// ========================= FIELDS ====================================
+
+	private ProcessorMetrics metrics;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		metrics = new ProcessorMetrics();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Handled, passed and failed requests are counted per processor name.
+	 */
+	@Test
+	public void outcomes()
+	{
+		final TimedRequestProcessor handler = new TimedRequestProcessor(
+				new StubProcessor("handler", Boolean.TRUE), metrics);
+		final TimedRequestProcessor passer = new TimedRequestProcessor(
+				new StubProcessor("passer", Boolean.FALSE), metrics);
+		final TimedRequestProcessor failer = new TimedRequestProcessor(
+				new StubProcessor("failer", null), metrics);
+
+		final ChainRequest request = new ChainRequestImpl();
+		handler.process(request);
+		handler.process(request);
+		passer.process(request);
+		try
+		{
+			failer.process(request);
+			fail("Expected the processor failure to propagate");
+		}
+		catch (final IllegalStateException e)
+		{
+			// Expected
+		}
+
+		assertThat(metrics.getStats("handler").getHandled(), is(2L));
+		assertThat(metrics.getStats("handler").getLatency().getCount(), is(2L));
+		assertThat(metrics.getStats("passer").getPassed(), is(1L));
+		assertThat(metrics.getStats("failer").getFailed(), is(1L));
+		assertThat(metrics.getProcessorCount(), is(3));
+		assertThat(metrics.getProcessorSummaries().length, is(3));
+	}
+
+	/**
+	 * Processors are listed by descending total processing time.
+	 */
+	@Test
+	public void orderByTotalTime()
+	{
+		metrics.record("fast", 10, false);
+		metrics.record("slow", 1000, false);
+		metrics.record("fast", 20, true);
+		assertThat(metrics.getAll().get(0).getName(), is("slow"));
+		assertThat(metrics.getAll().get(1).getName(), is("fast"));
+
+		metrics.reset();
+		assertThat(metrics.getProcessorCount(), is(0));
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Returns a fixed result, or fails if the result is <code>null</code>.
+	 */
+	private static final class StubProcessor extends AbstractRequestProcessor
+	{
+		private final String name;
+
+		private final Boolean result;
+
+		StubProcessor(final String name, final Boolean result)
+		{
+			this.name = name;
+			this.result = result;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public boolean process(final ChainRequest request)
+		{
+			if (result == null)
+			{
+				throw new IllegalStateException("Processing failed");
+			}
+			return result.booleanValue();
+		}
+	}
+}
@@ -15,13 +15,14 @@
  */
 package edu.utah.further.core.data.hibernate.interceptors;
 
-import static org.slf4j.LoggerFactory.getLogger;
-
 import org.hibernate.EmptyInterceptor;
-import org.slf4j.Logger;
+import org.springframework.core.io.Resource;
 
 /**
- * Adds an SQL comment hint before the select statement.
+ * Adds SQL comment optimizer hints to the statements that a session factory prepares.
+ * Hints are looked up in a {@link SqlHintRegistry} by statement tag or signature, so that
+ * e.g. a big cohort scan and small lookups can be hinted differently. Statements that no
+ * rule matches get the default {@link #setHint(String) hint}, if set, or are left as is.
  * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
@@ -33,17 +34,13 @@ import org.slf4j.Logger;
  * 
  * @author N. Dustin Schultz {@code <dustin.schultz@utah.edu>}
  * @version May 17, 2012
+ * @see SqlHintRegistry
  */
 public class SqlCommentHintInterceptor extends EmptyInterceptor
 {
 
 	// ========================= CONSTANTS =================================
 
-	/**
-	 * A logger that helps identify this class' printouts.
-	 */
-	private static final Logger log = getLogger(SqlCommentHintInterceptor.class);
-
 	/**
 	 * Generated serial version uid
 	 */
@@ -52,9 +49,9 @@ public class SqlCommentHintInterceptor extends EmptyInterceptor
 	// ========================= FIELDS ====================================
 
 	/**
-	 * The hint to apply without the comment markers
+	 * Looks up and caches statement hints.
 	 */
-	private String hint;
+	private SqlHintRegistry registry = new SqlHintRegistry();
 
 	/*
 	 * (non-Javadoc)
@@ -64,43 +61,63 @@ public class SqlCommentHintInterceptor extends EmptyInterceptor
 	@Override
 	public String onPrepareStatement(final String sql)
 	{
-		final StringBuffer sb = new StringBuffer(sql);
-		final String select = "select";
-		final int offset = sb.indexOf(select) + select.length() + 1;
-		if (hint == null) {
-			log.warn("Hint was empty. No hint will be added to this SQL statement");
-		}
-		sb.insert(offset, "/*+ " + hint + " */ ");
-		final String sqlWithHint = sb.toString();
-		
-		if (log.isDebugEnabled()) {
-			log.debug("Added hint " + hint + " to sql string: " + sqlWithHint);
-		}
-			
-		return sqlWithHint;
+		return registry.rewrite(sql);
 	}
 
 	// ========================= GET/SET ===================================
 
 	/**
-	 * Return the hint property.
+	 * Return the default hint.
 	 * 
-	 * @return the hint
+	 * @return the hint of statements that match no rule
 	 */
 	public String getHint()
 	{
-		return hint;
+		return registry.getDefaultHint();
 	}
 
 	/**
-	 * Set a new value for the hint property.
+	 * Set the default hint.
 	 * 
 	 * @param hint
-	 *            the hint to set
+	 *            the hint of statements that match no rule, without the comment markers
 	 */
 	public void setHint(final String hint)
 	{
-		this.hint = hint;
+		registry.setDefaultHint(hint);
+	}
+
+	/**
+	 * Load the hint rules of this interceptor's data source.
+	 * 
+	 * @param ruleFile
+	 *            rule properties file
+	 * @see SqlHintRegistry
+	 */
+	public void setRuleFile(final Resource ruleFile)
+	{
+		registry.setRuleFile(ruleFile);
+	}
+
+	/**
+	 * Return the registry property.
+	 * 
+	 * @return the registry
+	 */
+	public SqlHintRegistry getRegistry()
+	{
+		return registry;
+	}
+
+	/**
+	 * Set a new value for the registry property.
+	 * 
+	 * @param registry
+	 *            the registry to set
+	 */
+	public void setRegistry(final SqlHintRegistry registry)
+	{
+		this.registry = registry;
 	}
 
 }
@@ -0,0 +1,425 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.interceptors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.data.logging.SqlMetrics;
+
+/**
+ * Decides which optimizer hint, if any, to insert into each SQL statement. A statement
+ * is matched against a list of {@link SqlHintRule}s, in order, by its tag or by its
+ * normalized signature; the first matching rule's hint is inserted after the statement's
+ * first keyword (e.g. <code>select /*+ FULL(this_) *&#47; ...</code>).
+ * <p>
+ * A signature is the statement's {@link SqlMetrics#normalize(String)} form without its
+ * leading comment, so the signatures reported by {@link SqlMetrics} can be pasted into
+ * rules. A tag is the text of the statement's leading comment, e.g. set by
+ * <code>Criteria.setComment("cohort")</code> when <code>hibernate.use_sql_comments</code>
+ * is on.
+ * <p>
+ * Rewritten statements are cached by SQL string, so each statement shape is matched and
+ * rewritten once. Statements without a hint are returned as is.
+ * <p>
+ * Rules are typically loaded from a per-data source properties file. Each rule is a
+ * group of keys with a common name prefix; rules are tried in name order:
+ *
+ * <pre>
+ * 10-cohort.tag = cohort
+ * 10-cohort.hint = FULL(this_) PARALLEL(this_, 4)
+ * 20-lookup.signature = ^select .* from fpatient this_ where this_.fpatient_id=\?$
+ * 20-lookup.hint = INDEX(this_ fpatient_pk)
+ * </pre>
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class SqlHintRegistry implements Serializable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable resource version number.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(SqlHintRegistry.class);
+
+	/**
+	 * Rule file key suffix of a tag.
+	 */
+	public static final String TAG = ".tag";
+
+	/**
+	 * Rule file key suffix of a signature pattern.
+	 */
+	public static final String SIGNATURE = ".signature";
+
+	/**
+	 * Rule file key suffix of a hint.
+	 */
+	public static final String HINT = ".hint";
+
+	/**
+	 * Keywords after which a hint may be inserted.
+	 */
+	private static final String[] KEYWORDS =
+	{ "select", "insert", "update", "delete", "merge" };
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Rules, in matching order.
+	 */
+	private final List<SqlHintRule> rules = CollectionUtil.newList();
+
+	/**
+	 * Hint of statements that match no rule, or <code>null</code>.
+	 */
+	private String defaultHint;
+
+	/**
+	 * Maximum number of cached statements. Bounds memory use when statements are
+	 * generated with inlined literals.
+	 */
+	private int maxCacheSize = 1000;
+
+	/**
+	 * Rewritten statements by SQL string.
+	 */
+	private final ConcurrentMap<String, String> cache = CollectionUtil.newConcurrentMap();
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return a statement with its hint inserted.
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @return rewritten statement; the <code>sql</code> instance itself if no hint
+	 *         applies
+	 */
+	public String rewrite(final String sql)
+	{
+		final String cached = cache.get(sql);
+		if (cached != null)
+		{
+			return cached;
+		}
+		final String hint = findHint(sql);
+		final String rewritten = (hint == null) ? sql : insertHint(sql, hint);
+		if (cache.size() < maxCacheSize)
+		{
+			cache.putIfAbsent(sql, rewritten);
+		}
+		if ((hint != null) && log.isDebugEnabled())
+		{
+			log.debug("Added hint " + hint + " to sql string: " + rewritten);
+		}
+		return rewritten;
+	}
+
+	/**
+	 * Find the hint of a statement.
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @return hint of the first matching rule, or the default hint if no rule matches
+	 */
+	public String findHint(final String sql)
+	{
+		if (!rules.isEmpty())
+		{
+			final int bodyStart = skipLeadingComment(sql);
+			final String tag = (bodyStart == 0) ? null : getLeadingComment(sql);
+			final String signature = SqlMetrics.normalize(sql.substring(bodyStart));
+			for (final SqlHintRule rule : rules)
+			{
+				if (rule.matches(tag, signature))
+				{
+					return rule.getHint();
+				}
+			}
+		}
+		return defaultHint;
+	}
+
+	/**
+	 * Insert a hint after a statement's first keyword.
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @param hint
+	 *            hint, without the comment markers
+	 * @return statement with the hint comment, or <code>sql</code> if it has no keyword
+	 *         that accepts a hint
+	 */
+	public static String insertHint(final String sql, final String hint)
+	{
+		final int offset = findHintOffset(sql);
+		if (offset < 0)
+		{
+			return sql;
+		}
+		return new StringBuilder(sql.length() + hint.length() + 8)
+				.append(sql, 0, offset)
+				.append(" /*+ ")
+				.append(hint)
+				.append(" */")
+				.append(sql, offset, sql.length())
+				.toString();
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Replace the rules.
+	 *
+	 * @param rules
+	 *            rules, in matching order
+	 */
+	public void setRules(final List<SqlHintRule> rules)
+	{
+		this.rules.clear();
+		this.rules.addAll(rules);
+		cache.clear();
+	}
+
+	/**
+	 * Replace the rules by those of a rule file.
+	 *
+	 * @param ruleFile
+	 *            rule properties file
+	 */
+	public void setRuleFile(final Resource ruleFile)
+	{
+		try
+		{
+			setRules(parseRules(PropertiesLoaderUtils.loadProperties(ruleFile)));
+		}
+		catch (final IOException e)
+		{
+			throw new ApplicationException("Could not read SQL hint rules from "
+					+ ruleFile, e);
+		}
+		if (log.isInfoEnabled())
+		{
+			log.info("Loaded SQL hint rules " + rules + " from " + ruleFile);
+		}
+	}
+
+	/**
+	 * Return the rules.
+	 *
+	 * @return the rules, in matching order
+	 */
+	public List<SqlHintRule> getRules()
+	{
+		return CollectionUtil.newList(rules);
+	}
+
+	/**
+	 * Set a new value for the defaultHint property.
+	 *
+	 * @param defaultHint
+	 *            hint of statements that match no rule, or <code>null</code>
+	 */
+	public void setDefaultHint(final String defaultHint)
+	{
+		this.defaultHint = defaultHint;
+		cache.clear();
+	}
+
+	/**
+	 * Return the defaultHint property.
+	 *
+	 * @return hint of statements that match no rule
+	 */
+	public String getDefaultHint()
+	{
+		return defaultHint;
+	}
+
+	/**
+	 * Set a new value for the maxCacheSize property.
+	 *
+	 * @param maxCacheSize
+	 *            maximum number of cached statements
+	 */
+	public void setMaxCacheSize(final int maxCacheSize)
+	{
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Parse rules from rule file properties.
+	 *
+	 * @param properties
+	 *            rule file properties
+	 * @return rules, in name order
+	 */
+	static List<SqlHintRule> parseRules(final Properties properties)
+	{
+		final Map<String, String> names = CollectionUtil.newSortedMap();
+		for (final String key : properties.stringPropertyNames())
+		{
+			if (key.endsWith(HINT))
+			{
+				final String name = key.substring(0, key.length() - HINT.length());
+				names.put(name, properties.getProperty(key).trim());
+			}
+		}
+		final List<SqlHintRule> parsed = CollectionUtil.newList();
+		for (final Map.Entry<String, String> entry : names.entrySet())
+		{
+			final String name = entry.getKey();
+			parsed.add(new SqlHintRule(name, trim(properties.getProperty(name + TAG)),
+					trim(properties.getProperty(name + SIGNATURE)), entry.getValue()));
+		}
+		return parsed;
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @return trimmed string, or <code>null</code> if <code>s</code> is
+	 *         <code>null</code>
+	 */
+	private static String trim(final String s)
+	{
+		return (s == null) ? null : s.trim();
+	}
+
+	/**
+	 * @param sql
+	 *            SQL statement
+	 * @return index of the first character after the statement's leading whitespace and
+	 *         comment, or <code>0</code> if it does not start with a comment
+	 */
+	private static int skipLeadingComment(final String sql)
+	{
+		final int start = skipWhitespace(sql, 0);
+		if (!sql.startsWith("/*", start))
+		{
+			return 0;
+		}
+		final int end = sql.indexOf("*/", start + 2);
+		return (end < 0) ? 0 : skipWhitespace(sql, end + 2);
+	}
+
+	/**
+	 * @param sql
+	 *            SQL statement that starts with a comment
+	 * @return trimmed comment text
+	 */
+	private static String getLeadingComment(final String sql)
+	{
+		final int start = sql.indexOf("/*");
+		return sql.substring(start + 2, sql.indexOf("*/", start + 2)).trim();
+	}
+
+	/**
+	 * @param sql
+	 *            SQL statement
+	 * @param from
+	 *            start index
+	 * @return index of the first non-whitespace character at or after <code>from</code>
+	 */
+	private static int skipWhitespace(final String sql, final int from)
+	{
+		int i = from;
+		while ((i < sql.length()) && Character.isWhitespace(sql.charAt(i)))
+		{
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Find the hint insertion offset: right after the statement's first keyword, or
+	 * after the first <code>select</code> keyword if the statement does not start with
+	 * one (e.g. a parenthesized or <code>with</code> query).
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @return insertion offset, or <code>-1</code> if not found
+	 */
+	private static int findHintOffset(final String sql)
+	{
+		final int start = skipLeadingComment(sql);
+		for (final String keyword : KEYWORDS)
+		{
+			if (isKeywordAt(sql, start, keyword))
+			{
+				return start + keyword.length();
+			}
+		}
+		for (int i = start; i < sql.length(); i++)
+		{
+			if (isKeywordAt(sql, i, KEYWORDS[0]) && ((i == 0)
+					|| !Character.isJavaIdentifierPart(sql.charAt(i - 1))))
+			{
+				return i + KEYWORDS[0].length();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param sql
+	 *            SQL statement
+	 * @param offset
+	 *            index in <code>sql</code>
+	 * @param keyword
+	 *            lower-case keyword
+	 * @return <code>true</code> if and only if <code>keyword</code> appears at
+	 *         <code>offset</code>, followed by a non-identifier character
+	 */
+	private static boolean isKeywordAt(final String sql, final int offset,
+			final String keyword)
+	{
+		final int end = offset + keyword.length();
+		return sql.regionMatches(true, offset, keyword, 0, keyword.length())
+				&& ((end == sql.length()) || !Character.isJavaIdentifierPart(sql
+						.charAt(end)));
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.interceptors;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notEmpty;
+
+import java.io.Serializable;
+import java.util.regex.Pattern;
+
+/**
+ * A rule of a {@link SqlHintRegistry}: an optimizer hint applied to the statements that
+ * carry a tag or whose normalized signature matches a regular expression.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class SqlHintRule implements Serializable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable resource version number.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Rule name, used in logging.
+	 */
+	private final String name;
+
+	/**
+	 * Statement tag to match, or <code>null</code>.
+	 */
+	private final String tag;
+
+	/**
+	 * Normalized signature pattern to match, or <code>null</code>.
+	 */
+	private final Pattern signature;
+
+	/**
+	 * Hint to apply, without the comment markers.
+	 */
+	private final String hint;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param name
+	 *            rule name
+	 * @param tag
+	 *            statement tag to match, or <code>null</code>
+	 * @param signature
+	 *            regular expression that is searched for in normalized signatures, or
+	 *            <code>null</code>. Case-insensitive
+	 * @param hint
+	 *            hint to apply, without the comment markers
+	 */
+	public SqlHintRule(final String name, final String tag, final String signature,
+			final String hint)
+	{
+		notEmpty(hint, "Hint of SQL hint rule " + name + " must not be empty");
+		isTrue((tag == null) != (signature == null), "SQL hint rule " + name
+				+ " must specify exactly one of a tag and a signature");
+		this.name = name;
+		this.tag = tag;
+		this.signature = (signature == null) ? null : Pattern.compile(signature,
+				Pattern.CASE_INSENSITIVE);
+		this.hint = hint;
+	}
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return name + "[" + ((tag == null) ? "signature=" + signature : "tag=" + tag)
+				+ ", hint=" + hint + "]";
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * @param statementTag
+	 *            statement tag, or <code>null</code> if the statement is not tagged
+	 * @param normalizedSignature
+	 *            normalized statement signature
+	 * @return <code>true</code> if and only if this rule applies to the statement
+	 */
+	public boolean matches(final String statementTag, final String normalizedSignature)
+	{
+		return (tag == null) ? signature.matcher(normalizedSignature).find() : tag
+				.equals(statementTag);
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Return the name property.
+	 *
+	 * @return the name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Return the hint property.
+	 *
+	 * @return the hint
+	 */
+	public String getHint()
+	{
+		return hint;
+	}
+}
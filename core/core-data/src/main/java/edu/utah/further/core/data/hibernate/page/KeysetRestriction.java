@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.page;
+
+import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.criterion.Conjunction;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.TypedValue;
+import org.hibernate.type.CompositeType;
+import org.hibernate.type.Type;
+
+/**
+ * A <code>property &gt; :lowerBound</code> restriction whose bound can be moved after it
+ * was added to a criteria, so that the same criteria can be re-executed to fetch
+ * successive keyset pages. Hibernate criteria do not support removing a criterion. No
+ * restriction applies while the bound is <code>null</code>.
+ * <p>
+ * A composite property (e.g. an embedded identifier) is compared as a tuple of its
+ * component properties in their mapped order, which is also the column order of an
+ * <code>order by</code> the property:
+ * <code>(a &gt; :a) or (a = :a and b &gt; :b) or ...</code>.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+final class KeysetRestriction implements Criterion
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable version identifier.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * SQL of an unbounded restriction.
+	 */
+	private static final String TRUE_SQL = "1=1";
+
+	/**
+	 * Typed values of an unbounded restriction.
+	 */
+	private static final TypedValue[] NO_VALUES = new TypedValue[0];
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Restricted property name.
+	 */
+	private final String propertyName;
+
+	/**
+	 * Exclusive lower bound of the property, or <code>null</code> if unbounded.
+	 */
+	private Object lowerBound;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param propertyName
+	 *            restricted property name
+	 */
+	KeysetRestriction(final String propertyName)
+	{
+		this.propertyName = propertyName;
+	}
+
+	// ========================= IMPL: Criterion ===========================
+
+	/**
+	 * @see org.hibernate.criterion.Criterion#toSqlString(org.hibernate.Criteria,
+	 *      org.hibernate.criterion.CriteriaQuery)
+	 */
+	@Override
+	public String toSqlString(final Criteria criteria, final CriteriaQuery criteriaQuery)
+			throws HibernateException
+	{
+		return (lowerBound == null) ? TRUE_SQL : getBoundRestriction(criteria,
+				criteriaQuery).toSqlString(criteria, criteriaQuery);
+	}
+
+	/**
+	 * @see org.hibernate.criterion.Criterion#getTypedValues(org.hibernate.Criteria,
+	 *      org.hibernate.criterion.CriteriaQuery)
+	 */
+	@Override
+	public TypedValue[] getTypedValues(final Criteria criteria,
+			final CriteriaQuery criteriaQuery) throws HibernateException
+	{
+		return (lowerBound == null) ? NO_VALUES : getBoundRestriction(criteria,
+				criteriaQuery).getTypedValues(criteria, criteriaQuery);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * @return a printout of this restriction
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return (lowerBound == null) ? TRUE_SQL : (propertyName + ">" + lowerBound);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Build the restriction of the current lower bound.
+	 *
+	 * @param criteria
+	 *            criteria the restriction was added to
+	 * @param criteriaQuery
+	 *            criteria query being translated
+	 * @return <code>property &gt; :lowerBound</code>, expanded to a tuple comparison if
+	 *         the property is composite
+	 */
+	private Criterion getBoundRestriction(final Criteria criteria,
+			final CriteriaQuery criteriaQuery)
+	{
+		final Type type = criteriaQuery.getType(criteria, propertyName);
+		if (!type.isComponentType())
+		{
+			return Restrictions.gt(propertyName, lowerBound);
+		}
+		final CompositeType compositeType = (CompositeType) type;
+		final String[] names = compositeType.getPropertyNames();
+		final Object[] values = compositeType.getPropertyValues(lowerBound,
+				EntityMode.POJO);
+		final Disjunction disjunction = Restrictions.disjunction();
+		for (int i = 0; i < names.length; i++)
+		{
+			final Conjunction conjunction = Restrictions.conjunction();
+			for (int j = 0; j < i; j++)
+			{
+				conjunction.add(Restrictions.eq(propertyName + "." + names[j], values[j]));
+			}
+			conjunction.add(Restrictions.gt(propertyName + "." + names[i], values[i]));
+			disjunction.add(conjunction);
+		}
+		return disjunction;
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Set a new value for the lowerBound property.
+	 *
+	 * @param lowerBound
+	 *            exclusive lower bound of the property, or <code>null</code> if unbounded
+	 */
+	void setLowerBound(final Object lowerBound)
+	{
+		this.lowerBound = lowerBound;
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.page;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.hibernate.CacheMode;
+import org.hibernate.criterion.Order;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.core.api.message.ValidationUtil;
+import edu.utah.further.core.data.hibernate.adapter.GenericCriteria;
+
+/**
+ * A forward-only result set of a Hibernate criteria query that is read in keyset
+ * batches: each batch is fetched by re-executing the criteria with
+ * <code>id &gt; :lastId order by id</code> and a batch-size limit, so that no database
+ * cursor is kept open between batches and the driver never buffers the entire result
+ * set, as it does for an insensitive scrollable cursor.
+ * <p>
+ * Because rows are ordered by the root entity identifier, rows of the same root entity
+ * (e.g. duplicated by a join) are adjacent, and are collapsed by comparing each row with
+ * the previous one. A root entity whose rows straddle two batches is not repeated
+ * either, since the next batch starts after its identifier. Memory usage is therefore
+ * bounded by the batch size.
+ * <p>
+ * The criteria must be attached to a session, must select root entities, and must not
+ * have its own order, first result or maximum result settings. A composite identifier
+ * (e.g. an embedded identifier) is ordered and compared as a tuple of its components. Since each batch is limited by rows rather than by root entities, it
+ * should not fetch-join collections; the data source flow projects scalar root
+ * properties only.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ * @see https://jira.chpc.utah.edu/browse/FUR-1274
+ */
+public final class KeysetResults implements Iterator<PersistentEntity<?>>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(KeysetResults.class);
+
+	/**
+	 * Default number of rows to fetch per query.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Criteria query, re-executed for each batch.
+	 */
+	private final GenericCriteria criteria;
+
+	/**
+	 * Keyset continuation restriction added to {@link #criteria}.
+	 */
+	private final KeysetRestriction restriction;
+
+	/**
+	 * Number of rows to fetch per query.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Current batch of rows.
+	 */
+	private List<PersistentEntity<?>> batch = Collections.emptyList();
+
+	/**
+	 * Index of the next row in {@link #batch}.
+	 */
+	private int position;
+
+	/**
+	 * Identifier of the last root entity returned by {@link #next()}.
+	 */
+	private Object lastReturnedId;
+
+	/**
+	 * Identifier of the last row fetched from the database.
+	 */
+	private Object lastFetchedId;
+
+	/**
+	 * Is the last batch fetched the final one.
+	 */
+	private boolean exhausted;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Prepare a criteria for keyset batch reading. Does not execute it yet.
+	 *
+	 * @param criteria
+	 *            attached criteria query of root entities
+	 * @param identifierName
+	 *            root entity identifier property name
+	 */
+	public KeysetResults(final GenericCriteria criteria, final String identifierName)
+	{
+		ValidationUtil.validateNotNull("criteria", criteria);
+		ValidationUtil.validateNotNull("identifierName", identifierName);
+		this.criteria = criteria;
+		this.restriction = new KeysetRestriction(identifierName);
+		criteria
+				.add(restriction)
+				.addOrder(Order.asc(identifierName))
+				.setCacheMode(CacheMode.IGNORE);
+	}
+
+	// ========================= IMPL: Iterator ============================
+
+	/**
+	 * @return
+	 * @see java.util.Iterator#hasNext()
+	 */
+	@Override
+	public boolean hasNext()
+	{
+		while (true)
+		{
+			// Skip rows of the root entity that was just returned
+			while ((position < batch.size())
+					&& isLastReturned(batch.get(position).getId()))
+			{
+				position++;
+			}
+			if (position < batch.size())
+			{
+				return true;
+			}
+			if (exhausted)
+			{
+				return false;
+			}
+			fetchBatch();
+		}
+	}
+
+	/**
+	 * @return
+	 * @see java.util.Iterator#next()
+	 */
+	@Override
+	public PersistentEntity<?> next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		final PersistentEntity<?> entity = batch.get(position++);
+		lastReturnedId = entity.getId();
+		return entity;
+	}
+
+	/**
+	 * @see java.util.Iterator#remove()
+	 */
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("Keyset results are read-only");
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Set a new value for the batchSize property. Applies to the next batch fetched.
+	 *
+	 * @param batchSize
+	 *            number of rows to fetch per query
+	 */
+	public void setBatchSize(final int batchSize)
+	{
+		ValidationUtil.validateIsTrue(batchSize > 0, "Batch size must be positive");
+		this.batchSize = batchSize;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param id
+	 *            row root entity identifier
+	 * @return <code>true</code> if this is the identifier of the last returned root
+	 *         entity
+	 */
+	private boolean isLastReturned(final Object id)
+	{
+		return (lastReturnedId != null) && lastReturnedId.equals(id);
+	}
+
+	/**
+	 * Fetch the batch of rows following the last fetched row.
+	 */
+	private void fetchBatch()
+	{
+		restriction.setLowerBound(lastFetchedId);
+		batch = criteria.setMaxResults(batchSize).setFetchSize(batchSize).list();
+		position = 0;
+		exhausted = (batch.size() < batchSize);
+		if (!batch.isEmpty())
+		{
+			lastFetchedId = batch.get(batch.size() - 1).getId();
+		}
+		if (log.isTraceEnabled())
+		{
+			log.trace("Fetched " + batch.size() + " rows after " + restriction);
+		}
+	}
+}
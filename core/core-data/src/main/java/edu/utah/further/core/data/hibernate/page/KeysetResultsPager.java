@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.page;
+
+import java.util.List;
+
+import edu.utah.further.core.api.collections.page.PagingStrategy;
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.core.util.collections.page.IterablePager;
+
+/**
+ * A pager of {@link KeysetResults}. Root entities arrive distinct and in identifier
+ * order, so a page is simply the next <code>pageSize</code> elements; the results are
+ * fetched in batches of the current page size.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+final class KeysetResultsPager extends IterablePager<PersistentEntity<?>>
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Keyset result set.
+	 */
+	private final KeysetResults results;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param results
+	 * @param pagingStrategy
+	 */
+	KeysetResultsPager(final KeysetResults results, final PagingStrategy pagingStrategy)
+	{
+		super(results, pagingStrategy);
+		this.results = results;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Match the database batch size to the page size before reading the page.
+	 *
+	 * @param currentPageSize
+	 *            maximum page size
+	 * @see edu.utah.further.core.util.collections.page.IterablePager#getPage(int)
+	 */
+	@Override
+	protected List<PersistentEntity<?>> getPage(final int currentPageSize)
+	{
+		results.setBatchSize(currentPageSize);
+		return super.getPage(currentPageSize);
+	}
+}
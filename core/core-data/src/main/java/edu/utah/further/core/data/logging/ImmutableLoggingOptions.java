@@ -54,6 +54,12 @@ public class ImmutableLoggingOptions implements
 	 */
 	protected final List<String> connectionUrls = CollectionUtil.newList();
 
+	/**
+	 * If set, record statement execution statistics here and log full SQL only for
+	 * sampled and slow executions instead of for every execution.
+	 */
+	protected SqlMetrics metrics;
+
 	// ========================= GET/SET ===================================
 
 	/**
@@ -76,6 +82,16 @@ public class ImmutableLoggingOptions implements
 		return CollectionUtil.newList(connectionUrls);
 	}
 
+	/**
+	 * Return the metrics property.
+	 *
+	 * @return the metrics
+	 */
+	public SqlMetrics getMetrics()
+	{
+		return metrics;
+	}
+
 	// ========================= IMPL: PubliclyCloneable ===================
 
 	/**
@@ -93,6 +109,8 @@ public class ImmutableLoggingOptions implements
 		copy.escapeQuotes = this.escapeQuotes;
 		// Deep copy collections
 		CollectionUtil.setListElements(copy.connectionUrls, this.connectionUrls);
+		// Statistics are shared by all statements
+		copy.metrics = this.metrics;
 		return copy;
 	}
 }
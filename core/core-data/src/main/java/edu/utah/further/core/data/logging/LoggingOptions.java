@@ -62,4 +62,15 @@ public final class LoggingOptions extends ImmutableLoggingOptions
 	{
 		CollectionUtil.setListElements(this.connectionUrls, connectionUrls);
 	}
+
+	/**
+	 * Set a new value for the metrics property.
+	 *
+	 * @param metrics
+	 *            the metrics to set
+	 */
+	public void setMetrics(final SqlMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
 }
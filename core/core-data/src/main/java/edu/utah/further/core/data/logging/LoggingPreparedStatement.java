@@ -84,6 +84,11 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 	 */
 	private final Map<Integer, Object> parameterValues = CollectionUtil.newMap();
 
+	/**
+	 * Normalized query, computed upon first use in metrics mode.
+	 */
+	private String normalizedQuery;
+
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
@@ -120,7 +125,15 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 	public ResultSet executeQuery() throws SQLException
 	{
 		logPreparedStatementSubstituteParameters();
-		return statement.executeQuery();
+		final long start = startTimer();
+		try
+		{
+			return statement.executeQuery();
+		}
+		finally
+		{
+			stopTimer(query, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -132,7 +145,17 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 	public int executeUpdate() throws SQLException
 	{
 		logPreparedStatementSubstituteParameters();
-		return statement.executeUpdate();
+		final long start = startTimer();
+		int rowCount = UNKNOWN_ROW_COUNT;
+		try
+		{
+			rowCount = statement.executeUpdate();
+			return rowCount;
+		}
+		finally
+		{
+			stopTimer(query, start, rowCount, 0);
+		}
 	}
 
 	/**
@@ -414,7 +437,15 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 	public boolean execute() throws SQLException
 	{
 		logPreparedStatementSubstituteParameters();
-		return statement.execute();
+		final long start = startTimer();
+		try
+		{
+			return statement.execute();
+		}
+		finally
+		{
+			stopTimer(query, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -863,6 +894,50 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 		statement.setNClob(parameterIndex, reader);
 	}
 
+	// ========================= PROTECTED METHODS =========================
+
+	/**
+	 * The prepared query is normalized once per statement.
+	 *
+	 * @see edu.utah.further.core.data.logging.LoggingStatement#getNormalizedSql(java.lang.String)
+	 */
+	@Override
+	protected String getNormalizedSql(final String sql)
+	{
+		// Identity comparison: the prepared query is passed as is by the execute methods
+		if (sql != query)
+		{
+			return super.getNormalizedSql(sql);
+		}
+		if (normalizedQuery == null)
+		{
+			normalizedQuery = super.getNormalizedSql(query);
+		}
+		return normalizedQuery;
+	}
+
+	/**
+	 * Log the query with substituted parameter values.
+	 *
+	 * @see edu.utah.further.core.data.logging.LoggingStatement#getLoggedSql(java.lang.String)
+	 */
+	@Override
+	protected String getLoggedSql(final String sql)
+	{
+		return (sql == query) ? substituteParameters(parameterValues) : sql;
+	}
+
+	/**
+	 * Batches of a prepared statement all execute its query.
+	 *
+	 * @see edu.utah.further.core.data.logging.LoggingStatement#getBatchSql()
+	 */
+	@Override
+	protected String getBatchSql()
+	{
+		return query;
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -872,7 +947,7 @@ class LoggingPreparedStatement extends LoggingStatement implements PreparedState
 	 */
 	private void logPreparedStatementSubstituteParameters() throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(substituteParameters(parameterValues));
 		}
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 
@@ -48,6 +49,16 @@ class LoggingStatement implements Statement
 	 */
 	private static final Logger log = getLogger(LoggingStatement.class);
 
+	/**
+	 * Row count recorded for executions that do not report one.
+	 */
+	protected static final int UNKNOWN_ROW_COUNT = -1;
+
+	/**
+	 * Statistics key of a batch of plain statements, which may contain different SQL.
+	 */
+	private static final String BATCH_SQL = "[statement batch]";
+
 	// ========================= FIELDS ====================================
 
 	/**
@@ -96,11 +107,19 @@ class LoggingStatement implements Statement
 	@Override
 	public ResultSet executeQuery(final String sql) throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 		}
-		return statement.executeQuery(sql);
+		final long start = startTimer();
+		try
+		{
+			return statement.executeQuery(sql);
+		}
+		finally
+		{
+			stopTimer(sql, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -125,11 +144,21 @@ class LoggingStatement implements Statement
 	@Override
 	public int executeUpdate(final String sql) throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 		}
-		return statement.executeUpdate(sql);
+		final long start = startTimer();
+		int rowCount = UNKNOWN_ROW_COUNT;
+		try
+		{
+			rowCount = statement.executeUpdate(sql);
+			return rowCount;
+		}
+		finally
+		{
+			stopTimer(sql, start, rowCount, 0);
+		}
 	}
 
 	/**
@@ -282,11 +311,19 @@ class LoggingStatement implements Statement
 	@Override
 	public boolean execute(final String sql) throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 		}
-		return statement.execute(sql);
+		final long start = startTimer();
+		try
+		{
+			return statement.execute(sql);
+		}
+		finally
+		{
+			stopTimer(sql, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -417,11 +454,21 @@ class LoggingStatement implements Statement
 	@Override
 	public int[] executeBatch() throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info("Executing batch");
 		}
-		return statement.executeBatch();
+		final long start = startTimer();
+		int[] rowCounts = null;
+		try
+		{
+			rowCounts = statement.executeBatch();
+			return rowCounts;
+		}
+		finally
+		{
+			stopBatchTimer(start, rowCounts);
+		}
 	}
 
 	/**
@@ -469,12 +516,22 @@ class LoggingStatement implements Statement
 	public int executeUpdate(final String sql, final int autoGeneratedKeys)
 			throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 			log.info("auto generated keys: " + autoGeneratedKeys);
 		}
-		return statement.executeUpdate(sql, autoGeneratedKeys);
+		final long start = startTimer();
+		int rowCount = UNKNOWN_ROW_COUNT;
+		try
+		{
+			rowCount = statement.executeUpdate(sql, autoGeneratedKeys);
+			return rowCount;
+		}
+		finally
+		{
+			stopTimer(sql, start, rowCount, 0);
+		}
 	}
 
 	/**
@@ -489,7 +546,17 @@ class LoggingStatement implements Statement
 			throws SQLException
 	{
 		logExecuteUpdateColumnIndexes(sql, columnIndexes);
-		return statement.executeUpdate(sql, columnIndexes);
+		final long start = startTimer();
+		int rowCount = UNKNOWN_ROW_COUNT;
+		try
+		{
+			rowCount = statement.executeUpdate(sql, columnIndexes);
+			return rowCount;
+		}
+		finally
+		{
+			stopTimer(sql, start, rowCount, 0);
+		}
 	}
 
 	/**
@@ -504,7 +571,17 @@ class LoggingStatement implements Statement
 			throws SQLException
 	{
 		logExecuteUpdateColumnNames(sql, columnNames);
-		return statement.executeUpdate(sql, columnNames);
+		final long start = startTimer();
+		int rowCount = UNKNOWN_ROW_COUNT;
+		try
+		{
+			rowCount = statement.executeUpdate(sql, columnNames);
+			return rowCount;
+		}
+		finally
+		{
+			stopTimer(sql, start, rowCount, 0);
+		}
 	}
 
 	/**
@@ -518,12 +595,20 @@ class LoggingStatement implements Statement
 	public boolean execute(final String sql, final int autoGeneratedKeys)
 			throws SQLException
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 			log.info("auto generated keys: " + autoGeneratedKeys);
 		}
-		return statement.execute(sql, autoGeneratedKeys);
+		final long start = startTimer();
+		try
+		{
+			return statement.execute(sql, autoGeneratedKeys);
+		}
+		finally
+		{
+			stopTimer(sql, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -538,7 +623,15 @@ class LoggingStatement implements Statement
 			throws SQLException
 	{
 		logExecuteUpdateColumnIndexes(sql, columnIndexes);
-		return statement.execute(sql, columnIndexes);
+		final long start = startTimer();
+		try
+		{
+			return statement.execute(sql, columnIndexes);
+		}
+		finally
+		{
+			stopTimer(sql, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -553,7 +646,15 @@ class LoggingStatement implements Statement
 			throws SQLException
 	{
 		logExecuteUpdateColumnNames(sql, columnNames);
-		return statement.execute(sql, columnNames);
+		final long start = startTimer();
+		try
+		{
+			return statement.execute(sql, columnNames);
+		}
+		finally
+		{
+			stopTimer(sql, start, UNKNOWN_ROW_COUNT, 0);
+		}
 	}
 
 	/**
@@ -622,13 +723,130 @@ class LoggingStatement implements Statement
 		return statement.isPoolable();
 	}
 
+	// ========================= PROTECTED METHODS =========================
+
+	/**
+	 * @return <code>true</code> if every execution is logged, <code>false</code> in
+	 *         metrics mode
+	 */
+	protected final boolean isLogAll()
+	{
+		return options.getMetrics() == null;
+	}
+
+	/**
+	 * @return execution start time [ns] in metrics mode, otherwise <code>0</code>
+	 */
+	protected final long startTimer()
+	{
+		return (options.getMetrics() == null) ? 0L : System.nanoTime();
+	}
+
+	/**
+	 * Record an execution in metrics mode, and log its full SQL if it was slow or
+	 * sampled.
+	 *
+	 * @param sql
+	 *            executed SQL
+	 * @param start
+	 *            execution start time [ns], as returned by {@link #startTimer()}
+	 * @param rowCount
+	 *            number of updated rows, or {@link #UNKNOWN_ROW_COUNT}
+	 * @param batchSize
+	 *            number of batched statements, or <code>0</code> if this was not a batch
+	 *            execution
+	 */
+	protected final void stopTimer(final String sql, final long start,
+			final long rowCount, final int batchSize)
+	{
+		final SqlMetrics metrics = options.getMetrics();
+		if (metrics == null)
+		{
+			return;
+		}
+		final long elapsed = System.nanoTime() - start;
+		metrics.record(getNormalizedSql(sql), elapsed, rowCount, batchSize);
+		if (log.isInfoEnabled() && metrics.isLogged(elapsed))
+		{
+			log.info((metrics.isSlow(elapsed) ? "Slow SQL " : "Sampled SQL ")
+					+ TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms: "
+					+ getLoggedSql(sql));
+		}
+	}
+
+	/**
+	 * Normalize executed SQL into a statistics key. A hook.
+	 *
+	 * @param sql
+	 *            executed SQL
+	 * @return normalized SQL
+	 */
+	protected String getNormalizedSql(final String sql)
+	{
+		return SqlMetrics.normalize(sql);
+	}
+
+	/**
+	 * Return the SQL to log for an execution. A hook.
+	 *
+	 * @param sql
+	 *            executed SQL
+	 * @return logged SQL
+	 */
+	protected String getLoggedSql(final String sql)
+	{
+		return sql;
+	}
+
+	/**
+	 * Return the SQL that batch executions are recorded under. A hook.
+	 *
+	 * @return batch SQL
+	 */
+	protected String getBatchSql()
+	{
+		return BATCH_SQL;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Record a batch execution in metrics mode.
+	 *
+	 * @param start
+	 *            execution start time [ns]
+	 * @param rowCounts
+	 *            batch update counts, or <code>null</code> if the batch failed
+	 */
+	private void stopBatchTimer(final long start, final int[] rowCounts)
+	{
+		if (options.getMetrics() == null)
+		{
+			return;
+		}
+		long rows = 0;
+		int batchSize = 0;
+		if (rowCounts != null)
+		{
+			batchSize = rowCounts.length;
+			for (final int rowCount : rowCounts)
+			{
+				if (rowCount > 0)
+				{
+					rows += rowCount;
+				}
+			}
+		}
+		stopTimer(getBatchSql(), start, rows, batchSize);
+	}
+
 	/**
 	 * @param sql
 	 * @param columnNames
 	 */
 	private void logExecuteUpdateColumnNames(final String sql, final String[] columnNames)
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 			for (int i = 0; i < columnNames.length; i++)
@@ -644,7 +862,7 @@ class LoggingStatement implements Statement
 	 */
 	private void logExecuteUpdateColumnIndexes(final String sql, final int[] columnIndexes)
 	{
-		if (log.isInfoEnabled())
+		if (isLogAll() && log.isInfoEnabled())
 		{
 			log.info(sql);
 			for (int i = 0; i < columnIndexes.length; i++)
@@ -33,6 +33,13 @@ import edu.utah.further.core.api.text.StringUtil;
  * An aspect that logs Hibernate-generated physical SQL queries and their parameters to
  * the virtual repository per FUR-1567.
  * <p>
+ * Logging every statement is expensive, so when {@link LoggingOptions#setMetrics(SqlMetrics)}
+ * is set, the decorators switch to a metrics mode: they record per-statement latency
+ * histograms, update counts and batch sizes, and log full SQL only for sampled and slow
+ * executions. <code>META-INF/core/data/core-data-context-sql-logging.xml</code> defines
+ * this aspect in metrics mode, recording into the shared {@link SqlMetrics#getDefault()}
+ * registry.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2010 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -0,0 +1,413 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.logging;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+
+/**
+ * A registry of per-statement SQL execution statistics, used by the logging JDBC
+ * decorators when set on {@link LoggingOptions#setMetrics(SqlMetrics)}. Statements are
+ * keyed by their normalized SQL (literals replaced by <code>?</code>, whitespace and
+ * <code>IN</code> lists collapsed), so that executions that differ only in their
+ * parameters share statistics.
+ * <p>
+ * In this metrics mode, the decorators no longer log every statement. Full SQL, with
+ * parameter values substituted, is only logged for a random sample of executions and
+ * for executions at least {@link #getSlowThresholdMillis()} long.
+ * <p>
+ * Data sources usually share one registry, {@link #getDefault()}, which the core-data
+ * bundle exports over JMX. Implements a standard MBean interface, so other registries
+ * can be exported as is, e.g. by a Spring <code>MBeanExporter</code>.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class SqlMetrics implements SqlMetricsMBean
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * The shared registry.
+	 */
+	private static final SqlMetrics DEFAULT = new SqlMetrics();
+
+	/**
+	 * Statistics key of statements recorded after {@link #maxStatements} is reached.
+	 */
+	static final String OTHER = "[other]";
+
+	/**
+	 * Collapses an <code>IN</code> list of parameters to a single parameter.
+	 */
+	private static final Pattern IN_LIST = Pattern
+			.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+	/**
+	 * Orders statistics by descending total execution time.
+	 */
+	private static final Comparator<SqlStatementStats> BY_TOTAL_TIME = new Comparator<SqlStatementStats>()
+	{
+		@Override
+		public int compare(final SqlStatementStats o1, final SqlStatementStats o2)
+		{
+			return Long.compare(o2.getTotalNanos(), o1.getTotalNanos());
+		}
+	};
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Statistics by normalized SQL.
+	 */
+	private final ConcurrentMap<String, SqlStatementStats> statements = CollectionUtil
+			.newConcurrentMap();
+
+	/**
+	 * Maximum number of distinct statements to keep statistics for. Bounds memory use
+	 * when statements are generated with inlined literals that normalization misses.
+	 */
+	private int maxStatements = 1000;
+
+	/**
+	 * Number of statements reported by {@link #getTopStatements()}.
+	 */
+	private volatile int topCount = 20;
+
+	/**
+	 * Fraction of executions whose full SQL is logged.
+	 */
+	private volatile double sampleRate = 0.0;
+
+	/**
+	 * Executions at least this long [ns] always have their full SQL logged.
+	 */
+	private volatile long slowThresholdNanos = TimeUnit.SECONDS.toNanos(1);
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @return the shared registry
+	 */
+	public static SqlMetrics getDefault()
+	{
+		return DEFAULT;
+	}
+
+	// ========================= IMPL: SqlMetricsMBean =====================
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#getTopStatements()
+	 */
+	@Override
+	public String[] getTopStatements()
+	{
+		final List<SqlStatementStats> top = getTop(topCount);
+		final String[] summaries = new String[top.size()];
+		for (int i = 0; i < summaries.length; i++)
+		{
+			summaries[i] = top.get(i).toString();
+		}
+		return summaries;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#getStatementCount()
+	 */
+	@Override
+	public int getStatementCount()
+	{
+		return statements.size();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#reset()
+	 */
+	@Override
+	public void reset()
+	{
+		statements.clear();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#getTopCount()
+	 */
+	@Override
+	public int getTopCount()
+	{
+		return topCount;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#setTopCount(int)
+	 */
+	@Override
+	public void setTopCount(final int topCount)
+	{
+		this.topCount = topCount;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#getSampleRate()
+	 */
+	@Override
+	public double getSampleRate()
+	{
+		return sampleRate;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#setSampleRate(double)
+	 */
+	@Override
+	public void setSampleRate(final double sampleRate)
+	{
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#getSlowThresholdMillis()
+	 */
+	@Override
+	public long getSlowThresholdMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.logging.SqlMetricsMBean#setSlowThresholdMillis(long)
+	 */
+	@Override
+	public void setSlowThresholdMillis(final long slowThresholdMillis)
+	{
+		this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Normalize a SQL statement: replace string and numeric literals by <code>?</code>,
+	 * collapse whitespace runs to a single space and <code>IN</code> parameter lists to a
+	 * single parameter.
+	 *
+	 * @param sql
+	 *            SQL statement
+	 * @return normalized statement
+	 */
+	public static String normalize(final String sql)
+	{
+		final int length = sql.length();
+		final StringBuilder normalized = new StringBuilder(length);
+		int i = 0;
+		while (i < length)
+		{
+			final char c = sql.charAt(i);
+			if (c == '\'')
+			{
+				// String literal; a doubled quote is an escaped quote
+				i++;
+				while (i < length)
+				{
+					if (sql.charAt(i) == '\'')
+					{
+						if ((i + 1 < length) && (sql.charAt(i + 1) == '\''))
+						{
+							i += 2;
+							continue;
+						}
+						break;
+					}
+					i++;
+				}
+				i++;
+				normalized.append('?');
+			}
+			else if (Character.isDigit(c) && !isIdentifierEnd(normalized))
+			{
+				while ((i < length)
+						&& (Character.isDigit(sql.charAt(i)) || (sql.charAt(i) == '.')))
+				{
+					i++;
+				}
+				normalized.append('?');
+			}
+			else if (Character.isWhitespace(c))
+			{
+				while ((i < length) && Character.isWhitespace(sql.charAt(i)))
+				{
+					i++;
+				}
+				if ((normalized.length() > 0) && (i < length))
+				{
+					normalized.append(' ');
+				}
+			}
+			else
+			{
+				normalized.append(c);
+				i++;
+			}
+		}
+		return IN_LIST.matcher(normalized).replaceAll("(?)");
+	}
+
+	/**
+	 * Record a statement execution.
+	 *
+	 * @param normalizedSql
+	 *            normalized SQL statement
+	 * @param elapsedNanos
+	 *            execution time [ns]
+	 * @param rowCount
+	 *            number of updated rows, or a negative number if unknown
+	 * @param batchSize
+	 *            number of batched statements, or <code>0</code> if this was not a batch
+	 *            execution
+	 */
+	public void record(final String normalizedSql, final long elapsedNanos,
+			final long rowCount, final int batchSize)
+	{
+		newStatsIfAbsent(normalizedSql).record(elapsedNanos, rowCount, batchSize);
+	}
+
+	/**
+	 * Decide whether to log the full SQL of an execution.
+	 *
+	 * @param elapsedNanos
+	 *            execution time [ns]
+	 * @return <code>true</code> if the execution is slow or was sampled
+	 */
+	public boolean isLogged(final long elapsedNanos)
+	{
+		if (isSlow(elapsedNanos))
+		{
+			return true;
+		}
+		final double rate = sampleRate;
+		return (rate > 0.0) && (ThreadLocalRandom.current().nextDouble() < rate);
+	}
+
+	/**
+	 * @param elapsedNanos
+	 *            execution time [ns]
+	 * @return is the execution slow
+	 */
+	public boolean isSlow(final long elapsedNanos)
+	{
+		return elapsedNanos >= slowThresholdNanos;
+	}
+
+	/**
+	 * Return the statements that consumed the most database time.
+	 *
+	 * @param n
+	 *            maximum number of statements to return
+	 * @return statistics of the top <code>n</code> statements by total execution time,
+	 *         most expensive first
+	 */
+	public List<SqlStatementStats> getTop(final int n)
+	{
+		final List<SqlStatementStats> all = CollectionUtil.newList(statements.values());
+		Collections.sort(all, BY_TOTAL_TIME);
+		return (all.size() > n) ? CollectionUtil.newList(all.subList(0, n)) : all;
+	}
+
+	/**
+	 * @param normalizedSql
+	 *            normalized SQL statement
+	 * @return statistics of the statement, or <code>null</code> if it was not recorded
+	 */
+	public SqlStatementStats getStats(final String normalizedSql)
+	{
+		return statements.get(normalizedSql);
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the maxStatements property.
+	 *
+	 * @param maxStatements
+	 *            the maxStatements to set
+	 */
+	public void setMaxStatements(final int maxStatements)
+	{
+		this.maxStatements = maxStatements;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Return the statistics of a statement, creating them if necessary. Once
+	 * {@link #maxStatements} distinct statements are recorded, new statements share the
+	 * {@link #OTHER} statistics.
+	 *
+	 * @param normalizedSql
+	 *            normalized SQL statement
+	 * @return statement statistics
+	 */
+	private SqlStatementStats newStatsIfAbsent(final String normalizedSql)
+	{
+		SqlStatementStats stats = statements.get(normalizedSql);
+		if (stats == null)
+		{
+			final String key = (statements.size() < maxStatements) ? normalizedSql
+					: OTHER;
+			stats = statements.get(key);
+			if (stats == null)
+			{
+				final SqlStatementStats newStats = new SqlStatementStats(key);
+				stats = statements.putIfAbsent(key, newStats);
+				if (stats == null)
+				{
+					stats = newStats;
+				}
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * @param normalized
+	 *            normalized SQL so far
+	 * @return does the normalized SQL end with an identifier character, in which case a
+	 *         following digit is part of the identifier
+	 */
+	private static boolean isIdentifierEnd(final CharSequence normalized)
+	{
+		if (normalized.length() == 0)
+		{
+			return false;
+		}
+		final char last = normalized.charAt(normalized.length() - 1);
+		return Character.isLetterOrDigit(last) || (last == '_') || (last == '$');
+	}
+}
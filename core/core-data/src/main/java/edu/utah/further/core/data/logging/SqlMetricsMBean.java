@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.logging;
+
+/**
+ * JMX management interface of {@link SqlMetrics}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public interface SqlMetricsMBean
+{
+	// ========================= METHODS ===================================
+
+	/**
+	 * @return summaries of the {@link #getTopCount()} statements that consumed the most
+	 *         database time, most expensive first
+	 */
+	String[] getTopStatements();
+
+	/**
+	 * @return number of distinct normalized statements recorded
+	 */
+	int getStatementCount();
+
+	/**
+	 * Discard all recorded statistics.
+	 */
+	void reset();
+
+	/**
+	 * @return number of statements reported by {@link #getTopStatements()}
+	 */
+	int getTopCount();
+
+	/**
+	 * @param topCount
+	 *            number of statements reported by {@link #getTopStatements()}
+	 */
+	void setTopCount(int topCount);
+
+	/**
+	 * @return fraction of executions whose full SQL is logged
+	 */
+	double getSampleRate();
+
+	/**
+	 * @param sampleRate
+	 *            fraction of executions whose full SQL is logged
+	 */
+	void setSampleRate(double sampleRate);
+
+	/**
+	 * @return executions at least this long [ms] always have their full SQL logged
+	 */
+	long getSlowThresholdMillis();
+
+	/**
+	 * @param slowThresholdMillis
+	 *            executions at least this long [ms] always have their full SQL logged
+	 */
+	void setSlowThresholdMillis(long slowThresholdMillis);
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.utah.further.core.api.time.LatencyHistogram;
+
+/**
+ * Execution statistics of a single normalized SQL statement: an execution latency
+ * histogram, row counts and batch sizes. All counters are atomic, so recording never
+ * blocks the executing thread.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class SqlStatementStats
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Normalized SQL statement.
+	 */
+	private final String sql;
+
+	/**
+	 * Execution latency histogram.
+	 */
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * Total number of rows updated by the statement.
+	 */
+	private final AtomicLong rows = new AtomicLong();
+
+	/**
+	 * Number of batch executions.
+	 */
+	private final AtomicLong batches = new AtomicLong();
+
+	/**
+	 * Total number of statements executed in batches.
+	 */
+	private final AtomicLong batchedStatements = new AtomicLong();
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param sql
+	 *            normalized SQL statement
+	 */
+	SqlStatementStats(final String sql)
+	{
+		this.sql = sql;
+	}
+
+	// ========================= IMPL: Object ==============================
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("total=%dms %s rows=%d batches=%d batched=%d sql=%s",
+				Long.valueOf(TimeUnit.NANOSECONDS.toMillis(getTotalNanos())), latency,
+				Long.valueOf(getRows()), Long.valueOf(getBatches()),
+				Long.valueOf(getBatchedStatements()), sql);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Record a statement execution.
+	 *
+	 * @param elapsedNanos
+	 *            execution time [ns]
+	 * @param rowCount
+	 *            number of updated rows, or a negative number if unknown
+	 * @param batchSize
+	 *            number of batched statements, or <code>0</code> if this was not a batch
+	 *            execution
+	 */
+	void record(final long elapsedNanos, final long rowCount, final int batchSize)
+	{
+		latency.record(elapsedNanos);
+		if (rowCount > 0)
+		{
+			rows.addAndGet(rowCount);
+		}
+		if (batchSize > 0)
+		{
+			batches.incrementAndGet();
+			batchedStatements.addAndGet(batchSize);
+		}
+	}
+
+	/**
+	 * @param fraction
+	 *            percentile fraction in [0,1], e.g. <code>0.99</code>
+	 * @return an upper bound on the execution time percentile [ms]
+	 * @see LatencyHistogram#getPercentileMillis(double)
+	 */
+	public long getPercentileMillis(final double fraction)
+	{
+		return latency.getPercentileMillis(fraction);
+	}
+
+	/**
+	 * @return mean execution time [ms]
+	 */
+	public double getMeanMillis()
+	{
+		return latency.getMeanMillis();
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * @return the normalized SQL statement
+	 */
+	public String getSql()
+	{
+		return sql;
+	}
+
+	/**
+	 * @return the execution latency histogram
+	 */
+	public LatencyHistogram getLatency()
+	{
+		return latency;
+	}
+
+	/**
+	 * @return the number of executions
+	 */
+	public long getCount()
+	{
+		return latency.getCount();
+	}
+
+	/**
+	 * @return the total execution time [ns]
+	 */
+	public long getTotalNanos()
+	{
+		return latency.getTotalNanos();
+	}
+
+	/**
+	 * @return the longest execution time [ns]
+	 */
+	public long getMaxNanos()
+	{
+		return latency.getMaxNanos();
+	}
+
+	/**
+	 * @return the total number of updated rows
+	 */
+	public long getRows()
+	{
+		return rows.get();
+	}
+
+	/**
+	 * @return the number of batch executions
+	 */
+	public long getBatches()
+	{
+		return batches.get();
+	}
+
+	/**
+	 * @return the total number of statements executed in batches
+	 */
+	public long getBatchedStatements()
+	{
+		return batchedStatements.get();
+	}
+}
@@ -21,19 +21,35 @@ import static edu.utah.further.core.util.io.ClasspathUtil.getThreadClassLoader;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.slf4j.Logger;
 
+import edu.utah.further.core.api.collections.CollectionUtil;
 import edu.utah.further.core.api.context.Named;
 import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.api.time.LatencyHistogram;
 
 /**
  * A wrapper around a {@link BasicDataSource} that allows easy configuration from a
@@ -52,6 +68,16 @@ import edu.utah.further.core.api.exception.ApplicationException;
  * 
  * </blockquote>
  * <p>
+ * The data source records how long callers wait to borrow a connection. When
+ * {@link #setTrackConnections(boolean)} is on, borrowed connections are also tracked
+ * until closed to record hold times, and connections held longer than
+ * {@link #getLeakThresholdMillis()} are logged as leaks along with the borrowing caller's
+ * stack. Leaks are checked for by a daemon timer every half threshold period, whether or
+ * not connections are still being borrowed. Statistics are exposed through the
+ * {@link ConfigurableBasicDataSourceMBean} interface, which the data source registers on
+ * the platform MBean server under {@link #JMX_DOMAIN} when it first connects (as c3p0
+ * pools do), unless {@link #setExportMBean(boolean)} is off.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -65,7 +91,8 @@ import edu.utah.further.core.api.exception.ApplicationException;
  */
 // May need to unfinalize if will be using Spring DI or proxies on this class in the
 // future
-public final class ConfigurableBasicDataSource implements DataSource, Named
+public final class ConfigurableBasicDataSource implements DataSource, Named,
+		ConfigurableBasicDataSourceMBean
 {
 	// ========================= CONSTANTS =================================
 
@@ -79,6 +106,11 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	 */
 	private static final String DEFAULT_NAME = "Configurable Data Source";
 
+	/**
+	 * JMX domain of the data source MBeans.
+	 */
+	public static final String JMX_DOMAIN = "edu.utah.further.core.data";
+
 	/**
 	 * Centralizes properties names used by this bean.
 	 */
@@ -103,6 +135,61 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	 */
 	private String name = DEFAULT_NAME;
 
+	/**
+	 * Has a connection been successfully obtained. Once it has, the Oracle initialization
+	 * error work-around is skipped.
+	 */
+	private volatile boolean connected;
+
+	/**
+	 * Time callers waited to borrow a connection.
+	 */
+	private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+	/**
+	 * Time callers held borrowed connections.
+	 */
+	private final LatencyHistogram holdTime = new LatencyHistogram();
+
+	/**
+	 * Track borrowed connections until they are closed.
+	 */
+	private boolean trackConnections;
+
+	/**
+	 * Connections held at least this long [ms] are reported as leaks. <code>0</code>
+	 * disables leak detection.
+	 */
+	private volatile long leakThresholdMillis;
+
+	/**
+	 * Number of connections reported as leaks.
+	 */
+	private final AtomicLong reportedLeakCount = new AtomicLong();
+
+	/**
+	 * Checks borrowed connections for leaks while tracking is on and the leak threshold
+	 * is positive.
+	 */
+	private Timer leakCheckTimer;
+
+	/**
+	 * Register this data source on the platform MBean server.
+	 */
+	private boolean exportMBean = true;
+
+	/**
+	 * Name this data source is registered under on the platform MBean server, if
+	 * registered.
+	 */
+	private ObjectName objectName;
+
+	/**
+	 * Borrowed connections, by tracking proxy.
+	 */
+	private final ConcurrentMap<Connection, Borrow> borrowed = CollectionUtil
+			.newConcurrentMap();
+
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
@@ -166,6 +253,8 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	 */
 	public void close() throws SQLException
 	{
+		stopLeakCheck();
+		unregisterMBean();
 		dataSource.close();
 	}
 
@@ -177,32 +266,11 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	@Override
 	public Connection getConnection() throws SQLException
 	{
-		// Work around Oracle MBean initialization bug.
-		// @see
-		// http://www.robert-stupp.de/blog/2008/01/oracle_malicious_11g_data_source_implementation.html
-		// -- we only implement an error-swallow instead, because it seems that the
-		// returned connection from dataSource.getConnection() is fine.
-		try
-		{
-			if (log.isWarnEnabled())
-			{
-				log
-						.trace("Note: if this is an oracle driver, it may throw and error after this line that can be ignored.");
-			}
-			return dataSource.getConnection();
-		}
-		catch (final Throwable e)
-		{
-			if (log.isInfoEnabled())
-			{
-				log
-						.info("Driver threw an error. If this is an oracle driver, it may be a bug in the oracle JDBC client that is ignored here as the connection is usually fine nevertheless.");
-				final String loader = getThreadClassLoader().toString();
-				log.info("Current thread class loader toString() returns: " + loader);
-				log.info("Error message: " + e.getMessage());
-			}
-			return dataSource.getConnection();
-		}
+		final long start = System.nanoTime();
+		final Connection connection = connected ? dataSource.getConnection()
+				: getFirstConnection();
+		borrowWait.record(System.nanoTime() - start);
+		return track(connection);
 	}
 
 	/**
@@ -217,7 +285,10 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	public Connection getConnection(final String username, final String password)
 			throws SQLException
 	{
-		return dataSource.getConnection(username, password);
+		final long start = System.nanoTime();
+		final Connection connection = dataSource.getConnection(username, password);
+		borrowWait.record(System.nanoTime() - start);
+		return track(connection);
 	}
 
 	/**
@@ -422,6 +493,24 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 		return dataSource.getValidationQuery();
 	}
 
+	/**
+	 * @return
+	 * @see org.apache.commons.dbcp.BasicDataSource#isPoolPreparedStatements()
+	 */
+	public boolean isPoolPreparedStatements()
+	{
+		return dataSource.isPoolPreparedStatements();
+	}
+
+	/**
+	 * @return
+	 * @see org.apache.commons.dbcp.BasicDataSource#getMaxOpenPreparedStatements()
+	 */
+	public int getMaxOpenPreparedStatements()
+	{
+		return dataSource.getMaxOpenPreparedStatements();
+	}
+
 	/**
 	 * @param iface
 	 * @return
@@ -619,6 +708,27 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 		dataSource.setValidationQuery(validationQuery);
 	}
 
+	/**
+	 * Pool prepared statements per connection, so that statements that Hibernate
+	 * re-prepares on every query execution are parsed once per connection.
+	 *
+	 * @param poolPreparedStatements
+	 * @see org.apache.commons.dbcp.BasicDataSource#setPoolPreparedStatements(boolean)
+	 */
+	public void setPoolPreparedStatements(final boolean poolPreparedStatements)
+	{
+		dataSource.setPoolPreparedStatements(poolPreparedStatements);
+	}
+
+	/**
+	 * @param maxOpenPreparedStatements
+	 * @see org.apache.commons.dbcp.BasicDataSource#setMaxOpenPreparedStatements(int)
+	 */
+	public void setMaxOpenPreparedStatements(final int maxOpenPreparedStatements)
+	{
+		dataSource.setMaxOpenPreparedStatements(maxOpenPreparedStatements);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -645,6 +755,122 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 		throw new ApplicationException(unsupportedOperationMessage("unwrap()"));
 	}
 
+	// ========================= IMPL: ConfigurableBasicDataSourceMBean ====
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getBorrowWaitSummary()
+	 */
+	@Override
+	public String getBorrowWaitSummary()
+	{
+		return borrowWait.toString();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getBorrowWaitP99Millis()
+	 */
+	@Override
+	public long getBorrowWaitP99Millis()
+	{
+		return borrowWait.getPercentileMillis(0.99);
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getHoldTimeSummary()
+	 */
+	@Override
+	public String getHoldTimeSummary()
+	{
+		return holdTime.toString();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getHoldTimeP99Millis()
+	 */
+	@Override
+	public long getHoldTimeP99Millis()
+	{
+		return holdTime.getPercentileMillis(0.99);
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getLeakedConnections()
+	 */
+	@Override
+	public String[] getLeakedConnections()
+	{
+		final List<String> leaks = CollectionUtil.newList();
+		final long threshold = leakThresholdMillis;
+		if (threshold > 0)
+		{
+			final long now = System.currentTimeMillis();
+			for (final Borrow borrow : borrowed.values())
+			{
+				if (now - borrow.time >= threshold)
+				{
+					leaks.add(borrow.describe(now));
+				}
+			}
+		}
+		return leaks.toArray(new String[leaks.size()]);
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getLeakThresholdMillis()
+	 */
+	@Override
+	public long getLeakThresholdMillis()
+	{
+		return leakThresholdMillis;
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#setLeakThresholdMillis(long)
+	 */
+	@Override
+	public void setLeakThresholdMillis(final long leakThresholdMillis)
+	{
+		this.leakThresholdMillis = leakThresholdMillis;
+		scheduleLeakCheck();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#getReportedLeakCount()
+	 */
+	@Override
+	public long getReportedLeakCount()
+	{
+		return reportedLeakCount.get();
+	}
+
+	/**
+	 * @see edu.utah.further.core.data.service.ConfigurableBasicDataSourceMBean#resetStatistics()
+	 */
+	@Override
+	public void resetStatistics()
+	{
+		borrowWait.reset();
+		holdTime.reset();
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * @return time callers waited to borrow a connection
+	 */
+	public LatencyHistogram getBorrowWait()
+	{
+		return borrowWait;
+	}
+
+	/**
+	 * @return time callers held borrowed connections
+	 */
+	public LatencyHistogram getHoldTime()
+	{
+		return holdTime;
+	}
+
 	// ========================= DEPENDENCY INJECTION ======================
 
 	/**
@@ -673,4 +899,327 @@ public final class ConfigurableBasicDataSource implements DataSource, Named
 	{
 		this.name = name;
 	}
+
+	/**
+	 * Set a new value for the trackConnections property.
+	 * 
+	 * @param trackConnections
+	 *            the trackConnections to set
+	 */
+	public void setTrackConnections(final boolean trackConnections)
+	{
+		this.trackConnections = trackConnections;
+		scheduleLeakCheck();
+	}
+
+	/**
+	 * Set a new value for the exportMBean property.
+	 * 
+	 * @param exportMBean
+	 *            register this data source on the platform MBean server
+	 */
+	public void setExportMBean(final boolean exportMBean)
+	{
+		this.exportMBean = exportMBean;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Obtain a connection before any connection was successfully obtained.
+	 * 
+	 * @return a connection
+	 * @throws SQLException
+	 */
+	private Connection getFirstConnection() throws SQLException
+	{
+		// Work around Oracle MBean initialization bug.
+		// @see
+		// http://www.robert-stupp.de/blog/2008/01/oracle_malicious_11g_data_source_implementation.html
+		// -- we only implement an error-swallow instead, because it seems that the
+		// returned connection from dataSource.getConnection() is fine.
+		Connection connection;
+		try
+		{
+			if (log.isWarnEnabled())
+			{
+				log
+						.trace("Note: if this is an oracle driver, it may throw and error after this line that can be ignored.");
+			}
+			connection = dataSource.getConnection();
+		}
+		catch (final Throwable e)
+		{
+			if (log.isInfoEnabled())
+			{
+				log
+						.info("Driver threw an error. If this is an oracle driver, it may be a bug in the oracle JDBC client that is ignored here as the connection is usually fine nevertheless.");
+				final String loader = getThreadClassLoader().toString();
+				log.info("Current thread class loader toString() returns: " + loader);
+				log.info("Error message: " + e.getMessage());
+			}
+			connection = dataSource.getConnection();
+		}
+		// The driver is initialized; skip the work-around from now on
+		connected = true;
+		registerMBean();
+		return connection;
+	}
+
+	/**
+	 * Track a borrowed connection until it is closed, if tracking is on.
+	 * 
+	 * @param connection
+	 *            borrowed connection
+	 * @return tracking proxy of the connection, or the connection itself if tracking is
+	 *         off
+	 */
+	private Connection track(final Connection connection)
+	{
+		if (!trackConnections)
+		{
+			return connection;
+		}
+		final Borrow borrow = new Borrow(leakThresholdMillis > 0);
+		final Connection proxy = (Connection) Proxy.newProxyInstance(
+				Connection.class.getClassLoader(), new Class<?>[]
+				{ Connection.class }, new TrackingHandler(connection, borrow));
+		borrowed.put(proxy, borrow);
+		return proxy;
+	}
+
+	/**
+	 * (Re)start or stop the leak check timer according to the tracking and leak threshold
+	 * settings.
+	 */
+	private synchronized void scheduleLeakCheck()
+	{
+		stopLeakCheck();
+		final long threshold = leakThresholdMillis;
+		if (!trackConnections || (threshold <= 0))
+		{
+			return;
+		}
+		final long period = Math.max(1L, threshold / 2);
+		leakCheckTimer = new Timer("Leak check " + getName(), true);
+		leakCheckTimer.schedule(new TimerTask()
+		{
+			@Override
+			public void run()
+			{
+				checkLeaks();
+			}
+		}, period, period);
+	}
+
+	/**
+	 * Stop the leak check timer, if running.
+	 */
+	private synchronized void stopLeakCheck()
+	{
+		if (leakCheckTimer != null)
+		{
+			leakCheckTimer.cancel();
+			leakCheckTimer = null;
+		}
+	}
+
+	/**
+	 * Log connections held longer than the leak threshold. Reports each leak once.
+	 */
+	private void checkLeaks()
+	{
+		final long threshold = leakThresholdMillis;
+		if (threshold <= 0)
+		{
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		for (final Map.Entry<Connection, Borrow> entry : borrowed.entrySet())
+		{
+			final Borrow borrow = entry.getValue();
+			if (!borrow.reported && (now - borrow.time >= threshold))
+			{
+				borrow.reported = true;
+				reportedLeakCount.incrementAndGet();
+				if (log.isWarnEnabled())
+				{
+					log.warn("Possible connection leak in data source " + getName()
+							+ ": " + borrow.describe(now));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Register this data source on the platform MBean server, if not yet registered.
+	 * Failures are logged and otherwise ignored.
+	 */
+	private synchronized void registerMBean()
+	{
+		if (!exportMBean || (objectName != null))
+		{
+			return;
+		}
+		try
+		{
+			final ObjectName name = new ObjectName(JMX_DOMAIN
+					+ ":type=ConfigurableBasicDataSource,name="
+					+ ObjectName.quote(getName()));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			objectName = name;
+		}
+		catch (final JMException e)
+		{
+			if (log.isWarnEnabled())
+			{
+				log.warn("Could not register data source " + getName()
+						+ " MBean: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Unregister this data source from the platform MBean server, if registered.
+	 */
+	private synchronized void unregisterMBean()
+	{
+		if (objectName == null)
+		{
+			return;
+		}
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		}
+		catch (final JMException e)
+		{
+			if (log.isWarnEnabled())
+			{
+				log.warn("Could not unregister data source " + getName()
+						+ " MBean: " + e.getMessage());
+			}
+		}
+		objectName = null;
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * A borrowed connection's tracking information.
+	 */
+	private static final class Borrow
+	{
+		/**
+		 * Borrow time [ns], for hold time measurement.
+		 */
+		final long nanoTime = System.nanoTime();
+
+		/**
+		 * Borrow time [ms], for leak reporting.
+		 */
+		final long time = System.currentTimeMillis();
+
+		/**
+		 * Borrowing thread name.
+		 */
+		final String threadName = Thread.currentThread().getName();
+
+		/**
+		 * Borrowing caller's stack, if captured.
+		 */
+		final Throwable stack;
+
+		/**
+		 * Was this borrow reported as a leak.
+		 */
+		volatile boolean reported;
+
+		/**
+		 * @param captureStack
+		 *            capture the borrowing caller's stack
+		 */
+		Borrow(final boolean captureStack)
+		{
+			this.stack = captureStack ? new Throwable("Connection borrowed here") : null;
+		}
+
+		/**
+		 * @param now
+		 *            current time [ms]
+		 * @return leak description
+		 */
+		String describe(final long now)
+		{
+			final StringWriter writer = new StringWriter();
+			writer.append("held for ").append(String.valueOf(now - time)).append(
+					"ms by thread ").append(threadName);
+			if (stack != null)
+			{
+				writer.append('\n');
+				stack.printStackTrace(new PrintWriter(writer));
+			}
+			return writer.toString();
+		}
+	}
+
+	/**
+	 * Delegates to a borrowed connection and records its hold time when it is closed.
+	 */
+	private final class TrackingHandler implements InvocationHandler
+	{
+		/**
+		 * Borrowed connection.
+		 */
+		private final Connection connection;
+
+		/**
+		 * Tracking information.
+		 */
+		private final Borrow borrow;
+
+		/**
+		 * @param connection
+		 *            borrowed connection
+		 * @param borrow
+		 *            tracking information
+		 */
+		TrackingHandler(final Connection connection, final Borrow borrow)
+		{
+			this.connection = connection;
+			this.borrow = borrow;
+		}
+
+		/**
+		 * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object,
+		 *      java.lang.reflect.Method, java.lang.Object[])
+		 */
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args)
+				throws Throwable
+		{
+			final String methodName = method.getName();
+			if ("equals".equals(methodName) && (args != null) && (args.length == 1))
+			{
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if ("hashCode".equals(methodName) && (args == null))
+			{
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			if ("close".equals(methodName) && (args == null)
+					&& (borrowed.remove(proxy) != null))
+			{
+				holdTime.record(System.nanoTime() - borrow.nanoTime);
+			}
+			try
+			{
+				return method.invoke(connection, args);
+			}
+			catch (final InvocationTargetException e)
+			{
+				throw e.getCause();
+			}
+		}
+	}
 }
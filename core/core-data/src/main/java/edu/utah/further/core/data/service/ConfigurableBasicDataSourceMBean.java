@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.service;
+
+/**
+ * JMX management interface of {@link ConfigurableBasicDataSource}: pool occupancy,
+ * connection borrow-wait and hold-time statistics, and connection leaks.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public interface ConfigurableBasicDataSourceMBean
+{
+	// ========================= METHODS ===================================
+
+	/**
+	 * @return data source name
+	 */
+	String getName();
+
+	/**
+	 * @return data source URL
+	 */
+	String getUrl();
+
+	/**
+	 * @return number of borrowed connections
+	 */
+	int getNumActive();
+
+	/**
+	 * @return number of idle pooled connections
+	 */
+	int getNumIdle();
+
+	/**
+	 * @return maximum number of borrowed connections
+	 */
+	int getMaxActive();
+
+	/**
+	 * @return summary of the time callers waited to borrow a connection
+	 */
+	String getBorrowWaitSummary();
+
+	/**
+	 * @return upper bound on the 99th percentile of the borrow wait time [ms]
+	 */
+	long getBorrowWaitP99Millis();
+
+	/**
+	 * @return summary of the time callers held borrowed connections. Only recorded when
+	 *         connection tracking is on.
+	 */
+	String getHoldTimeSummary();
+
+	/**
+	 * @return upper bound on the 99th percentile of the connection hold time [ms]
+	 */
+	long getHoldTimeP99Millis();
+
+	/**
+	 * @return descriptions of the connections held longer than the leak threshold,
+	 *         including the stack trace of the borrowing caller
+	 */
+	String[] getLeakedConnections();
+
+	/**
+	 * @return connections held at least this long [ms] are reported as leaks;
+	 *         <code>0</code> disables leak detection
+	 */
+	long getLeakThresholdMillis();
+
+	/**
+	 * @param leakThresholdMillis
+	 *            connections held at least this long [ms] are reported as leaks;
+	 *            <code>0</code> disables leak detection
+	 */
+	void setLeakThresholdMillis(long leakThresholdMillis);
+
+	/**
+	 * @return number of connections reported as leaks so far
+	 */
+	long getReportedLeakCount();
+
+	/**
+	 * Discard the borrow-wait and hold-time statistics.
+	 */
+	void resetStatistics();
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.domain;
+
+import static edu.utah.further.core.api.text.ToStringCustomStyles.SHORT_WITH_SPACES_STYLE;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import edu.utah.further.core.api.data.PersistentEntity;
+
+/**
+ * A persistent entity with an embedded composite identifier.
+ * <p>
+ * -------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, AVP Health Sciences IT Office, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -------------------------------------------------------------------------
+ * 
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Entity
+@Table(name = "DatasetPerson")
+public class DatasetPersonEntity implements PersistentEntity<DatasetPersonId>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable version identifier.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * The unique identifier of this entity.
+	 */
+	@EmbeddedId
+	private DatasetPersonId id;
+
+	/**
+	 * Person name.
+	 */
+	@Column(name = "name", nullable = true)
+	private String name;
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public final boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (obj == null)
+		{
+			return false;
+		}
+		if (getClass() != obj.getClass())
+		{
+			return false;
+		}
+		final DatasetPersonEntity that = (DatasetPersonEntity) obj;
+		return new EqualsBuilder().append(this.id, that.id).isEquals();
+	}
+
+	/**
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public final int hashCode()
+	{
+		return new HashCodeBuilder().append(id).toHashCode();
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, SHORT_WITH_SPACES_STYLE)
+				.append("id", id)
+				.append("name", name)
+				.toString();
+	}
+
+	// ========================= IMPLEMENTATION: PersistentEntity ==========
+
+	/**
+	 * @return
+	 * @see edu.utah.further.core.api.data.PersistentEntity#getId()
+	 */
+	@Override
+	public DatasetPersonId getId()
+	{
+		return id;
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Return the name property.
+	 * 
+	 * @return the name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.domain;
+
+import static edu.utah.further.core.api.text.ToStringCustomStyles.SHORT_WITH_SPACES_STYLE;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+import org.apache.commons.lang.builder.CompareToBuilder;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * A composite identifier of a person within a dataset.
+ * <p>
+ * -------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, AVP Health Sciences IT Office, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -------------------------------------------------------------------------
+ * 
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Embeddable
+public class DatasetPersonId implements Serializable, Comparable<DatasetPersonId>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable version identifier.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Dataset identifier.
+	 */
+	@Column(name = "dataset_id", nullable = false)
+	private Long datasetId;
+
+	/**
+	 * Person identifier within the dataset.
+	 */
+	@Column(name = "person_id", nullable = false)
+	private Long personId;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Required by Hibernate.
+	 */
+	public DatasetPersonId()
+	{
+	}
+
+	/**
+	 * @param datasetId
+	 *            dataset identifier
+	 * @param personId
+	 *            person identifier within the dataset
+	 */
+	public DatasetPersonId(final Long datasetId, final Long personId)
+	{
+		this.datasetId = datasetId;
+		this.personId = personId;
+	}
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public final boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (obj == null)
+		{
+			return false;
+		}
+		if (getClass() != obj.getClass())
+		{
+			return false;
+		}
+		final DatasetPersonId that = (DatasetPersonId) obj;
+		return new EqualsBuilder()
+				.append(this.datasetId, that.datasetId)
+				.append(this.personId, that.personId)
+				.isEquals();
+	}
+
+	/**
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public final int hashCode()
+	{
+		return new HashCodeBuilder().append(datasetId).append(personId).toHashCode();
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, SHORT_WITH_SPACES_STYLE)
+				.append("datasetId", datasetId)
+				.append("personId", personId)
+				.toString();
+	}
+
+	// ========================= IMPLEMENTATION: Comparable ================
+
+	/**
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(final DatasetPersonId other)
+	{
+		return new CompareToBuilder()
+				.append(this.datasetId, other.datasetId)
+				.append(this.personId, other.personId)
+				.toComparison();
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Return the datasetId property.
+	 * 
+	 * @return the datasetId
+	 */
+	public Long getDatasetId()
+	{
+		return datasetId;
+	}
+
+	/**
+	 * Return the personId property.
+	 * 
+	 * @return the personId
+	 */
+	public Long getPersonId()
+	{
+		return personId;
+	}
+}
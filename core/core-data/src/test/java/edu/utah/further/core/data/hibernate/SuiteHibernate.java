@@ -18,6 +18,7 @@ package edu.utah.further.core.data.hibernate;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import edu.utah.further.core.data.hibernate.interceptors.UTestSqlHintRegistry;
 import edu.utah.further.core.data.hibernate.page.SuitePage;
 
 /**
@@ -36,7 +37,7 @@ import edu.utah.further.core.data.hibernate.page.SuitePage;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ SuitePage.class })
+{ SuitePage.class, UTestSqlHintRegistry.class })
 public final class SuiteHibernate
 {
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.interceptors;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SqlHintRegistry}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestSqlHintRegistry
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String LOOKUP = "select this_.fpatient_id as y0_ from fpatient this_ where this_.fpatient_id=?";
+
+	private static final String SCAN = "select this_.fpatient_id as y0_ from fpatient this_ where this_.age > 21";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Registry under test.
+	 */
+	private SqlHintRegistry registry;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Set up a registry with a tag rule and a signature rule.
+	 */
+	@Before
+	public void setup()
+	{
+		registry = new SqlHintRegistry();
+		registry.setRules(Arrays.asList(new SqlHintRule("cohort", "cohort", null,
+				"FULL(this_)"), new SqlHintRule("lookup", null,
+				"where this_\\.fpatient_id=\\?$", "INDEX(this_ fpatient_pk)")));
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * A statement is hinted by its signature.
+	 */
+	@Test
+	public void signatureRule()
+	{
+		assertThat(registry.rewrite(LOOKUP),
+				is("select /*+ INDEX(this_ fpatient_pk) */ this_.fpatient_id as y0_"
+						+ " from fpatient this_ where this_.fpatient_id=?"));
+	}
+
+	/**
+	 * A statement is hinted by its tag.
+	 */
+	@Test
+	public void tagRule()
+	{
+		assertThat(registry.rewrite("/* cohort */ " + SCAN), is("/* cohort */ select"
+				+ " /*+ FULL(this_) */ this_.fpatient_id as y0_ from fpatient this_"
+				+ " where this_.age > 21"));
+	}
+
+	/**
+	 * A statement that matches no rule is not copied.
+	 */
+	@Test
+	public void noRule()
+	{
+		assertThat(registry.rewrite(SCAN), sameInstance(SCAN));
+		assertThat(registry.findHint(SCAN), nullValue());
+	}
+
+	/**
+	 * The default hint applies to statements that match no rule.
+	 */
+	@Test
+	public void defaultHint()
+	{
+		registry.setDefaultHint("ALL_ROWS");
+		assertThat(registry.findHint(SCAN), is("ALL_ROWS"));
+		assertThat(registry.findHint(LOOKUP), is("INDEX(this_ fpatient_pk)"));
+	}
+
+	/**
+	 * Rewritten statements are cached.
+	 */
+	@Test
+	public void cached()
+	{
+		final String rewritten = registry.rewrite(LOOKUP);
+		assertThat(registry.rewrite(new String(LOOKUP)), sameInstance(rewritten));
+	}
+
+	/**
+	 * Rules are parsed from a rule file in name order.
+	 */
+	@Test
+	public void parseRules()
+	{
+		final Properties properties = new Properties();
+		properties.setProperty("20-lookup.signature", "fpatient_id=\\?$");
+		properties.setProperty("20-lookup.hint", "INDEX(this_ fpatient_pk)");
+		properties.setProperty("10-cohort.tag", "cohort");
+		properties.setProperty("10-cohort.hint", " FULL(this_) ");
+		final List<SqlHintRule> rules = SqlHintRegistry.parseRules(properties);
+		assertThat(Integer.valueOf(rules.size()), is(Integer.valueOf(2)));
+		assertThat(rules.get(0).getName(), is("10-cohort"));
+		assertThat(rules.get(0).getHint(), is("FULL(this_)"));
+		assertThat(rules.get(1).getName(), is("20-lookup"));
+	}
+
+	/**
+	 * Hints go after the first keyword that accepts one.
+	 */
+	@Test
+	public void insertHint()
+	{
+		assertThat(SqlHintRegistry.insertHint("UPDATE t set a=1", "h"),
+				is("UPDATE /*+ h */ t set a=1"));
+		assertThat(SqlHintRegistry.insertHint("(select a from t) union (select b from u)",
+				"h"), is("(select /*+ h */ a from t) union (select b from u)"));
+		assertThat(SqlHintRegistry.insertHint("selected", "h"), is("selected"));
+	}
+}
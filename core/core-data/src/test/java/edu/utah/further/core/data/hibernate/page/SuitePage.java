@@ -34,7 +34,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestScrollableResultsPagerUnique.class, UTestScrollableResultsPagerNonUnique.class })
+{ UTestScrollableResultsPagerUnique.class, UTestScrollableResultsPagerNonUnique.class,
+		UTestKeysetResultsPager.class, UTestKeysetResultsCompositeId.class })
 public final class SuitePage
 {
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.page;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.utah.further.core.data.domain.DatasetPersonEntity;
+import edu.utah.further.core.data.domain.DatasetPersonId;
+import edu.utah.further.core.data.fixture.CoreDataFixture;
+import edu.utah.further.core.data.hibernate.adapter.CriteriaType;
+import edu.utah.further.core.data.hibernate.adapter.GenericCriteriaFactory;
+
+/**
+ * Unit test of reading {@link KeysetResults} of a root entity with an embedded composite
+ * identifier.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestKeysetResultsCompositeId extends CoreDataFixture
+{
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Every batch continues after the last identifier tuple of the previous batch, so
+	 * all entities are read once in tuple order regardless of the batch size.
+	 */
+	@Test
+	@Transactional
+	public void tupleOrder()
+	{
+		final List<DatasetPersonId> expected = asList(newId(1L, 1L), newId(1L, 2L),
+				newId(1L, 3L), newId(2L, 1L), newId(2L, 2L));
+		for (int batchSize = 1; batchSize <= expected.size() + 1; batchSize++)
+		{
+			assertThat(getIds(batchSize), is(expected));
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Read all entities in keyset batches and return their identifiers.
+	 *
+	 * @param batchSize
+	 *            number of rows to fetch per query
+	 * @return identifiers in the order read
+	 */
+	private List<DatasetPersonId> getIds(final int batchSize)
+	{
+		final String identifierName = sessionFactory.getClassMetadata(
+				DatasetPersonEntity.class).getIdentifierPropertyName();
+		final KeysetResults results = new KeysetResults(GenericCriteriaFactory.criteria(
+				CriteriaType.CRITERIA, DatasetPersonEntity.class,
+				sessionFactory.getCurrentSession()), identifierName);
+		results.setBatchSize(batchSize);
+		final List<DatasetPersonId> ids = newList();
+		while (results.hasNext())
+		{
+			ids.add((DatasetPersonId) results.next().getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * @param datasetId
+	 *            dataset identifier
+	 * @param personId
+	 *            person identifier within the dataset
+	 * @return composite identifier
+	 */
+	private static DatasetPersonId newId(final long datasetId, final long personId)
+	{
+		return new DatasetPersonId(Long.valueOf(datasetId), Long.valueOf(personId));
+	}
+}
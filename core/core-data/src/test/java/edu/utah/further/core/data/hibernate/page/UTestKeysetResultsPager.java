@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.hibernate.page;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.utah.further.core.api.collections.page.IterableType;
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.core.data.fixture.CoreDataFixture;
+import edu.utah.further.core.data.hibernate.adapter.GenericCriteria;
+import edu.utah.further.core.query.domain.MatchType;
+import edu.utah.further.core.query.domain.SearchCriteria;
+import edu.utah.further.core.query.domain.SearchQuery;
+import edu.utah.further.core.query.domain.SearchType;
+
+/**
+ * Unit test of paging through {@link KeysetResults} of a query whose join returns
+ * several rows per root entity.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestKeysetResultsPager extends CoreDataFixture
+{
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Pages contain distinct root entities in identifier order.
+	 */
+	@Test
+	@Transactional
+	@SuppressWarnings("boxing")
+	public void distinctPages()
+	{
+		assertThat(getPageIds(2), is(asList(asList(1L, 5L), asList(6L, 7L))));
+		assertThat(getPageIds(3), is(asList(asList(1L, 5L, 6L), asList(7L))));
+	}
+
+	/**
+	 * Rows of a root entity that straddle several batches are returned once.
+	 */
+	@Test
+	@Transactional
+	@SuppressWarnings("boxing")
+	public void rowsStraddlingBatches()
+	{
+		assertThat(getPageIds(1),
+				is(asList(asList(1L), asList(5L), asList(6L), asList(7L))));
+	}
+
+	/**
+	 * An empty result set yields no pages.
+	 */
+	@Test
+	@Transactional
+	public void emptyResults()
+	{
+		final KeysetResults results = new KeysetResults(createLikeCriteria("NoSuchEvent"),
+				"id");
+		assertThat(getPagerFactory()
+				.pager(results, IterableType.SCROLLABLE_RESULTS, 2)
+				.hasNext(), is(false));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Page through the persons with events and return their identifiers.
+	 *
+	 * @param pageSize
+	 *            page size
+	 * @return list of page identifier lists
+	 */
+	@SuppressWarnings("unchecked")
+	private List<List<Long>> getPageIds(final int pageSize)
+	{
+		final KeysetResults results = new KeysetResults(createLikeCriteria("Event"), "id");
+		final Iterator<List<? extends PersistentEntity<Long>>> pager =
+				(Iterator<List<? extends PersistentEntity<Long>>>) getPagerFactory().pager(
+						results, IterableType.SCROLLABLE_RESULTS, pageSize);
+		final List<List<Long>> pageIds = newList();
+		while (pager.hasNext())
+		{
+			final List<Long> ids = newList();
+			for (final PersistentEntity<Long> entity : pager.next())
+			{
+				ids.add(entity.getId());
+			}
+			pageIds.add(ids);
+		}
+		return pageIds;
+	}
+
+	/**
+	 * Creates a LIKE query of persons joined with their events. Returns a row per
+	 * matching event.
+	 *
+	 * @param eventName
+	 *            event name substring
+	 * @return criteria
+	 */
+	private static GenericCriteria createLikeCriteria(final String eventName)
+	{
+		final SearchQuery searchQuery = SearchCriteria
+				.queryBuilder(
+						SearchCriteria.stringExpression(SearchType.LIKE,
+								"Event.eventName", eventName, MatchType.CONTAINS))
+				.addAlias("Event", "Event", "events")
+				.setRootObject("ComplexPerson")
+				.build();
+		return personCriteriaBuilder().setQuery(searchQuery).build();
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.logging;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests SQL execution statistics and the metrics mode of the logging JDBC decorators.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestSqlMetrics
+{
+	// ========================= FIELDS ====================================
+
+	private SqlMetrics metrics;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		metrics = new SqlMetrics();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Literals, whitespace and IN lists are normalized; identifiers are kept.
+	 */
+	@Test
+	public void normalize()
+	{
+		assertThat(SqlMetrics.normalize("select person0_.id from  PERSON person0_\n"
+				+ " where person0_.name = 'O''Brien' and person0_.age > 42.5"),
+				is("select person0_.id from PERSON person0_ where person0_.name = ? "
+						+ "and person0_.age > ?"));
+		assertThat(SqlMetrics.normalize("select * from t1 where id in (?, ?,?) "),
+				is("select * from t1 where id in (?)"));
+		assertThat(SqlMetrics.normalize("select * from t1 where id in (1, 2, 3)"),
+				is("select * from t1 where id in (?)"));
+	}
+
+	/**
+	 * Executions are aggregated per statement.
+	 */
+	@Test
+	public void record()
+	{
+		final String sql = "update t set x = ?";
+		metrics.record(sql, TimeUnit.MILLISECONDS.toNanos(1), 3, 0);
+		metrics.record(sql, TimeUnit.MILLISECONDS.toNanos(3), 4, 2);
+		final SqlStatementStats stats = metrics.getStats(sql);
+		assertThat(stats.getCount(), is(2L));
+		assertThat(stats.getRows(), is(7L));
+		assertThat(stats.getBatches(), is(1L));
+		assertThat(stats.getBatchedStatements(), is(2L));
+		assertThat(stats.getMaxNanos(), is(TimeUnit.MILLISECONDS.toNanos(3)));
+		assertThat(stats.getMeanMillis(), is(2.0));
+	}
+
+	/**
+	 * Percentiles are bounded by the power-of-two histogram buckets.
+	 */
+	@Test
+	public void percentiles()
+	{
+		final String sql = "select ?";
+		for (int i = 0; i < 99; i++)
+		{
+			metrics.record(sql, TimeUnit.MICROSECONDS.toNanos(500), -1, 0);
+		}
+		metrics.record(sql, TimeUnit.MILLISECONDS.toNanos(100), -1, 0);
+		final SqlStatementStats stats = metrics.getStats(sql);
+		// 500us falls in [256us, 512us)
+		assertThat(stats.getPercentileMillis(0.5), is(1L));
+		assertThat(stats.getPercentileMillis(0.99), is(1L));
+		// 100ms falls in [65.5ms, 131ms)
+		assertThat(stats.getPercentileMillis(1.0), is(132L));
+	}
+
+	/**
+	 * Top statements are ordered by total time; statements beyond the limit are
+	 * aggregated.
+	 */
+	@Test
+	public void topAndOverflow()
+	{
+		metrics.setMaxStatements(2);
+		metrics.record("a", 10, -1, 0);
+		metrics.record("b", 30, -1, 0);
+		metrics.record("c", 5, -1, 0);
+		metrics.record("d", 50, -1, 0);
+
+		final List<SqlStatementStats> top = metrics.getTop(2);
+		assertThat(top.get(0).getSql(), is(SqlMetrics.OTHER));
+		assertThat(top.get(0).getCount(), is(2L));
+		assertThat(top.get(1).getSql(), is("b"));
+		assertThat(metrics.getStatementCount(), is(3));
+		assertThat(metrics.getTopStatements().length, is(3));
+	}
+
+	/**
+	 * Only slow or sampled executions are logged.
+	 */
+	@Test
+	public void logged()
+	{
+		metrics.setSlowThresholdMillis(100);
+		metrics.setSampleRate(0.0);
+		assertThat(metrics.isLogged(TimeUnit.MILLISECONDS.toNanos(99)), is(false));
+		assertThat(metrics.isLogged(TimeUnit.MILLISECONDS.toNanos(100)), is(true));
+		metrics.setSampleRate(1.0);
+		assertThat(metrics.isLogged(0), is(true));
+	}
+
+	/**
+	 * A prepared statement decorator in metrics mode records its executions under the
+	 * normalized query.
+	 *
+	 * @throws SQLException
+	 */
+	@Test
+	public void preparedStatementMetricsMode() throws SQLException
+	{
+		final PreparedStatement statement = createMock(PreparedStatement.class);
+		statement.setLong(1, 42L);
+		expect(statement.executeUpdate()).andReturn(5).times(2);
+		replay(statement);
+
+		final LoggingOptions options = new LoggingOptions();
+		options.setMetrics(metrics);
+		final PreparedStatement logging = LoggingPreparedStatement
+				.newLoggingPreparedStatement(statement, options,
+						"delete from t\n where id = ?");
+		logging.setLong(1, 42L);
+		logging.executeUpdate();
+		logging.executeUpdate();
+		verify(statement);
+
+		final SqlStatementStats stats = metrics.getStats("delete from t where id = ?");
+		assertThat(stats.getCount(), is(2L));
+		assertThat(stats.getRows(), is(10L));
+	}
+}
@@ -35,7 +35,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
 { UTestDao.class, UTestDaoEager.class, UTestCriteriaBuilderHibernateImpl.class,
-		UTestHibernateCount.class })
+		UTestHibernateCount.class, UTestConfigurableBasicDataSource.class })
 public final class SuiteService
 {
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.data.service;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the pool statistics and leak detection of {@link ConfigurableBasicDataSource}
+ * against an in-memory HSQLDB database.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestConfigurableBasicDataSource
+{
+	// ========================= FIELDS ====================================
+
+	private ConfigurableBasicDataSource dataSource;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		dataSource = new ConfigurableBasicDataSource(new BasicDataSource());
+		dataSource.setName("test");
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		dataSource.setUrl("jdbc:hsqldb:mem:pool");
+		dataSource.setUsername("sa");
+		dataSource.setPassword("");
+		dataSource.setPoolPreparedStatements(true);
+		dataSource.setTrackConnections(true);
+	}
+
+	@After
+	public void tearDown() throws SQLException
+	{
+		dataSource.close();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Borrow wait and hold times are recorded; the pooled connection is reused.
+	 *
+	 * @throws SQLException
+	 */
+	@Test
+	public void borrowAndHoldTimes() throws SQLException
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			final Connection connection = dataSource.getConnection();
+			assertThat(dataSource.getNumActive(), is(1));
+			connection.close();
+			// Closing twice is harmless and is recorded once
+			connection.close();
+		}
+		assertThat(dataSource.getBorrowWait().getCount(), is(3L));
+		assertThat(dataSource.getHoldTime().getCount(), is(3L));
+		assertThat(dataSource.getNumActive(), is(0));
+		assertThat(dataSource.getNumIdle(), is(1));
+		assertThat(dataSource.isPoolPreparedStatements(), is(true));
+
+		dataSource.resetStatistics();
+		assertThat(dataSource.getBorrowWait().getCount(), is(0L));
+	}
+
+	/**
+	 * Connections held longer than the leak threshold are reported with their borrowing
+	 * caller's stack.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void leakDetection() throws Exception
+	{
+		dataSource.setLeakThresholdMillis(50);
+		final Connection leaked = dataSource.getConnection();
+		final Connection returned = dataSource.getConnection();
+		returned.close();
+		assertThat(dataSource.getLeakedConnections().length, is(0));
+
+		Thread.sleep(100);
+		final String[] leaks = dataSource.getLeakedConnections();
+		assertThat(leaks.length, is(1));
+		assertThat(leaks[0], containsString("Connection borrowed here"));
+		assertThat(leaks[0], containsString(getClass().getName() + ".leakDetection"));
+
+		leaked.close();
+		assertThat(dataSource.getLeakedConnections().length, is(0));
+	}
+
+	/**
+	 * Leaks are reported by the leak check timer even if no connection is borrowed after
+	 * the leaking one.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void leakCheckRunsWithoutBorrowing() throws Exception
+	{
+		dataSource.setLeakThresholdMillis(50);
+		final Connection leaked = dataSource.getConnection();
+		for (int i = 0; (i < 100) && (dataSource.getReportedLeakCount() == 0); i++)
+		{
+			Thread.sleep(20);
+		}
+		assertThat(dataSource.getReportedLeakCount(), is(1L));
+
+		// Reported once
+		Thread.sleep(100);
+		assertThat(dataSource.getReportedLeakCount(), is(1L));
+		leaked.close();
+	}
+
+	/**
+	 * The pool statistics are registered on the platform MBean server on first connection
+	 * and unregistered on close.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void mBeanExport() throws Exception
+	{
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName name = new ObjectName(ConfigurableBasicDataSource.JMX_DOMAIN
+				+ ":type=ConfigurableBasicDataSource,name=" + ObjectName.quote("test"));
+		assertThat(server.isRegistered(name), is(false));
+
+		final Connection connection = dataSource.getConnection();
+		assertThat(server.isRegistered(name), is(true));
+		assertThat((Integer) server.getAttribute(name, "NumActive"), is(1));
+		connection.close();
+
+		dataSource.close();
+		assertThat(server.isRegistered(name), is(false));
+	}
+}
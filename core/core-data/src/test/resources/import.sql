@@ -34,3 +34,9 @@ INSERT INTO Event (id, event, person_id) VALUES (8, 'Event 2', 6)
 INSERT INTO Event (id, event, person_id) VALUES (9, 'Event 1', 7)
 INSERT INTO Event (id, event, person_id) VALUES (10, 'Event 2', 7)
 INSERT INTO Event (id, event, person_id) VALUES (11, 'Event 3', 5)
+
+INSERT INTO DatasetPerson (dataset_id, person_id, name) VALUES (2, 1, 'John Doe');
+INSERT INTO DatasetPerson (dataset_id, person_id, name) VALUES (1, 3, 'Jane Doe');
+INSERT INTO DatasetPerson (dataset_id, person_id, name) VALUES (1, 1, 'Jack Doe');
+INSERT INTO DatasetPerson (dataset_id, person_id, name) VALUES (2, 2, 'Jill Doe');
+INSERT INTO DatasetPerson (dataset_id, person_id, name) VALUES (1, 2, 'John Doe');
@@ -57,7 +57,7 @@ public abstract class AbstractJobScheduler<V> implements JobScheduler<V>
 	/**
 	 * Is this plan completed yet.
 	 */
-	private boolean completed = false;
+	private volatile boolean completed = false;
 
 	// ========================= CONSTRUCTORS ==============================
 
@@ -148,6 +148,12 @@ public abstract class AbstractJobScheduler<V> implements JobScheduler<V>
 					break;
 				}
 
+				case FAILED:
+				{
+					onJobFailed(job);
+					break;
+				}
+
 				case SCHEDULER_COMPLETED:
 				{
 					onSchedulerCompleted(jobEvent);
@@ -223,6 +229,17 @@ public abstract class AbstractJobScheduler<V> implements JobScheduler<V>
 		// A hook
 	}
 
+	/**
+	 * A hook for sub-classes: process a job failure event.
+	 *
+	 * @param job
+	 *            job in question
+	 */
+	public void onJobFailed(final V job)
+	{
+		// A hook
+	}
+
 	/**
 	 * A hook for sub-classes: process a scheduler completion event.
 	 *
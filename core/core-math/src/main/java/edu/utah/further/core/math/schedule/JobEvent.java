@@ -71,6 +71,11 @@ public final class JobEvent<V> extends DataMessage<JobRunnerNotifier<V>, V>
 		 */
 		AFTER_COMPLETED,
 
+		/**
+		 * Triggered when a job failed. Jobs that depend on it can no longer run.
+		 */
+		FAILED,
+
 		/**
 		 * An entire scheduled job graph is completed (or received a stop command).
 		 */
@@ -84,6 +84,17 @@ public final class JobRunnerNotifier<V> implements JobRunner<V>, Subject
 		notifyObservers(JobEvent.<V> newEvent(this, type, v));
 	}
 
+	/**
+	 * Notify observers that job <code>v</code> failed.
+	 * 
+	 * @param v
+	 *            job identifier
+	 */
+	public void failJob(final V v)
+	{
+		notifyObservers(v, JobEvent.Type.FAILED);
+	}
+
 	// ========================= IMPL: JobRunner ===========================
 
 	/*
@@ -17,14 +17,15 @@ package edu.utah.further.core.math.schedule;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
-import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.lang.Validate;
 import org.jgrapht.DirectedGraph;
-import org.jgrapht.Graphs;
 import org.jgrapht.graph.DefaultEdge;
 import org.slf4j.Logger;
 
@@ -37,6 +38,16 @@ import edu.utah.further.core.api.collections.CollectionUtil;
  * This class implements the observer pattern: it observes {@link JobRunner} and decides
  * what jobs to start next based on job completion events.
  * <p>
+ * The graph is copied into arrays indexed by vertex number upon construction, and the
+ * topological level and critical-path length (the largest total cost of a path from the
+ * job to a sink) of each job are precomputed. Jobs whose dependencies are all completed
+ * are ready; at most <code>maxConcurrentJobs</code> jobs run at a time, and ready jobs
+ * are dispatched in decreasing critical-path length order, so that a wide plan finishes
+ * in about the length of its critical path rather than in submission order. Dependency
+ * counters and job states are atomic, so completion events may arrive from multiple
+ * threads. When a job fails, all jobs that depend on it, directly or indirectly, are
+ * cancelled.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -55,58 +66,247 @@ public final class JobSchedulerGraphImpl<V> extends AbstractJobScheduler<V>
 	/**
 	 * A logger that helps identify this class' printouts.
 	 */
-	@SuppressWarnings("unused")
 	private static final Logger log = getLogger(JobSchedulerGraphImpl.class);
 
-	// ========================= DEPENDENCIES ==============================
+	/**
+	 * Job state: waiting for dependencies or for a free slot.
+	 */
+	private static final int PENDING = 0;
+
+	/**
+	 * Job state: started and not yet completed.
+	 */
+	private static final int STARTED = 1;
+
+	/**
+	 * Job state: completed successfully.
+	 */
+	private static final int COMPLETED = 2;
 
 	/**
-	 * Graph in question.
+	 * Job state: failed.
 	 */
-	private final DirectedGraph<V, DefaultEdge> graph;
+	private static final int FAILED = 3;
 
 	/**
-	 * Keeps track of the currently running jobs and jobs that remain to be run.
+	 * Job state: will never run because one of its dependencies failed.
 	 */
-	private final Set<V> remainingJobs = CollectionUtil.newSet();
+	private static final int CANCELLED = 4;
+
+	// ========================= NESTED TYPES ==============================
 
 	/**
-	 * Keeps track of all completed jobs to date.
+	 * Assigns a unit cost to all jobs, so that critical-path lengths are measured in
+	 * number of jobs.
 	 */
-	private final Set<V> completedJobs = CollectionUtil.newSet();
+	private static final class UnitJobCost<V> implements JobCost<V>
+	{
+		/**
+		 * @see edu.utah.further.core.math.schedule.JobCost#getCost(java.lang.Object)
+		 */
+		@Override
+		public long getCost(final V job)
+		{
+			return 1L;
+		}
+	}
+
+	/**
+	 * Orders ready jobs by decreasing critical-path length, then by increasing
+	 * topological level, then by vertex number.
+	 */
+	private final class CriticalPathFirst implements Comparator<Integer>
+	{
+		/**
+		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+		 */
+		@Override
+		public int compare(final Integer o1, final Integer o2)
+		{
+			final int i = o1.intValue();
+			final int j = o2.intValue();
+			int result = Long.compare(criticalPath[j], criticalPath[i]);
+			if (result == 0)
+			{
+				result = Integer.compare(level[i], level[j]);
+			}
+			return (result == 0) ? Integer.compare(i, j) : result;
+		}
+	}
 
 	// ========================= FIELDS ====================================
 
+	/**
+	 * Graph vertices. A vertex is identified by its index in this list.
+	 */
+	private final List<V> vertices;
+
+	/**
+	 * Maps a vertex to its index in {@link #vertices}.
+	 */
+	private final Map<V, Integer> index = CollectionUtil.newMap();
+
+	/**
+	 * Successor (dependent job) indices of each vertex.
+	 */
+	private final int[][] successors;
+
+	/**
+	 * Predecessor (dependency) indices of each vertex.
+	 */
+	private final int[][] predecessors;
+
+	/**
+	 * Topological level of each vertex: 0 for jobs with no dependencies, otherwise one
+	 * more than the largest level of its dependencies.
+	 */
+	private final int[] level;
+
+	/**
+	 * Critical-path length of each vertex: the job's cost plus the largest
+	 * critical-path length of its dependents.
+	 */
+	private final long[] criticalPath;
+
+	/**
+	 * Is the graph acyclic.
+	 */
+	private final boolean acyclic;
+
+	/**
+	 * Maximum number of jobs that may run at the same time.
+	 */
+	private final int maxConcurrentJobs;
+
 	/**
 	 * Keeps track of how many dependencies each vertex has that didn't yet complete.
 	 */
-	private final Map<V, Integer> remainingDependencies = CollectionUtil
-			.newConcurrentMap();
+	private final AtomicIntegerArray remainingDependencies;
+
+	/**
+	 * State of each vertex's job.
+	 */
+	private final AtomicIntegerArray states;
+
+	/**
+	 * Jobs whose dependencies are all completed, in dispatch order.
+	 */
+	private final PriorityBlockingQueue<Integer> readyJobs;
+
+	/**
+	 * Number of currently running jobs.
+	 */
+	private final AtomicInteger runningJobs = new AtomicInteger();
+
+	/**
+	 * Number of jobs that were neither started nor cancelled yet.
+	 */
+	private final AtomicInteger unscheduledJobs;
 
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
-	 * Create a job scheduler.
+	 * Create a job scheduler that starts every job as soon as its dependencies complete.
 	 * 
+	 * @param notifier
+	 *            the runner we observe and schedule tasks in
 	 * @param graph
 	 *            job dependency graph to schedule
-	 * @param runner
-	 *            the runner we observe and schedule tasks in
 	 */
 	public JobSchedulerGraphImpl(final JobRunnerNotifier<V> notifier,
 			final DirectedGraph<V, DefaultEdge> graph)
 	{
-		super(notifier);
-		this.graph = graph;
+		this(notifier, graph, Integer.MAX_VALUE);
+	}
 
-		// Initialize internal data structures
-		this.remainingJobs.addAll(graph.vertexSet());
-		initializeRemainingDependencies();
+	/**
+	 * Create a job scheduler of unit-cost jobs, whose critical-path lengths are numbers of
+	 * jobs.
+	 * 
+	 * @param notifier
+	 *            the runner we observe and schedule tasks in
+	 * @param graph
+	 *            job dependency graph to schedule
+	 * @param maxConcurrentJobs
+	 *            maximum number of jobs that may run at the same time
+	 */
+	public JobSchedulerGraphImpl(final JobRunnerNotifier<V> notifier,
+			final DirectedGraph<V, DefaultEdge> graph, final int maxConcurrentJobs)
+	{
+		this(notifier, graph, maxConcurrentJobs, new UnitJobCost<V>());
 	}
 
-	// ========================= IMPL: Observer ============================
+	/**
+	 * Create a job scheduler.
+	 * 
+	 * @param notifier
+	 *            the runner we observe and schedule tasks in
+	 * @param graph
+	 *            job dependency graph to schedule
+	 * @param maxConcurrentJobs
+	 *            maximum number of jobs that may run at the same time
+	 * @param jobCost
+	 *            job cost estimator, used to prioritize ready jobs
+	 */
+	public JobSchedulerGraphImpl(final JobRunnerNotifier<V> notifier,
+			final DirectedGraph<V, DefaultEdge> graph, final int maxConcurrentJobs,
+			final JobCost<V> jobCost)
+	{
+		super(notifier);
+		Validate.isTrue(maxConcurrentJobs > 0, "Max concurrent jobs must be positive");
+		this.maxConcurrentJobs = maxConcurrentJobs;
+
+		// Index vertices and copy edges into adjacency arrays
+		this.vertices = CollectionUtil.newList(graph.vertexSet());
+		final int n = vertices.size();
+		for (int i = 0; i < n; i++)
+		{
+			index.put(vertices.get(i), Integer.valueOf(i));
+		}
+		this.successors = new int[n][];
+		final int[] inDegree = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			final V v = vertices.get(i);
+			final int[] targets = new int[graph.outDegreeOf(v)];
+			int k = 0;
+			for (final DefaultEdge edge : graph.outgoingEdgesOf(v))
+			{
+				targets[k] = index.get(graph.getEdgeTarget(edge)).intValue();
+				inDegree[targets[k]]++;
+				k++;
+			}
+			successors[i] = targets;
+		}
+		this.predecessors = new int[n][];
+		final int[] fill = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			predecessors[i] = new int[inDegree[i]];
+		}
+		for (int i = 0; i < n; i++)
+		{
+			for (final int j : successors[i])
+			{
+				predecessors[j][fill[j]++] = i;
+			}
+		}
+		this.remainingDependencies = new AtomicIntegerArray(inDegree);
+		this.states = new AtomicIntegerArray(n);
+		this.unscheduledJobs = new AtomicInteger(n);
+
+		// Precompute levels and critical-path lengths
+		this.level = new int[n];
+		this.criticalPath = new long[n];
+		final int[] order = topologicalOrder(inDegree);
+		this.acyclic = (order.length == n);
+		computeLevels(order);
+		computeCriticalPaths(order, jobCost);
+		this.readyJobs = new PriorityBlockingQueue<>(Math.max(n, 1),
+				new CriticalPathFirst());
+	}
 
-	// ========================= PRIVATE METHODS ============================
+	// ========================= IMPL: AbstractJobScheduler ================
 
 	/*
 	 * (non-Javadoc)
@@ -116,36 +316,27 @@ public final class JobSchedulerGraphImpl<V> extends AbstractJobScheduler<V>
 	@Override
 	public void onSchedulerStart()
 	{
-		final Collection<V> dependents = graph.vertexSet();
-		if (dependents != null)
+		if (!acyclic)
 		{
-			boolean atLeastOneJobStarted = false;
-			// Encountered a relevant event
-			for (final V dependent : dependents)
-			{
-				// There must be at least one job which can be started when the schedule
-				// starts.
-				if (NumberUtils.INTEGER_ZERO.equals(remainingDependencies.get(dependent)))
-				{
-					startJob(dependent);
-					atLeastOneJobStarted = true;
-				}
-			}
-
-			// Ensure that a job is started or nothing will happen
-			if (!atLeastOneJobStarted)
+			throw new IllegalStateException(
+					"Job scheduling graph is unresolvable, it contains a dependency cycle");
+		}
+		// There must be at least one job which can be started when the schedule starts
+		for (int i = 0; i < vertices.size(); i++)
+		{
+			if (remainingDependencies.get(i) == 0)
 			{
-				throw new IllegalStateException(
-						"Job scheduling graph is unresolvable, there are no jobs which can start. "
-								+ "All jobs have dependencies which must be started first. Expected at least one job with no dependencies that could start");
+				readyJobs.add(Integer.valueOf(i));
 			}
-
 		}
-		else
+		// Ensure that a job is started or nothing will happen
+		if (readyJobs.isEmpty())
 		{
 			throw new IllegalStateException(
-					"Expected job scheduler graph with dependencies but graph has no dependencies (vertices)");
+					"Job scheduling graph is unresolvable, there are no jobs which can start. "
+							+ "All jobs have dependencies which must be started first. Expected at least one job with no dependencies that could start");
 		}
+		dispatch();
 	}
 
 	/*
@@ -158,101 +349,310 @@ public final class JobSchedulerGraphImpl<V> extends AbstractJobScheduler<V>
 	@Override
 	public void onJobAfterCompleted(final V job)
 	{
-		// Update tracking lists
-		completedJobs.add(job);
+		final int i = indexOf(job);
+		// Ignore jobs of other schedulers and duplicate completion events
+		if ((i < 0) || !states.compareAndSet(i, STARTED, COMPLETED))
+		{
+			return;
+		}
+		runningJobs.decrementAndGet();
 
-		// Remove dependency of job on its dependents and start those that have no
-		// remaining dependencies
-		final Collection<V> dependents = getDependents(job);
-		if (dependents != null)
+		// Remove dependency of job on its dependents; those that have no remaining
+		// dependencies are now ready
+		for (final int dependent : successors[i])
 		{
-			// Encountered a relevant event
-			for (final V dependent : dependents)
+			if ((remainingDependencies.decrementAndGet(dependent) == 0)
+					&& (states.get(dependent) == PENDING))
 			{
-				if (job != null)
-				{
-					removeDependency(dependent);
-				}
-				if (NumberUtils.INTEGER_ZERO.equals(remainingDependencies.get(dependent)))
+				readyJobs.add(Integer.valueOf(dependent));
+			}
+		}
+		dispatch();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.core.math.schedule.AbstractJobScheduler#onJobFailed(java.lang.
+	 * Object)
+	 */
+	@Override
+	public void onJobFailed(final V job)
+	{
+		final int i = indexOf(job);
+		if ((i < 0) || !states.compareAndSet(i, STARTED, FAILED))
+		{
+			return;
+		}
+		runningJobs.decrementAndGet();
+		cancelDependents(i);
+		if (unscheduledJobs.get() == 0)
+		{
+			stop();
+		}
+		dispatch();
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return the topological level of a job.
+	 * 
+	 * @param job
+	 *            job in question
+	 * @return 0 if the job has no dependencies, otherwise one more than the largest
+	 *         level of its dependencies
+	 */
+	public int getLevel(final V job)
+	{
+		return level[validIndexOf(job)];
+	}
+
+	/**
+	 * Return the critical-path length of a job.
+	 * 
+	 * @param job
+	 *            job in question
+	 * @return the job's cost plus the largest critical-path length of its dependents
+	 */
+	public long getCriticalPathLength(final V job)
+	{
+		return criticalPath[validIndexOf(job)];
+	}
+
+	/**
+	 * Return the critical-path length of the entire graph, which bounds the time it
+	 * takes to run all jobs from below.
+	 * 
+	 * @return largest critical-path length of a job
+	 */
+	public long getCriticalPathLength()
+	{
+		long result = 0L;
+		for (final long length : criticalPath)
+		{
+			result = Math.max(result, length);
+		}
+		return result;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Start ready jobs, highest priority first, as long as there are free slots.
+	 */
+	private void dispatch()
+	{
+		while (true)
+		{
+			final int running = runningJobs.get();
+			if (running >= maxConcurrentJobs)
+			{
+				return;
+			}
+			// Reserve a slot before polling so that concurrent dispatchers never exceed
+			// the maximum
+			if (!runningJobs.compareAndSet(running, running + 1))
+			{
+				continue;
+			}
+			final Integer next = readyJobs.poll();
+			if ((next == null) || !startJob(next.intValue()))
+			{
+				runningJobs.decrementAndGet();
+				// Another thread may have added a ready job while we held the slot
+				if (readyJobs.isEmpty())
 				{
-					startJob(dependent);
+					return;
 				}
 			}
 		}
 	}
 
 	/**
-	 * @param dependent
+	 * Start a job in a reserved slot.
+	 * 
+	 * @param i
+	 *            vertex index
+	 * @return <code>true</code> if and only if the job was started
 	 */
-	private void startJob(final V v)
+	private boolean startJob(final int i)
 	{
-		checkIfDependenciesAreSatisfied(v);
+		if (!states.compareAndSet(i, PENDING, STARTED))
+		{
+			return false;
+		}
+		checkIfDependenciesAreSatisfied(i);
 
 		// Automatically completes when there are no more jobs to run
-		remainingJobs.remove(v);
-		if (remainingJobs.isEmpty())
+		if (unscheduledJobs.decrementAndGet() == 0)
 		{
 			stop();
 		}
 
+		final V v = vertices.get(i);
+		if (log.isDebugEnabled())
+		{
+			log.debug("Starting job " + v + " level " + level[i] + " critical path "
+					+ criticalPath[i]);
+		}
 		notifier.startJob(v);
+		return true;
 	}
 
 	/**
-	 * Get dependencies relevant to a job runner event. runner start-up event, the
-	 * "dependents" are defined as all vertices.
+	 * Cancel all jobs that directly or indirectly depend on a job.
 	 * 
-	 * @param job
-	 *            completed job's vertex, if applicable
-	 * @return dependent collection
+	 * @param failed
+	 *            index of the failed job
+	 */
+	private void cancelDependents(final int failed)
+	{
+		final int[] stack = new int[vertices.size()];
+		int top = 0;
+		stack[top++] = failed;
+		while (top > 0)
+		{
+			final int i = stack[--top];
+			for (final int dependent : successors[i])
+			{
+				if (states.compareAndSet(dependent, PENDING, CANCELLED))
+				{
+					unscheduledJobs.decrementAndGet();
+					if (log.isDebugEnabled())
+					{
+						log.debug("Cancelled job " + vertices.get(dependent)
+								+ " because job " + vertices.get(failed) + " failed");
+					}
+					stack[top++] = dependent;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort the graph topologically.
+	 * 
+	 * @param inDegree
+	 *            number of dependencies of each vertex
+	 * @return vertex indices in topological order. If the graph has a cycle, the cycle's
+	 *         vertices and their dependents are omitted
+	 */
+	private int[] topologicalOrder(final int[] inDegree)
+	{
+		final int n = inDegree.length;
+		final int[] remaining = inDegree.clone();
+		final int[] order = new int[n];
+		int tail = 0;
+		for (int i = 0; i < n; i++)
+		{
+			if (remaining[i] == 0)
+			{
+				order[tail++] = i;
+			}
+		}
+		for (int head = 0; head < tail; head++)
+		{
+			for (final int j : successors[order[head]])
+			{
+				if (--remaining[j] == 0)
+				{
+					order[tail++] = j;
+				}
+			}
+		}
+		final int[] result = new int[tail];
+		System.arraycopy(order, 0, result, 0, tail);
+		return result;
+	}
+
+	/**
+	 * Compute topological levels.
+	 * 
+	 * @param order
+	 *            vertex indices in topological order
 	 */
-	private Collection<V> getDependents(final V job)
+	private void computeLevels(final int[] order)
 	{
-		if (graph.containsVertex(job))
+		for (final int i : order)
 		{
-			return Graphs.successorListOf(graph, job);
+			for (final int p : predecessors[i])
+			{
+				level[i] = Math.max(level[i], level[p] + 1);
+			}
 		}
-		return Collections.EMPTY_SET;
 	}
 
 	/**
-	 * Calculate the initial number of remaining dependencies of each job.
+	 * Compute critical-path lengths in reverse topological order.
+	 * 
+	 * @param order
+	 *            vertex indices in topological order
+	 * @param jobCost
+	 *            job cost estimator
 	 */
-	private void initializeRemainingDependencies()
+	private void computeCriticalPaths(final int[] order, final JobCost<V> jobCost)
 	{
-		for (final V v : graph.vertexSet())
+		for (int k = order.length - 1; k >= 0; k--)
 		{
-			final int numDependencies = graph.incomingEdgesOf(v).size();
-			remainingDependencies.put(v, new Integer(numDependencies));
+			final int i = order[k];
+			final long cost = jobCost.getCost(vertices.get(i));
+			Validate.isTrue(cost >= 0L, "Job cost must be non-negative");
+			long longestDependent = 0L;
+			for (final int s : successors[i])
+			{
+				longestDependent = Math.max(longestDependent, criticalPath[s]);
+			}
+			criticalPath[i] = cost + longestDependent;
 		}
 	}
 
 	/**
-	 * @param dependent
+	 * @param job
+	 *            job in question
+	 * @return vertex index of job, or <code>-1</code> if it is not a graph vertex
 	 */
-	private void removeDependency(final V dependent)
+	private int indexOf(final V job)
 	{
-		remainingDependencies.put(dependent,
-				new Integer(remainingDependencies.get(dependent).intValue() - 1));
+		final Integer i = index.get(job);
+		return (i == null) ? -1 : i.intValue();
+	}
+
+	/**
+	 * @param job
+	 *            job in question
+	 * @return vertex index of job
+	 * @throws IllegalArgumentException
+	 *             if job is not a graph vertex
+	 */
+	private int validIndexOf(final V job)
+	{
+		final int i = indexOf(job);
+		Validate.isTrue(i >= 0, "Job is not a vertex of the dependency graph: " + job);
+		return i;
 	}
 
 	/**
 	 * Check that all job dependencies are fulfilled.
 	 * 
-	 * @param v
+	 * @param i
+	 *            vertex index
 	 */
-	private void checkIfDependenciesAreSatisfied(final V v)
+	private void checkIfDependenciesAreSatisfied(final int i)
 	{
-		final Set<V> dependencies = CollectionUtil.newSet(Graphs.predecessorListOf(graph,
-				v));
-		if (!completedJobs.containsAll(dependencies))
+		final List<V> unfulfilledDependencies = CollectionUtil.newList();
+		for (final int p : predecessors[i])
+		{
+			if (states.get(p) != COMPLETED)
+			{
+				unfulfilledDependencies.add(vertices.get(p));
+			}
+		}
+		if (!unfulfilledDependencies.isEmpty())
 		{
-			final Set<V> unfulfilledDependencies = CollectionUtil.newSet(dependencies);
-			dependencies.removeAll(completedJobs);
-			throw new IllegalStateException("Cannot start job " + v
-					+ " due to unfulfilled dependencies " + unfulfilledDependencies
-					+ ". Completed jobs " + completedJobs + " dependencies "
-					+ dependencies);
+			throw new IllegalStateException("Cannot start job " + vertices.get(i)
+					+ " due to unfulfilled dependencies " + unfulfilledDependencies);
 		}
 	}
 }
@@ -34,7 +34,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestScheduling.class })
+{ UTestScheduling.class, UTestJobSchedulerGraph.class })
 public final class SuiteSchedule
 {
 }
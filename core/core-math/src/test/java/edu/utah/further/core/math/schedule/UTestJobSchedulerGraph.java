@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.math.schedule;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.math.util.GraphTestUtil;
+
+/**
+ * Unit test for {@link JobSchedulerGraphImpl}'s critical-path priorities, concurrency
+ * bound and failure handling.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@SuppressWarnings("boxing")
+public final class UTestJobSchedulerGraph
+{
+	// ========================= FIELDS ====================================
+
+	private DirectedGraph<Integer, DefaultEdge> graph;
+
+	private SimpleJobRunner<Integer> runner;
+
+	private JobRunnerNotifier<Integer> notifier;
+
+	private JobMonitor<Integer> monitor;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		graph = new SimpleDirectedGraph<>(DefaultEdge.class);
+		runner = new SimpleJobRunner<>();
+		notifier = new JobRunnerNotifier<>(runner);
+		monitor = new JobMonitorImpl<>(notifier);
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Levels and critical-path lengths of a small weighted graph.
+	 */
+	@Test
+	public void levelsAndCriticalPaths()
+	{
+		addVertices(1, 2, 3, 4);
+		graph.addEdge(1, 2);
+		graph.addEdge(1, 3);
+		graph.addEdge(3, 4);
+		final JobSchedulerGraphImpl<Integer> scheduler = new JobSchedulerGraphImpl<>(
+				notifier, graph, 1, new JobCost<Integer>()
+				{
+					@Override
+					public long getCost(final Integer job)
+					{
+						return job.longValue();
+					}
+				});
+
+		assertThat(scheduler.getLevel(1), is(0));
+		assertThat(scheduler.getLevel(2), is(1));
+		assertThat(scheduler.getLevel(3), is(1));
+		assertThat(scheduler.getLevel(4), is(2));
+		assertThat(scheduler.getCriticalPathLength(4), is(4L));
+		assertThat(scheduler.getCriticalPathLength(3), is(7L));
+		assertThat(scheduler.getCriticalPathLength(2), is(2L));
+		assertThat(scheduler.getCriticalPathLength(1), is(8L));
+		assertThat(scheduler.getCriticalPathLength(), is(8L));
+	}
+
+	/**
+	 * A long chain is started before wide independent jobs submitted ahead of it.
+	 */
+	@Test
+	public void criticalPathFirst()
+	{
+		addVertices(1, 2, 3, 4, 5, 6, 7);
+		graph.addEdge(5, 6);
+		graph.addEdge(6, 7);
+		final JobScheduler<Integer> scheduler = new JobSchedulerGraphImpl<>(notifier,
+				graph, 1);
+
+		scheduler.start();
+		while (!runner.runningJobs.isEmpty())
+		{
+			assertThat(runner.runningJobs.size(), is(1));
+			notifier.completeJob(runner.runningJobs.iterator().next());
+		}
+
+		assertThat(scheduler.isCompleted(), is(true));
+		// Job 7's critical path is as long as the independent jobs', which have a lower
+		// topological level
+		assertThat(startedJobs(), is(asList(5, 6, 1, 2, 3, 4, 7)));
+	}
+
+	/**
+	 * No more than the maximum number of jobs run at the same time.
+	 */
+	@Test
+	public void boundedConcurrency()
+	{
+		addVertices(1, 2, 3, 4, 5, 6);
+		final JobScheduler<Integer> scheduler = new JobSchedulerGraphImpl<>(notifier,
+				graph, 2);
+
+		scheduler.start();
+		assertThat(runner.runningJobs.size(), is(2));
+		while (!runner.runningJobs.isEmpty())
+		{
+			assertThat(runner.runningJobs.size() <= 2, is(true));
+			notifier.completeJob(GraphTestUtil.randomElement(runner.runningJobs));
+		}
+
+		assertThat(scheduler.isCompleted(), is(true));
+		assertThat(startedJobs().size(), is(6));
+	}
+
+	/**
+	 * A failed job cancels its dependents but not independent jobs.
+	 */
+	@Test
+	public void failureCancelsDependents()
+	{
+		addVertices(1, 2, 3, 4, 5);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 3);
+		graph.addEdge(4, 5);
+		final JobScheduler<Integer> scheduler = new JobSchedulerGraphImpl<>(notifier,
+				graph);
+
+		scheduler.start();
+		assertThat(CollectionUtil.newSet(startedJobs()), is(CollectionUtil.newSet(asList(
+				1, 4))));
+
+		runner.runningJobs.remove(1);
+		notifier.failJob(1);
+		assertThat(scheduler.isCompleted(), is(false));
+
+		notifier.completeJob(4);
+		assertThat(scheduler.isCompleted(), is(true));
+		assertThat(CollectionUtil.newSet(startedJobs()), is(CollectionUtil.newSet(asList(
+				1, 4, 5))));
+	}
+
+	/**
+	 * A graph with a dependency cycle cannot be scheduled.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void cycle()
+	{
+		addVertices(1, 2, 3);
+		graph.addEdge(1, 2);
+		graph.addEdge(2, 1);
+		new JobSchedulerGraphImpl<>(notifier, graph).start();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param vertices
+	 *            vertices to add to the test graph, in order
+	 */
+	private void addVertices(final Integer... vertices)
+	{
+		for (final Integer v : vertices)
+		{
+			graph.addVertex(v);
+		}
+	}
+
+	/**
+	 * @return jobs in the order they were started
+	 */
+	private List<Integer> startedJobs()
+	{
+		final List<Integer> started = CollectionUtil.newList();
+		for (final JobEvent<Integer> event : monitor.getEvents())
+		{
+			if (event.getType() == JobEvent.Type.AFTER_STARTED)
+			{
+				started.add(event.getEntity());
+			}
+		}
+		return started;
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.collections.page;
+
+import java.nio.charset.Charset;
+
+import edu.utah.further.core.api.collections.page.IterableType;
+import edu.utah.further.core.api.collections.page.Pager;
+import edu.utah.further.core.api.collections.page.PagingProvider;
+import edu.utah.further.core.api.collections.page.PagingStrategy;
+import edu.utah.further.core.api.context.Labeled;
+import edu.utah.further.core.api.text.StringParser;
+import edu.utah.further.core.util.text.AbstractCsvStringParser;
+
+/**
+ * A base class of paging providers of CSV sources. Holds the row parser and the CSV
+ * reader options shared by all source types.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public abstract class AbstractPagingProviderCsv<T, E> implements PagingProvider<T>
+{
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * parses each CSV file line into an object of type <code>E</code>.
+	 */
+	private StringParser<E> stringParser;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Character set of the CSV source. Must be ASCII-compatible. Defaults to the
+	 * platform's default character set.
+	 */
+	private Charset charset = Charset.defaultCharset();
+
+	/**
+	 * If <code>true</code>, line breaks inside double-quoted fields are part of the row.
+	 * Only turn on with a quote-aware string parser, e.g. an
+	 * {@link AbstractCsvStringParser}, and for sources whose fields are properly quoted:
+	 * an unbalanced quote joins all subsequent lines into one row. Defaults to
+	 * <code>false</code>: every line break ends a row.
+	 */
+	private boolean quoteAware = false;
+
+	/**
+	 * Read buffer size of sources that cannot be memory-mapped [bytes].
+	 */
+	private int bufferSize = CsvLineReader.DEFAULT_BUFFER_SIZE;
+
+	// ========================= IMPL: PagingProvider ======================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.utah.further.core.api.collections.page.PagingProvider#getIterableType()
+	 */
+	@Override
+	public final Labeled getIterableType()
+	{
+		return IterableType.CSV_STREAM;
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Set a new value for the stringParser property.
+	 *
+	 * @param stringParser
+	 *            the stringParser to set
+	 */
+	public final void setStringParser(final StringParser<E> stringParser)
+	{
+		this.stringParser = stringParser;
+	}
+
+	/**
+	 * Set a new value for the charset property.
+	 *
+	 * @param charset
+	 *            the charset to set
+	 */
+	public final void setCharset(final Charset charset)
+	{
+		this.charset = charset;
+	}
+
+	/**
+	 * Set a new value for the quoteAware property.
+	 *
+	 * @param quoteAware
+	 *            the quoteAware to set
+	 */
+	public final void setQuoteAware(final boolean quoteAware)
+	{
+		this.quoteAware = quoteAware;
+	}
+
+	/**
+	 * Set a new value for the bufferSize property.
+	 *
+	 * @param bufferSize
+	 *            the bufferSize to set
+	 */
+	public final void setBufferSize(final int bufferSize)
+	{
+		this.bufferSize = bufferSize;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Return a pager over a CSV record reader.
+	 *
+	 * @param reader
+	 *            CSV record reader
+	 * @param pagingStrategy
+	 *            paging strategy
+	 * @return CSV pager
+	 */
+	final Pager<?> newCsvPager(final CsvLineReader reader,
+			final PagingStrategy pagingStrategy)
+	{
+		return new CsvStreamPager<>(reader, pagingStrategy, stringParser);
+	}
+
+	/**
+	 * @return the charset property
+	 */
+	final Charset getCharset()
+	{
+		return charset;
+	}
+
+	/**
+	 * @return the quoteAware property
+	 */
+	final boolean isQuoteAware()
+	{
+		return quoteAware;
+	}
+
+	/**
+	 * @return the bufferSize property
+	 */
+	final int getBufferSize()
+	{
+		return bufferSize;
+	}
+}
@@ -0,0 +1,426 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.collections.page;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.api.message.ValidationUtil;
+
+/**
+ * A byte-level CSV record reader that backs {@link CsvStreamPager}. File sources are
+ * memory-mapped in windows of {@link #MAP_WINDOW_SIZE} bytes; other streams are read in
+ * large blocks into a single reusable buffer. A small state machine splits the bytes
+ * into records, keeping line breaks that appear inside quoted fields as part of the
+ * record. Record bytes are accumulated in a reusable array and appended to a
+ * caller-supplied {@link StringBuilder}, so that no intermediate objects are created
+ * per record.
+ * <p>
+ * The character set must be ASCII-compatible (e.g. UTF-8, ISO-8859-1); pure ASCII
+ * records are decoded without going through the {@link Charset} at all.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+final class CsvLineReader implements Closeable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Default stream read buffer size [bytes].
+	 */
+	static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Maximum size of a single memory-mapped file region [bytes].
+	 */
+	static final long MAP_WINDOW_SIZE = 1L << 28;
+
+	/**
+	 * Initial record buffer size [bytes].
+	 */
+	private static final int INITIAL_LINE_SIZE = 256;
+
+	private static final byte LF = '\n';
+
+	private static final byte CR = '\r';
+
+	private static final byte QUOTE = '"';
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Closed upon {@link #close()}.
+	 */
+	private final Closeable source;
+
+	/**
+	 * Non-<code>null</code> iff the source is memory-mapped.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Non-<code>null</code> iff the source is read in blocks.
+	 */
+	private final InputStream inputStream;
+
+	/**
+	 * Decodes records that contain non-ASCII bytes.
+	 */
+	private final Charset charset;
+
+	/**
+	 * If <code>true</code>, line breaks inside double-quoted fields do not end a record.
+	 */
+	private final boolean quoteAware;
+
+	/**
+	 * Current input window: a mapped file region or the block read buffer.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Position of the next region to map in the file channel.
+	 */
+	private long mapPosition;
+
+	/**
+	 * Size of the mapped file.
+	 */
+	private long mapLimit;
+
+	/**
+	 * Bytes of the pending record, excluding its line terminator.
+	 */
+	private byte[] line = new byte[INITIAL_LINE_SIZE];
+
+	/**
+	 * Number of valid bytes in {@link #line}.
+	 */
+	private int lineLength;
+
+	/**
+	 * Does {@link #line} contain a non-ASCII byte.
+	 */
+	private boolean lineNonAscii;
+
+	/**
+	 * Has a record been read ahead and not consumed yet.
+	 */
+	private boolean linePending;
+
+	/**
+	 * Has the end of the input been reached.
+	 */
+	private boolean endOfInput;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Read from an input stream. A {@link FileInputStream} is memory-mapped from its
+	 * current position.
+	 *
+	 * @param inputStream
+	 *            input stream; closed by {@link #close()}
+	 * @param charset
+	 *            ASCII-compatible character set of the stream
+	 * @param quoteAware
+	 *            whether to keep line breaks inside quoted fields
+	 * @param bufferSize
+	 *            block read buffer size, if the stream is not memory-mapped
+	 */
+	CsvLineReader(final InputStream inputStream, final Charset charset,
+			final boolean quoteAware, final int bufferSize)
+	{
+		ValidationUtil.validateNotNull("inputStream", inputStream);
+		ValidationUtil.validateIsTrue(bufferSize > 0, "Buffer size must be positive");
+		this.source = inputStream;
+		this.charset = validateCharset(charset);
+		this.quoteAware = quoteAware;
+		FileChannel fileChannel = null;
+		if (inputStream instanceof FileInputStream)
+		{
+			fileChannel = ((FileInputStream) inputStream).getChannel();
+			try
+			{
+				this.mapPosition = fileChannel.position();
+				this.mapLimit = fileChannel.size();
+			}
+			catch (final IOException e)
+			{
+				// Not a regular file (e.g. a pipe); fall back to block reads
+				fileChannel = null;
+			}
+		}
+		this.channel = fileChannel;
+		if (channel == null)
+		{
+			this.inputStream = inputStream;
+			this.buffer = ByteBuffer.allocate(bufferSize);
+			this.buffer.limit(0);
+		}
+		else
+		{
+			this.inputStream = null;
+			this.buffer = ByteBuffer.allocate(0);
+		}
+	}
+
+	/**
+	 * Memory-map a file.
+	 *
+	 * @param file
+	 *            file to read
+	 * @param charset
+	 *            ASCII-compatible character set of the file
+	 * @param quoteAware
+	 *            whether to keep line breaks inside quoted fields
+	 */
+	@SuppressWarnings("resource")
+	// Stream is closed by close()
+	CsvLineReader(final File file, final Charset charset, final boolean quoteAware)
+	{
+		this(openFile(file), charset, quoteAware, DEFAULT_BUFFER_SIZE);
+	}
+
+	// ========================= IMPL: Closeable ===========================
+
+	/**
+	 * Close the underlying source.
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close()
+	{
+		buffer = null;
+		try
+		{
+			source.close();
+		}
+		catch (final IOException e)
+		{
+			throw new ApplicationException("Failed to close CSV input", e);
+		}
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Read the next record ahead, if not already read.
+	 *
+	 * @return <code>true</code> if and only if there is another record
+	 */
+	boolean hasNextLine()
+	{
+		if (!linePending && !endOfInput)
+		{
+			linePending = readLine();
+		}
+		return linePending;
+	}
+
+	/**
+	 * Append the next record, without its line terminator, to a string builder and
+	 * consume it.
+	 *
+	 * @param target
+	 *            string builder to append to
+	 * @return <code>target</code>, for chaining
+	 * @throws IllegalStateException
+	 *             if there are no more records
+	 */
+	StringBuilder appendNextLine(final StringBuilder target)
+	{
+		if (!hasNextLine())
+		{
+			throw new IllegalStateException("No more lines");
+		}
+		if (lineNonAscii)
+		{
+			target.append(new String(line, 0, lineLength, charset));
+		}
+		else
+		{
+			target.ensureCapacity(target.length() + lineLength);
+			for (int i = 0; i < lineLength; i++)
+			{
+				target.append((char) line[i]);
+			}
+		}
+		linePending = false;
+		return target;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Scan the next record into {@link #line}.
+	 *
+	 * @return <code>true</code> if a record was read, <code>false</code> at the end of
+	 *         input
+	 */
+	private boolean readLine()
+	{
+		lineLength = 0;
+		lineNonAscii = false;
+		boolean inQuotes = false;
+		boolean readAny = false;
+		while (true)
+		{
+			if (!buffer.hasRemaining() && !fill())
+			{
+				endOfInput = true;
+				return readAny;
+			}
+			readAny = true;
+			final byte b = buffer.get();
+			if ((b == LF) && !inQuotes)
+			{
+				if ((lineLength > 0) && (line[lineLength - 1] == CR))
+				{
+					lineLength--;
+				}
+				return true;
+			}
+			if ((b == QUOTE) && quoteAware)
+			{
+				// An escaped quote ("") toggles twice, leaving the state unchanged
+				inQuotes = !inQuotes;
+			}
+			else if (b < 0)
+			{
+				lineNonAscii = true;
+			}
+			if (lineLength == line.length)
+			{
+				line = Arrays.copyOf(line, line.length << 1);
+			}
+			line[lineLength++] = b;
+		}
+	}
+
+	/**
+	 * Refill the input window.
+	 *
+	 * @return <code>false</code> if and only if the end of the input has been reached
+	 */
+	private boolean fill()
+	{
+		try
+		{
+			return (channel == null) ? fillBlock() : mapNextWindow();
+		}
+		catch (final IOException e)
+		{
+			throw new ApplicationException("Failed to read CSV input", e);
+		}
+	}
+
+	/**
+	 * Read the next block from the input stream.
+	 *
+	 * @return <code>false</code> at the end of the stream
+	 * @throws IOException
+	 */
+	private boolean fillBlock() throws IOException
+	{
+		final int count = inputStream.read(buffer.array(), 0, buffer.capacity());
+		if (count <= 0)
+		{
+			buffer.limit(0);
+			return (count == 0) ? fillBlock() : false;
+		}
+		buffer.position(0);
+		buffer.limit(count);
+		return true;
+	}
+
+	/**
+	 * Map the next region of the file.
+	 *
+	 * @return <code>false</code> at the end of the file
+	 * @throws IOException
+	 */
+	private boolean mapNextWindow() throws IOException
+	{
+		if (mapPosition >= mapLimit)
+		{
+			return false;
+		}
+		final long size = Math.min(MAP_WINDOW_SIZE, mapLimit - mapPosition);
+		final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+				mapPosition, size);
+		mapPosition += size;
+		buffer = window;
+		return true;
+	}
+
+	/**
+	 * Open a file for reading.
+	 *
+	 * @param file
+	 *            file to open
+	 * @return file input stream
+	 */
+	private static FileInputStream openFile(final File file)
+	{
+		ValidationUtil.validateNotNull("file", file);
+		try
+		{
+			return new FileInputStream(file);
+		}
+		catch (final IOException e)
+		{
+			throw new ApplicationException("Failed to open CSV file " + file, e);
+		}
+	}
+
+	/**
+	 * Make sure that record delimiters are single ASCII bytes in a character set.
+	 *
+	 * @param charset
+	 *            character set
+	 * @return <code>charset</code>
+	 */
+	private static Charset validateCharset(final Charset charset)
+	{
+		ValidationUtil.validateNotNull("charset", charset);
+		final boolean asciiCompatible = Arrays.equals("\r\n\"aZ".getBytes(charset),
+				new byte[]
+				{ CR, LF, QUOTE, 'a', 'Z' });
+		ValidationUtil.validateIsTrue(asciiCompatible, "Character set " + charset
+				+ " is not ASCII-compatible");
+		return charset;
+	}
+}
@@ -18,15 +18,11 @@ package edu.utah.further.core.util.collections.page;
 import static edu.utah.further.core.util.collections.page.PagerUtil.CSV_GUARD_CHARACTER;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 import org.slf4j.Logger;
 
-import edu.utah.further.core.api.collections.CollectionUtil;
 import edu.utah.further.core.api.collections.page.PagingStrategy;
 import edu.utah.further.core.api.message.ValidationUtil;
 import edu.utah.further.core.api.text.StringParser;
@@ -35,6 +31,11 @@ import edu.utah.further.core.api.text.StringParser;
  * A pager of a CSV file input stream. Translates each row into an object using a
  * {@link StringParser}.
  * <p>
+ * Rows are read by a {@link CsvLineReader}, which memory-maps file sources. Each row
+ * is decoded, with its guard characters, into a single reused {@link StringBuilder}, so
+ * the only per-row allocations are the row string handed to the parser and the parsed
+ * entity itself.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -55,6 +56,11 @@ final class CsvStreamPager<E> extends AbstractListPager<E>
 	 */
 	private static final Logger log = getLogger(CsvStreamPager.class);
 
+	/**
+	 * Caps the pre-allocated page list capacity for unlimited page sizes.
+	 */
+	private static final int MAX_INITIAL_PAGE_CAPACITY = 1024;
+
 	// ========================= FIELDS ====================================
 
 	/**
@@ -63,26 +69,29 @@ final class CsvStreamPager<E> extends AbstractListPager<E>
 	private final StringParser<E> stringParser;
 
 	/**
-	 * Internal stream line scanner.
+	 * Internal CSV record reader.
 	 */
-	private final Scanner scanner;
+	private final CsvLineReader reader;
+
+	/**
+	 * Reused buffer of the current guarded row.
+	 */
+	private final StringBuilder row = new StringBuilder();
 
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
-	 * @param inputStream
+	 * @param reader
 	 * @param pagingStrategy
 	 * @param stringParser
 	 */
-	@SuppressWarnings("resource")
-	// Caller closes scanner or passed inputstreams
-	CsvStreamPager(final InputStream inputStream, final PagingStrategy pagingStrategy,
+	CsvStreamPager(final CsvLineReader reader, final PagingStrategy pagingStrategy,
 			final StringParser<E> stringParser)
 	{
 		super(pagingStrategy);
-		ValidationUtil.validateNotNull("inputStream", inputStream);
+		ValidationUtil.validateNotNull("reader", reader);
 		this.stringParser = stringParser;
-		this.scanner = new Scanner(new BufferedReader(new InputStreamReader(inputStream)));
+		this.reader = reader;
 	}
 
 	// ========================= IMPL: Iterator<List<E>> ===================
@@ -94,7 +103,7 @@ final class CsvStreamPager<E> extends AbstractListPager<E>
 	@Override
 	protected boolean hasNextInternal()
 	{
-		return scanner.hasNextLine();
+		return reader.hasNextLine();
 	}
 
 	/*
@@ -105,10 +114,7 @@ final class CsvStreamPager<E> extends AbstractListPager<E>
 	@Override
 	public void close()
 	{
-		if (scanner != null)
-		{
-			scanner.close();
-		}
+		reader.close();
 	}
 
 	// ========================= PRIVATE METHODS ===========================
@@ -124,24 +130,32 @@ final class CsvStreamPager<E> extends AbstractListPager<E>
 	@Override
 	protected List<E> getPage(final int currentPageSize)
 	{
-		final List<E> page = CollectionUtil.newList();
+		final List<E> page = new ArrayList<>(Math.min(currentPageSize,
+				MAX_INITIAL_PAGE_CAPACITY));
 		// Allow sub-classes to override -- don't use our private field here
 		for (int i = 0; !isEndOfIteration() && (i < currentPageSize)
-				&& scanner.hasNextLine(); i++)
+				&& reader.hasNextLine(); i++)
 		{
-			final String line = scanner.nextLine();
 			incrementTotalIterantCounter();
-			if (getTotalIterantCounter() > getNumHeaderRows())
+			if (getTotalIterantCounter() <= getNumHeaderRows())
+			{
+				row.setLength(0);
+				reader.appendNextLine(row);
+			}
+			else
 			{
+				// Guard both the beginning and end of the string
+				row.setLength(0);
+				row.append(CSV_GUARD_CHARACTER);
+				reader.appendNextLine(row).append(CSV_GUARD_CHARACTER);
+				final String line = row.toString();
 				if (log.isDebugEnabled())
 				{
 					log.debug("Read line " + getTotalIterantCounter() + " " + line + " ");
 				}
 				try
 				{
-					// Guard both the beginning and end of the string
-					final E entity = stringParser.fromString(CSV_GUARD_CHARACTER + line
-							+ CSV_GUARD_CHARACTER);
+					final E entity = stringParser.fromString(line);
 					if (log.isDebugEnabled())
 					{
 						log.debug("Converted line to " + entity);
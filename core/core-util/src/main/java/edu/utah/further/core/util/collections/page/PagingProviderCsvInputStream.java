@@ -17,15 +17,12 @@ package edu.utah.further.core.util.collections.page;
 
 import java.io.InputStream;
 
-import edu.utah.further.core.api.collections.page.IterableType;
 import edu.utah.further.core.api.collections.page.Pager;
-import edu.utah.further.core.api.collections.page.PagingProvider;
 import edu.utah.further.core.api.collections.page.PagingStrategy;
-import edu.utah.further.core.api.context.Labeled;
-import edu.utah.further.core.api.text.StringParser;
 
 /**
- * Contains pager factory methods for iterable CSV input streams.
+ * Contains pager factory methods for iterable CSV input streams. File input streams are
+ * memory-mapped; other streams are read in large blocks.
  * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
@@ -38,28 +35,11 @@ import edu.utah.further.core.api.text.StringParser;
  * @author Oren E. Livne {@code <oren.livne@utah.edu>}
  * @version Jan 27, 2011
  */
-public final class PagingProviderCsvInputStream<E> implements PagingProvider<InputStream>
+public final class PagingProviderCsvInputStream<E> extends
+		AbstractPagingProviderCsv<InputStream, E>
 {
-	// ========================= DEPENDENCIES ==============================
-
-	/**
-	 * parses each CSV file line into an object of type <code>E</code>.
-	 */
-	private StringParser<E> stringParser;
-
 	// ========================= IMPL: PagingProvider ======================
 
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see edu.utah.further.core.api.collections.page.PagingProvider#getIterableType()
-	 */
-	@Override
-	public Labeled getIterableType()
-	{
-		return IterableType.CSV_STREAM;
-	}
-
 	/*
 	 * (non-Javadoc)
 	 *
@@ -82,21 +62,7 @@ public final class PagingProviderCsvInputStream<E> implements PagingProvider<Inp
 	public Pager<?> newPager(final InputStream inputStream,
 			final PagingStrategy pagingStrategy)
 	{
-		return new CsvStreamPager<>(inputStream, pagingStrategy, stringParser);
+		return newCsvPager(new CsvLineReader(inputStream, getCharset(), isQuoteAware(),
+				getBufferSize()), pagingStrategy);
 	}
-
-	// ========================= GET & SET =================================
-
-	/**
-	 * Set a new value for the stringParser property.
-	 *
-	 * @param stringParser
-	 *            the stringParser to set
-	 */
-	public void setStringParser(final StringParser<E> stringParser)
-	{
-		this.stringParser = stringParser;
-	}
-
-	// ========================= PRIVATE METHODS ===========================
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.text;
+
+import java.util.List;
+
+import edu.utah.further.core.api.text.StringParser;
+
+/**
+ * Parses a CSV record into an object, honoring double-quoted fields (see
+ * {@link CsvFieldTokenizer}). Use instead of {@link AbstractStringParser}, whose scanner
+ * splits quoted delimiters, when fields may be quoted - in particular when records are
+ * read with quoted line breaks kept (the CSV paging providers' <code>quoteAware</code>
+ * option).
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public abstract class AbstractCsvStringParser<E> implements StringParser<E>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * By default, we parse comma-delimited strings.
+	 */
+	private static final String DEFAULT_DELIMITER = ",";
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Splits records into fields.
+	 */
+	private CsvFieldTokenizer tokenizer = new CsvFieldTokenizer(DEFAULT_DELIMITER);
+
+	// ========================= IMPL: StringParser ========================
+
+	/**
+	 * @param s
+	 * @return
+	 * @see edu.utah.further.core.api.text.StringParser#fromString(java.lang.String)
+	 */
+	@Override
+	public final E fromString(final String s)
+	{
+		return fromFields(tokenizer.split(s));
+	}
+
+	/**
+	 * Set a new value for the delimiter property.
+	 *
+	 * @param delimiter
+	 *            field delimiter regular expression
+	 * @see edu.utah.further.core.api.text.StringParser#setDelimiter(java.lang.String)
+	 */
+	@Override
+	public void setDelimiter(final String delimiter)
+	{
+		this.tokenizer = new CsvFieldTokenizer(delimiter);
+	}
+
+	// ========================= TEMPLATE METHODS ==========================
+
+	/**
+	 * Convert the fields of a record into an object.
+	 *
+	 * @param fields
+	 *            record fields, unquoted
+	 * @return target object
+	 */
+	abstract protected E fromFields(final List<String> fields);
+}
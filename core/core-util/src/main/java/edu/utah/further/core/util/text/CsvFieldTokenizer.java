@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.text;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.Validate;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+
+/**
+ * Splits a CSV record into fields, honoring double-quoted fields:
+ * <ul>
+ * <li>Delimiters and line breaks inside a quoted field are part of the field.</li>
+ * <li>A doubled quote (<code>""</code>) inside a quoted field is an escaped quote.</li>
+ * <li>The enclosing quotes are removed. Text between a closing quote and the next
+ * delimiter is appended to the field as is.</li>
+ * <li>A quote that does not start a field is literal text.</li>
+ * <li>A quoted field that is never closed is literal text, from its opening quote to the
+ * end of the record.</li>
+ * </ul>
+ * An empty record has a single empty field; a trailing delimiter ends with an empty
+ * field. The delimiter is a regular expression, as in {@link AbstractStringParser};
+ * single-character delimiters (e.g. <code>,</code> or <code>\|</code>) are matched
+ * without the regular expression engine. Immutable and thread-safe.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class CsvFieldTokenizer
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Field quote character.
+	 */
+	private static final char QUOTE = '"';
+
+	/**
+	 * Regular expression meta-characters.
+	 */
+	private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Delimiter regular expression.
+	 */
+	private final Pattern delimiter;
+
+	/**
+	 * Single-character delimiter, or <code>0</code> if the delimiter is matched by
+	 * {@link #delimiter}.
+	 */
+	private final char delimiterChar;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param delimiter
+	 *            field delimiter regular expression. Must not match an empty string
+	 */
+	public CsvFieldTokenizer(final String delimiter)
+	{
+		Validate.notNull(delimiter, "Delimiter must be set");
+		this.delimiter = Pattern.compile(delimiter);
+		Validate.isTrue(!this.delimiter.matcher("").matches(),
+				"Delimiter must not match an empty string");
+		this.delimiterChar = literalChar(delimiter);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Split a record into fields.
+	 *
+	 * @param record
+	 *            CSV record
+	 * @return list of fields
+	 */
+	public List<String> split(final CharSequence record)
+	{
+		final List<String> fields = CollectionUtil.newList();
+		final Matcher matcher = (delimiterChar == 0) ? delimiter.matcher(record) : null;
+		final int length = record.length();
+		final StringBuilder field = new StringBuilder();
+		int start = 0;
+		while (true)
+		{
+			field.setLength(0);
+			int position = start;
+			if ((position < length) && (record.charAt(position) == QUOTE))
+			{
+				position = appendQuoted(record, position + 1, field);
+				if (position < 0)
+				{
+					// Unbalanced quote: literal text up to the end of the record
+					fields.add(record.subSequence(start, length).toString());
+					return fields;
+				}
+			}
+
+			// Find the delimiter that ends this field
+			final int end;
+			final int next;
+			if (matcher == null)
+			{
+				end = indexOf(record, delimiterChar, position);
+				next = end + 1;
+			}
+			else if (matcher.find(position))
+			{
+				end = matcher.start();
+				next = matcher.end();
+			}
+			else
+			{
+				end = length;
+				next = length;
+			}
+			field.append(record, position, Math.min(end, length));
+			fields.add(field.toString());
+			if (end >= length)
+			{
+				return fields;
+			}
+			start = next;
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Append the contents of a quoted field to a field buffer.
+	 *
+	 * @param record
+	 *            CSV record
+	 * @param from
+	 *            index of the first character after the opening quote
+	 * @param field
+	 *            field buffer
+	 * @return index of the first character after the closing quote, or <code>-1</code>
+	 *         if the field is not closed
+	 */
+	private static int appendQuoted(final CharSequence record, final int from,
+			final StringBuilder field)
+	{
+		final int length = record.length();
+		int i = from;
+		while (i < length)
+		{
+			final char c = record.charAt(i++);
+			if (c != QUOTE)
+			{
+				field.append(c);
+			}
+			else if ((i < length) && (record.charAt(i) == QUOTE))
+			{
+				// Escaped quote
+				field.append(QUOTE);
+				i++;
+			}
+			else
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param s
+	 *            character sequence
+	 * @param c
+	 *            character to find
+	 * @param from
+	 *            index to start searching from
+	 * @return index of the first occurrence of <code>c</code> at or after
+	 *         <code>from</code>, or the length of <code>s</code> if not found
+	 */
+	private static int indexOf(final CharSequence s, final char c, final int from)
+	{
+		final int length = s.length();
+		for (int i = from; i < length; i++)
+		{
+			if (s.charAt(i) == c)
+			{
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * @param regex
+	 *            delimiter regular expression
+	 * @return the single character the expression matches, or <code>0</code> if it is
+	 *         not a single literal or escaped character
+	 */
+	private static char literalChar(final String regex)
+	{
+		if ((regex.length() == 1) && (META_CHARACTERS.indexOf(regex.charAt(0)) < 0))
+		{
+			return regex.charAt(0);
+		}
+		if ((regex.length() == 2) && (regex.charAt(0) == '\\')
+				&& (META_CHARACTERS.indexOf(regex.charAt(1)) >= 0))
+		{
+			return regex.charAt(1);
+		}
+		return 0;
+	}
+}
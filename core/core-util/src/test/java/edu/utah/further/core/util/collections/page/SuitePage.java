@@ -34,7 +34,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestListPager.class, UTestIterablePager.class, UTestCsvStreamPager.class })
+{ UTestListPager.class, UTestIterablePager.class, UTestCsvStreamPager.class,
+		UTestCsvLineReader.class })
 public final class SuitePage
 {
 }
@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.collections.page;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.utah.further.core.api.exception.BusinessRuleException;
+import edu.utah.further.core.util.text.CsvFieldTokenizer;
+
+/**
+ * Unit test of {@link CsvLineReader} - splitting CSV input into records.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestCsvLineReader
+{
+	// ========================= CONSTANTS =================================
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * CSV input with CRLF line breaks, a quoted line break, an escaped quote, an empty
+	 * line, non-ASCII characters and no trailing line break.
+	 */
+	private static final String INPUT = "a|b\r\n\"x\ny\"|z\n\nJos\u00e9|\"q\"\"\"\nlast";
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Quoted line breaks are part of the record. A small buffer size forces records to
+	 * span multiple reads.
+	 */
+	@Test
+	public void quoteAware()
+	{
+		assertThat(readAll(new CsvLineReader(newStream(), UTF8, true, 3)), is(asList(
+				"a|b", "\"x\ny\"|z", "", "Jos\u00e9|\"q\"\"\"", "last")));
+	}
+
+	/**
+	 * Every line break ends a record when quotes are ignored.
+	 */
+	@Test
+	public void notQuoteAware()
+	{
+		assertThat(readAll(new CsvLineReader(newStream(), UTF8, false, 1024)), is(asList(
+				"a|b", "\"x", "y\"|z", "", "Jos\u00e9|\"q\"\"\"", "last")));
+	}
+
+	/**
+	 * Quote-aware records split into the fields a quote-aware parser expects.
+	 */
+	@Test
+	public void quoteAwareFields()
+	{
+		final CsvFieldTokenizer tokenizer = new CsvFieldTokenizer("\\|");
+		final List<List<String>> records = new ArrayList<>();
+		for (final String line : readAll(new CsvLineReader(newStream(), UTF8, true, 3)))
+		{
+			records.add(tokenizer.split(line));
+		}
+		assertThat(records, is(asList(asList("a", "b"), asList("x\ny", "z"), asList(""),
+				asList("Jos\u00e9", "q\""), asList("last"))));
+	}
+
+	/**
+	 * Files are read through a memory map.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void mappedFile() throws IOException
+	{
+		final File file = File.createTempFile("csv", ".txt");
+		try
+		{
+			try (final OutputStream os = new FileOutputStream(file))
+			{
+				os.write(INPUT.getBytes(UTF8));
+			}
+			assertThat(readAll(new CsvLineReader(file, UTF8, true)), is(asList("a|b",
+					"\"x\ny\"|z", "", "Jos\u00e9|\"q\"\"\"", "last")));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	/**
+	 * An empty input has no records.
+	 */
+	@Test
+	public void emptyInput()
+	{
+		assertThat(readAll(
+				new CsvLineReader(new ByteArrayInputStream(new byte[0]), UTF8, true, 16))
+				.isEmpty(), is(true));
+	}
+
+	/**
+	 * Record delimiters must be single bytes.
+	 */
+	@Test(expected = BusinessRuleException.class)
+	public void asciiCompatibleCharsetRequired()
+	{
+		new CsvLineReader(newStream(), Charset.forName("UTF-16"), true, 16);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return a stream over {@link #INPUT}
+	 */
+	private static ByteArrayInputStream newStream()
+	{
+		return new ByteArrayInputStream(INPUT.getBytes(UTF8));
+	}
+
+	/**
+	 * Read all records and close the reader.
+	 *
+	 * @param reader
+	 * @return records
+	 */
+	private static List<String> readAll(final CsvLineReader reader)
+	{
+		final List<String> lines = new ArrayList<>();
+		final StringBuilder s = new StringBuilder();
+		while (reader.hasNextLine())
+		{
+			s.setLength(0);
+			lines.add(reader.appendNextLine(s).toString());
+		}
+		reader.close();
+		return lines;
+	}
+}
@@ -19,6 +19,7 @@ import static edu.utah.further.core.api.collections.page.PagingStrategy.NO_LIMIT
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -186,6 +187,24 @@ public final class UTestCsvStreamPager extends CoreUtilFixture
 		{ TEST_LIST.toArray(EMPTY_PERSON_ARRAY) });
 	}
 
+	/**
+	 * Test loading a memory-mapped file.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void loadMappedFile() throws IOException
+	{
+		final File file = resourceLoader.getResource("persons.txt").getFile();
+		final List<List<Person>> allPages = PagerUtil
+				.getAllPages((Iterator<List<Person>>) pagerFactory.pager(file,
+						new DefaultPagingStrategy(IterableType.CSV_STREAM, 2, NO_LIMIT)));
+		PagerFixture.<Person> assertPagesEqual(allPages, Arrays.<Person[]> asList(
+				new Person[]
+				{ PERSON_0, PERSON_1 }, new Person[]
+				{ PERSON_2 }), EMPTY_PERSON_ARRAY);
+	}
+
 	/**
 	 * Test iterating over a <code>null</code> list.
 	 */
@@ -34,7 +34,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestPropertyPlaceholderResolver.class, UTestFileToListScanner.class, UTestLineCount.class })
+{ UTestPropertyPlaceholderResolver.class, UTestFileToListScanner.class, UTestLineCount.class,
+		UTestCsvFieldTokenizer.class })
 public final class SuiteText
 {
 }
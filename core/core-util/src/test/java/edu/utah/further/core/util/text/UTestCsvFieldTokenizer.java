@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.util.text;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit test of {@link CsvFieldTokenizer} - splitting CSV records into fields.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestCsvFieldTokenizer
+{
+	// ========================= FIELDS ====================================
+
+	private final CsvFieldTokenizer comma = new CsvFieldTokenizer(",");
+
+	// ========================= TESTING METHODS ===========================
+
+	@Test
+	public void unquotedFields()
+	{
+		assertThat(comma.split("a,b,c"), is(asList("a", "b", "c")));
+	}
+
+	@Test
+	public void emptyFields()
+	{
+		assertThat(comma.split(""), is(asList("")));
+		assertThat(comma.split(",a,,"), is(asList("", "a", "", "")));
+		assertThat(comma.split("\"\",x"), is(asList("", "x")));
+	}
+
+	@Test
+	public void embeddedDelimiter()
+	{
+		assertThat(comma.split("1,\"Smith, John\",3"), is(asList("1", "Smith, John",
+				"3")));
+	}
+
+	@Test
+	public void embeddedLineBreak()
+	{
+		assertThat(comma.split("\"x\ny\",z"), is(asList("x\ny", "z")));
+	}
+
+	@Test
+	public void escapedQuote()
+	{
+		assertThat(comma.split("\"say \"\"hi\"\"\",\"\"\"\"\"\""), is(asList(
+				"say \"hi\"", "\"\"")));
+	}
+
+	@Test
+	public void quoteInsideUnquotedField()
+	{
+		assertThat(comma.split("5\" screw,x"), is(asList("5\" screw", "x")));
+	}
+
+	@Test
+	public void textAfterClosingQuote()
+	{
+		assertThat(comma.split("\"a,b\"c,d"), is(asList("a,bc", "d")));
+	}
+
+	@Test
+	public void unbalancedQuote()
+	{
+		assertThat(comma.split("a,\"b,c"), is(asList("a", "\"b,c")));
+		assertThat(comma.split("a,\"b\"\",c"), is(asList("a", "\"b\"\",c")));
+	}
+
+	@Test
+	public void escapedDelimiterRegex()
+	{
+		assertThat(new CsvFieldTokenizer("\\|").split("a|\"b|c\"|d"), is(asList("a",
+				"b|c", "d")));
+	}
+
+	@Test
+	public void delimiterRegex()
+	{
+		final List<String> fields = new CsvFieldTokenizer("\\s*;\\s*")
+				.split("a ; \"b ; c\" ;d");
+		assertThat(fields, is(asList("a", "b ; c", "d")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyDelimiter()
+	{
+		new CsvFieldTokenizer("\\s*");
+	}
+}
@@ -0,0 +1,556 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.ws;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+
+/**
+ * A non-blocking counterpart of {@link HttpClientTemplate}, built on the Apache
+ * HttpAsyncClient I/O reactor. Requests do not hold a thread while waiting for the
+ * server; a small number of I/O threads multiplexes all open connections.
+ * <p>
+ * Connections are pooled with a total limit and a per-host limit (which may be
+ * overridden for specific hosts) and are kept alive for at most {@link #keepAliveMillis}
+ * or the server's <code>Keep-Alive</code> timeout, whichever is shorter. Gzip encoding
+ * is requested unless disabled, and decoded transparently.
+ * <p>
+ * The returned futures complete as soon as the response headers arrive; the body is
+ * streamed while it downloads. Callers must close each {@link AsyncHttpResponse} to
+ * return its connection to the pool.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+// No annotation scanning to due to core-ws-jdk15
+public class AsyncHttpClientTemplate
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Connect timeout [ms]. Default of 1 minute.
+	 */
+	private int connectionTimeout = 1000 * 60;
+
+	/**
+	 * Socket read timeout [ms]. Default of 1 hour, as in {@link HttpClientTemplate}.
+	 */
+	private int readTimeout = 1000 * 60 * 60;
+
+	/**
+	 * Maximum number of pooled connections to all hosts.
+	 */
+	private int maxConnectionsTotal = 200;
+
+	/**
+	 * Default maximum number of pooled connections to a single host.
+	 */
+	private int maxConnectionsPerHost = 20;
+
+	/**
+	 * Per-host connection limit overrides, keyed by host URL (e.g.
+	 * <code>http://mdr:9000</code>).
+	 */
+	private Map<String, Integer> maxConnectionsByHost = Collections.emptyMap();
+
+	/**
+	 * Maximum time an idle connection is kept alive [ms].
+	 */
+	private long keepAliveMillis = 1000 * 30;
+
+	/**
+	 * Request gzip-encoded responses.
+	 */
+	private boolean gzip = true;
+
+	/**
+	 * Number of I/O reactor threads.
+	 */
+	private int ioThreadCount = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Maximum number of buffered response body bytes before reading from the connection
+	 * is suspended.
+	 */
+	private int bodyBufferSize = 1024 * 256;
+
+	// ========================= DEPS ======================================
+
+	/**
+	 * Connection pool.
+	 */
+	private PoolingNHttpClientConnectionManager connectionManager;
+
+	/**
+	 * The single client instance.
+	 */
+	private CloseableHttpAsyncClient httpClient;
+
+	// ========================= LIFECYCLE =================================
+
+	/**
+	 * Start the I/O reactor.
+	 */
+	@PostConstruct
+	public synchronized void start()
+	{
+		if (httpClient != null)
+		{
+			return;
+		}
+		final IOReactorConfig ioReactorConfig = IOReactorConfig
+				.custom()
+				.setIoThreadCount(ioThreadCount)
+				.setConnectTimeout(connectionTimeout)
+				.setSoTimeout(readTimeout)
+				.setSoKeepAlive(true)
+				.build();
+		try
+		{
+			connectionManager = new PoolingNHttpClientConnectionManager(
+					new DefaultConnectingIOReactor(ioReactorConfig));
+		}
+		catch (final IOReactorException e)
+		{
+			throw new ApplicationException("Unable to start the HTTP I/O reactor", e);
+		}
+		connectionManager.setMaxTotal(maxConnectionsTotal);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+		for (final Map.Entry<String, Integer> entry : maxConnectionsByHost.entrySet())
+		{
+			connectionManager.setMaxPerRoute(new HttpRoute(toHttpHost(entry.getKey())),
+					entry.getValue().intValue());
+		}
+
+		final RequestConfig requestConfig = RequestConfig
+				.custom()
+				.setConnectTimeout(connectionTimeout)
+				.setSocketTimeout(readTimeout)
+				.build();
+		httpClient = HttpAsyncClients
+				.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(new BoundedKeepAliveStrategy())
+				.addInterceptorLast(new AcceptEncodingInterceptor())
+				.build();
+		httpClient.start();
+	}
+
+	/**
+	 * Abort pending requests and close all connections.
+	 */
+	@PreDestroy
+	public synchronized void close()
+	{
+		if (httpClient == null)
+		{
+			return;
+		}
+		try
+		{
+			httpClient.close();
+		}
+		catch (final IOException e)
+		{
+			// Ignore, the reactor is shut down regardless
+		}
+		httpClient = null;
+		connectionManager = null;
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Execute a request asynchronously.
+	 *
+	 * @param request
+	 *            request to execute
+	 * @return a future completed with the response once its headers arrive. Cancelling
+	 *         the future aborts the request.
+	 */
+	public Future<AsyncHttpResponse> execute(final HttpUriRequest request)
+	{
+		final CloseableHttpAsyncClient client = getStartedClient();
+		final ResponseBodyInputStream body = new ResponseBodyInputStream(bodyBufferSize);
+		final BasicFuture<AsyncHttpResponse> response = new BasicFuture<>(
+				new FutureCallback<AsyncHttpResponse>()
+				{
+					@Override
+					public void completed(final AsyncHttpResponse result)
+					{
+						// Body is streamed by the exchange
+					}
+
+					@Override
+					public void failed(final Exception ex)
+					{
+						// Failure originates from the exchange
+					}
+
+					@Override
+					public void cancelled()
+					{
+						body.close();
+					}
+				});
+		final Future<Void> exchange = client.execute(HttpAsyncMethods.create(request),
+				new StreamingResponseConsumer(response, body), new FutureCallback<Void>()
+				{
+					@Override
+					public void completed(final Void result)
+					{
+						body.end();
+					}
+
+					@Override
+					public void failed(final Exception ex)
+					{
+						if (!response.failed(ex))
+						{
+							body.fail(ex);
+						}
+					}
+
+					@Override
+					public void cancelled()
+					{
+						if (!response.cancel(true))
+						{
+							body.fail(new IOException("Request cancelled"));
+						}
+					}
+				});
+		body.setExchange(exchange);
+		return response;
+	}
+
+	/**
+	 * Execute a GET request asynchronously.
+	 *
+	 * @param url
+	 *            resource URL
+	 * @return a future completed with the response once its headers arrive
+	 */
+	public Future<AsyncHttpResponse> get(final String url)
+	{
+		return execute(new HttpGet(url));
+	}
+
+	/**
+	 * Execute a POST request asynchronously.
+	 *
+	 * @param url
+	 *            resource URL
+	 * @param body
+	 *            request body
+	 * @param contentType
+	 *            request body MIME type, e.g. <code>application/xml</code>
+	 * @return a future completed with the response once its headers arrive
+	 */
+	public Future<AsyncHttpResponse> post(final String url, final String body,
+			final String contentType)
+	{
+		final HttpPost post = new HttpPost(url);
+		try
+		{
+			post.setEntity(new StringEntity(body, ContentType.create(contentType,
+					"UTF-8")));
+		}
+		catch (final UnsupportedEncodingException e)
+		{
+			throw new ApplicationException("Unsupported request body encoding", e);
+		}
+		return execute(post);
+	}
+
+	/**
+	 * @return connection pool statistics: leased, pending, available and maximum
+	 *         connection counts
+	 */
+	public synchronized PoolStats getPoolStats()
+	{
+		getStartedClient();
+		return connectionManager.getTotalStats();
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Return the connectionTimeout property.
+	 *
+	 * @return the connectionTimeout
+	 */
+	public int getConnectionTimeout()
+	{
+		return connectionTimeout;
+	}
+
+	/**
+	 * Set a new value for the connectionTimeout property.
+	 *
+	 * @param connectionTimeout
+	 *            the connectionTimeout to set
+	 */
+	public void setConnectionTimeout(final int connectionTimeout)
+	{
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * Return the readTimeout property.
+	 *
+	 * @return the readTimeout
+	 */
+	public int getReadTimeout()
+	{
+		return readTimeout;
+	}
+
+	/**
+	 * Set a new value for the readTimeout property.
+	 *
+	 * @param readTimeout
+	 *            the readTimeout to set
+	 */
+	public void setReadTimeout(final int readTimeout)
+	{
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Return the maxConnectionsTotal property.
+	 *
+	 * @return the maxConnectionsTotal
+	 */
+	public int getMaxConnectionsTotal()
+	{
+		return maxConnectionsTotal;
+	}
+
+	/**
+	 * Set a new value for the maxConnectionsTotal property.
+	 *
+	 * @param maxConnectionsTotal
+	 *            the maxConnectionsTotal to set
+	 */
+	public void setMaxConnectionsTotal(final int maxConnectionsTotal)
+	{
+		this.maxConnectionsTotal = maxConnectionsTotal;
+	}
+
+	/**
+	 * Return the maxConnectionsPerHost property.
+	 *
+	 * @return the maxConnectionsPerHost
+	 */
+	public int getMaxConnectionsPerHost()
+	{
+		return maxConnectionsPerHost;
+	}
+
+	/**
+	 * Set a new value for the maxConnectionsPerHost property.
+	 *
+	 * @param maxConnectionsPerHost
+	 *            the maxConnectionsPerHost to set
+	 */
+	public void setMaxConnectionsPerHost(final int maxConnectionsPerHost)
+	{
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+	/**
+	 * Set a new value for the maxConnectionsByHost property.
+	 *
+	 * @param maxConnectionsByHost
+	 *            per-host connection limit overrides, keyed by host URL
+	 */
+	public void setMaxConnectionsByHost(final Map<String, Integer> maxConnectionsByHost)
+	{
+		this.maxConnectionsByHost = maxConnectionsByHost;
+	}
+
+	/**
+	 * Return the keepAliveMillis property.
+	 *
+	 * @return the keepAliveMillis
+	 */
+	public long getKeepAliveMillis()
+	{
+		return keepAliveMillis;
+	}
+
+	/**
+	 * Set a new value for the keepAliveMillis property.
+	 *
+	 * @param keepAliveMillis
+	 *            the keepAliveMillis to set
+	 */
+	public void setKeepAliveMillis(final long keepAliveMillis)
+	{
+		this.keepAliveMillis = keepAliveMillis;
+	}
+
+	/**
+	 * Return the gzip property.
+	 *
+	 * @return the gzip
+	 */
+	public boolean isGzip()
+	{
+		return gzip;
+	}
+
+	/**
+	 * Set a new value for the gzip property.
+	 *
+	 * @param gzip
+	 *            the gzip to set
+	 */
+	public void setGzip(final boolean gzip)
+	{
+		this.gzip = gzip;
+	}
+
+	/**
+	 * Set a new value for the ioThreadCount property.
+	 *
+	 * @param ioThreadCount
+	 *            the ioThreadCount to set
+	 */
+	public void setIoThreadCount(final int ioThreadCount)
+	{
+		this.ioThreadCount = ioThreadCount;
+	}
+
+	/**
+	 * Set a new value for the bodyBufferSize property.
+	 *
+	 * @param bodyBufferSize
+	 *            the bodyBufferSize to set
+	 */
+	public void setBodyBufferSize(final int bodyBufferSize)
+	{
+		this.bodyBufferSize = bodyBufferSize;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return the started client
+	 */
+	private synchronized CloseableHttpAsyncClient getStartedClient()
+	{
+		if (httpClient == null)
+		{
+			throw new ApplicationException("HTTP client template has not been started");
+		}
+		return httpClient;
+	}
+
+	/**
+	 * Convert a host URL to a pool route target.
+	 *
+	 * @param url
+	 *            host URL, e.g. <code>http://mdr:9000</code>
+	 * @return route target host
+	 */
+	private static HttpHost toHttpHost(final String url)
+	{
+		final URI uri = URI.create(url);
+		final String scheme = (uri.getScheme() == null) ? "http" : uri.getScheme();
+		final int port = (uri.getPort() > 0) ? uri.getPort() : "https"
+				.equalsIgnoreCase(scheme) ? 443 : 80;
+		return new HttpHost(uri.getHost(), port, scheme);
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Keeps connections alive for the server-advertised duration, but no longer than
+	 * {@link AsyncHttpClientTemplate#keepAliveMillis}.
+	 */
+	private final class BoundedKeepAliveStrategy implements ConnectionKeepAliveStrategy
+	{
+		@Override
+		public long getKeepAliveDuration(final HttpResponse response,
+				final HttpContext context)
+		{
+			final long serverDuration = DefaultConnectionKeepAliveStrategy.INSTANCE
+					.getKeepAliveDuration(response, context);
+			return (serverDuration > 0) ? Math.min(serverDuration, keepAliveMillis)
+					: keepAliveMillis;
+		}
+	}
+
+	/**
+	 * Negotiates gzip response encoding.
+	 */
+	private final class AcceptEncodingInterceptor implements HttpRequestInterceptor
+	{
+		@Override
+		public void process(final HttpRequest request, final HttpContext context)
+		{
+			if (gzip && !request.containsHeader("Accept-Encoding"))
+			{
+				request.addHeader("Accept-Encoding", "gzip");
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.ws;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+
+/**
+ * The response of an {@link AsyncHttpClientTemplate} request, available as soon as its
+ * headers arrived. The body is streamed while it is being downloaded and is transparently
+ * gzip-decoded. Callers must close the response (or its body) to release the connection.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class AsyncHttpResponse implements Closeable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Body charset when the response does not specify one.
+	 */
+	private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Response status line and headers.
+	 */
+	private final HttpResponse response;
+
+	/**
+	 * Raw (possibly encoded) body stream.
+	 */
+	private final InputStream rawBody;
+
+	/**
+	 * Decoded body stream, created upon first access.
+	 */
+	private InputStream body;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param response
+	 *            response status line and headers
+	 * @param rawBody
+	 *            raw (possibly encoded) body stream
+	 */
+	AsyncHttpResponse(final HttpResponse response, final InputStream rawBody)
+	{
+		this.response = response;
+		this.rawBody = rawBody;
+	}
+
+	// ========================= IMPL: Closeable ===========================
+
+	/**
+	 * Discard the rest of the body and release the connection.
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close()
+	{
+		try
+		{
+			rawBody.close();
+		}
+		catch (final IOException e)
+		{
+			// Ignore
+		}
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * @return HTTP status code
+	 */
+	public int getStatusCode()
+	{
+		return response.getStatusLine().getStatusCode();
+	}
+
+	/**
+	 * @return HTTP status reason phrase
+	 */
+	public String getReasonPhrase()
+	{
+		return response.getStatusLine().getReasonPhrase();
+	}
+
+	/**
+	 * @return is the status code a 2xx success code
+	 */
+	public boolean isSuccess()
+	{
+		final int statusCode = getStatusCode();
+		return (statusCode >= 200) && (statusCode < 300);
+	}
+
+	/**
+	 * Return the first value of a response header.
+	 *
+	 * @param name
+	 *            header name
+	 * @return header value, or <code>null</code> if the header is not present
+	 */
+	public String getHeader(final String name)
+	{
+		final Header header = response.getFirstHeader(name);
+		return (header == null) ? null : header.getValue();
+	}
+
+	/**
+	 * Return the decoded body stream. Reads block until body content arrives.
+	 *
+	 * @return decoded body stream
+	 * @throws IOException
+	 *             if the body encoding is invalid
+	 */
+	public synchronized InputStream getBody() throws IOException
+	{
+		if (body == null)
+		{
+			final String encoding = getHeader("Content-Encoding");
+			// Wrapping reads the gzip header, so do it on the caller's thread
+			body = ((encoding != null) && encoding.toLowerCase().contains("gzip")) ? new GZIPInputStream(
+					rawBody)
+					: rawBody;
+		}
+		return body;
+	}
+
+	/**
+	 * Read the entire decoded body into a string and close the response.
+	 *
+	 * @return body string
+	 * @throws IOException
+	 *             if the body cannot be read
+	 */
+	public String getBodyAsString() throws IOException
+	{
+		try
+		{
+			final InputStream input = getBody();
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int length;
+			while ((length = input.read(buffer)) >= 0)
+			{
+				output.write(buffer, 0, length);
+			}
+			return new String(output.toByteArray(), getCharset());
+		}
+		finally
+		{
+			close();
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return body charset
+	 */
+	private Charset getCharset()
+	{
+		final String contentType = getHeader("Content-Type");
+		if (contentType != null)
+		{
+			try
+			{
+				final Charset charset = ContentType.parse(contentType).getCharset();
+				if (charset != null)
+				{
+					return charset;
+				}
+			}
+			catch (final RuntimeException e)
+			{
+				// Malformed content type, fall back to the default
+			}
+		}
+		return DEFAULT_CHARSET;
+	}
+}
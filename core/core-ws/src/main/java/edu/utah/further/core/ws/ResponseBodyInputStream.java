@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.ws;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Future;
+
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+
+/**
+ * A response body stream fed by the I/O reactor thread and read by the caller's thread.
+ * Chunks are buffered up to a bounded size; when the buffer is full, input is suspended
+ * on the connection until the reader drains it below half. Closing the stream before the
+ * body ends aborts the exchange.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+final class ResponseBodyInputStream extends InputStream
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Maximum number of buffered bytes before input is suspended.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * Buffered chunks, oldest first.
+	 */
+	private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+
+	/**
+	 * Number of buffered bytes.
+	 */
+	private int buffered;
+
+	/**
+	 * Connection input control, set when input is suspended.
+	 */
+	private IOControl suspended;
+
+	/**
+	 * The HTTP exchange, cancelled if the stream is closed before the body ends.
+	 */
+	private Future<?> exchange;
+
+	/**
+	 * Has the entire body been received.
+	 */
+	private boolean ended;
+
+	/**
+	 * Body download failure, if any.
+	 */
+	private Exception failure;
+
+	/**
+	 * Has the caller closed the stream.
+	 */
+	private boolean closed;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param bufferSize
+	 *            maximum number of buffered bytes before input is suspended
+	 */
+	ResponseBodyInputStream(final int bufferSize)
+	{
+		this.bufferSize = bufferSize;
+	}
+
+	// ========================= IMPL: InputStream =========================
+
+	/**
+	 * @see java.io.InputStream#read()
+	 */
+	@Override
+	public int read() throws IOException
+	{
+		final byte[] b = new byte[1];
+		return (read(b, 0, 1) < 0) ? -1 : (b[0] & 0xff);
+	}
+
+	/**
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public synchronized int read(final byte[] b, final int off, final int len)
+			throws IOException
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+		while (chunks.isEmpty() && !ended && (failure == null) && !closed)
+		{
+			try
+			{
+				wait();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading response body");
+			}
+		}
+		if (closed)
+		{
+			throw new IOException("Response body stream closed");
+		}
+		if (chunks.isEmpty())
+		{
+			if (failure != null)
+			{
+				throw new IOException("Response body download failed", failure);
+			}
+			return -1;
+		}
+
+		int count = 0;
+		while ((count < len) && !chunks.isEmpty())
+		{
+			final ByteBuffer chunk = chunks.peek();
+			final int n = Math.min(len - count, chunk.remaining());
+			chunk.get(b, off + count, n);
+			count += n;
+			if (!chunk.hasRemaining())
+			{
+				chunks.remove();
+			}
+		}
+		buffered -= count;
+		if ((suspended != null) && (buffered < bufferSize / 2))
+		{
+			suspended.requestInput();
+			suspended = null;
+		}
+		return count;
+	}
+
+	/**
+	 * @see java.io.InputStream#available()
+	 */
+	@Override
+	public synchronized int available()
+	{
+		return buffered;
+	}
+
+	/**
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public void close()
+	{
+		final Future<?> toCancel;
+		synchronized (this)
+		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
+			chunks.clear();
+			buffered = 0;
+			toCancel = ended ? null : exchange;
+			notifyAll();
+		}
+		if (toCancel != null)
+		{
+			toCancel.cancel(true);
+		}
+	}
+
+	// ========================= PACKAGE METHODS ===========================
+
+	/**
+	 * Set the HTTP exchange to cancel if the stream is closed before the body ends.
+	 *
+	 * @param exchange
+	 *            HTTP exchange future
+	 */
+	void setExchange(final Future<?> exchange)
+	{
+		final boolean cancel;
+		synchronized (this)
+		{
+			this.exchange = exchange;
+			cancel = closed && !ended;
+		}
+		if (cancel)
+		{
+			exchange.cancel(true);
+		}
+	}
+
+	/**
+	 * Buffer available body content. Called on the I/O reactor thread.
+	 *
+	 * @param decoder
+	 *            content decoder
+	 * @param ioControl
+	 *            connection input control
+	 * @throws IOException
+	 *             if content cannot be read
+	 */
+	void consume(final ContentDecoder decoder, final IOControl ioControl)
+			throws IOException
+	{
+		final ByteBuffer chunk = ByteBuffer.allocate(8192);
+		final int n = decoder.read(chunk);
+		synchronized (this)
+		{
+			if (closed || (n <= 0))
+			{
+				return;
+			}
+			chunk.flip();
+			chunks.add(chunk);
+			buffered += n;
+			if (buffered >= bufferSize)
+			{
+				ioControl.suspendInput();
+				suspended = ioControl;
+			}
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Mark the end of the body.
+	 */
+	synchronized void end()
+	{
+		ended = true;
+		notifyAll();
+	}
+
+	/**
+	 * Mark a body download failure.
+	 *
+	 * @param e
+	 *            failure cause
+	 */
+	synchronized void fail(final Exception e)
+	{
+		failure = e;
+		notifyAll();
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.ws;
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Completes the response future as soon as the response headers arrive, and then streams
+ * the body into a {@link ResponseBodyInputStream} instead of buffering it in memory.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+final class StreamingResponseConsumer extends AbstractAsyncResponseConsumer<Void>
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Completed with the response upon receiving its headers.
+	 */
+	private final BasicFuture<AsyncHttpResponse> response;
+
+	/**
+	 * Response body stream.
+	 */
+	private final ResponseBodyInputStream body;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param response
+	 *            completed with the response upon receiving its headers
+	 * @param body
+	 *            response body stream
+	 */
+	StreamingResponseConsumer(final BasicFuture<AsyncHttpResponse> response,
+			final ResponseBodyInputStream body)
+	{
+		this.response = response;
+		this.body = body;
+	}
+
+	// ========================= IMPL: AbstractAsyncResponseConsumer =======
+
+	/**
+	 * @see org.apache.http.nio.protocol.AbstractAsyncResponseConsumer#onResponseReceived(org.apache.http.HttpResponse)
+	 */
+	@Override
+	protected void onResponseReceived(final HttpResponse httpResponse)
+	{
+		if (!response.completed(new AsyncHttpResponse(httpResponse, body)))
+		{
+			// The caller is no longer interested in the response
+			body.close();
+		}
+	}
+
+	/**
+	 * @see org.apache.http.nio.protocol.AbstractAsyncResponseConsumer#onEntityEnclosed(org.apache.http.HttpEntity,
+	 *      org.apache.http.entity.ContentType)
+	 */
+	@Override
+	protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType)
+	{
+		// Content is streamed as it arrives
+	}
+
+	/**
+	 * @see org.apache.http.nio.protocol.AbstractAsyncResponseConsumer#onContentReceived(org.apache.http.nio.ContentDecoder,
+	 *      org.apache.http.nio.IOControl)
+	 */
+	@Override
+	protected void onContentReceived(final ContentDecoder decoder,
+			final IOControl ioControl) throws IOException
+	{
+		body.consume(decoder, ioControl);
+	}
+
+	/**
+	 * @see org.apache.http.nio.protocol.AbstractAsyncResponseConsumer#buildResult(org.apache.http.protocol.HttpContext)
+	 */
+	@Override
+	protected Void buildResult(final HttpContext context)
+	{
+		return null;
+	}
+
+	/**
+	 * @see org.apache.http.nio.protocol.AbstractAsyncResponseConsumer#releaseResources()
+	 */
+	@Override
+	protected void releaseResources()
+	{
+		// The body stream is released by the caller
+	}
+}
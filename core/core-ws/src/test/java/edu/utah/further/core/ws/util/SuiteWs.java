@@ -34,7 +34,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestWsUtil.class })
+{ UTestWsUtil.class, UTestAsyncHttpClientTemplate.class })
 public final class SuiteWs
 {
 }
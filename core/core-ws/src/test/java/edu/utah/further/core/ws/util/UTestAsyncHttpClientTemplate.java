@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.core.ws.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.ws.AsyncHttpClientTemplate;
+import edu.utah.further.core.ws.AsyncHttpResponse;
+
+/**
+ * Tests the asynchronous HTTP client template against an embedded HTTP stub.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestAsyncHttpClientTemplate
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String BODY = "<further>hello</further>";
+
+	/**
+	 * Stub response delay of the slow resource [ms].
+	 */
+	private static final int DELAY = 100;
+
+	// ========================= FIELDS ====================================
+
+	private HttpServer server;
+
+	private ExecutorService serverExecutor;
+
+	private AsyncHttpClientTemplate template;
+
+	private String baseUrl;
+
+	/**
+	 * Client ports of the connections the stub served.
+	 */
+	private final Set<Integer> clientPorts = Collections
+			.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+	/**
+	 * Releases the second half of the streamed resource.
+	 */
+	private final CountDownLatch streamLatch = new CountDownLatch(1);
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.createContext("/fast", new StubHandler(0));
+		server.createContext("/slow", new StubHandler(DELAY));
+		server.createContext("/stream", new StreamHandler());
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+		template = new AsyncHttpClientTemplate();
+		template.setMaxConnectionsPerHost(4);
+		template.setIoThreadCount(2);
+		template.start();
+	}
+
+	@After
+	public void tearDown()
+	{
+		template.close();
+		streamLatch.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Sequential requests reuse a single kept-alive connection.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void sequentialRequestsReuseConnection() throws Exception
+	{
+		for (int i = 0; i < 50; i++)
+		{
+			final AsyncHttpResponse response = template.get(baseUrl + "/fast").get(5,
+					TimeUnit.SECONDS);
+			assertThat(response.getStatusCode(), is(200));
+			assertThat(response.getBodyAsString(), is(BODY));
+		}
+		assertThat(clientPorts.size(), is(1));
+	}
+
+	/**
+	 * Concurrent requests are multiplexed over at most the per-host connection limit,
+	 * and overlap instead of running one after the other.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void concurrentRequestsOverlap() throws Exception
+	{
+		final int count = 40;
+		final long start = System.currentTimeMillis();
+		final List<Future<AsyncHttpResponse>> futures = CollectionUtil.newList();
+		for (int i = 0; i < count; i++)
+		{
+			futures.add(template.get(baseUrl + "/slow"));
+		}
+		for (final Future<AsyncHttpResponse> future : futures)
+		{
+			assertThat(future.get(10, TimeUnit.SECONDS).getBodyAsString(), is(BODY));
+		}
+		final long elapsed = System.currentTimeMillis() - start;
+
+		// 4 connections serve 40 requests in ~10 rounds; serial time is 40 rounds
+		assertThat(clientPorts.size(), lessThanOrEqualTo(4));
+		assertThat(elapsed, lessThan(Long.valueOf(count * DELAY / 2)));
+	}
+
+	/**
+	 * Gzip encoding is negotiated and decoded transparently.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void gzipResponse() throws Exception
+	{
+		final AsyncHttpResponse response = template.get(baseUrl + "/fast").get(5,
+				TimeUnit.SECONDS);
+		assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+		assertThat(response.getBodyAsString(), is(BODY));
+	}
+
+	/**
+	 * The response is available before its body is fully downloaded.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void streamedResponse() throws Exception
+	{
+		final AsyncHttpResponse response = template.get(baseUrl + "/stream").get(5,
+				TimeUnit.SECONDS);
+		final InputStream body = response.getBody();
+		final byte[] first = new byte[5];
+		int read = 0;
+		while (read < first.length)
+		{
+			read += body.read(first, read, first.length - read);
+		}
+		assertThat(new String(first, "UTF-8"), is("first"));
+
+		// The server only sends the rest after the client read the first part
+		streamLatch.countDown();
+		assertThat(response.getBodyAsString(), is("second"));
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Returns a fixed (gzip-encoded if accepted) body after a delay.
+	 */
+	private final class StubHandler implements HttpHandler
+	{
+		private final int delay;
+
+		StubHandler(final int delay)
+		{
+			this.delay = delay;
+		}
+
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			clientPorts.add(Integer.valueOf(exchange.getRemoteAddress().getPort()));
+			try
+			{
+				Thread.sleep(delay);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+
+			byte[] body = BODY.getBytes("UTF-8");
+			final String acceptEncoding = exchange.getRequestHeaders().getFirst(
+					"Accept-Encoding");
+			if ((acceptEncoding != null) && acceptEncoding.contains("gzip"))
+			{
+				final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (final GZIPOutputStream gzip = new GZIPOutputStream(bytes))
+				{
+					gzip.write(body);
+				}
+				body = bytes.toByteArray();
+				exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			}
+			exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (final OutputStream output = exchange.getResponseBody())
+			{
+				output.write(body);
+			}
+		}
+	}
+
+	/**
+	 * Sends a chunked body in two parts, waiting for the test between them.
+	 */
+	private final class StreamHandler implements HttpHandler
+	{
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			exchange.sendResponseHeaders(200, 0);
+			try (final OutputStream output = exchange.getResponseBody())
+			{
+				output.write("first".getBytes("UTF-8"));
+				output.flush();
+				try
+				{
+					streamLatch.await(5, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				output.write("second".getBytes("UTF-8"));
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.api.service.query;
+
+import static edu.utah.further.core.api.text.ToStringCustomStyles.SHORT_WITH_SPACES_STYLE;
+
+import java.util.Date;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * An immutable result cache entry.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ * @see ResultCacheService
+ */
+public final class ResultCacheEntry
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Cache key.
+	 */
+	private final String key;
+
+	/**
+	 * Data source identifier.
+	 */
+	private final String dataSourceId;
+
+	/**
+	 * Data version the entry was stored under.
+	 */
+	private final String dataVersion;
+
+	/**
+	 * Execution identifier of the query whose results were persisted.
+	 */
+	private final String executionId;
+
+	/**
+	 * Number of result records.
+	 */
+	private final long numRecords;
+
+	/**
+	 * Date the entry was stored.
+	 */
+	private final Date createDate;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param key
+	 *            cache key
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @param dataVersion
+	 *            data version the entry was stored under
+	 * @param executionId
+	 *            execution identifier of the query whose results were persisted
+	 * @param numRecords
+	 *            number of result records
+	 * @param createDate
+	 *            date the entry was stored
+	 */
+	public ResultCacheEntry(final String key, final String dataSourceId,
+			final String dataVersion, final String executionId, final long numRecords,
+			final Date createDate)
+	{
+		this.key = key;
+		this.dataSourceId = dataSourceId;
+		this.dataVersion = dataVersion;
+		this.executionId = executionId;
+		this.numRecords = numRecords;
+		this.createDate = (createDate == null) ? null : new Date(createDate.getTime());
+	}
+
+	// ========================= IMPL: Object ==============================
+
+	/**
+	 * @return
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, SHORT_WITH_SPACES_STYLE)
+				.append("key", key)
+				.append("dataSourceId", dataSourceId)
+				.append("dataVersion", dataVersion)
+				.append("executionId", executionId)
+				.append("numRecords", numRecords)
+				.toString();
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * @return the key
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * @return the dataSourceId
+	 */
+	public String getDataSourceId()
+	{
+		return dataSourceId;
+	}
+
+	/**
+	 * @return the dataVersion
+	 */
+	public String getDataVersion()
+	{
+		return dataVersion;
+	}
+
+	/**
+	 * @return the executionId
+	 */
+	public String getExecutionId()
+	{
+		return executionId;
+	}
+
+	/**
+	 * @return the numRecords
+	 */
+	public long getNumRecords()
+	{
+		return numRecords;
+	}
+
+	/**
+	 * @return the createDate
+	 */
+	public Date getCreateDate()
+	{
+		return (createDate == null) ? null : new Date(createDate.getTime());
+	}
+}
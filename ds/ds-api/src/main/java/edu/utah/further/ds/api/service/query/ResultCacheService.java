@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.api.service.query;
+
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * A data source result cache. Query results are keyed by a canonical hash of the
+ * normalized queries of a {@link QueryContext}, so that near-identical queries (e.g.
+ * differing only in the order of conjunction terms or in value formatting) share an
+ * entry. Entries are valid only for the data version they were stored under; a data
+ * source bumps its data version when its underlying data is refreshed.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public interface ResultCacheService
+{
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return the cache key of a query.
+	 *
+	 * @param queryContext
+	 *            query context holding the query type and queries
+	 * @return canonical hash of the normalized queries and query type
+	 */
+	String getKey(QueryContext queryContext);
+
+	/**
+	 * Look up a cached result under the data source's current data version.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @param key
+	 *            cache key, as returned by {@link #getKey(QueryContext)}
+	 * @return cached result, or <code>null</code> if not found
+	 */
+	ResultCacheEntry get(String dataSourceId, String key);
+
+	/**
+	 * Store a result under the data source's current data version, replacing any
+	 * existing entry with the same key.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @param key
+	 *            cache key, as returned by {@link #getKey(QueryContext)}
+	 * @param executionId
+	 *            execution identifier of the query whose results were persisted
+	 * @param numRecords
+	 *            number of result records
+	 */
+	void put(String dataSourceId, String key, String executionId, long numRecords);
+
+	/**
+	 * Remove an entry, e.g. one whose results can no longer be served.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @param key
+	 *            cache key, as returned by {@link #getKey(QueryContext)}
+	 */
+	void remove(String dataSourceId, String key);
+
+	/**
+	 * Return the current data version token of a data source.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @return data version token
+	 */
+	String getDataVersion(String dataSourceId);
+
+	/**
+	 * Set a new data version token for a data source, e.g. the date of its last data
+	 * refresh. Invalidates all of the data source's entries stored under other versions.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @param dataVersion
+	 *            new data version token
+	 */
+	void setDataVersion(String dataSourceId, String dataVersion);
+
+	/**
+	 * Move a data source to a new, unique data version. Invalidates all of the data
+	 * source's entries.
+	 *
+	 * @param dataSourceId
+	 *            data source identifier
+	 * @return new data version token
+	 */
+	String bumpDataVersion(String dataSourceId);
+}
@@ -190,6 +190,17 @@ public enum AttributeName implements Labeled
 	 */
 	PAGING_PAGE_SIZE,
 
+	/**
+	 * Result cache key of the current query, set if the query is eligible for caching
+	 * but was not found in the cache.
+	 */
+	RESULT_CACHE_KEY,
+
+	/**
+	 * Cached result entry of the current query, set upon a result cache hit.
+	 */
+	RESULT_CACHE_ENTRY,
+
 	/**
 	 * Datasource webservice client.
 	 */
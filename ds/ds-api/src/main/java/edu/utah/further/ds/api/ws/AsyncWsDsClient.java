@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.api.ws;
+
+import java.util.concurrent.Future;
+
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * A web service data source client that invokes the web service without blocking the
+ * calling data source thread. The returned future completes as soon as the response
+ * headers arrive; streamed response bodies are then read while they are still being
+ * downloaded.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public interface AsyncWsDsClient extends WsDsClient
+{
+	// ========================= METHODS ===================================
+
+	/**
+	 * Asynchronously invokes a web service data source with the given query criteria.
+	 *
+	 * @param queryContext
+	 *            The query criteria
+	 * @param isPaged
+	 *            whether or not the result will be handled by paging
+	 * @return a future result of the invocation
+	 */
+	Future<WsDsResponse> invokeAsync(QueryContext queryContext, boolean isPaged);
+}
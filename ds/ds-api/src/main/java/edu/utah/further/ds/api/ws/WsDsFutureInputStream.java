@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.api.ws;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An input stream over the streamed body of an asynchronous web service response. The
+ * response is awaited only upon the first read, so that the data source chain can
+ * proceed while the request is in flight; closing the stream before the response
+ * arrives cancels the request.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+// Package private - see factory
+class WsDsFutureInputStream extends InputStream
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Future web service response whose entity is an input stream.
+	 */
+	private final Future<WsDsResponse> future;
+
+	/**
+	 * The response body, once it arrived.
+	 */
+	private volatile InputStream delegate;
+
+	/**
+	 * Was this stream closed.
+	 */
+	private volatile boolean closed;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param future
+	 *            future web service response whose entity is an input stream
+	 */
+	public WsDsFutureInputStream(final Future<WsDsResponse> future)
+	{
+		this.future = future;
+	}
+
+	// ========================= IMPL: InputStream =========================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.InputStream#read()
+	 */
+	@Override
+	public int read() throws IOException
+	{
+		return getDelegate().read();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException
+	{
+		return getDelegate().read(b, off, len);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.InputStream#skip(long)
+	 */
+	@Override
+	public long skip(final long n) throws IOException
+	{
+		return getDelegate().skip(n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.InputStream#available()
+	 */
+	@Override
+	public int available() throws IOException
+	{
+		// Do not wait for the response just to report that nothing is available yet
+		return ((delegate == null) && !future.isDone()) ? 0 : getDelegate().available();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		if (delegate != null)
+		{
+			delegate.close();
+		}
+		else if (!future.cancel(true))
+		{
+			// The response arrived in the meantime; release its connection
+			try
+			{
+				future.get().close();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch (final ExecutionException e)
+			{
+				// Failed responses hold no connection
+			}
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Wait for the response to arrive and return its body.
+	 *
+	 * @return response body stream
+	 * @throws IOException
+	 *             if the web service invocation failed
+	 */
+	private InputStream getDelegate() throws IOException
+	{
+		final InputStream current = delegate;
+		if ((current != null) && !closed)
+		{
+			return current;
+		}
+		synchronized (this)
+		{
+			if (closed)
+			{
+				throw new IOException("Stream closed");
+			}
+			if (delegate == null)
+			{
+				try
+				{
+					delegate = future.get().getResponse();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException(
+							"Interrupted while waiting for web service response");
+				}
+				catch (final ExecutionException e)
+				{
+					throw new IOException("Web service invocation failed", e.getCause());
+				}
+			}
+			return delegate;
+		}
+	}
+}
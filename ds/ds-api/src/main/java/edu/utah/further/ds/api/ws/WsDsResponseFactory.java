@@ -16,6 +16,7 @@
 package edu.utah.further.ds.api.ws;
 
 import java.io.InputStream;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +60,20 @@ public final class WsDsResponseFactory
 		return new WsDsStreamResponse(responseStream);
 	}
 
+	/**
+	 * Returns a streamed response over the body of an asynchronous response that may not
+	 * have arrived yet. The response is awaited upon the first read from the stream.
+	 * 
+	 * @param futureResponse
+	 *            future streamed response
+	 * @return streamed response
+	 */
+	public static final WsDsResponse streamedResponse(
+			final Future<WsDsResponse> futureResponse)
+	{
+		return new WsDsStreamResponse(new WsDsFutureInputStream(futureResponse));
+	}
+
 	/**
 	 * Return a marshalled response.
 	 * 
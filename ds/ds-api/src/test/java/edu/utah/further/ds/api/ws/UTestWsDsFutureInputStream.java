@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.api.ws;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Test;
+
+/**
+ * Unit test of streamed responses of asynchronous web service invocations.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestWsDsFutureInputStream
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String BODY = "<results/>";
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * The body is read once the response arrives.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void readAfterResponse() throws IOException
+	{
+		final FutureTask<WsDsResponse> future = newFuture(BODY);
+		final InputStream stream = WsDsResponseFactory.streamedResponse(future)
+				.getResponse();
+		assertThat(Integer.valueOf(stream.available()), is(Integer.valueOf(0)));
+		future.run();
+		assertThat(read(stream), is(BODY));
+		stream.close();
+	}
+
+	/**
+	 * Closing the stream before the response arrives cancels the request.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void closeCancels() throws IOException
+	{
+		final FutureTask<WsDsResponse> future = newFuture(BODY);
+		final InputStream stream = WsDsResponseFactory.streamedResponse(future)
+				.getResponse();
+		stream.close();
+		assertThat(Boolean.valueOf(future.isCancelled()), is(Boolean.TRUE));
+	}
+
+	/**
+	 * A failed invocation surfaces as an I/O exception upon reading.
+	 *
+	 * @throws IOException
+	 */
+	@Test(expected = IOException.class)
+	public void failure() throws IOException
+	{
+		final FutureTask<WsDsResponse> future = new FutureTask<>(
+				new Callable<WsDsResponse>()
+				{
+					@Override
+					public WsDsResponse call() throws IOException
+					{
+						throw new IOException("Connection refused");
+					}
+				});
+		future.run();
+		final InputStream stream = WsDsResponseFactory.streamedResponse(future)
+				.getResponse();
+		stream.read();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param stream
+	 *            input stream
+	 * @return stream contents
+	 * @throws IOException
+	 */
+	private static String read(final InputStream stream) throws IOException
+	{
+		final StringBuilder s = new StringBuilder();
+		final byte[] buffer = new byte[4];
+		int length;
+		while ((length = stream.read(buffer, 0, buffer.length)) >= 0)
+		{
+			s.append(new String(buffer, 0, length));
+		}
+		return s.toString();
+	}
+
+	/**
+	 * @param body
+	 *            response body
+	 * @return a future streamed response that completes when run
+	 */
+	private static FutureTask<WsDsResponse> newFuture(final String body)
+	{
+		return new FutureTask<>(new Callable<WsDsResponse>()
+		{
+			@Override
+			public WsDsResponse call()
+			{
+				return WsDsResponseFactory.streamedResponse(new ByteArrayInputStream(body
+						.getBytes()));
+			}
+		});
+	}
+}
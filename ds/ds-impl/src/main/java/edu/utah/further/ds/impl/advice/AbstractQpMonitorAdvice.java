@@ -32,6 +32,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import edu.utah.further.core.api.chain.ChainRequest;
 import edu.utah.further.core.api.chain.RequestProcessor;
 import edu.utah.further.core.api.text.StringUtil;
+import edu.utah.further.core.chain.ProcessorMetrics;
 import edu.utah.further.ds.api.advice.RequestProcessorAroundAdvice;
 import edu.utah.further.ds.api.service.query.processor.StatusReporter;
 import edu.utah.further.ds.api.util.StatusMetaDataUtil;
@@ -80,8 +81,24 @@ abstract class AbstractQpMonitorAdvice implements RequestProcessorAroundAdvice
 	@Qualifier("dsProperties")
 	private Properties dsProperties;
 
+	/**
+	 * Records per-processor timing statistics.
+	 */
+	private ProcessorMetrics processorMetrics = ProcessorMetrics.getDefault();
+
 	// ========================= GETTERS & SETTERS =========================
 
+	/**
+	 * Set a new value for the processorMetrics property.
+	 *
+	 * @param processorMetrics
+	 *            the processorMetrics to set
+	 */
+	public void setProcessorMetrics(final ProcessorMetrics processorMetrics)
+	{
+		this.processorMetrics = processorMetrics;
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -130,6 +147,32 @@ abstract class AbstractQpMonitorAdvice implements RequestProcessorAroundAdvice
 		}
 	}
 
+	/**
+	 * Record a processor's timing statistics.
+	 *
+	 * @param requestProcessor
+	 *            current request processor in the chain
+	 * @param elapsedNanos
+	 *            processing time [ns]
+	 * @param statusType
+	 *            processing outcome status
+	 * @param retVal
+	 *            processor's return value; <code>true</code> if it terminated the chain
+	 */
+	protected final void recordMetrics(final RequestProcessor requestProcessor,
+			final long elapsedNanos, final StatusType statusType, final Object retVal)
+	{
+		final String name = getProcessorName(requestProcessor);
+		if (statusType.isFailed())
+		{
+			processorMetrics.recordFailure(name, elapsedNanos);
+		}
+		else
+		{
+			processorMetrics.record(name, elapsedNanos, Boolean.TRUE.equals(retVal));
+		}
+	}
+
 	/**
 	 * Return a request processor's name. Search first in the data source properties. If
 	 * not found, use a default name.
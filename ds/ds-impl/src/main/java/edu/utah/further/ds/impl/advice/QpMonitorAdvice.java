@@ -111,13 +111,14 @@ public final class QpMonitorAdvice extends AbstractQpMonitorAdvice
 		{
 			// Execute and time the processor
 			retVal = pjp.proceed();
-			final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
-					- startTime);
+			final long durationNanos = System.nanoTime() - startTime;
+			final long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
 
 			// Inject the proper status processor based the POST-request-processor query
 			// state
 			final QueryContext postQueryContext = request.getAttribute(QUERY_CONTEXT);
 			final StatusType statusType = StatusType.valueOf(postQueryContext.isFailed());
+			recordMetrics(requestProcessor, durationNanos, statusType, retVal);
 			notifyStatus(request, requestProcessor, statusType, durationMillis);
 			if (statusType.isFailed())
 			{
@@ -127,8 +128,9 @@ public final class QpMonitorAdvice extends AbstractQpMonitorAdvice
 		}
 		catch (final Throwable throwable)
 		{
-			final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
-					- startTime);
+			final long durationNanos = System.nanoTime() - startTime;
+			final long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+			recordMetrics(requestProcessor, durationNanos, StatusType.FAIL, null);
 			// Take control of the request and execute a terminating processor; pass
 			// the exception on to the status reporter
 			request.setException(throwable);
@@ -0,0 +1,368 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.executor.db.hibernate.criteria;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.core.api.collections.CollectionUtil.newMap;
+import static edu.utah.further.core.data.util.HibernateUtil.MAX_IN;
+import static edu.utah.further.core.data.util.HibernateUtil.THIS;
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_RESULT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.Validate;
+import org.hibernate.EntityMode;
+import org.hibernate.FetchMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.CriteriaSpecification;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.api.context.Labeled;
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
+import edu.utah.further.core.data.hibernate.adapter.CriteriaType;
+import edu.utah.further.core.data.hibernate.adapter.GenericCriteria;
+import edu.utah.further.core.data.hibernate.adapter.GenericCriteriaFactory;
+import edu.utah.further.core.data.util.HibernateUtil;
+import edu.utah.further.ds.impl.executor.db.hibernate.HibernateExecReq;
+
+/**
+ * A paging loop processor that initializes the lazy associations of a whole page of
+ * root entities with one <code>IN</code> query per association, instead of one query per
+ * entity and association when each collection is first accessed during marshalling or
+ * translation (1 + A &times; N queries for a page of N entities with A associations).
+ * <p>
+ * The fetched collections are set on the page's entities, which may be either managed
+ * entities or transient beans (e.g. produced by {@link HibernateDistinctEntityExecutor}
+ * ). The page's contents and order are unchanged. Associations are fetched one at a time
+ * rather than in a single join query to avoid a cartesian product of the collections.
+ * <p>
+ * The fetch plan is configured per data source by importing
+ * <code>META-INF/ds/impl/ds-impl-context-fetch-plan.xml</code> and adding a child of its
+ * <code>hibernateAssociationBatchFetcher</code> bean to the paging processor's main loop,
+ * e.g.
+ *
+ * <pre>
+ * &lt;bean id=&quot;personFetchPlan&quot; parent=&quot;hibernateAssociationBatchFetcher&quot;&gt;
+ *     &lt;property name=&quot;associations&quot;&gt;
+ *         &lt;list&gt;
+ *             &lt;value&gt;observations&lt;/value&gt;
+ *             &lt;value&gt;encounters&lt;/value&gt;
+ *         &lt;/list&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * This processor expects the following to be set (see {@link HibernateExecReq}):
+ * {@literal <ul>
+ * <li>A page of root entities in the source attribute</li>
+ * <li>SessionFactory</li>
+ * <li>Root Entity Class</li></ul>}
+  * <p>
+ * The queries run in the session bound to the current transaction. Main loops that run
+ * outside a transaction get a session and transaction of their own per page.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class HibernateAssociationBatchFetcher extends
+		AbstractNonDelegatingUtilityProcessor
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(HibernateAssociationBatchFetcher.class);
+
+	/**
+	 * Default maximum number of root entities per <code>IN</code> query.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Names of the root entity associations to initialize.
+	 */
+	private List<String> associations = newList();
+
+	/**
+	 * The name of the attribute holding the current page of root entities.
+	 */
+	private Labeled sourceAttr = QUERY_RESULT;
+
+	/**
+	 * Maximum number of root entities per <code>IN</code> query. Must be smaller than
+	 * {@link HibernateUtil#MAX_IN}.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Validate dependencies.
+	 */
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		Validate.notNull(associations, "Associations must be set");
+		Validate.isTrue((batchSize > 0) && (batchSize < MAX_IN),
+				"Batch size must be between 1 and " + (MAX_IN - 1));
+	}
+
+	// ========================= IMPL: RequestProcessor ====================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.
+	 * api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		final List<PersistentEntity<?>> page = request.getAttribute(sourceAttr);
+		if ((page == null) || page.isEmpty() || associations.isEmpty())
+		{
+			return false;
+		}
+		final HibernateExecReq executionReq = new HibernateExecReq(request);
+		final SessionFactory sessionFactory = executionReq.getSessionFactory();
+		Validate.notNull(sessionFactory, "Expected SessionFactory");
+		final Class<? extends PersistentEntity<?>> rootEntity = executionReq
+				.getRootEntity();
+		Validate.notNull(rootEntity, "Expected root entity class");
+
+		final ClassMetadata classMetadata = sessionFactory.getClassMetadata(rootEntity);
+		// Paging loops that run outside the life cycle's transaction have no bound
+		// session; open (and own) one for the duration of the page
+		final Session currentSession = getCurrentSession(sessionFactory);
+		final Session session = (currentSession == null) ? sessionFactory.openSession()
+				: currentSession;
+		final Transaction transaction = (currentSession == null) ? session
+				.beginTransaction() : null;
+		try
+		{
+			for (int from = 0; from < page.size(); from += batchSize)
+			{
+				final List<PersistentEntity<?>> batch = page.subList(from,
+						Math.min(page.size(), from + batchSize));
+				for (final String association : associations)
+				{
+					fetchAssociation(sessionFactory, session, rootEntity,
+							classMetadata, batch, association);
+				}
+			}
+			if (transaction != null)
+			{
+				transaction.commit();
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			if (transaction != null)
+			{
+				transaction.rollback();
+			}
+			throw e;
+		}
+		finally
+		{
+			if (currentSession == null)
+			{
+				session.close();
+			}
+		}
+		return false;
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the associations property.
+	 *
+	 * @param associations
+	 *            names of the root entity associations to initialize
+	 */
+	public void setAssociations(final List<String> associations)
+	{
+		this.associations = associations;
+	}
+
+	/**
+	 * Set a new value for the sourceAttr property.
+	 *
+	 * @param sourceAttr
+	 *            the name of the attribute holding the current page of root entities
+	 */
+	public void setSourceAttr(final Labeled sourceAttr)
+	{
+		this.sourceAttr = sourceAttr;
+	}
+
+	/**
+	 * Set a new value for the batchSize property.
+	 *
+	 * @param batchSize
+	 *            maximum number of root entities per <code>IN</code> query
+	 */
+	public void setBatchSize(final int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	// ========================= PROTECTED METHODS =========================
+
+	/**
+	 * Load a batch of root entities with an association join-fetched. Issues exactly one
+	 * query.
+	 *
+	 * @param sessionFactory
+	 *            data source session factory
+	 * @param session
+	 *            session to run the query in
+	 * @param rootEntity
+	 *            root entity class
+	 * @param classMetadata
+	 *            root entity meta data
+	 * @param ids
+	 *            identifiers of the batch's root entities
+	 * @param association
+	 *            association property name
+	 * @return loaded root entities, with the association initialized
+	 */
+	protected List<PersistentEntity<?>> loadBatch(final SessionFactory sessionFactory,
+			final Session session, final Class<? extends PersistentEntity<?>> rootEntity,
+			final ClassMetadata classMetadata, final List<Object> ids,
+			final String association)
+	{
+		final GenericCriteria criteria = GenericCriteriaFactory.criteria(
+				CriteriaType.CRITERIA, rootEntity, session);
+		final Type identifierType = classMetadata.getIdentifierType();
+		if (identifierType.isComponentType())
+		{
+			final Type[] types = new Type[ids.size()];
+			Arrays.fill(types, identifierType);
+			criteria.add(Restrictions.sqlRestriction(HibernateUtil
+					.sqlRestrictionCompositeIn(rootEntity, sessionFactory, ids.size()),
+					ids.toArray(), types));
+		}
+		else
+		{
+			criteria.add(Restrictions.in(
+					THIS + classMetadata.getIdentifierPropertyName(), ids));
+		}
+		criteria
+				.setFetchMode(association, FetchMode.JOIN)
+				.setResultTransformer(CriteriaSpecification.DISTINCT_ROOT_ENTITY);
+		return criteria.list();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Return the session bound to the current transaction, if any.
+	 *
+	 * @param sessionFactory
+	 *            data source session factory
+	 * @return current session, or <code>null</code> if no session is bound
+	 */
+	private static Session getCurrentSession(final SessionFactory sessionFactory)
+	{
+		try
+		{
+			return sessionFactory.getCurrentSession();
+		}
+		catch (final HibernateException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Load an association of a batch of root entities with a single join-fetch query and
+	 * set it on the batch's entities.
+	 *
+	 * @param sessionFactory
+	 *            data source session factory
+	 * @param session
+	 *            session to run the query in
+	 * @param rootEntity
+	 *            root entity class
+	 * @param classMetadata
+	 *            root entity meta data
+	 * @param batch
+	 *            batch of root entities
+	 * @param association
+	 *            association property name
+	 */
+	private void fetchAssociation(final SessionFactory sessionFactory,
+			final Session session, final Class<? extends PersistentEntity<?>> rootEntity,
+			final ClassMetadata classMetadata, final List<PersistentEntity<?>> batch,
+			final String association)
+	{
+		final List<Object> ids = newList();
+		for (final PersistentEntity<?> entity : batch)
+		{
+			ids.add(entity.getId());
+		}
+		final List<PersistentEntity<?>> loaded = loadBatch(sessionFactory, session,
+				rootEntity, classMetadata, ids, association);
+
+		final Map<Object, PersistentEntity<?>> loadedById = newMap();
+		for (final PersistentEntity<?> entity : loaded)
+		{
+			loadedById.put(entity.getId(), entity);
+		}
+		for (final PersistentEntity<?> entity : batch)
+		{
+			final PersistentEntity<?> loadedEntity = loadedById.get(entity.getId());
+			if ((loadedEntity != null) && (loadedEntity != entity))
+			{
+				classMetadata.setPropertyValue(entity, association, classMetadata
+						.getPropertyValue(loadedEntity, association, EntityMode.POJO),
+						EntityMode.POJO);
+			}
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Fetched " + association + " of " + loaded.size() + "/"
+					+ batch.size() + " " + rootEntity.getSimpleName() + " entities");
+		}
+	}
+}
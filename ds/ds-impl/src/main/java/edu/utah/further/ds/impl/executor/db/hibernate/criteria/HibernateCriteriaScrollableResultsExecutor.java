@@ -20,6 +20,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 import org.hibernate.CacheMode;
 import org.hibernate.HibernateException;
 import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.ClassMetadata;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
@@ -30,8 +32,10 @@ import edu.utah.further.core.api.time.TimeService;
 import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
 import edu.utah.further.core.data.hibernate.adapter.GenericCriteria;
 import edu.utah.further.core.data.hibernate.adapter.ScrollMode;
+import edu.utah.further.core.data.hibernate.page.KeysetResults;
+import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.ds.api.annotation.HibernateExecutor;
-import edu.utah.further.ds.api.request.QueryExecutionRequest;
+import edu.utah.further.ds.impl.executor.db.hibernate.HibernateExecReq;
 
 /**
  * Retrieves a {@link GenericCriteria} from the result of a previous
@@ -41,6 +45,13 @@ import edu.utah.further.ds.api.request.QueryExecutionRequest;
  * This executor is not a final point of execution and can be used between other
  * {@link RequestProcessor}'s.
  * <p>
+ * When the search query specifies no sort order or result limits, the results are read
+ * forward-only in keyset batches ({@link KeysetResults}) ordered by the root entity
+ * identifier, simple or embedded, instead of through an insensitive scrollable cursor,
+ * which most JDBC drivers implement by buffering the entire result set in memory. The
+ * scrollable cursor remains the fallback for all other queries and for root entities
+ * without an identifier property.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -73,8 +84,18 @@ public class HibernateCriteriaScrollableResultsExecutor extends
 	@Override
 	public boolean process(final ChainRequest request)
 	{
-		final QueryExecutionRequest executionRequest = new QueryExecutionRequest(request);
+		final HibernateExecReq executionRequest = new HibernateExecReq(request);
 		final GenericCriteria criteria = executionRequest.getResult();
+		final String identifierName = getKeysetIdentifierName(executionRequest);
+		if (identifierName != null)
+		{
+			final KeysetResults results = new KeysetResults(criteria, identifierName);
+			executionRequest.setResult(results);
+			executionRequest.setStatus("Executed query @ " + TimeService.getDate());
+			// Fetches the first batch
+			return results.hasNext();
+		}
+
 		final ScrollableResults results = getResultListFromHibernate(criteria);
 		executionRequest.setResult(results);
 		executionRequest.setStatus("Executed query @ " + TimeService.getDate());
@@ -91,6 +112,31 @@ public class HibernateCriteriaScrollableResultsExecutor extends
 
 	// ========================= PRIVATE METHODS =============================
 
+	/**
+	 * Decide whether the query can be read in keyset batches.
+	 * 
+	 * @param executionRequest
+	 *            execution request
+	 * @return root entity identifier property name to order keyset batches by, or
+	 *         <code>null</code> if the query must be read through a scrollable cursor
+	 *         instead
+	 */
+	private static String getKeysetIdentifierName(final HibernateExecReq executionRequest)
+	{
+		final SearchQuery searchQuery = executionRequest.getSearchQuery();
+		final SessionFactory sessionFactory = executionRequest.getSessionFactory();
+		if ((searchQuery == null) || (sessionFactory == null)
+				|| !searchQuery.getSortCriteria().isEmpty()
+				|| (searchQuery.getFirstResult() != null)
+				|| (searchQuery.getMaxResults() != null))
+		{
+			return null;
+		}
+		final ClassMetadata classMetadata = sessionFactory
+				.getClassMetadata(executionRequest.getRootEntity());
+		return (classMetadata == null) ? null : classMetadata.getIdentifierPropertyName();
+	}
+
 	// TODO: replace by a template method wrapping a function pointer that executes a
 	// Hibernate query.
 	// This version should return a <T> to cover both List, other return. values
@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.executor.ws;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.Validate;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.ws.AsyncHttpClientTemplate;
+import edu.utah.further.core.ws.AsyncHttpResponse;
+import edu.utah.further.ds.api.ws.AsyncWsDsClient;
+import edu.utah.further.ds.api.ws.WsDsResponse;
+import edu.utah.further.ds.api.ws.WsDsResponseFactory;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * A base class of HTTP web service data source clients that invoke the web service over
+ * the shared, non-blocking {@link AsyncHttpClientTemplate}, whose connections are pooled
+ * and kept alive between requests.
+ * <p>
+ * No thread waits for the remote data source: the template's I/O reactor completes the
+ * returned future as soon as the response headers arrive, and the response body is
+ * streamed to the data source chain as it is downloaded. The connection is returned to
+ * the pool when the chain closes the stream (e.g. in the <code>StreamFinalizerQp</code>).
+ * Concurrency is bounded by the template's per-host connection limit. Subclasses build
+ * the HTTP request of a query, and may override how the body is wrapped, e.g. in a
+ * marshalled response for non-paged queries.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public abstract class AbstractAsyncHttpWsDsClient implements AsyncWsDsClient
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(AbstractAsyncHttpWsDsClient.class);
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Executes HTTP requests over pooled connections without blocking.
+	 */
+	private AsyncHttpClientTemplate asyncHttpClientTemplate;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Validate dependencies.
+	 */
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		Validate.notNull(asyncHttpClientTemplate,
+				"An asynchronous HTTP client template must be set");
+	}
+
+	// ========================= IMPL: AsyncWsDsClient =====================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.ws.AsyncWsDsClient#invokeAsync(edu.utah.further.fqe.ds.api
+	 * .domain.QueryContext, boolean)
+	 */
+	@Override
+	public Future<WsDsResponse> invokeAsync(final QueryContext queryContext,
+			final boolean isPaged)
+	{
+		final HttpUriRequest request = newRequest(queryContext, isPaged);
+		if (log.isDebugEnabled())
+		{
+			log.debug("Invoking " + request.getRequestLine() + " for query "
+					+ queryContext.getExecutionId());
+		}
+		return new ResponseFuture(asyncHttpClientTemplate.execute(request),
+				queryContext, isPaged);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.utah.further.ds.api.ws.WsDsClient#invoke(edu.utah.further.fqe.ds.api.domain
+	 * .QueryContext, boolean)
+	 */
+	@Override
+	public WsDsResponse invoke(final QueryContext queryContext, final boolean isPaged)
+	{
+		final Future<WsDsResponse> future = invokeAsync(queryContext, isPaged);
+		try
+		{
+			return future.get();
+		}
+		catch (final InterruptedException e)
+		{
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ApplicationException("Interrupted while invoking web service", e);
+		}
+		catch (final ExecutionException e)
+		{
+			if (e.getCause() instanceof ApplicationException)
+			{
+				throw (ApplicationException) e.getCause();
+			}
+			throw new ApplicationException("Web service invocation failed", e.getCause());
+		}
+	}
+
+	// ========================= ABSTRACT METHODS ==========================
+
+	/**
+	 * Build the HTTP request that executes a query.
+	 *
+	 * @param queryContext
+	 *            The query criteria
+	 * @param isPaged
+	 *            whether or not the result will be handled by paging
+	 * @return HTTP request to execute
+	 */
+	protected abstract HttpUriRequest newRequest(QueryContext queryContext,
+			boolean isPaged);
+
+	// ========================= HOOKS =====================================
+
+	/**
+	 * Wrap a successful response body. This default implementation returns a streamed
+	 * response.
+	 *
+	 * @param body
+	 *            decoded response body stream. Closing it returns the connection to the
+	 *            pool
+	 * @param queryContext
+	 *            The query criteria
+	 * @param isPaged
+	 *            whether or not the result will be handled by paging
+	 * @return web service data source response
+	 */
+	protected WsDsResponse newResponse(final InputStream body,
+			final QueryContext queryContext, final boolean isPaged)
+	{
+		return WsDsResponseFactory.streamedResponse(body);
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the asyncHttpClientTemplate property.
+	 *
+	 * @param asyncHttpClientTemplate
+	 *            executes HTTP requests over pooled connections without blocking
+	 */
+	public void setAsyncHttpClientTemplate(
+			final AsyncHttpClientTemplate asyncHttpClientTemplate)
+	{
+		this.asyncHttpClientTemplate = asyncHttpClientTemplate;
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Wraps the response of the HTTP template once its headers arrive, on the thread
+	 * that first reads the response. Cancelling aborts the HTTP request.
+	 */
+	private final class ResponseFuture implements Future<WsDsResponse>
+	{
+		/**
+		 * HTTP response future.
+		 */
+		private final Future<AsyncHttpResponse> future;
+
+		/**
+		 * The query criteria.
+		 */
+		private final QueryContext queryContext;
+
+		/**
+		 * Whether or not the result will be handled by paging.
+		 */
+		private final boolean isPaged;
+
+		/**
+		 * Wrapped response, created upon first successful access.
+		 */
+		private WsDsResponse response;
+
+		/**
+		 * @param future
+		 *            HTTP response future
+		 * @param queryContext
+		 *            The query criteria
+		 * @param isPaged
+		 *            whether or not the result will be handled by paging
+		 */
+		ResponseFuture(final Future<AsyncHttpResponse> future,
+				final QueryContext queryContext, final boolean isPaged)
+		{
+			this.future = future;
+			this.queryContext = queryContext;
+			this.isPaged = isPaged;
+		}
+
+		/**
+		 * @see java.util.concurrent.Future#cancel(boolean)
+		 */
+		@Override
+		public boolean cancel(final boolean mayInterruptIfRunning)
+		{
+			return future.cancel(mayInterruptIfRunning);
+		}
+
+		/**
+		 * @see java.util.concurrent.Future#isCancelled()
+		 */
+		@Override
+		public boolean isCancelled()
+		{
+			return future.isCancelled();
+		}
+
+		/**
+		 * @see java.util.concurrent.Future#isDone()
+		 */
+		@Override
+		public boolean isDone()
+		{
+			return future.isDone();
+		}
+
+		/**
+		 * @see java.util.concurrent.Future#get()
+		 */
+		@Override
+		public WsDsResponse get() throws InterruptedException, ExecutionException
+		{
+			return wrap(future.get());
+		}
+
+		/**
+		 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+		 */
+		@Override
+		public WsDsResponse get(final long timeout, final TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException
+		{
+			return wrap(future.get(timeout, unit));
+		}
+
+		/**
+		 * @param httpResponse
+		 *            HTTP response whose headers arrived
+		 * @return web service data source response
+		 * @throws ExecutionException
+		 *             if the data source did not return a successful response
+		 */
+		private synchronized WsDsResponse wrap(final AsyncHttpResponse httpResponse)
+				throws ExecutionException
+		{
+			if (response != null)
+			{
+				return response;
+			}
+			if (!httpResponse.isSuccess())
+			{
+				httpResponse.close();
+				throw new ExecutionException(new ApplicationException(
+						"Web service data source returned HTTP status "
+								+ httpResponse.getStatusCode() + " for query "
+								+ queryContext.getExecutionId()));
+			}
+			if (log.isDebugEnabled())
+			{
+				log.debug("Received response headers for query "
+						+ queryContext.getExecutionId());
+			}
+			final InputStream body;
+			try
+			{
+				body = httpResponse.getBody();
+			}
+			catch (final IOException e)
+			{
+				httpResponse.close();
+				throw new ExecutionException(e);
+			}
+			response = newResponse(new FilterInputStream(body)
+			{
+				@Override
+				public void close() throws IOException
+				{
+					try
+					{
+						super.close();
+					}
+					finally
+					{
+						httpResponse.close();
+					}
+				}
+			}, queryContext, isPaged);
+			return response;
+		}
+	}
+}
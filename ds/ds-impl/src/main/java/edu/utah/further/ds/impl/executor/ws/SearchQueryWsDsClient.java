@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.executor.ws;
+
+import java.nio.charset.Charset;
+
+import javax.annotation.PostConstruct;
+import javax.xml.bind.JAXBException;
+
+import org.apache.commons.lang.Validate;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.api.xml.XmlService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * An asynchronous client of REST web service data sources that accept the FURTHeR
+ * search query XML. Each query is POSTed to the data source URL and the response body is
+ * streamed to the data source chain, whose translation processors consume it while it
+ * is still downloading.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class SearchQueryWsDsClient extends AbstractAsyncHttpWsDsClient
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Request body content type.
+	 */
+	private static final ContentType XML = ContentType.create("application/xml",
+			Charset.forName("UTF-8"));
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Marshals search queries.
+	 */
+	private XmlService xmlService;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Data source web service URL.
+	 */
+	private String url;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Validate dependencies.
+	 *
+	 * @see edu.utah.further.ds.impl.executor.ws.AbstractAsyncHttpWsDsClient#afterPropertiesSet()
+	 */
+	@Override
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		super.afterPropertiesSet();
+		Validate.notNull(xmlService, "An XML service must be set");
+		Validate.notEmpty(url, "A web service URL must be set");
+	}
+
+	// ========================= IMPL: AbstractAsyncHttpWsDsClient =========
+
+	/**
+	 * POST the query's search query XML to the data source URL.
+	 *
+	 * @param queryContext
+	 *            The query criteria
+	 * @param isPaged
+	 *            whether or not the result will be handled by paging
+	 * @return HTTP request to execute
+	 * @see edu.utah.further.ds.impl.executor.ws.AbstractAsyncHttpWsDsClient#newRequest(edu.utah.further.fqe.ds.api.domain.QueryContext,
+	 *      boolean)
+	 */
+	@Override
+	protected HttpUriRequest newRequest(final QueryContext queryContext,
+			final boolean isPaged)
+	{
+		final String queryXml;
+		try
+		{
+			queryXml = xmlService.marshal(queryContext.getQuery());
+		}
+		catch (final JAXBException e)
+		{
+			throw new ApplicationException("Unable to marshal search query of query "
+					+ queryContext.getExecutionId(), e);
+		}
+		final HttpPost post = new HttpPost(url);
+		post.setEntity(new StringEntity(queryXml, XML));
+		return post;
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the xmlService property.
+	 *
+	 * @param xmlService
+	 *            marshals search queries
+	 */
+	public void setXmlService(final XmlService xmlService)
+	{
+		this.xmlService = xmlService;
+	}
+
+	/**
+	 * Set a new value for the url property.
+	 *
+	 * @param url
+	 *            data source web service URL
+	 */
+	public void setUrl(final String url)
+	{
+		this.url = url;
+	}
+}
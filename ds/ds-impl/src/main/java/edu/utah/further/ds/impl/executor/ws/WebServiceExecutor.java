@@ -15,6 +15,7 @@
  */
 package edu.utah.further.ds.impl.executor.ws;
 
+import static edu.utah.further.core.api.lang.ReflectionUtil.instanceOf;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.apache.commons.lang.Validate;
@@ -24,12 +25,16 @@ import org.springframework.stereotype.Service;
 import edu.utah.further.core.api.chain.ChainRequest;
 import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
 import edu.utah.further.ds.api.util.AttributeName;
+import edu.utah.further.ds.api.ws.AsyncWsDsClient;
 import edu.utah.further.ds.api.ws.WsDsClient;
 import edu.utah.further.ds.api.ws.WsDsResponse;
+import edu.utah.further.ds.api.ws.WsDsResponseFactory;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
 
 /**
- * An executor which executes a {@link WebServiceDatasource}
+ * An executor which executes a {@link WebServiceDatasource}. Paged queries against an
+ * {@link AsyncWsDsClient} do not wait for the response: the result is a stream that
+ * awaits the response upon its first read and is then consumed as it is downloaded.
  * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
@@ -94,8 +99,19 @@ public class WebServiceExecutor extends AbstractNonDelegatingUtilityProcessor
 				"A web service data source client is required, ensure one is set under attribute "
 						+ AttributeName.WS_DS_CLIENT.getLabel());
 
-		final WsDsResponse response = wsDsClient.invoke(queryContext,
-				webServiceExecReq.isPaged());
+		final boolean isPaged = webServiceExecReq.isPaged();
+		final WsDsResponse response;
+		if (isPaged && instanceOf(wsDsClient, AsyncWsDsClient.class))
+		{
+			// Do not wait for the response; the paging chain reads the body as it
+			// arrives
+			response = WsDsResponseFactory.streamedResponse(((AsyncWsDsClient) wsDsClient)
+					.invokeAsync(queryContext, isPaged));
+		}
+		else
+		{
+			response = wsDsClient.invoke(queryContext, isPaged);
+		}
 
 		// Invoke the WS, set the result
 		webServiceExecReq.setResult(response.getResponse());
@@ -0,0 +1,344 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.cache;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.ParameterizedRowMapper;
+import org.springframework.jdbc.core.simple.ParameterizedSingleColumnRowMapper;
+import org.springframework.jdbc.core.simple.SimpleJdbcTemplate;
+
+import edu.utah.further.ds.api.service.query.ResultCacheEntry;
+import edu.utah.further.ds.api.service.query.ResultCacheService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * A {@link ResultCacheService} stored in the data source's local result database. The
+ * cache and data version tables are created upon initialization if they do not exist.
+ * <p>
+ * Configured per data source, e.g.
+ *
+ * <pre>
+ * &lt;bean id=&quot;resultCacheService&quot; class=&quot;...ResultCacheServiceJdbcImpl&quot;
+ *     p:jdbcTemplate-ref=&quot;inMemoryJdbcTemplate&quot; /&gt;
+ * </pre>
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class ResultCacheServiceJdbcImpl implements ResultCacheService
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ResultCacheServiceJdbcImpl.class);
+
+	/**
+	 * Data version of a data source that has never set one.
+	 */
+	public static final String INITIAL_DATA_VERSION = "0";
+
+	private static final String CREATE_CACHE_TABLE = "CREATE TABLE ds_result_cache "
+			+ "(cache_key VARCHAR(64) NOT NULL, data_source_id VARCHAR(255) NOT NULL, "
+			+ "data_version VARCHAR(64) NOT NULL, execution_id VARCHAR(255), "
+			+ "num_records BIGINT NOT NULL, create_date TIMESTAMP NOT NULL, "
+			+ "PRIMARY KEY (cache_key, data_source_id))";
+
+	private static final String CREATE_VERSION_TABLE = "CREATE TABLE ds_result_cache_version "
+			+ "(data_source_id VARCHAR(255) NOT NULL, data_version VARCHAR(64) NOT NULL, "
+			+ "PRIMARY KEY (data_source_id))";
+
+	private static final String SELECT_ENTRY = "SELECT cache_key, data_source_id, "
+			+ "data_version, execution_id, num_records, create_date FROM ds_result_cache "
+			+ "WHERE cache_key = ? AND data_source_id = ? AND data_version = ? "
+			+ "AND create_date > ?";
+
+	private static final String DELETE_ENTRY = "DELETE FROM ds_result_cache "
+			+ "WHERE cache_key = ? AND data_source_id = ?";
+
+	private static final String INSERT_ENTRY = "INSERT INTO ds_result_cache "
+			+ "(cache_key, data_source_id, data_version, execution_id, num_records, "
+			+ "create_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+	private static final String DELETE_STALE_ENTRIES = "DELETE FROM ds_result_cache "
+			+ "WHERE data_source_id = ? AND data_version <> ?";
+
+	private static final String SELECT_VERSION = "SELECT data_version "
+			+ "FROM ds_result_cache_version WHERE data_source_id = ?";
+
+	private static final String UPDATE_VERSION = "UPDATE ds_result_cache_version "
+			+ "SET data_version = ? WHERE data_source_id = ?";
+
+	private static final String INSERT_VERSION = "INSERT INTO ds_result_cache_version "
+			+ "(data_source_id, data_version) VALUES (?, ?)";
+
+	/**
+	 * Maps a cache table row to an entry.
+	 */
+	private static final ParameterizedRowMapper<ResultCacheEntry> ENTRY_MAPPER = new ParameterizedRowMapper<ResultCacheEntry>()
+	{
+		@Override
+		public ResultCacheEntry mapRow(final ResultSet rs, final int rowNum)
+				throws SQLException
+		{
+			return new ResultCacheEntry(rs.getString(1), rs.getString(2), rs
+					.getString(3), rs.getString(4), rs.getLong(5), rs.getTimestamp(6));
+		}
+	};
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Executes SQL against the local result database.
+	 */
+	private SimpleJdbcTemplate jdbcTemplate;
+
+	/**
+	 * Maximum entry age [ms]. If non-positive, entries expire only when the data version
+	 * changes.
+	 */
+	private long maxAgeMillis;
+
+	/**
+	 * Create the cache tables if they do not exist.
+	 */
+	private boolean createTables = true;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Validate dependencies and create the cache tables if needed.
+	 */
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		Validate.notNull(jdbcTemplate, "A JDBC template must be set");
+		if (createTables)
+		{
+			createTableIfMissing("ds_result_cache", CREATE_CACHE_TABLE);
+			createTableIfMissing("ds_result_cache_version", CREATE_VERSION_TABLE);
+		}
+	}
+
+	// ========================= IMPL: ResultCacheService ==================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.service.query.ResultCacheService#getKey(edu.utah.further
+	 * .fqe.ds.api.domain.QueryContext)
+	 */
+	@Override
+	public String getKey(final QueryContext queryContext)
+	{
+		return SearchQueryKeyBuilder.getKey(queryContext.getQueryType(), queryContext
+				.getQueries());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.utah.further.ds.api.service.query.ResultCacheService#get(java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public ResultCacheEntry get(final String dataSourceId, final String key)
+	{
+		final Timestamp minCreateDate = new Timestamp((maxAgeMillis > 0) ? System
+				.currentTimeMillis()
+				- maxAgeMillis : 0L);
+		final List<ResultCacheEntry> entries = jdbcTemplate.query(SELECT_ENTRY,
+				ENTRY_MAPPER, key, dataSourceId, getDataVersion(dataSourceId),
+				minCreateDate);
+		return entries.isEmpty() ? null : entries.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.utah.further.ds.api.service.query.ResultCacheService#put(java.lang.String,
+	 * java.lang.String, java.lang.String, long)
+	 */
+	@Override
+	public void put(final String dataSourceId, final String key,
+			final String executionId, final long numRecords)
+	{
+		jdbcTemplate.update(DELETE_ENTRY, key, dataSourceId);
+		jdbcTemplate.update(INSERT_ENTRY, key, dataSourceId,
+				getDataVersion(dataSourceId), executionId, Long.valueOf(numRecords),
+				new Timestamp(System.currentTimeMillis()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.service.query.ResultCacheService#remove(java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public void remove(final String dataSourceId, final String key)
+	{
+		jdbcTemplate.update(DELETE_ENTRY, key, dataSourceId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.service.query.ResultCacheService#getDataVersion(java.lang
+	 * .String)
+	 */
+	@Override
+	public String getDataVersion(final String dataSourceId)
+	{
+		final List<String> versions = jdbcTemplate.query(SELECT_VERSION,
+				ParameterizedSingleColumnRowMapper.newInstance(String.class),
+				dataSourceId);
+		return versions.isEmpty() ? INITIAL_DATA_VERSION : versions.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.service.query.ResultCacheService#setDataVersion(java.lang
+	 * .String, java.lang.String)
+	 */
+	@Override
+	public void setDataVersion(final String dataSourceId, final String dataVersion)
+	{
+		Validate.notNull(dataVersion, "Data version must be set");
+		if (jdbcTemplate.update(UPDATE_VERSION, dataVersion, dataSourceId) == 0)
+		{
+			jdbcTemplate.update(INSERT_VERSION, dataSourceId, dataVersion);
+		}
+		final int removed = jdbcTemplate.update(DELETE_STALE_ENTRIES, dataSourceId,
+				dataVersion);
+		if (log.isInfoEnabled())
+		{
+			log.info("Data source " + dataSourceId + " moved to data version "
+					+ dataVersion + ", removed " + removed + " stale cache entries");
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.ds.api.service.query.ResultCacheService#bumpDataVersion(java.lang
+	 * .String)
+	 */
+	@Override
+	public String bumpDataVersion(final String dataSourceId)
+	{
+		long version = System.currentTimeMillis();
+		try
+		{
+			version = Math.max(version, Long.parseLong(getDataVersion(dataSourceId)) + 1);
+		}
+		catch (final NumberFormatException e)
+		{
+			// Current version is a custom token, a time stamp is unique enough
+		}
+		final String dataVersion = Long.toString(version);
+		setDataVersion(dataSourceId, dataVersion);
+		return dataVersion;
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the jdbcTemplate property.
+	 *
+	 * @param jdbcTemplate
+	 *            executes SQL against the local result database
+	 */
+	public void setJdbcTemplate(final SimpleJdbcTemplate jdbcTemplate)
+	{
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Set a new value for the maxAgeMillis property.
+	 *
+	 * @param maxAgeMillis
+	 *            maximum entry age [ms]. If non-positive, entries expire only when the
+	 *            data version changes
+	 */
+	public void setMaxAgeMillis(final long maxAgeMillis)
+	{
+		this.maxAgeMillis = maxAgeMillis;
+	}
+
+	/**
+	 * Set a new value for the createTables property.
+	 *
+	 * @param createTables
+	 *            create the cache tables if they do not exist
+	 */
+	public void setCreateTables(final boolean createTables)
+	{
+		this.createTables = createTables;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Create a table if it does not exist.
+	 *
+	 * @param tableName
+	 *            table name
+	 * @param ddl
+	 *            table creation statement
+	 */
+	private void createTableIfMissing(final String tableName, final String ddl)
+	{
+		try
+		{
+			jdbcTemplate.queryForInt("SELECT COUNT(*) FROM " + tableName);
+		}
+		catch (final DataAccessException e)
+		{
+			if (log.isInfoEnabled())
+			{
+				log.info("Creating result cache table " + tableName);
+			}
+			jdbcTemplate.update(ddl);
+		}
+	}
+}
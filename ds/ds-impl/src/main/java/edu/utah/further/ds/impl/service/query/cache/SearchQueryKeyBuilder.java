@@ -0,0 +1,303 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.cache;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.core.api.lang.CoreUtil.preventUtilityConstruction;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.query.domain.SearchCriterion;
+import edu.utah.further.core.query.domain.SearchQuery;
+import edu.utah.further.core.query.domain.SearchQueryAlias;
+import edu.utah.further.core.query.domain.SearchType;
+import edu.utah.further.core.query.domain.SortCriterion;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+
+/**
+ * Computes a canonical hash of a list of normalized {@link SearchQuery}s, used as a
+ * result cache key. Two queries that are equal up to normalization have the same key:
+ * <ul>
+ * <li>Sub-criteria of commutative junctions (AND, OR, conjunction, disjunction) and
+ * sub-queries of set operations (union, intersection) are sorted.</li>
+ * <li>The values of IN expressions and query aliases are sorted.</li>
+ * <li>Strings are trimmed, and numbers are compared by value (e.g. <code>1.0</code> and
+ * <code>1</code> are equal).</li>
+ * </ul>
+ * Everything else, including sort criteria and result limits, is part of the key.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class SearchQueryKeyBuilder
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Hash algorithm.
+	 */
+	private static final String ALGORITHM = "SHA-256";
+
+	/**
+	 * Search types whose sub-criteria or sub-queries may be reordered.
+	 */
+	private static final Set<SearchType> COMMUTATIVE_TYPES = EnumSet.of(SearchType.AND,
+			SearchType.OR, SearchType.CONJUNCTION, SearchType.DISJUNCTION,
+			SearchType.UNION, SearchType.INTERSECTION);
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * <p>
+	 * Hide constructor in utility class.
+	 * </p>
+	 */
+	private SearchQueryKeyBuilder()
+	{
+		preventUtilityConstruction();
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return the cache key of a list of queries.
+	 *
+	 * @param queryType
+	 *            query type
+	 * @param queries
+	 *            queries
+	 * @return hex-encoded canonical hash of the normalized queries and query type
+	 */
+	public static String getKey(final QueryType queryType,
+			final List<? extends SearchQuery> queries)
+	{
+		return hash(getCanonicalForm(queryType, queries));
+	}
+
+	/**
+	 * Return the canonical string form of a list of queries. Exposed for debugging.
+	 *
+	 * @param queryType
+	 *            query type
+	 * @param queries
+	 *            queries
+	 * @return canonical form of the normalized queries and query type
+	 */
+	public static String getCanonicalForm(final QueryType queryType,
+			final List<? extends SearchQuery> queries)
+	{
+		final StringBuilder s = new StringBuilder();
+		s.append(queryType).append('[');
+		for (final SearchQuery query : queries)
+		{
+			s.append(canonical(query));
+		}
+		return s.append(']').toString();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param query
+	 *            search query
+	 * @return canonical form of the query
+	 */
+	private static String canonical(final SearchQuery query)
+	{
+		final StringBuilder s = new StringBuilder("Q(");
+		s.append(value(query.getRootObjectName()));
+
+		final List<String> aliases = newList();
+		for (final SearchQueryAlias alias : query.getAliases())
+		{
+			aliases.add(value(alias.getKey()) + value(alias.getValue())
+					+ value(alias.getAssociationObject()));
+		}
+		Collections.sort(aliases);
+		s.append("A").append(aliases);
+
+		s.append("S[");
+		for (final SortCriterion sortCriterion : query.getSortCriteria())
+		{
+			s.append(value(sortCriterion.getPropertyName())).append(
+					sortCriterion.getSortType());
+		}
+		s.append(']');
+		s.append("F").append(value(query.getFirstResult()));
+		s.append("M").append(value(query.getMaxResults()));
+		s.append(canonical(query.getRootCriterion()));
+		return s.append(')').toString();
+	}
+
+	/**
+	 * @param criterion
+	 *            search criterion
+	 * @return canonical form of the criterion
+	 */
+	private static String canonical(final SearchCriterion criterion)
+	{
+		if (criterion == null)
+		{
+			return "C()";
+		}
+		final SearchType searchType = criterion.getSearchType();
+		final boolean commutative = COMMUTATIVE_TYPES.contains(searchType);
+		final StringBuilder s = new StringBuilder("C(");
+		s.append(searchType);
+		s.append(value(criterion.getMatchType()));
+		s.append(value(criterion.isIgnoreCase()));
+		s.append(value(criterion.getEscapeChar()));
+
+		final List<String> parameters = newList();
+		for (final Object parameter : criterion.getParameters())
+		{
+			parameters.add(value(parameter));
+		}
+		// IN parameters are the property name followed by a set of values
+		if ((searchType == SearchType.IN) && (parameters.size() > 1))
+		{
+			Collections.sort(parameters.subList(1, parameters.size()));
+		}
+		s.append("P").append(parameters);
+
+		final List<String> criteria = newList();
+		for (final SearchCriterion subCriterion : criterion.getCriteria())
+		{
+			criteria.add(canonical(subCriterion));
+		}
+		final List<String> queries = newList();
+		for (final SearchQuery subQuery : criterion.getQueries())
+		{
+			queries.add(canonical(subQuery));
+		}
+		if (commutative)
+		{
+			Collections.sort(criteria);
+			Collections.sort(queries);
+		}
+		s.append("C").append(criteria);
+		s.append("Q").append(queries);
+		return s.append(')').toString();
+	}
+
+	/**
+	 * Normalize a value and tag it with its type, so that values of different types never
+	 * collide.
+	 *
+	 * @param value
+	 *            value
+	 * @return normalized value
+	 */
+	private static String value(final Object value)
+	{
+		if (value == null)
+		{
+			return "N;";
+		}
+		final String string;
+		final char type;
+		if (value instanceof Number)
+		{
+			type = '#';
+			string = number((Number) value);
+		}
+		else if (value instanceof Date)
+		{
+			type = 'D';
+			string = Long.toString(((Date) value).getTime());
+		}
+		else if (value instanceof Enum<?>)
+		{
+			type = 'E';
+			string = ((Enum<?>) value).name();
+		}
+		else if (value instanceof String)
+		{
+			type = 'S';
+			string = ((String) value).trim();
+		}
+		else
+		{
+			type = 'O';
+			string = value.toString();
+		}
+		// Length-prefix the value so that it cannot be confused with a separator
+		return type + Integer.toString(string.length()) + ":" + string + ";";
+	}
+
+	/**
+	 * @param number
+	 *            number
+	 * @return canonical decimal representation of the number
+	 */
+	private static String number(final Number number)
+	{
+		try
+		{
+			final BigDecimal decimal = new BigDecimal(number.toString());
+			return (decimal.signum() == 0) ? "0" : decimal
+					.stripTrailingZeros()
+					.toPlainString();
+		}
+		catch (final NumberFormatException e)
+		{
+			// NaN, infinity
+			return number.toString();
+		}
+	}
+
+	/**
+	 * @param string
+	 *            canonical form
+	 * @return hex-encoded hash of the canonical form
+	 */
+	private static String hash(final String string)
+	{
+		try
+		{
+			final byte[] digest = MessageDigest.getInstance(ALGORITHM).digest(
+					string.getBytes("UTF-8"));
+			final StringBuilder hex = new StringBuilder(2 * digest.length);
+			for (final byte b : digest)
+			{
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(
+						Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		}
+		catch (final NoSuchAlgorithmException | UnsupportedEncodingException e)
+		{
+			throw new ApplicationException("Could not hash cache key", e);
+		}
+	}
+}
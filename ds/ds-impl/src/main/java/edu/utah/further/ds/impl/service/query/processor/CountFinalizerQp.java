@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+
+/**
+ * Count query finalization processor. Applies the data source's count suppression
+ * policy, if one is set, to the executed count before finalizing the query, so that
+ * every count life cycle ending with this processor - including the result cache hit
+ * chain - reports the same approximate counts.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class CountFinalizerQp extends FinalizerQp
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Optional count suppression policy. If <code>null</code>, counts are reported as
+	 * is.
+	 */
+	private CountSuppressionQp suppression;
+
+	// ========================= Impl: RequestHandler ======================
+
+	/**
+	 * @param request
+	 * @return
+	 * @see edu.utah.further.ds.impl.service.query.processor.FinalizerQp#process(edu.utah.further.core.api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		if (suppression != null)
+		{
+			suppression.process(request);
+		}
+		return super.process(request);
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the suppression property.
+	 *
+	 * @param suppression
+	 *            count suppression policy to apply before finalizing the query
+	 */
+	public void setSuppression(final CountSuppressionQp suppression)
+	{
+		this.suppression = suppression;
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_RESULT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.ResultContext;
+
+/**
+ * Turns the exact count of a count query into an approximate, small-cell-suppressed
+ * count. Normally applied by {@link CountFinalizerQp}; may also be placed between the
+ * count executor and a plain count finalizer.
+ * <p>
+ * Non-zero counts below {@link #setThreshold(long)} are reported as the threshold itself
+ * (to be read as "at most the threshold"); all other counts are rounded to the nearest
+ * multiple of {@link #setRoundTo(long)}, but never below the threshold. Zero and invalid
+ * (negative) counts are passed through.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class CountSuppressionQp extends AbstractNonDelegatingUtilityProcessor
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(CountSuppressionQp.class);
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Smallest count that is reported as is. If zero, small cells are not suppressed.
+	 */
+	private long threshold = 0L;
+
+	/**
+	 * Counts are rounded to a multiple of this number.
+	 */
+	private long roundTo = 1L;
+
+	// ========================= Impl: RequestProcessor ====================
+
+	/**
+	 * @param request
+	 * @return
+	 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+		final ResultContext resultContext = queryContext.getResultContext();
+		final Long count = (Long) resultContext.getResult();
+		if ((count == null) || (count.longValue() <= 0L))
+		{
+			return false;
+		}
+
+		final Long reported = Long.valueOf(suppress(count.longValue()));
+		if (log.isDebugEnabled())
+		{
+			log.debug("Reporting count " + count + " as " + reported);
+		}
+		resultContext.setResult(reported);
+		request.setAttribute(QUERY_RESULT, reported);
+		return false;
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return the count to report instead of a positive exact count.
+	 *
+	 * @param count
+	 *            positive exact count
+	 * @return suppressed and rounded count
+	 */
+	public long suppress(final long count)
+	{
+		if (count < threshold)
+		{
+			return threshold;
+		}
+		final long rounded = ((count + roundTo / 2) / roundTo) * roundTo;
+		return Math.max(rounded, threshold);
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the threshold property.
+	 *
+	 * @param threshold
+	 *            smallest count that is reported as is. If zero, small cells are not
+	 *            suppressed
+	 */
+	public void setThreshold(final long threshold)
+	{
+		Validate.isTrue(threshold >= 0L, "Threshold must be non-negative");
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Set a new value for the roundTo property.
+	 *
+	 * @param roundTo
+	 *            counts are rounded to a multiple of this number
+	 */
+	public void setRoundTo(final long roundTo)
+	{
+		Validate.isTrue(roundTo > 0L, "Rounding unit must be positive");
+		this.roundTo = roundTo;
+	}
+}
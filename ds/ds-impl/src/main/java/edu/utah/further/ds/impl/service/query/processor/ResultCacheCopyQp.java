@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static edu.utah.further.ds.api.util.AttributeName.RESULT_CACHE_ENTRY;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collections;
+
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.chain.AbstractDelegatingUtilityProcessor;
+import edu.utah.further.ds.api.service.query.ResultCacheEntry;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.service.results.ResultDataService;
+import edu.utah.further.fqe.mpi.api.service.IdentifierService;
+
+/**
+ * Serves the cached results of a data query upon a result cache hit by copying the
+ * persisted results of the cached execution and its MPI identifiers under the current
+ * execution identifier, so that identity resolution and result views of the new
+ * execution see the cached cohort, and sets the cached record count on the query context.
+ * Place first in the data query hit chain of a {@link ResultCacheLookupQp}, followed by
+ * the data source's finalizer.
+ * <p>
+ * If the cached execution had records but none of its results or identifiers were
+ * copied, they have since been purged. Any copied results are then deleted, the cache
+ * entry is removed from the request and the hit chain terminates, so that the lookup
+ * processor falls back to executing the query.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class ResultCacheCopyQp extends
+		AbstractDelegatingUtilityProcessor<ResultDataService>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ResultCacheCopyQp.class);
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Copies the cached execution's MPI identifiers.
+	 */
+	private IdentifierService identifierService;
+
+	// ========================= Impl: RequestProcessor ====================
+
+	/**
+	 * @param request
+	 * @return
+	 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		final ResultCacheEntry entry = request.getAttribute(RESULT_CACHE_ENTRY);
+		final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+		final String fromQueryId = entry.getExecutionId();
+		final String toQueryId = queryContext.getExecutionId();
+		final int copied = getDelegate().copyQueryResults(fromQueryId, toQueryId);
+		final int copiedIds = (copied == 0) ? 0 : identifierService.copyIdentifiers(
+				fromQueryId, toQueryId);
+		if ((copiedIds == 0) && (entry.getNumRecords() > 0L))
+		{
+			if (log.isInfoEnabled())
+			{
+				log.info("Results of cached query " + fromQueryId
+						+ " were purged, executing query " + toQueryId);
+			}
+			if (copied > 0)
+			{
+				getDelegate().deleteQueryResults(Collections.singletonList(toQueryId));
+			}
+			request.removeAttribute(RESULT_CACHE_ENTRY.getLabel());
+			return true;
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Copied " + copied + " result rows and " + copiedIds
+					+ " identifiers of cached query " + fromQueryId + " to query "
+					+ toQueryId);
+		}
+		queryContext.setNumRecords(entry.getNumRecords());
+		return false;
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the identifierService property.
+	 *
+	 * @param identifierService
+	 *            MPI identifier service to copy the cached execution's identifiers with
+	 */
+	public void setIdentifierService(final IdentifierService identifierService)
+	{
+		this.identifierService = identifierService;
+	}
+}
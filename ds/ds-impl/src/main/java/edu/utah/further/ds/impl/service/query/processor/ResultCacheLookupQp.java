@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_RESULT;
+import static edu.utah.further.ds.api.util.AttributeName.RESULT_CACHE_ENTRY;
+import static edu.utah.further.ds.api.util.AttributeName.RESULT_CACHE_KEY;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.api.chain.RequestHandler;
+import edu.utah.further.core.api.chain.RequestProcessor;
+import edu.utah.further.core.chain.AbstractDelegatingUtilityProcessor;
+import edu.utah.further.core.chain.RequestHandlerBuilder;
+import edu.utah.further.ds.api.service.query.ResultCacheEntry;
+import edu.utah.further.ds.api.service.query.ResultCacheService;
+import edu.utah.further.ds.api.util.AttributeName;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+
+/**
+ * Looks up the normalized query of the current query context in the data source's
+ * result cache. Place right after the {@link InitializerQp}.
+ * <p>
+ * Upon a miss, the cache key is saved under {@link AttributeName#RESULT_CACHE_KEY} for a downstream
+ * {@link ResultCacheStoreQp}, and the chain continues. Upon a hit, the cached entry is
+ * saved under {@link AttributeName#RESULT_CACHE_ENTRY}, the hit chain is executed instead
+ * of the rest of the main chain, and the main chain terminates. For count queries, the
+ * cached count is set as the query result and the hit chain is normally just the count
+ * finalizer; for data queries, a {@link ResultCacheCopyQp} makes the cached results
+ * available under the new execution identifier and sets the cached record count,
+ * followed by the data source's finalizer. A hit chain that cannot serve the entry
+ * removes it from the request; the entry is then removed from the cache, and the query
+ * is executed as upon a miss.
+ * <p>
+ * Queries whose context requests a cache bypass are always executed.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class ResultCacheLookupQp extends
+		AbstractDelegatingUtilityProcessor<ResultCacheService>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ResultCacheLookupQp.class);
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Query types whose results are cached.
+	 */
+	private Set<QueryType> queryTypes = EnumSet.of(QueryType.COUNT_QUERY);
+
+	/**
+	 * Processors to run upon a cache hit.
+	 */
+	private List<? extends RequestProcessor> hitProcessors = Collections.emptyList();
+
+	/**
+	 * Chain of hit processors.
+	 */
+	private RequestHandler hitChain;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Build the hit chain.
+	 */
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		Validate.notEmpty(hitProcessors, "A cache hit chain must be set");
+		hitChain = RequestHandlerBuilder.chain(hitProcessors);
+	}
+
+	// ========================= Impl: RequestProcessor ====================
+
+	/**
+	 * @param request
+	 * @return
+	 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+		if (queryContext.isBypassResultCache()
+				|| !queryTypes.contains(queryContext.getQueryType()))
+		{
+			return false;
+		}
+
+		final String dataSourceId = queryContext.getDataSourceId();
+		final String key = getDelegate().getKey(queryContext);
+		final ResultCacheEntry entry = getDelegate().get(dataSourceId, key);
+		if (entry == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Result cache miss " + dataSourceId + ":" + key);
+			}
+			request.setAttribute(RESULT_CACHE_KEY, key);
+			return false;
+		}
+
+		if (log.isInfoEnabled())
+		{
+			log.info("Result cache hit " + entry + " for query "
+					+ queryContext.getExecutionId());
+		}
+		request.setAttribute(RESULT_CACHE_ENTRY, entry);
+		if (queryContext.getQueryType() == QueryType.COUNT_QUERY)
+		{
+			// The count is served from the entry itself
+			final Long count = Long.valueOf(entry.getNumRecords());
+			queryContext.setNumRecords(entry.getNumRecords());
+			queryContext.getResultContext().setResult(count);
+			request.setAttribute(QUERY_RESULT, count);
+		}
+		hitChain.handle(request);
+		if (request.getAttribute(RESULT_CACHE_ENTRY) == null)
+		{
+			// The hit chain could not serve the entry, execute and re-cache the query
+			getDelegate().remove(dataSourceId, key);
+			request.setAttribute(RESULT_CACHE_KEY, key);
+			return false;
+		}
+		return true;
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set a new value for the queryTypes property.
+	 *
+	 * @param queryTypes
+	 *            query types whose results are cached
+	 */
+	public void setQueryTypes(final Set<QueryType> queryTypes)
+	{
+		this.queryTypes = EnumSet.copyOf(queryTypes);
+	}
+
+	/**
+	 * Set a new value for the hitProcessors property.
+	 *
+	 * @param hitProcessors
+	 *            processors to run upon a cache hit
+	 */
+	public void setHitProcessors(final List<? extends RequestProcessor> hitProcessors)
+	{
+		this.hitProcessors = hitProcessors;
+	}
+}
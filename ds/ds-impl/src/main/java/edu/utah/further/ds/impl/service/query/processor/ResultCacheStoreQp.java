@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static edu.utah.further.ds.api.util.AttributeName.RESULT_CACHE_KEY;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.slf4j.Logger;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.chain.AbstractDelegatingUtilityProcessor;
+import edu.utah.further.ds.api.service.query.ResultCacheService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+
+/**
+ * Stores the record count and execution identifier of a successfully executed query in
+ * the data source's result cache, under the key computed by a {@link ResultCacheLookupQp}
+ * upon a cache miss. Place right before the {@link FinalizerQp}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class ResultCacheStoreQp extends
+		AbstractDelegatingUtilityProcessor<ResultCacheService>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ResultCacheStoreQp.class);
+
+	// ========================= Impl: RequestProcessor ====================
+
+	/**
+	 * @param request
+	 * @return
+	 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+	 */
+	@Override
+	public boolean process(final ChainRequest request)
+	{
+		final String key = request.getAttribute(RESULT_CACHE_KEY);
+		final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+		if ((key == null) || queryContext.isFailed())
+		{
+			return false;
+		}
+
+		final long numRecords = isCountQuery(queryContext) ? ((Long) queryContext
+				.getResultContext()
+				.getResult()).longValue() : queryContext.getNumRecords();
+		if (numRecords < 0L)
+		{
+			// Invalid count, e.g. a failed count query
+			return false;
+		}
+		getDelegate().put(queryContext.getDataSourceId(), key,
+				queryContext.getExecutionId(), numRecords);
+		if (log.isDebugEnabled())
+		{
+			log.debug("Cached " + numRecords + " records of query "
+					+ queryContext.getExecutionId() + " under " + key);
+		}
+		return false;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param queryContext
+	 *            query context
+	 * @return is this a count query, whose count is held by the result context
+	 */
+	private static boolean isCountQuery(final QueryContext queryContext)
+	{
+		return queryContext.getQueryType() == QueryType.COUNT_QUERY;
+	}
+}
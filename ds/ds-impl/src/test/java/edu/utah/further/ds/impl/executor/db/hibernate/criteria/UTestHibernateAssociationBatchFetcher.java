@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.executor.db.hibernate.criteria;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_RESULT;
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.metadata.ClassMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.core.chain.ChainRequestImpl;
+import edu.utah.further.ds.impl.executor.db.hibernate.HibernateExecReq;
+
+/**
+ * Unit test of {@link HibernateAssociationBatchFetcher}: a page of N root entities
+ * costs ceil(N / batch size) queries per association, and the fetcher owns a session
+ * when none is bound to the current transaction.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestHibernateAssociationBatchFetcher
+{
+	// ========================= CONSTANTS =================================
+
+	private static final int BATCH_SIZE = 3;
+
+	private static final List<String> ASSOCIATIONS = asList("observations",
+			"encounters");
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Fetcher under test; records the queries it issues instead of running them.
+	 */
+	private CountingFetcher fetcher;
+
+	/**
+	 * Session bound to the current transaction, if any.
+	 */
+	private Session currentSession;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		fetcher = new CountingFetcher();
+		fetcher.setAssociations(ASSOCIATIONS);
+		fetcher.setBatchSize(BATCH_SIZE);
+		fetcher.afterPropertiesSet();
+		currentSession = createNiceMock(Session.class);
+	}
+
+	// ========================= METHODS ===================================
+
+	@Test
+	public void emptyPageIssuesNoQueries()
+	{
+		fetcher.process(newRequest(boundSessionFactory(), 0));
+		assertThat(fetcher.batchSizes.size(), is(0));
+	}
+
+	@Test
+	public void onePageSmallerThanBatch()
+	{
+		fetcher.process(newRequest(boundSessionFactory(), BATCH_SIZE - 1));
+		assertThat(fetcher.batchSizes, is(asList(2, 2)));
+	}
+
+	@Test
+	public void pageOfExactBatches()
+	{
+		fetcher.process(newRequest(boundSessionFactory(), 2 * BATCH_SIZE));
+		assertThat(fetcher.batchSizes, is(asList(3, 3, 3, 3)));
+	}
+
+	@Test
+	public void nParentsIssueCeilBatchQueriesPerAssociation()
+	{
+		final int numParents = 7;
+		fetcher.process(newRequest(boundSessionFactory(), numParents));
+
+		final int numBatches = (numParents + BATCH_SIZE - 1) / BATCH_SIZE;
+		assertThat(fetcher.batchSizes.size(), is(numBatches * ASSOCIATIONS.size()));
+		assertThat(fetcher.batchSizes, is(asList(3, 3, 3, 3, 1, 1)));
+		for (final Session session : fetcher.sessions)
+		{
+			assertThat(session, is(currentSession));
+		}
+	}
+
+	@Test
+	public void ownsSessionOutsideTransaction()
+	{
+		final Session session = createMock(Session.class);
+		final Transaction transaction = createMock(Transaction.class);
+		expect(session.beginTransaction()).andReturn(transaction);
+		transaction.commit();
+		expect(session.close()).andReturn(null);
+		replay(session, transaction);
+
+		final SessionFactory sessionFactory = createNiceMock(SessionFactory.class);
+		expect(sessionFactory.getCurrentSession()).andThrow(
+				new HibernateException("No session bound"));
+		expect(sessionFactory.openSession()).andReturn(session);
+		expect(sessionFactory.getClassMetadata((Class<?>) anyObject())).andReturn(
+				createNiceMock(ClassMetadata.class));
+		replay(sessionFactory);
+
+		fetcher.process(newRequest(sessionFactory, 4));
+
+		assertThat(fetcher.batchSizes, is(asList(3, 3, 1, 1)));
+		for (final Session querySession : fetcher.sessions)
+		{
+			assertThat(querySession, is(session));
+		}
+		verify(session, transaction);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return a session factory whose current session is {@link #currentSession}
+	 */
+	private SessionFactory boundSessionFactory()
+	{
+		final SessionFactory sessionFactory = createNiceMock(SessionFactory.class);
+		expect(sessionFactory.getCurrentSession()).andReturn(currentSession).anyTimes();
+		expect(sessionFactory.getClassMetadata((Class<?>) anyObject())).andReturn(
+				createNiceMock(ClassMetadata.class)).anyTimes();
+		replay(sessionFactory, currentSession);
+		return sessionFactory;
+	}
+
+	/**
+	 * @param sessionFactory
+	 *            data source session factory
+	 * @param numParents
+	 *            page size
+	 * @return a paging loop request holding a page of <code>numParents</code> entities
+	 */
+	private static ChainRequest newRequest(final SessionFactory sessionFactory,
+			final int numParents)
+	{
+		final List<PersistentEntity<?>> page = newList();
+		for (long id = 1; id <= numParents; id++)
+		{
+			page.add(new Parent(id));
+		}
+		final ChainRequest request = new ChainRequestImpl();
+		request.setAttribute(QUERY_RESULT, page);
+		final HibernateExecReq executionReq = new HibernateExecReq(request);
+		executionReq.setSessionFactory(sessionFactory);
+		executionReq.setRootEntity(Parent.class);
+		return request;
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Records the batches and sessions of the queries it would issue.
+	 */
+	private static final class CountingFetcher extends HibernateAssociationBatchFetcher
+	{
+		private final List<Integer> batchSizes = newList();
+
+		private final List<Session> sessions = newList();
+
+		@Override
+		protected List<PersistentEntity<?>> loadBatch(
+				final SessionFactory sessionFactory, final Session session,
+				final Class<? extends PersistentEntity<?>> rootEntity,
+				final ClassMetadata classMetadata, final List<Object> ids,
+				final String association)
+		{
+			batchSizes.add(Integer.valueOf(ids.size()));
+			sessions.add(session);
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * A root entity.
+	 */
+	private static final class Parent implements PersistentEntity<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Long id;
+
+		public Parent(final long id)
+		{
+			this.id = Long.valueOf(id);
+		}
+
+		@Override
+		public Long getId()
+		{
+			return id;
+		}
+	}
+}
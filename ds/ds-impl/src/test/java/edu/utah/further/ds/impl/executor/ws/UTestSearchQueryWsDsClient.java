@@ -0,0 +1,330 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.executor.ws;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.api.xml.XmlService;
+import edu.utah.further.core.ws.AsyncHttpClientTemplate;
+import edu.utah.further.ds.api.ws.WsDsResponse;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+
+/**
+ * Tests the asynchronous search query web service data source client against an
+ * embedded HTTP stub.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestSearchQueryWsDsClient
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String QUERY_XML = "<query/>";
+
+	/**
+	 * Stub response delay of the slow data source [ms].
+	 */
+	private static final int DELAY = 100;
+
+	// ========================= FIELDS ====================================
+
+	private HttpServer server;
+
+	private ExecutorService serverExecutor;
+
+	private AsyncHttpClientTemplate template;
+
+	private XmlService xmlService;
+
+	private String baseUrl;
+
+	/**
+	 * Client ports of the connections the stub served.
+	 */
+	private final Set<Integer> clientPorts = Collections
+			.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+	/**
+	 * Request bodies the stub received.
+	 */
+	private final List<String> requestBodies = Collections
+			.synchronizedList(CollectionUtil.<String> newList());
+
+	/**
+	 * Releases the second half of the streamed response.
+	 */
+	private final CountDownLatch streamLatch = new CountDownLatch(1);
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup() throws Exception
+	{
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.createContext("/stream", new StreamHandler());
+		server.createContext("/slow", new SlowHandler());
+		server.createContext("/error", new ErrorHandler());
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+		template = new AsyncHttpClientTemplate();
+		template.setMaxConnectionsPerHost(4);
+		template.setIoThreadCount(2);
+		template.start();
+
+		xmlService = createMock(XmlService.class);
+		expect(xmlService.marshal(anyObject())).andStubReturn(QUERY_XML);
+		replay(xmlService);
+	}
+
+	@After
+	public void tearDown()
+	{
+		template.close();
+		streamLatch.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * The search query is posted, and the response is available to the paging chain
+	 * before its body is fully downloaded.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void streamedResponse() throws Exception
+	{
+		final WsDsResponse response = newClient("/stream")
+				.invokeAsync(newQueryContext(), true)
+				.get(5, TimeUnit.SECONDS);
+		final InputStream body = response.getResponse();
+		final byte[] first = new byte[5];
+		int read = 0;
+		while (read < first.length)
+		{
+			read += body.read(first, read, first.length - read);
+		}
+		assertThat(new String(first, "UTF-8"), is("first"));
+		assertThat(requestBodies, is(Collections.singletonList(QUERY_XML)));
+
+		// The stub only sends the rest after the client read the first part
+		streamLatch.countDown();
+		assertThat(readFully(body), is("second"));
+		response.close();
+	}
+
+	/**
+	 * Invocations return immediately, and concurrent queries are multiplexed over at
+	 * most the per-host connection limit instead of holding a thread each.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void concurrentInvocationsOverlap() throws Exception
+	{
+		final int count = 40;
+		final AbstractAsyncHttpWsDsClient client = newClient("/slow");
+		final long start = System.currentTimeMillis();
+		final List<Future<WsDsResponse>> futures = CollectionUtil.newList();
+		for (int i = 0; i < count; i++)
+		{
+			futures.add(client.invokeAsync(newQueryContext(), true));
+		}
+		assertThat(Long.valueOf(System.currentTimeMillis() - start),
+				lessThan(Long.valueOf(DELAY)));
+
+		for (final Future<WsDsResponse> future : futures)
+		{
+			final WsDsResponse response = future.get(10, TimeUnit.SECONDS);
+			assertThat(readFully(response.<InputStream> getResponse()), is(QUERY_XML));
+			response.close();
+		}
+		final long elapsed = System.currentTimeMillis() - start;
+
+		// 4 connections serve 40 requests in ~10 rounds; serial time is 40 rounds
+		assertThat(Integer.valueOf(clientPorts.size()),
+				lessThanOrEqualTo(Integer.valueOf(4)));
+		assertThat(Long.valueOf(elapsed), lessThan(Long.valueOf(count * DELAY / 2)));
+	}
+
+	/**
+	 * An error status fails the invocation.
+	 */
+	@Test(expected = ApplicationException.class)
+	public void errorStatus()
+	{
+		newClient("/error").invoke(newQueryContext(), false);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param path
+	 *            stub resource path
+	 * @return client of the stub resource
+	 */
+	private AbstractAsyncHttpWsDsClient newClient(final String path)
+	{
+		final SearchQueryWsDsClient client = new SearchQueryWsDsClient();
+		client.setAsyncHttpClientTemplate(template);
+		client.setXmlService(xmlService);
+		client.setUrl(baseUrl + path);
+		client.afterPropertiesSet();
+		return client;
+	}
+
+	/**
+	 * @return a new query context
+	 */
+	private static QueryContext newQueryContext()
+	{
+		return QueryContextToImpl.newInstanceWithExecutionId();
+	}
+
+	/**
+	 * @param input
+	 *            input stream
+	 * @return the rest of the stream as a UTF-8 string
+	 * @throws IOException
+	 */
+	static String readFully(final InputStream input) throws IOException
+	{
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int length;
+		while ((length = input.read(buffer)) >= 0)
+		{
+			output.write(buffer, 0, length);
+		}
+		return new String(output.toByteArray(), "UTF-8");
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Sends a chunked body in two parts, waiting for the test between them.
+	 */
+	private final class StreamHandler implements HttpHandler
+	{
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			requestBodies.add(readFully(exchange.getRequestBody()));
+			exchange.sendResponseHeaders(200, 0);
+			try (final OutputStream output = exchange.getResponseBody())
+			{
+				output.write("first".getBytes("UTF-8"));
+				output.flush();
+				try
+				{
+					streamLatch.await(5, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				output.write("second".getBytes("UTF-8"));
+			}
+		}
+	}
+
+	/**
+	 * Echoes the request body after a delay.
+	 */
+	private final class SlowHandler implements HttpHandler
+	{
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			clientPorts.add(Integer.valueOf(exchange.getRemoteAddress().getPort()));
+			final byte[] body = readFully(exchange.getRequestBody()).getBytes("UTF-8");
+			try
+			{
+				Thread.sleep(DELAY);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (final OutputStream output = exchange.getResponseBody())
+			{
+				output.write(body);
+			}
+		}
+	}
+
+	/**
+	 * Fails every request.
+	 */
+	private static final class ErrorHandler implements HttpHandler
+	{
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			readFully(exchange.getRequestBody());
+			exchange.sendResponseHeaders(500, -1);
+			exchange.close();
+		}
+	}
+}
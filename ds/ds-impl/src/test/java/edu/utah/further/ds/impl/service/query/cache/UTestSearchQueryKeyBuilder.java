@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.cache;
+
+import static edu.utah.further.core.query.domain.SearchCriteria.collection;
+import static edu.utah.further.core.query.domain.SearchCriteria.junction;
+import static edu.utah.further.core.query.domain.SearchCriteria.query;
+import static edu.utah.further.core.query.domain.SearchCriteria.simpleExpression;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import edu.utah.further.core.query.domain.Relation;
+import edu.utah.further.core.query.domain.SearchCriterion;
+import edu.utah.further.core.query.domain.SearchQuery;
+import edu.utah.further.core.query.domain.SearchType;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+
+/**
+ * Unit test of the normalized search query keys of the data source result cache.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestSearchQueryKeyBuilder
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String ROOT_OBJECT = "Person";
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * The order of conjunction terms does not matter.
+	 */
+	@Test
+	public void conjunctionOrder()
+	{
+		final SearchCriterion first = junction(SearchType.CONJUNCTION);
+		first.addCriterion(simpleExpression(Relation.GT, "age", Integer.valueOf(50)));
+		first.addCriterion(simpleExpression(Relation.EQ, "genderCd", "F"));
+		final SearchCriterion second = junction(SearchType.CONJUNCTION);
+		second.addCriterion(simpleExpression(Relation.EQ, "genderCd", "F"));
+		second.addCriterion(simpleExpression(Relation.GT, "age", Integer.valueOf(50)));
+
+		assertThat(key(first), is(key(second)));
+	}
+
+	/**
+	 * The order of IN values does not matter.
+	 */
+	@Test
+	public void inValueOrder()
+	{
+		assertThat(key(collection(SearchType.IN, "raceCd", "1", "2", "3")),
+				is(key(collection(SearchType.IN, "raceCd", "3", "1", "2"))));
+	}
+
+	/**
+	 * Surrounding white space and numeric scale are not significant.
+	 */
+	@Test
+	public void literalNormalization()
+	{
+		assertThat(key(simpleExpression(Relation.EQ, "genderCd", " F ")),
+				is(key(simpleExpression(Relation.EQ, "genderCd", "F"))));
+		assertThat(key(simpleExpression(Relation.EQ, "age", new BigDecimal("40.0"))),
+				is(key(simpleExpression(Relation.EQ, "age", Integer.valueOf(40)))));
+	}
+
+	/**
+	 * Different values, relations and query types yield different keys.
+	 */
+	@Test
+	public void differentQueries()
+	{
+		final SearchCriterion criterion = simpleExpression(Relation.EQ, "age",
+				Integer.valueOf(40));
+		assertThat(key(criterion), not(is(key(simpleExpression(Relation.EQ, "age",
+				Integer.valueOf(41))))));
+		assertThat(key(criterion), not(is(key(simpleExpression(Relation.GE, "age",
+				Integer.valueOf(40))))));
+		final SearchQuery searchQuery = query(criterion, ROOT_OBJECT);
+		assertThat(SearchQueryKeyBuilder.getKey(QueryType.COUNT_QUERY,
+				asList(searchQuery)), not(is(SearchQueryKeyBuilder.getKey(
+				QueryType.DATA_QUERY, asList(searchQuery)))));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param criterion
+	 *            root criterion
+	 * @return count query key
+	 */
+	private static String key(final SearchCriterion criterion)
+	{
+		return SearchQueryKeyBuilder.getKey(QueryType.COUNT_QUERY,
+				asList(query(criterion, ROOT_OBJECT)));
+	}
+}
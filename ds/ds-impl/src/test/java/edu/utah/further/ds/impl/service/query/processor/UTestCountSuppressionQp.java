@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
+import edu.utah.further.core.chain.ChainRequestImpl;
+import edu.utah.further.core.chain.RequestHandlerBuilder;
+import edu.utah.further.ds.impl.service.query.logic.CountFinalizerImpl;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+import edu.utah.further.fqe.ds.api.to.ResultContextToImpl;
+
+/**
+ * Unit test of approximate, small-cell-suppressed counts, alone and as part of a count
+ * life cycle.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestCountSuppressionQp
+{
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * By default, counts are reported as is.
+	 */
+	@Test
+	public void exactByDefault()
+	{
+		final CountSuppressionQp processor = new CountSuppressionQp();
+		assertThat(Long.valueOf(processor.suppress(1L)), is(Long.valueOf(1L)));
+		assertThat(Long.valueOf(processor.suppress(123L)), is(Long.valueOf(123L)));
+	}
+
+	/**
+	 * Small cells are reported as the threshold; larger counts are rounded.
+	 */
+	@Test
+	public void suppressAndRound()
+	{
+		final CountSuppressionQp processor = new CountSuppressionQp();
+		processor.setThreshold(10L);
+		processor.setRoundTo(5L);
+		assertThat(Long.valueOf(processor.suppress(3L)), is(Long.valueOf(10L)));
+		assertThat(Long.valueOf(processor.suppress(10L)), is(Long.valueOf(10L)));
+		assertThat(Long.valueOf(processor.suppress(11L)), is(Long.valueOf(10L)));
+		assertThat(Long.valueOf(processor.suppress(13L)), is(Long.valueOf(15L)));
+		assertThat(Long.valueOf(processor.suppress(122L)), is(Long.valueOf(120L)));
+	}
+
+	/**
+	 * The count finalizer reports the suppressed count of the executed query.
+	 */
+	@Test
+	public void countLifeCycleSuppresses()
+	{
+		assertThat(Long.valueOf(runCountLifeCycle(newSuppression(10L, 5L), 3L)),
+				is(Long.valueOf(10L)));
+		assertThat(Long.valueOf(runCountLifeCycle(newSuppression(10L, 5L), 13L)),
+				is(Long.valueOf(15L)));
+		assertThat(Long.valueOf(runCountLifeCycle(newSuppression(10L, 5L), 122L)),
+				is(Long.valueOf(120L)));
+	}
+
+	/**
+	 * Zero counts and the default policy pass through the count finalizer unchanged.
+	 */
+	@Test
+	public void countLifeCyclePassesThrough()
+	{
+		assertThat(Long.valueOf(runCountLifeCycle(newSuppression(10L, 5L), 0L)),
+				is(Long.valueOf(0L)));
+		assertThat(Long.valueOf(runCountLifeCycle(new CountSuppressionQp(), 13L)),
+				is(Long.valueOf(13L)));
+		assertThat(Long.valueOf(runCountLifeCycle(null, 13L)),
+				is(Long.valueOf(13L)));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param threshold
+	 *            suppression threshold
+	 * @param roundTo
+	 *            rounding unit
+	 * @return count suppression processor
+	 */
+	private static CountSuppressionQp newSuppression(final long threshold,
+			final long roundTo)
+	{
+		final CountSuppressionQp suppression = new CountSuppressionQp();
+		suppression.setThreshold(threshold);
+		suppression.setRoundTo(roundTo);
+		return suppression;
+	}
+
+	/**
+	 * Run a count query through an executor and the count finalizer.
+	 *
+	 * @param suppression
+	 *            count finalizer's suppression policy; may be <code>null</code>
+	 * @param count
+	 *            exact count returned by the executor
+	 * @return number of records reported by the finalized query context
+	 */
+	private static long runCountLifeCycle(final CountSuppressionQp suppression,
+			final long count)
+	{
+		final CountFinalizerQp finalizer = new CountFinalizerQp();
+		finalizer.setDelegate(new CountFinalizerImpl());
+		finalizer.setSuppression(suppression);
+
+		final QueryContextToImpl queryContext = new QueryContextToImpl();
+		queryContext.setExecutionId(UUID.randomUUID().toString());
+		queryContext.setQueryType(QueryType.COUNT_QUERY);
+		queryContext.setResultContext(new ResultContextToImpl());
+		queryContext.queue();
+		queryContext.start();
+		final ChainRequest request = new ChainRequestImpl();
+		request.setAttribute(QUERY_CONTEXT, queryContext);
+
+		RequestHandlerBuilder.chain(new ExecutorQp(count), finalizer).handle(request);
+
+		final QueryContext finalized = request.getAttribute(QUERY_CONTEXT);
+		assertThat(finalized.getState(), is(QueryState.COMPLETED));
+		return finalized.getNumRecords();
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Stands for the data source's count executor.
+	 */
+	private static final class ExecutorQp extends AbstractNonDelegatingUtilityProcessor
+	{
+		/**
+		 * Exact count to set.
+		 */
+		private final long count;
+
+		/**
+		 * @param count
+		 *            exact count to set
+		 */
+		ExecutorQp(final long count)
+		{
+			this.count = count;
+		}
+
+		/**
+		 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+		 */
+		@Override
+		public boolean process(final ChainRequest request)
+		{
+			final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+			queryContext.getResultContext().setResult(Long.valueOf(count));
+			return false;
+		}
+	}
+}
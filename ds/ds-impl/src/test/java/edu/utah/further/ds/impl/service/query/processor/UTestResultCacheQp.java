@@ -0,0 +1,457 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.ds.impl.service.query.processor;
+
+import static edu.utah.further.ds.api.util.AttributeName.QUERY_CONTEXT;
+import static edu.utah.further.ds.api.util.AttributeName.RESULT_CACHE_ENTRY;
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.api.chain.RequestHandler;
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.constant.Constants;
+import edu.utah.further.core.chain.AbstractNonDelegatingUtilityProcessor;
+import edu.utah.further.core.chain.ChainRequestImpl;
+import edu.utah.further.core.chain.RequestHandlerBuilder;
+import edu.utah.further.core.query.domain.Relation;
+import edu.utah.further.core.query.domain.SearchCriteria;
+import edu.utah.further.ds.api.service.query.ResultCacheEntry;
+import edu.utah.further.ds.api.service.query.ResultCacheService;
+import edu.utah.further.ds.impl.service.query.cache.SearchQueryKeyBuilder;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.service.results.ResultDataService;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+import edu.utah.further.fqe.ds.api.to.ResultContextToImpl;
+import edu.utah.further.fqe.mpi.api.service.IdentifierService;
+
+/**
+ * Unit test of the result cache life cycle processors: a miss executes the query and
+ * stores its result; a hit serves the stored result without executing the query.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestResultCacheQp
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String DATA_SOURCE_ID = "UUEDW";
+
+	private static final long NUM_RECORDS = 42L;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Cache under test.
+	 */
+	private MapResultCacheService cacheService;
+
+	/**
+	 * Stands for the data source's executor.
+	 */
+	private CountingQp executor;
+
+	/**
+	 * Stands for the hit chain's finalizer.
+	 */
+	private CountingQp hitFinalizer;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Set up a fresh cache and processors.
+	 */
+	@Before
+	public void setUp()
+	{
+		cacheService = new MapResultCacheService();
+		executor = new CountingQp(NUM_RECORDS);
+		hitFinalizer = new CountingQp(-1L);
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * A miss executes the count query and stores its count.
+	 */
+	@Test
+	public void countMissExecutesAndStores()
+	{
+		final RequestHandler chain = newChain(countLookup());
+		final QueryContext queryContext = newQueryContext(QueryType.COUNT_QUERY);
+		chain.handle(newRequest(queryContext));
+
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(1)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(0)));
+		final ResultCacheEntry entry = cacheService.get(DATA_SOURCE_ID, cacheService
+				.getKey(queryContext));
+		assertThat(Long.valueOf(entry.getNumRecords()), is(Long.valueOf(NUM_RECORDS)));
+		assertThat(entry.getExecutionId(), is(queryContext.getExecutionId()));
+	}
+
+	/**
+	 * A hit serves the cached count through the hit chain without executing the query.
+	 */
+	@Test
+	public void countHitSkipsExecution()
+	{
+		final RequestHandler chain = newChain(countLookup());
+		chain.handle(newRequest(newQueryContext(QueryType.COUNT_QUERY)));
+		final QueryContext queryContext = newQueryContext(QueryType.COUNT_QUERY);
+		chain.handle(newRequest(queryContext));
+
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(1)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(1)));
+		assertThat((Long) queryContext.getResultContext().getResult(), is(Long
+				.valueOf(NUM_RECORDS)));
+		assertThat(Long.valueOf(queryContext.getNumRecords()), is(Long
+				.valueOf(NUM_RECORDS)));
+	}
+
+	/**
+	 * A query that bypasses the cache is executed and not stored.
+	 */
+	@Test
+	public void bypassExecutes()
+	{
+		final RequestHandler chain = newChain(countLookup());
+		chain.handle(newRequest(newQueryContext(QueryType.COUNT_QUERY)));
+		final QueryContext queryContext = newQueryContext(QueryType.COUNT_QUERY);
+		queryContext.setBypassResultCache(true);
+		chain.handle(newRequest(queryContext));
+
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(2)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(0)));
+	}
+
+	/**
+	 * A data query hit copies the cached execution's results and identifiers under the
+	 * new execution identifier.
+	 */
+	@Test
+	public void dataHitCopiesResults()
+	{
+		final ResultDataService resultDataService = createMock(ResultDataService.class);
+		final IdentifierService identifierService = createMock(IdentifierService.class);
+		final RequestHandler chain = newChain(dataLookup(resultDataService,
+				identifierService));
+		final QueryContext cached = newQueryContext(QueryType.DATA_QUERY);
+		final QueryContext queryContext = newQueryContext(QueryType.DATA_QUERY);
+		expect(
+				Integer.valueOf(resultDataService.copyQueryResults(cached
+						.getExecutionId(), queryContext.getExecutionId()))).andReturn(
+				Integer.valueOf(5));
+		expect(
+				Integer.valueOf(identifierService.copyIdentifiers(cached
+						.getExecutionId(), queryContext.getExecutionId()))).andReturn(
+				Integer.valueOf(3));
+		replay(resultDataService, identifierService);
+
+		chain.handle(newRequest(cached));
+		chain.handle(newRequest(queryContext));
+
+		verify(resultDataService, identifierService);
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(1)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(1)));
+		assertThat(Long.valueOf(queryContext.getNumRecords()), is(Long
+				.valueOf(NUM_RECORDS)));
+	}
+
+	/**
+	 * If the cached execution's results were purged, the stale entry is removed and the
+	 * data query is executed without the cached count and re-cached under its own
+	 * execution identifier.
+	 */
+	@Test
+	public void dataHitOfPurgedResultsExecutes()
+	{
+		final ResultDataService resultDataService = createMock(ResultDataService.class);
+		final IdentifierService identifierService = createMock(IdentifierService.class);
+		final RequestHandler chain = newChain(dataLookup(resultDataService,
+				identifierService));
+		final QueryContext cached = newQueryContext(QueryType.DATA_QUERY);
+		final QueryContext queryContext = newQueryContext(QueryType.DATA_QUERY);
+		expect(
+				Integer.valueOf(resultDataService.copyQueryResults(cached
+						.getExecutionId(), queryContext.getExecutionId()))).andReturn(
+				Integer.valueOf(0));
+		replay(resultDataService, identifierService);
+
+		chain.handle(newRequest(cached));
+		final ChainRequest request = newRequest(queryContext);
+		chain.handle(request);
+
+		verify(resultDataService, identifierService);
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(2)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(0)));
+		assertThat(request.getAttribute(RESULT_CACHE_ENTRY), nullValue());
+		assertThat(Long.valueOf(executor.executedNumRecords), is(Long
+				.valueOf(Constants.INVALID_VALUE_LONG)));
+		assertThat(Integer.valueOf(cacheService.removed), is(Integer.valueOf(1)));
+		assertThat(cacheService.get(DATA_SOURCE_ID, cacheService.getKey(queryContext))
+				.getExecutionId(), is(queryContext.getExecutionId()));
+	}
+
+	/**
+	 * If the cached execution's identifiers were purged, the copied results are deleted
+	 * and the data query is executed.
+	 */
+	@Test
+	public void dataHitOfPurgedIdentifiersExecutes()
+	{
+		final ResultDataService resultDataService = createMock(ResultDataService.class);
+		final IdentifierService identifierService = createMock(IdentifierService.class);
+		final RequestHandler chain = newChain(dataLookup(resultDataService,
+				identifierService));
+		final QueryContext cached = newQueryContext(QueryType.DATA_QUERY);
+		final QueryContext queryContext = newQueryContext(QueryType.DATA_QUERY);
+		expect(
+				Integer.valueOf(resultDataService.copyQueryResults(cached
+						.getExecutionId(), queryContext.getExecutionId()))).andReturn(
+				Integer.valueOf(5));
+		expect(
+				Integer.valueOf(identifierService.copyIdentifiers(cached
+						.getExecutionId(), queryContext.getExecutionId()))).andReturn(
+				Integer.valueOf(0));
+		expect(
+				Integer.valueOf(resultDataService.deleteQueryResults(asList(queryContext
+						.getExecutionId())))).andReturn(Integer.valueOf(5));
+		replay(resultDataService, identifierService);
+
+		chain.handle(newRequest(cached));
+		chain.handle(newRequest(queryContext));
+
+		verify(resultDataService, identifierService);
+		assertThat(Integer.valueOf(executor.count), is(Integer.valueOf(2)));
+		assertThat(Integer.valueOf(hitFinalizer.count), is(Integer.valueOf(0)));
+		assertThat(Long.valueOf(executor.executedNumRecords), is(Long
+				.valueOf(Constants.INVALID_VALUE_LONG)));
+		assertThat(Integer.valueOf(cacheService.removed), is(Integer.valueOf(1)));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return count query lookup processor
+	 */
+	private ResultCacheLookupQp countLookup()
+	{
+		final ResultCacheLookupQp lookup = new ResultCacheLookupQp();
+		lookup.setDelegate(cacheService);
+		lookup.setHitProcessors(asList(hitFinalizer));
+		lookup.afterPropertiesSet();
+		return lookup;
+	}
+
+	/**
+	 * @param resultDataService
+	 *            result data service to copy results with
+	 * @param identifierService
+	 *            identifier service to copy identifiers with
+	 * @return data query lookup processor
+	 */
+	private ResultCacheLookupQp dataLookup(final ResultDataService resultDataService,
+			final IdentifierService identifierService)
+	{
+		final ResultCacheCopyQp copy = new ResultCacheCopyQp();
+		copy.setDelegate(resultDataService);
+		copy.setIdentifierService(identifierService);
+		final ResultCacheLookupQp lookup = new ResultCacheLookupQp();
+		lookup.setDelegate(cacheService);
+		lookup.setQueryTypes(EnumSet.of(QueryType.DATA_QUERY));
+		lookup.setHitProcessors(asList(copy, hitFinalizer));
+		lookup.afterPropertiesSet();
+		return lookup;
+	}
+
+	/**
+	 * @param lookup
+	 *            lookup processor
+	 * @return life cycle chain: lookup, execution, store
+	 */
+	private RequestHandler newChain(final ResultCacheLookupQp lookup)
+	{
+		final ResultCacheStoreQp store = new ResultCacheStoreQp();
+		store.setDelegate(cacheService);
+		return RequestHandlerBuilder.chain(lookup, executor, store);
+	}
+
+	/**
+	 * @param queryType
+	 *            query type
+	 * @return a new query context with a fixed search query
+	 */
+	private static QueryContext newQueryContext(final QueryType queryType)
+	{
+		final QueryContextToImpl queryContext = new QueryContextToImpl();
+		queryContext.setExecutionId(UUID.randomUUID().toString());
+		queryContext.setQueryType(queryType);
+		queryContext.setDataSourceId(DATA_SOURCE_ID);
+		queryContext.setResultContext(new ResultContextToImpl());
+		queryContext.setQueries(asList(SearchCriteria.query(SearchCriteria
+				.simpleExpression(Relation.EQ, "genderCd", "F"), "Person")));
+		return queryContext;
+	}
+
+	/**
+	 * @param queryContext
+	 *            query context
+	 * @return a request holding the query context
+	 */
+	private static ChainRequest newRequest(final QueryContext queryContext)
+	{
+		final ChainRequest request = new ChainRequestImpl();
+		request.setAttribute(QUERY_CONTEXT, queryContext);
+		return request;
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Counts its invocations and optionally sets the query result.
+	 */
+	private static final class CountingQp extends AbstractNonDelegatingUtilityProcessor
+	{
+		/**
+		 * Number of records to set, or negative to leave the query context as is.
+		 */
+		private final long numRecords;
+
+		/**
+		 * Number of invocations.
+		 */
+		int count;
+
+		/**
+		 * Number of records of the query context when last invoked.
+		 */
+		long executedNumRecords;
+
+		/**
+		 * @param numRecords
+		 *            number of records to set, or negative to leave the query context as
+		 *            is
+		 */
+		CountingQp(final long numRecords)
+		{
+			this.numRecords = numRecords;
+		}
+
+		/**
+		 * @see edu.utah.further.core.api.chain.RequestProcessor#process(edu.utah.further.core.api.chain.ChainRequest)
+		 */
+		@Override
+		public boolean process(final ChainRequest request)
+		{
+			count++;
+			final QueryContext queryContext = request.getAttribute(QUERY_CONTEXT);
+			executedNumRecords = queryContext.getNumRecords();
+			if (numRecords >= 0L)
+			{
+				queryContext.setNumRecords(numRecords);
+				queryContext.getResultContext().setResult(Long.valueOf(numRecords));
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Keeps the cache in memory.
+	 */
+	private static final class MapResultCacheService implements ResultCacheService
+	{
+		private final Map<String, ResultCacheEntry> entries = CollectionUtil.newMap();
+
+		/**
+		 * Number of removed entries.
+		 */
+		int removed;
+
+		@Override
+		public String getKey(final QueryContext queryContext)
+		{
+			return SearchQueryKeyBuilder.getKey(queryContext.getQueryType(),
+					queryContext.getQueries());
+		}
+
+		@Override
+		public ResultCacheEntry get(final String dataSourceId, final String key)
+		{
+			return entries.get(dataSourceId + ":" + key);
+		}
+
+		@Override
+		public void put(final String dataSourceId, final String key,
+				final String executionId, final long numRecords)
+		{
+			entries.put(dataSourceId + ":" + key, new ResultCacheEntry(key,
+					dataSourceId, getDataVersion(dataSourceId), executionId,
+					numRecords, new Date()));
+		}
+
+		@Override
+		public void remove(final String dataSourceId, final String key)
+		{
+			if (entries.remove(dataSourceId + ":" + key) != null)
+			{
+				removed++;
+			}
+		}
+
+		@Override
+		public String getDataVersion(final String dataSourceId)
+		{
+			return "0";
+		}
+
+		@Override
+		public void setDataVersion(final String dataSourceId, final String dataVersion)
+		{
+			entries.clear();
+		}
+
+		@Override
+		public String bumpDataVersion(final String dataSourceId)
+		{
+			entries.clear();
+			return "0";
+		}
+	}
+}
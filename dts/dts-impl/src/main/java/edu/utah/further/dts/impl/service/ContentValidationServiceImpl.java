@@ -15,21 +15,27 @@
  */
 package edu.utah.further.dts.impl.service;
 
+import static org.apache.commons.lang.Validate.isTrue;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.exception.ApplicationException;
 import edu.utah.further.core.api.message.Severity;
 import edu.utah.further.dts.api.domain.concept.ConceptReport;
 import edu.utah.further.dts.api.domain.concept.DtsConcept;
 import edu.utah.further.dts.api.domain.concept.TranslationResult;
 import edu.utah.further.dts.api.domain.namespace.DtsNamespace;
+import edu.utah.further.dts.api.service.ConnectionFactory;
 import edu.utah.further.dts.api.service.ContentValidationService;
 import edu.utah.further.dts.api.service.DtsOperationService;
 import edu.utah.further.dts.api.service.DtsOptions;
@@ -40,7 +46,11 @@ import edu.utah.further.dts.api.to.DtsConceptId;
  * engineers into DTS (tests concepts and their inter-namespace associations).
  * <p>
  * This implementation delegates to the active {@link DtsOperationService} implementation
- * in the current context.
+ * in the current context. Codes are validated by the calling thread together with
+ * workers borrowed from a shared, bounded executor. Each worker holds a single DTS session
+ * (connection) for all the codes it validates, instead of opening a connection per code.
+ * If validating a code fails, the failure of the first such code in input order is
+ * rethrown, as if the codes had been validated sequentially.
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -61,11 +71,30 @@ public class ContentValidationServiceImpl implements ContentValidationService
 	/**
 	 * A logger that helps identify this class' printouts.
 	 */
-	@SuppressWarnings("unused")
 	private static final Logger log = getLogger(ContentValidationServiceImpl.class);
 
+	/**
+	 * Default maximum number of concurrent DTS sessions.
+	 */
+	public static final int DEFAULT_MAX_WORKERS = 8;
+
+	/**
+	 * Minimum number of codes per worker; smaller inputs use fewer workers.
+	 */
+	private static final int MIN_CODES_PER_WORKER = 50;
+
+	/**
+	 * Progress is logged every time this many codes are validated.
+	 */
+	private static final int PROGRESS_INTERVAL = 1000;
+
 	// ========================= FIELDS ====================================
 
+	/**
+	 * Maximum number of concurrent DTS sessions per validation request.
+	 */
+	private int maxWorkers = DEFAULT_MAX_WORKERS;
+
 	// ========================= DEPENDENCIES ==============================
 
 	/**
@@ -74,6 +103,20 @@ public class ContentValidationServiceImpl implements ContentValidationService
 	@Autowired
 	private DtsOperationService dos;
 
+	/**
+	 * Opens a DTS session in each worker thread.
+	 */
+	@Autowired
+	private ConnectionFactory connectionFactory;
+
+	/**
+	 * Runs validation workers. Shared by all validation requests, and bounds the total
+	 * number of worker threads.
+	 */
+	@Autowired
+	@Qualifier("contentValidationExecutor")
+	private TaskExecutor executor;
+
 	// ========================= CONSTRUCTORS ==============================
 
 	// ========================= IMPLEMENTATION: ContentValidationService ==
@@ -90,21 +133,19 @@ public class ContentValidationServiceImpl implements ContentValidationService
 	public List<ConceptReport> findInexistentCodes(final DtsNamespace sourceNamespace,
 			final String propertyName, final Collection<String> inputValues)
 	{
-		final List<ConceptReport> outputReports = CollectionUtil.newList();
 		final String sourceNamespaceName = sourceNamespace.getName();
-		for (final String code : inputValues)
+		return validate(inputValues, new CodeValidator()
 		{
-			final DtsConcept concept = dos.findConceptById(new DtsConceptId(
-					sourceNamespaceName, propertyName, code),
-					DtsOptions.DEFAULT_NO_ATTRIBUTES);
-			final boolean foundConcept = (concept != null);
-
-			// Flag concepts that don't exist
-			final ConceptReport outputReport = new ConceptReport(code);
-			outputReport.setSeverity(foundConcept ? Severity.INFO : Severity.ERROR);
-			outputReports.add(outputReport);
-		}
-		return outputReports;
+			@Override
+			public boolean isValid(final String code)
+			{
+				// Flag concepts that don't exist
+				final DtsConcept concept = dos.findConceptById(new DtsConceptId(
+						sourceNamespaceName, propertyName, code),
+						DtsOptions.DEFAULT_NO_ATTRIBUTES);
+				return (concept != null);
+			}
+		});
 	}
 
 	/*
@@ -120,24 +161,331 @@ public class ContentValidationServiceImpl implements ContentValidationService
 			final DtsNamespace sourceNamespace, final String propertyName,
 			final Collection<String> inputValues, final DtsNamespace targetNamespace)
 	{
-		final List<ConceptReport> outputReports = CollectionUtil.newList();
 		final String sourceNamespaceName = sourceNamespace.getName();
 		final String targetNamespaceName = targetNamespace.getName();
-		for (final String code : inputValues)
+		return validate(inputValues, new CodeValidator()
+		{
+			@Override
+			public boolean isValid(final String code)
+			{
+				final TranslationResult translationResult = dos.translateConcept(
+						new DtsConceptId(sourceNamespaceName, propertyName, code),
+						new DtsOptions(targetNamespaceName, null)
+								.setThrowExceptionOnFailure(false));
+				// Flag concepts that have 0 associations. If they have one or more
+				// associations, they are OK
+				return !translationResult.getConcepts().isEmpty();
+			}
+		});
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * Set the maximum number of concurrent DTS sessions per validation request.
+	 *
+	 * @param maxWorkers
+	 *            the maxWorkers to set
+	 */
+	public void setMaxWorkers(final int maxWorkers)
+	{
+		isTrue(maxWorkers > 0, "Number of workers must be positive");
+		this.maxWorkers = maxWorkers;
+	}
+
+	/**
+	 * Set the executor that runs validation workers.
+	 *
+	 * @param executor
+	 *            the executor to set
+	 */
+	public void setExecutor(final TaskExecutor executor)
+	{
+		this.executor = executor;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Validate codes in parallel.
+	 *
+	 * @param inputValues
+	 *            codes to validate
+	 * @param validator
+	 *            validates a single code
+	 * @return a list of reports corresponding to each of the codes, in input order.
+	 *         Reports' severity fields of invalid codes are set to
+	 *         {@link Severity#ERROR}, otherwise {@link Severity#INFO}
+	 */
+	private List<ConceptReport> validate(final Collection<String> inputValues,
+			final CodeValidator validator)
+	{
+		final String[] codes = inputValues.toArray(new String[inputValues.size()]);
+		final ConceptReport[] reports = new ConceptReport[codes.length];
+		final int numWorkers = Math.max(1,
+				Math.min(maxWorkers, codes.length / MIN_CODES_PER_WORKER));
+		final ValidationWorker worker = new ValidationWorker(codes, reports, validator);
+		if (numWorkers == 1)
+		{
+			worker.work();
+		}
+		else
+		{
+			runInParallel(worker, numWorkers);
+		}
+		worker.rethrowFailure();
+		return CollectionUtil.newList(reports);
+	}
+
+	/**
+	 * Run copies of a worker in the shared executor and in the calling thread, and wait
+	 * for all of them to finish. The calling thread always takes part, so progress is
+	 * made even when all executor threads are busy with other requests; copies that start
+	 * after the calling thread is done return immediately.
+	 *
+	 * @param worker
+	 *            worker; shares its work queue among all threads
+	 * @param numWorkers
+	 *            total number of threads, including the calling thread
+	 */
+	private void runInParallel(final ValidationWorker worker, final int numWorkers)
+	{
+		for (int i = 1; i < numWorkers; i++)
+		{
+			executor.execute(worker);
+		}
+		worker.work();
+		try
 		{
-			final TranslationResult translationResult = dos.translateConcept(
-					new DtsConceptId(sourceNamespaceName, propertyName, code),
-					new DtsOptions(targetNamespaceName, null)
-							.setThrowExceptionOnFailure(false));
-			final boolean foundTranslation = !translationResult.getConcepts().isEmpty();
-
-			// Flag concepts that have 0 associations. If they have one or more
-			// associations, they are OK
-			final ConceptReport outputReport = new ConceptReport(code);
-			outputReport.setSeverity(foundTranslation ? Severity.INFO : Severity.ERROR);
-			outputReports.add(outputReport);
+			worker.awaitCopies();
 		}
-		return outputReports;
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ApplicationException("Interrupted while validating codes", e);
+		}
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Validates a single code against DTS.
+	 */
+	private static interface CodeValidator
+	{
+		/**
+		 * @param code
+		 *            code to validate
+		 * @return <code>true</code> if and only if the code is valid
+		 */
+		boolean isValid(String code);
 	}
 
+	/**
+	 * Validates codes from a shared queue within a single DTS session. Several threads may
+	 * run the same worker concurrently; each validated code is written to its own report
+	 * slot. A failure is recorded in its code's slot; codes after the first failure are
+	 * not validated, so that the same failure is reported as in sequential validation.
+	 */
+	private final class ValidationWorker implements Runnable
+	{
+		private final String[] codes;
+
+		private final ConceptReport[] reports;
+
+		private final CodeValidator validator;
+
+		/**
+		 * Index of the next code to validate.
+		 */
+		private final AtomicInteger next = new AtomicInteger();
+
+		/**
+		 * Number of validated codes.
+		 */
+		private final AtomicInteger done = new AtomicInteger();
+
+		/**
+		 * Failures, indexed by code.
+		 */
+		private final RuntimeException[] failures;
+
+		/**
+		 * Index of the first code whose validation failed, or the number of codes if none
+		 * failed so far.
+		 */
+		private final AtomicInteger firstFailure;
+
+		/**
+		 * Number of copies currently running in executor threads.
+		 */
+		private int runningCopies;
+
+		/**
+		 * Set once the calling thread is done; copies that start afterwards do nothing.
+		 */
+		private boolean closed;
+
+		/**
+		 * Failure of an executor thread copy that is not tied to a code, e.g. failing to
+		 * open a DTS session.
+		 */
+		private Throwable copyFailure;
+
+		/**
+		 * @param codes
+		 * @param reports
+		 * @param validator
+		 */
+		public ValidationWorker(final String[] codes, final ConceptReport[] reports,
+				final CodeValidator validator)
+		{
+			this.codes = codes;
+			this.reports = reports;
+			this.validator = validator;
+			this.failures = new RuntimeException[codes.length];
+			this.firstFailure = new AtomicInteger(codes.length);
+		}
+
+		/**
+		 * Run a copy of this worker in an executor thread.
+		 *
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run()
+		{
+			synchronized (this)
+			{
+				if (closed)
+				{
+					return;
+				}
+				runningCopies++;
+			}
+			try
+			{
+				work();
+			}
+			catch (final Throwable e)
+			{
+				synchronized (this)
+				{
+					if (copyFailure == null)
+					{
+						copyFailure = e;
+					}
+				}
+			}
+			finally
+			{
+				synchronized (this)
+				{
+					runningCopies--;
+					notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Validate codes from the queue until it is exhausted or a code fails.
+		 */
+		public void work()
+		{
+			if (next.get() >= firstFailure.get())
+			{
+				// Nothing left to do; don't bother opening a session
+				return;
+			}
+			connectionFactory.startSession();
+			try
+			{
+				for (int i = next.getAndIncrement(); i < firstFailure.get(); i = next
+						.getAndIncrement())
+				{
+					validate(i);
+				}
+			}
+			finally
+			{
+				connectionFactory.closeSession();
+			}
+		}
+
+		/**
+		 * Called by the calling thread when it is done. Prevents copies that have not
+		 * started yet from running, and waits for running copies to finish.
+		 *
+		 * @throws InterruptedException
+		 *             if interrupted while waiting
+		 */
+		public synchronized void awaitCopies() throws InterruptedException
+		{
+			closed = true;
+			while (runningCopies > 0)
+			{
+				wait();
+			}
+		}
+
+		/**
+		 * Rethrow the failure of the first failed code, if any. Must be called after all
+		 * threads running this worker have finished.
+		 */
+		public synchronized void rethrowFailure()
+		{
+			if (copyFailure != null)
+			{
+				throw new ApplicationException("Failed to validate codes", copyFailure);
+			}
+			final int index = firstFailure.get();
+			if (index < codes.length)
+			{
+				throw failures[index];
+			}
+		}
+
+		/**
+		 * @param i
+		 *            index of code to validate
+		 */
+		private void validate(final int i)
+		{
+			final String code = codes[i];
+			final boolean valid;
+			try
+			{
+				valid = validator.isValid(code);
+			}
+			catch (final RuntimeException e)
+			{
+				failures[i] = e;
+				for (int first = firstFailure.get(); i < first
+						&& !firstFailure.compareAndSet(first, i); first = firstFailure
+						.get())
+				{
+					// Retry until the lowest failed index is recorded
+				}
+				return;
+			}
+			final ConceptReport report = new ConceptReport(code);
+			report.setSeverity(valid ? Severity.INFO : Severity.ERROR);
+			reports[i] = report;
+			logProgress(done.incrementAndGet());
+		}
+
+		/**
+		 * @param count
+		 *            number of codes validated so far
+		 */
+		private void logProgress(final int count)
+		{
+			final boolean report = ((count % PROGRESS_INTERVAL) == 0)
+					|| (count == codes.length);
+			if (report && log.isInfoEnabled())
+			{
+				log.info("Validated " + count + "/" + codes.length + " codes");
+			}
+		}
+	}
 }
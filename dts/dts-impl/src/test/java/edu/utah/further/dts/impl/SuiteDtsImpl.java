@@ -19,6 +19,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import edu.utah.further.dts.impl.schema.SuiteSchema;
+import edu.utah.further.dts.impl.service.UTestContentValidationServiceImpl;
 
 /**
  * A test suite that includes all tests in the DTS implementation module.
@@ -36,7 +37,7 @@ import edu.utah.further.dts.impl.schema.SuiteSchema;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ SuiteSchema.class})
+{ SuiteSchema.class, UTestContentValidationServiceImpl.class })
 public final class SuiteDtsImpl
 {
 }
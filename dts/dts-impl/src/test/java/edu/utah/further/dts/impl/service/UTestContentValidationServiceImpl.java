@@ -0,0 +1,310 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.dts.impl.service;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.message.Severity;
+import edu.utah.further.dts.api.domain.concept.ConceptReport;
+import edu.utah.further.dts.api.domain.concept.DtsConcept;
+import edu.utah.further.dts.api.domain.namespace.DtsNamespace;
+import edu.utah.further.dts.api.service.DtsOperationService;
+import edu.utah.further.dts.api.service.DtsOptions;
+import edu.utah.further.dts.api.to.DtsConceptId;
+import edu.utah.further.dts.impl.mock.ConnectionFactoryMockImpl;
+
+/**
+ * Unit test of validating codes in parallel: reports and failures must be the same as
+ * when validating the codes sequentially, one code at a time.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestContentValidationServiceImpl
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String NAMESPACE = "SNOMED CT";
+
+	private static final String PROPERTY_NAME = "Code in Source";
+
+	/**
+	 * Number of codes to validate in each test.
+	 */
+	private static final int NUM_CODES = 1000;
+
+	/**
+	 * Prefix of codes whose lookup throws an exception.
+	 */
+	private static final String BAD = "bad-";
+
+	/**
+	 * Number of threads in the shared executor.
+	 */
+	private static final int NUM_THREADS = 4;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Service under test.
+	 */
+	private ContentValidationServiceImpl service;
+
+	/**
+	 * Shared validation worker executor.
+	 */
+	private ThreadPoolTaskExecutor executor;
+
+	/**
+	 * Looks up codes.
+	 */
+	private DtsOperationService dos;
+
+	/**
+	 * Source namespace of validated codes.
+	 */
+	private DtsNamespace namespace;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Set up a service with a mock DTS and a real shared executor.
+	 */
+	@Before
+	public void setUp()
+	{
+		namespace = createNiceMock(DtsNamespace.class);
+		expect(namespace.getName()).andReturn(NAMESPACE).anyTimes();
+		replay(namespace);
+
+		final DtsConcept concept = createNiceMock(DtsConcept.class);
+		replay(concept);
+		dos = createNiceMock(DtsOperationService.class);
+		expect(
+				dos.findConceptById(anyObject(DtsConceptId.class),
+						anyObject(DtsOptions.class))).andAnswer(new IAnswer<DtsConcept>()
+		{
+			@Override
+			public DtsConcept answer() throws InterruptedException
+			{
+				final String code = ((DtsConceptId) getCurrentArguments()[0])
+						.getPropertyValue();
+				return isValid(code) ? concept : null;
+			}
+		})
+				.anyTimes();
+		replay(dos);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(NUM_THREADS);
+		executor.setMaxPoolSize(NUM_THREADS);
+		executor.afterPropertiesSet();
+
+		service = new ContentValidationServiceImpl();
+		ReflectionTestUtils.setField(service, "dos", dos);
+		ReflectionTestUtils.setField(service, "connectionFactory",
+				new ConnectionFactoryMockImpl());
+		service.setExecutor(executor);
+	}
+
+	/**
+	 * Shut down the executor.
+	 */
+	@After
+	public void tearDown()
+	{
+		executor.destroy();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Reports are the same as sequential validation reports, in input order.
+	 */
+	@Test
+	public void reportsMatchSequentialValidation()
+	{
+		final List<String> codes = newCodes();
+		assertThat(service.findInexistentCodes(namespace, PROPERTY_NAME, codes),
+				is(validateSequentially(codes)));
+	}
+
+	/**
+	 * Validation proceeds in the calling thread even when all executor threads are busy.
+	 */
+	@Test
+	public void busyExecutorDoesNotBlockValidation() throws InterruptedException
+	{
+		final CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < NUM_THREADS; i++)
+		{
+			executor.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						release.await();
+					}
+					catch (final InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+		}
+		try
+		{
+			final List<String> codes = newCodes();
+			assertThat(service.findInexistentCodes(namespace, PROPERTY_NAME, codes),
+					is(validateSequentially(codes)));
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+
+	/**
+	 * The failure of the first failing code in input order is rethrown, like in
+	 * sequential validation, even if a later code fails first.
+	 */
+	@Test
+	public void firstFailureInInputOrderIsRethrown()
+	{
+		final List<String> codes = newCodes();
+		codes.set(300, BAD + 300);
+		codes.set(700, BAD + 700);
+		final String expected = sequentialFailure(codes);
+		assertThat(expected, is(BAD + 300));
+		for (int attempt = 0; attempt < 20; attempt++)
+		{
+			try
+			{
+				service.findInexistentCodes(namespace, PROPERTY_NAME, codes);
+				fail("Expected validation to fail");
+			}
+			catch (final IllegalStateException e)
+			{
+				assertThat(e.getMessage(), is(expected));
+			}
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return a list of codes, a third of which are invalid
+	 */
+	private static List<String> newCodes()
+	{
+		final List<String> codes = CollectionUtil.newList();
+		for (int i = 0; i < NUM_CODES; i++)
+		{
+			codes.add(Integer.toString(i));
+		}
+		return codes;
+	}
+
+	/**
+	 * Mock DTS lookup of a code.
+	 *
+	 * @param code
+	 *            code
+	 * @return <code>true</code> if the code exists
+	 * @throws InterruptedException
+	 */
+	private static boolean isValid(final String code) throws InterruptedException
+	{
+		if (code.startsWith(BAD))
+		{
+			// Make the earlier failure lose the race against the later one
+			if (code.equals(BAD + 300))
+			{
+				Thread.sleep(20);
+			}
+			throw new IllegalStateException(code);
+		}
+		return (Integer.parseInt(code) % 3) != 0;
+	}
+
+	/**
+	 * Validate codes one at a time in the calling thread.
+	 *
+	 * @param codes
+	 *            codes to validate
+	 * @return reports
+	 */
+	private List<ConceptReport> validateSequentially(final List<String> codes)
+	{
+		final List<ConceptReport> reports = CollectionUtil.newList();
+		for (final String code : codes)
+		{
+			final DtsConcept concept = dos.findConceptById(new DtsConceptId(NAMESPACE,
+					PROPERTY_NAME, code), DtsOptions.DEFAULT_NO_ATTRIBUTES);
+			final ConceptReport report = new ConceptReport(code);
+			report.setSeverity((concept != null) ? Severity.INFO : Severity.ERROR);
+			reports.add(report);
+		}
+		return reports;
+	}
+
+	/**
+	 * @param codes
+	 *            codes to validate
+	 * @return message of the failure thrown by sequential validation
+	 */
+	private String sequentialFailure(final List<String> codes)
+	{
+		try
+		{
+			validateSequentially(codes);
+		}
+		catch (final IllegalStateException e)
+		{
+			return e.getMessage();
+		}
+		fail("Expected sequential validation to fail");
+		return null;
+	}
+}
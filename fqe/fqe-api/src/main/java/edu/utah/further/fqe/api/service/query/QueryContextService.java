@@ -17,10 +17,12 @@ package edu.utah.further.fqe.api.service.query;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import edu.utah.further.core.api.context.Api;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
 import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
 import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
 
 /**
@@ -188,6 +190,37 @@ public interface QueryContextService
 	 */
 	List<QueryContext> findFailedChildren(QueryContext parent);
 
+	// ========================= SUMMARY METHODS ===========================
+
+	/**
+	 * Find the lean summary of a {@link QueryContext}. Loads a single row and none of the
+	 * query context's associations.
+	 * 
+	 * @param queryContextId
+	 *            query context identifier
+	 * @return query context summary, or <code>null</code> if not found
+	 */
+	QueryContextSummary findSummaryById(Long queryContextId);
+
+	/**
+	 * Find the lean summaries of all children of a federated {@link QueryContext}.
+	 * 
+	 * @param parentId
+	 *            parent query context identifier
+	 * @return child summaries
+	 */
+	List<QueryContextSummary> findChildSummaries(Long parentId);
+
+	/**
+	 * Count the children of a federated {@link QueryContext} in each state, without
+	 * loading them.
+	 * 
+	 * @param parentId
+	 *            parent query context identifier
+	 * @return number of children per state. States with no children are omitted
+	 */
+	Map<QueryState, Long> countChildrenByState(Long parentId);
+
 	/**
 	 * Returns all statuses from all data queries
 	 * 
@@ -220,4 +253,41 @@ public interface QueryContextService
 	 * @return status
 	 */
 	StatusMetaData findCurrentStatusById(Long queryContextId);
+
+	// ========================= RETENTION METHODS =========================
+
+	/**
+	 * Find the oldest federated queries of a type that were queued before a date and are
+	 * no longer running. Each federated query and its children form one generation that
+	 * is expired as a whole.
+	 * 
+	 * @param queryType
+	 *            query type
+	 * @param date
+	 *            queue date upper bound (exclusive)
+	 * @param maxResults
+	 *            maximum number of identifiers to return
+	 * @return federated query context identifiers, oldest first
+	 */
+	List<Long> findExpiredQueryIds(QueryType queryType, Date date, int maxResults);
+
+	/**
+	 * Find the execution identifiers of federated queries and all of their children.
+	 * Result sets and identifier maps are keyed by these identifiers.
+	 * 
+	 * @param queryContextIds
+	 *            federated query context identifiers
+	 * @return execution identifiers of the queries and their children
+	 */
+	List<String> findExecutionIds(List<Long> queryContextIds);
+
+	/**
+	 * Delete federated queries and their children with set-based statements, without
+	 * loading them.
+	 * 
+	 * @param queryContextIds
+	 *            federated query context identifiers
+	 * @return number of deleted query contexts
+	 */
+	int deleteQueries(List<Long> queryContextIds);
 }
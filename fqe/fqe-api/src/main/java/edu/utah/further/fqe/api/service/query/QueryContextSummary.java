@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.api.service.query;
+
+import static edu.utah.further.core.api.text.ToStringCustomStyles.SHORT_WITH_SPACES_STYLE;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+import edu.utah.further.core.api.constant.Constants;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+
+/**
+ * A lean, read-only view of a {@link QueryContext}: its identifiers, state and counts,
+ * without any of its associations. Loaded as a single row per query context, so it is
+ * suitable for hot paths such as query sealing and status polling. Use the full
+ * {@link QueryContext} entity only when its searches, status history or result views are
+ * needed.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class QueryContextSummary implements Serializable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable version identifier.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	// ========================= FIELDS ====================================
+
+	private final Long id;
+
+	private final Long parentId;
+
+	private final String executionId;
+
+	private final String dataSourceId;
+
+	private final QueryState state;
+
+	private final boolean stale;
+
+	private final Date staleDateTime;
+
+	private final long numRecords;
+
+	private final String currentStatus;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Used by HQL constructor expressions.
+	 *
+	 * @param id
+	 *            query context ID
+	 * @param parentId
+	 *            parent query context ID, or <code>null</code> for a federated query
+	 * @param executionId
+	 *            execution ID
+	 * @param dataSourceId
+	 *            data source ID
+	 * @param state
+	 *            query state
+	 * @param stale
+	 *            is the query stale
+	 * @param staleDateTime
+	 *            the query's stale date
+	 * @param numRecords
+	 *            number of result records, or <code>null</code> if there is no result
+	 *            context
+	 * @param currentStatus
+	 *            current status message, if any
+	 */
+	public QueryContextSummary(final Long id, final Long parentId,
+			final String executionId, final String dataSourceId, final QueryState state,
+			final boolean stale, final Date staleDateTime, final Long numRecords,
+			final String currentStatus)
+	{
+		super();
+		this.id = id;
+		this.parentId = parentId;
+		this.executionId = executionId;
+		this.dataSourceId = dataSourceId;
+		this.state = state;
+		this.stale = stale;
+		this.staleDateTime = (staleDateTime == null) ? null : new Date(staleDateTime
+				.getTime());
+		this.numRecords = (numRecords == null) ? Constants.INVALID_VALUE_LONG
+				: numRecords.longValue();
+		this.currentStatus = currentStatus;
+	}
+
+	/**
+	 * Summarize a query context.
+	 *
+	 * @param queryContext
+	 *            query context
+	 * @return summary of <code>queryContext</code>
+	 */
+	public static QueryContextSummary newInstance(final QueryContext queryContext)
+	{
+		final QueryContext parent = queryContext.getParent();
+		return new QueryContextSummary(queryContext.getId(), (parent == null) ? null
+				: parent.getId(), queryContext.getExecutionId(), queryContext
+				.getDataSourceId(), queryContext.getState(), queryContext.isStale(),
+				queryContext.getStaleDateTime(), Long.valueOf(queryContext
+						.getNumRecords()), (queryContext.getCurrentStatus() == null) ? null
+						: queryContext.getCurrentStatus().getStatus());
+	}
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	/**
+	 * @return
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return new ToStringBuilder(this, SHORT_WITH_SPACES_STYLE)
+				.append("id", id)
+				.append("parentId", parentId)
+				.append("dataSourceId", dataSourceId)
+				.append("state", state)
+				.append("stale", stale)
+				.append("numRecords", numRecords)
+				.append("currentStatus", currentStatus)
+				.toString();
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * @return the id
+	 */
+	public Long getId()
+	{
+		return id;
+	}
+
+	/**
+	 * @return the parent query context ID, or <code>null</code> for a federated query
+	 */
+	public Long getParentId()
+	{
+		return parentId;
+	}
+
+	/**
+	 * @return is this a federated (root) query context
+	 */
+	public boolean isFederated()
+	{
+		return (parentId == null);
+	}
+
+	/**
+	 * @return the executionId
+	 */
+	public String getExecutionId()
+	{
+		return executionId;
+	}
+
+	/**
+	 * @return the dataSourceId
+	 */
+	public String getDataSourceId()
+	{
+		return dataSourceId;
+	}
+
+	/**
+	 * @return the state
+	 */
+	public QueryState getState()
+	{
+		return state;
+	}
+
+	/**
+	 * @return the stale flag
+	 */
+	public boolean isStale()
+	{
+		return stale;
+	}
+
+	/**
+	 * @return the staleDateTime
+	 */
+	public Date getStaleDateTime()
+	{
+		return (staleDateTime == null) ? null : new Date(staleDateTime.getTime());
+	}
+
+	/**
+	 * @return the numRecords
+	 */
+	public long getNumRecords()
+	{
+		return numRecords;
+	}
+
+	/**
+	 * @return the current status message, or <code>null</code> if none
+	 */
+	public String getCurrentStatus()
+	{
+		return currentStatus;
+	}
+}
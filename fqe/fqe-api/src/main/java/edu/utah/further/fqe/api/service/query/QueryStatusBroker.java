@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.api.service.query;
+
+import edu.utah.further.core.api.context.Api;
+import edu.utah.further.fqe.api.ws.to.status.QueryStatusChangeTo;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+
+/**
+ * Tracks the status of running federated queries in memory and pushes their changes
+ * to waiting clients. Each change to a federated query or to one of its data source
+ * queries increments the federated query's status version; clients ask for the
+ * changes since the last version they saw.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Api
+public interface QueryStatusBroker
+{
+	// ========================= METHODS ===================================
+
+	/**
+	 * Record the current persistent status of a federated or data source query context
+	 * and notify the federated query's listeners if anything changed. Meant to be called
+	 * from the status routes right after a query context has been saved.
+	 *
+	 * @param queryContext
+	 *            federated or data source query context that was just updated
+	 */
+	void publish(QueryContext queryContext);
+
+	/**
+	 * Return the changes of a federated query since a status version.
+	 *
+	 * @param queryId
+	 *            federated query context ID
+	 * @param since
+	 *            last status version the client saw; <code>0</code> returns all fields
+	 * @return changed fields, or <code>null</code> if nothing changed since
+	 *         <code>since</code>. If the query does not exist, the change's state is
+	 *         {@link edu.utah.further.fqe.ds.api.domain.QueryState#INVALID}
+	 */
+	QueryStatusChangeTo getChanges(Long queryId, long since);
+
+	/**
+	 * Register a one-time listener that is notified of the next change of a federated
+	 * query, unless it has already changed since a status version.
+	 *
+	 * @param queryId
+	 *            federated query context ID
+	 * @param since
+	 *            last status version the client saw
+	 * @param listener
+	 *            listener to notify
+	 * @return <code>true</code> if the listener was registered; <code>false</code> if
+	 *         the query has already changed since <code>since</code> (or does not
+	 *         exist), in which case the caller should read the changes immediately
+	 */
+	boolean addListener(Long queryId, long since, QueryStatusListener listener);
+
+	/**
+	 * Unregister a listener that has not been notified, e.g. when its client timed out.
+	 *
+	 * @param queryId
+	 *            federated query context ID
+	 * @param listener
+	 *            listener to unregister
+	 */
+	void removeListener(Long queryId, QueryStatusListener listener);
+}
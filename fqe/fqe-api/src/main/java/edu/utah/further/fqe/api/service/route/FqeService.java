@@ -55,6 +55,22 @@ public interface FqeService
 	 */
 	QueryContext triggerQuery(QueryContext logicalQuery);
 
+	/**
+	 * Promote a count-only query to a full data query. Triggers a new data query with the
+	 * search criteria of the count query, directed to the data sources that answered the
+	 * count query. Data queries are returned as is.
+	 * <p>
+	 * An asynchronous call.
+	 *
+	 * @param countQuery
+	 *            a persistent FURTHeR logical count query context
+	 * @return the new data query context with a populated identifier
+	 * @throws edu.utah.further.core.api.exception.ApplicationException
+	 *             if the count query consists of more than one search query, whose plan
+	 *             cannot be reconstructed
+	 */
+	QueryContext promoteQuery(QueryContext countQuery);
+
 	/**
 	 * Trigger a query stopping request. If the QueryContext is a federated context, then
 	 * it is stopped and so are it's children. If the QueryContext is a data source
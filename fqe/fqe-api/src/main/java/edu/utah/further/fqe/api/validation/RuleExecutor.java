@@ -15,6 +15,8 @@
  */
 package edu.utah.further.fqe.api.validation;
 
+import java.util.List;
+
 import edu.utah.further.core.query.domain.SearchQuery;
 
 /**
@@ -95,4 +97,25 @@ public interface RuleExecutor<O>
 	 * @return pass/fail
 	 */
 	boolean executeRule(SearchQuery query, O rule);
+
+	/**
+	 * Parses SearchQuery against a list of validation rules. Implementations may cache
+	 * a compiled form of the rule list as long as the same list instance is passed in.
+	 * 
+	 * @param query
+	 * @param rules
+	 * @return pass (all rules passed)/fail (some rule failed)
+	 */
+	boolean executeRules(SearchQuery query, List<O> rules);
+
+	/**
+	 * Parses SearchQuery against each of a list of validation rules. Implementations may
+	 * cache a compiled form of the rule list as long as the same list instance is passed
+	 * in.
+	 * 
+	 * @param query
+	 * @param rules
+	 * @return pass/fail outcome of each rule, in rule order
+	 */
+	List<Boolean> executeEachRule(SearchQuery query, List<O> rules);
 }
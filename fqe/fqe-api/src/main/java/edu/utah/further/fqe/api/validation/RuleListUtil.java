@@ -48,4 +48,10 @@ public interface RuleListUtil<O>
 	 * @param ruleDir
 	 */
 	void setRuleDir(String ruleDir);
+
+	/**
+	 * Rescans the rule directory and reloads the rule instances if any of them were
+	 * added, removed or modified since they were last loaded
+	 */
+	void refresh();
 }
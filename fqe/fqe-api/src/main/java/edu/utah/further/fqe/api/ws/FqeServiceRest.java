@@ -18,12 +18,14 @@ package edu.utah.further.fqe.api.ws;
 import java.util.Date;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 
 import edu.utah.further.core.api.exception.WsException;
@@ -31,6 +33,7 @@ import edu.utah.further.core.api.ws.Documentation;
 import edu.utah.further.core.api.ws.ExamplePath;
 import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.fqe.api.ws.to.aggregate.AggregatedResultsTo;
+import edu.utah.further.fqe.api.ws.to.status.QueryStatusChangeTo;
 import edu.utah.further.fqe.ds.api.domain.Data;
 import edu.utah.further.fqe.ds.api.domain.DsMetaData;
 import edu.utah.further.fqe.ds.api.domain.DsState;
@@ -199,6 +202,25 @@ public interface FqeServiceRest
 	Response stopQuery(
 			@PathParam("id") @Documentation(description = "Query context ID") long id);
 
+	/**
+	 * Promote a count-only query to a full data query. Count queries only report counts
+	 * and do not materialize any results; this triggers a new data query with the same
+	 * search criteria against the data sources that answered the count query, so that
+	 * results can be viewed and exported. Data queries are returned as is. Each call of a
+	 * count query triggers a new data query.
+	 *
+	 * @param id
+	 *            count query context ID
+	 * @return the new data query context, in its state right after submission
+	 */
+	@POST
+	@Produces("application/xml")
+	@Path("/query/promote/{id}")
+	// @ExamplePath not needed - POST method
+	@Documentation(name = "Promote count query", description = "Triggers a full data query with the criteria of a count-only query.")
+	QueryContextToImpl promoteQuery(
+			@PathParam("id") @Documentation(description = "Query context ID") long id);
+
 	/**
 	 * Stops all running queries, and deletes all queries.
 	 * 
@@ -317,6 +339,26 @@ public interface FqeServiceRest
 	QueryContextStateTo queryStateById(
 			@PathParam("id") @Documentation(description = "Query context ID") long id);
 
+	/**
+	 * Wait until the state, counts or status of a federated query or any of its data
+	 * source queries change, and return only the changed fields. The request thread is
+	 * released while waiting.
+	 * 
+	 * @return changes since the <code>since</code> version; empty if none occurred
+	 *         within the timeout
+	 */
+	@GET
+	@Produces("application/xml")
+	@Path("/query/status/changes/{id}")
+	@ExamplePath("query/status/changes/1?since=0&timeout=30000")
+	@Documentation(name = "Federated query status changes", description = "Waits for the status of the given federated query to change and returns the changed fields. "
+			+ "Pass the returned version as the since parameter of the next request")
+	QueryStatusChangeTo queryStatusChanges(
+			@PathParam("id") @Documentation(description = "Federated query context ID") long id,
+			@QueryParam("since") @DefaultValue("0") @Documentation(description = "Last status version seen by the client. "
+					+ "0 returns the entire status") long since,
+			@QueryParam("timeout") @DefaultValue("30000") @Documentation(description = "Maximum time to wait for a change [ms]") long timeout);
+
 	/**
 	 * Return the current status for a given QueryContext id
 	 * 
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.api.ws.to.status;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+import edu.utah.further.core.api.xml.XmlNamespace;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+
+/**
+ * The changed fields of a single data source query of a federated query. Fields that
+ * did not change are <code>null</code> and are omitted from the XML.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+// ============================
+// JAXB annotations
+// ============================
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(namespace = XmlNamespace.FQE, name = DataSourceStatusChangeTo.ENTITY_NAME)
+@XmlType(name = "", propOrder =
+{ "dataSourceId", "state", "numRecords", "status" })
+public final class DataSourceStatusChangeTo
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * XML name of this entity.
+	 */
+	static final String ENTITY_NAME = "dataSource";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Identifies the data source.
+	 */
+	@XmlAttribute(name = "id", required = true)
+	private String dataSourceId;
+
+	/**
+	 * New query state, if changed.
+	 */
+	@XmlElement(name = "state", required = false, namespace = XmlNamespace.FQE)
+	private QueryState state;
+
+	/**
+	 * New result set size, if changed.
+	 */
+	@XmlElement(name = "numRecords", required = false, namespace = XmlNamespace.FQE)
+	private Long numRecords;
+
+	/**
+	 * New status message, if changed.
+	 */
+	@XmlElement(name = "status", required = false, namespace = XmlNamespace.FQE)
+	private String status;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Default constructor, required by JAXB.
+	 */
+	public DataSourceStatusChangeTo()
+	{
+		super();
+	}
+
+	/**
+	 * @param dataSourceId
+	 *            identifies the data source
+	 */
+	public DataSourceStatusChangeTo(final String dataSourceId)
+	{
+		this.dataSourceId = dataSourceId;
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Return the dataSourceId property.
+	 *
+	 * @return the dataSourceId
+	 */
+	public String getDataSourceId()
+	{
+		return dataSourceId;
+	}
+
+	/**
+	 * Return the state property.
+	 *
+	 * @return the state, or <code>null</code> if it did not change
+	 */
+	public QueryState getState()
+	{
+		return state;
+	}
+
+	/**
+	 * Set a new value for the state property.
+	 *
+	 * @param state
+	 *            the state to set
+	 */
+	public void setState(final QueryState state)
+	{
+		this.state = state;
+	}
+
+	/**
+	 * Return the numRecords property.
+	 *
+	 * @return the numRecords, or <code>null</code> if it did not change
+	 */
+	public Long getNumRecords()
+	{
+		return numRecords;
+	}
+
+	/**
+	 * Set a new value for the numRecords property.
+	 *
+	 * @param numRecords
+	 *            the numRecords to set
+	 */
+	public void setNumRecords(final Long numRecords)
+	{
+		this.numRecords = numRecords;
+	}
+
+	/**
+	 * Return the status property.
+	 *
+	 * @return the status, or <code>null</code> if it did not change
+	 */
+	public String getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Set a new value for the status property.
+	 *
+	 * @param status
+	 *            the status to set
+	 */
+	public void setStatus(final String status)
+	{
+		this.status = status;
+	}
+}
@@ -0,0 +1,406 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Compares benchmark scores against a stored baseline and reports regressions.
+ * <p>
+ * A score is a regression (or an improvement) only if it moved in the wrong (right)
+ * direction by more than the relative threshold <i>and</i> by more than the combined
+ * confidence intervals of the two measurements, so that noisy benchmarks do not raise
+ * false alarms. Higher is better for throughput scores; lower is better for all time
+ * scores.
+ * <p>
+ * Baselines are stored as a properties file that maps a benchmark key (benchmark name
+ * plus parameter values) to <code>score,error,unit,higherIsBetter</code>.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class BaselineReport
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Separates the fields of a stored score.
+	 */
+	private static final String SEPARATOR = ",";
+
+	/**
+	 * Report line format.
+	 */
+	private static final String LINE_FORMAT = "%-90s %14s %14s %9s  %s%n";
+
+	// ========================= NESTED TYPES ==============================
+
+	/**
+	 * Outcome of comparing a single benchmark against its baseline.
+	 */
+	public static enum Status
+	{
+		/**
+		 * Within the threshold or the measurement error.
+		 */
+		OK,
+
+		/**
+		 * Significantly better than the baseline.
+		 */
+		IMPROVED,
+
+		/**
+		 * Significantly worse than the baseline.
+		 */
+		REGRESSION,
+
+		/**
+		 * Not in the baseline.
+		 */
+		NEW,
+
+		/**
+		 * Measured in a different unit than the baseline, and therefore not comparable.
+		 */
+		INCOMPARABLE;
+	}
+
+	/**
+	 * A single benchmark score.
+	 */
+	public static final class Score
+	{
+		private final double score;
+
+		private final double error;
+
+		private final String unit;
+
+		private final boolean higherIsBetter;
+
+		public Score(final double score, final double error, final String unit,
+				final boolean higherIsBetter)
+		{
+			this.score = score;
+			// JMH reports NaN errors when there are too few samples
+			this.error = Double.isNaN(error) ? 0.0 : error;
+			this.unit = unit;
+			this.higherIsBetter = higherIsBetter;
+		}
+
+		public double getScore()
+		{
+			return score;
+		}
+
+		public double getError()
+		{
+			return error;
+		}
+
+		public String getUnit()
+		{
+			return unit;
+		}
+
+		public boolean isHigherIsBetter()
+		{
+			return higherIsBetter;
+		}
+
+		@Override
+		public String toString()
+		{
+			return score + SEPARATOR + error + SEPARATOR + unit + SEPARATOR
+					+ higherIsBetter;
+		}
+
+		static Score valueOf(final String string)
+		{
+			final String[] fields = string.split(SEPARATOR, -1);
+			if (fields.length != 4)
+			{
+				throw new IllegalArgumentException("Malformed baseline score: " + string);
+			}
+			return new Score(Double.parseDouble(fields[0]),
+					Double.parseDouble(fields[1]), fields[2], Boolean
+							.parseBoolean(fields[3]));
+		}
+	}
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Baseline scores, by benchmark key.
+	 */
+	private final Map<String, Score> baseline;
+
+	/**
+	 * Current scores, by benchmark key.
+	 */
+	private final Map<String, Score> current;
+
+	/**
+	 * Relative change that is considered significant, e.g. 0.1 for 10%.
+	 */
+	private final double threshold;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param baseline
+	 *            baseline scores, by benchmark key
+	 * @param current
+	 *            current scores, by benchmark key
+	 * @param threshold
+	 *            relative change that is considered significant, e.g. 0.1 for 10%
+	 */
+	public BaselineReport(final Map<String, Score> baseline,
+			final Map<String, Score> current, final double threshold)
+	{
+		this.baseline = baseline;
+		this.current = current;
+		this.threshold = threshold;
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Convert JMH run results to scores.
+	 *
+	 * @param results
+	 *            JMH run results
+	 * @return scores, by benchmark key, sorted by key
+	 */
+	public static Map<String, Score> toScores(final Collection<RunResult> results)
+	{
+		final Map<String, Score> scores = new TreeMap<>();
+		for (final RunResult result : results)
+		{
+			final BenchmarkParams params = result.getParams();
+			final Result<?> primary = result.getPrimaryResult();
+			scores.put(key(params), new Score(primary.getScore(), primary
+					.getScoreError(), primary.getScoreUnit(),
+					params.getMode() == Mode.Throughput));
+		}
+		return scores;
+	}
+
+	/**
+	 * Load a baseline file.
+	 *
+	 * @param file
+	 *            baseline file
+	 * @return scores, by benchmark key, sorted by key
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static Map<String, Score> load(final File file) throws IOException
+	{
+		final Properties properties = new Properties();
+		try (final InputStream input = new FileInputStream(file))
+		{
+			properties.load(input);
+		}
+		final Map<String, Score> scores = new TreeMap<>();
+		for (final String key : properties.stringPropertyNames())
+		{
+			scores.put(key, Score.valueOf(properties.getProperty(key)));
+		}
+		return scores;
+	}
+
+	/**
+	 * Save scores as a new baseline.
+	 *
+	 * @param scores
+	 *            scores, by benchmark key
+	 * @param file
+	 *            baseline file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void save(final Map<String, Score> scores, final File file)
+			throws IOException
+	{
+		final Properties properties = new Properties();
+		for (final Map.Entry<String, Score> entry : scores.entrySet())
+		{
+			properties.setProperty(entry.getKey(), entry.getValue().toString());
+		}
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if ((parent != null) && !parent.exists() && !parent.mkdirs())
+		{
+			throw new IOException("Could not create directory " + parent);
+		}
+		try (final OutputStream output = new FileOutputStream(file))
+		{
+			properties.store(output, "FURTHeR benchmark baseline");
+		}
+	}
+
+	/**
+	 * Compare a single current score against the baseline.
+	 *
+	 * @param key
+	 *            benchmark key
+	 * @return comparison outcome
+	 */
+	public Status getStatus(final String key)
+	{
+		final Score base = baseline.get(key);
+		final Score score = current.get(key);
+		if (base == null)
+		{
+			return Status.NEW;
+		}
+		if (!base.getUnit().equals(score.getUnit())
+				|| (base.isHigherIsBetter() != score.isHigherIsBetter()))
+		{
+			return Status.INCOMPARABLE;
+		}
+		final double difference = score.getScore() - base.getScore();
+		final boolean significant = (Math.abs(difference) > threshold
+				* Math.abs(base.getScore()))
+				&& (Math.abs(difference) > base.getError() + score.getError());
+		if (!significant)
+		{
+			return Status.OK;
+		}
+		final boolean better = (difference > 0) == score.isHigherIsBetter();
+		return better ? Status.IMPROVED : Status.REGRESSION;
+	}
+
+	/**
+	 * Return the keys of all regressed benchmarks.
+	 *
+	 * @return regressed benchmark keys
+	 */
+	public List<String> getRegressions()
+	{
+		final List<String> regressions = newList();
+		for (final String key : current.keySet())
+		{
+			if (getStatus(key) == Status.REGRESSION)
+			{
+				regressions.add(key);
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * Print a report line per current benchmark, with its baseline score, its current
+	 * score, the relative change and the comparison outcome.
+	 *
+	 * @param writer
+	 *            report output
+	 */
+	public void print(final PrintWriter writer)
+	{
+		writer.printf(LINE_FORMAT, "Benchmark", "Baseline", "Current", "Change",
+				"Status");
+		for (final Map.Entry<String, Score> entry : current.entrySet())
+		{
+			final String key = entry.getKey();
+			final Score score = entry.getValue();
+			final Score base = baseline.get(key);
+			writer.printf(LINE_FORMAT, key, (base == null) ? "-" : format(base),
+					format(score), (base == null) ? "-" : formatChange(base, score),
+					getStatus(key));
+		}
+		writer.printf("%d benchmarks, %d regressions (threshold %.0f%%)%n", Integer
+				.valueOf(current.size()), Integer.valueOf(getRegressions().size()),
+				Double.valueOf(100.0 * threshold));
+		writer.flush();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Return a key that identifies a benchmark and its parameter values.
+	 *
+	 * @param params
+	 *            benchmark parameters
+	 * @return benchmark key
+	 */
+	private static String key(final BenchmarkParams params)
+	{
+		final StringBuilder key = new StringBuilder(params.getBenchmark());
+		for (final String name : new TreeSet<>(params.getParamsKeys()))
+		{
+			key.append(':').append(name).append('=').append(params.getParam(name));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @param score
+	 *            score
+	 * @return formatted score and unit
+	 */
+	private static String format(final Score score)
+	{
+		return String.format(Locale.ENGLISH, "%.3f %s", Double.valueOf(score.getScore()),
+				score.getUnit());
+	}
+
+	/**
+	 * @param base
+	 *            baseline score
+	 * @param score
+	 *            current score
+	 * @return formatted relative change
+	 */
+	private static String formatChange(final Score base, final Score score)
+	{
+		if (base.getScore() == 0.0)
+		{
+			return "-";
+		}
+		return String.format(Locale.ENGLISH, "%+.1f%%", Double
+				.valueOf(100.0 * (score.getScore() - base.getScore()) / base.getScore()));
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import edu.utah.further.fqe.benchmark.BaselineReport.Score;
+
+/**
+ * Runs the FURTHeR benchmarks and compares their scores against a stored baseline.
+ * <p>
+ * All command-line arguments are passed to JMH (e.g. a benchmark name regular
+ * expression, <code>-f</code>, <code>-wi</code>, <code>-i</code>). The baseline
+ * comparison is controlled by system properties:
+ * <ul>
+ * <li><code>benchmark.baseline</code>: baseline file to compare with. If it does not
+ * exist, no comparison is made.</li>
+ * <li><code>benchmark.baseline.update</code>: if <code>true</code>, save the current
+ * scores as the new baseline after the comparison.</li>
+ * <li><code>benchmark.threshold</code>: relative change considered significant (default
+ * 0.1, i.e. 10%).</li>
+ * <li><code>benchmark.report</code>: also write the report to this file.</li>
+ * <li><code>benchmark.failOnRegression</code>: if <code>true</code>, exit with a non-zero
+ * status when a regression is found.</li>
+ * </ul>
+ * For example:
+ *
+ * <pre>
+ * java -Dbenchmark.baseline=baseline.properties -jar target/benchmarks.jar Chain
+ * </pre>
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class BenchmarkMain
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String BASELINE = "benchmark.baseline";
+
+	private static final String BASELINE_UPDATE = "benchmark.baseline.update";
+
+	private static final String THRESHOLD = "benchmark.threshold";
+
+	private static final String REPORT = "benchmark.report";
+
+	private static final String FAIL_ON_REGRESSION = "benchmark.failOnRegression";
+
+	private static final String DEFAULT_THRESHOLD = "0.1";
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Hide constructor in utility class.
+	 */
+	private BenchmarkMain()
+	{
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args
+	 *            JMH command-line arguments
+	 * @throws CommandLineOptionException
+	 *             if the arguments are invalid
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 * @throws IOException
+	 *             if the baseline or report cannot be read or written
+	 */
+	public static void main(final String[] args) throws CommandLineOptionException,
+			RunnerException, IOException
+	{
+		final Collection<RunResult> results = new Runner(new CommandLineOptions(args))
+				.run();
+		final Map<String, Score> current = BaselineReport.toScores(results);
+
+		final String baselineName = System.getProperty(BASELINE);
+		if (baselineName == null)
+		{
+			return;
+		}
+		final File baselineFile = new File(baselineName);
+		int regressions = 0;
+		if (baselineFile.exists())
+		{
+			final BaselineReport report = new BaselineReport(
+					BaselineReport.load(baselineFile), current, Double
+							.parseDouble(System.getProperty(THRESHOLD, DEFAULT_THRESHOLD)));
+			report.print(new PrintWriter(new OutputStreamWriter(System.out)));
+			final String reportName = System.getProperty(REPORT);
+			if (reportName != null)
+			{
+				try (final PrintWriter writer = new PrintWriter(new FileWriter(reportName)))
+				{
+					report.print(writer);
+				}
+			}
+			regressions = report.getRegressions().size();
+		}
+		if (Boolean.getBoolean(BASELINE_UPDATE))
+		{
+			BaselineReport.save(current, baselineFile);
+		}
+		if ((regressions > 0) && Boolean.getBoolean(FAIL_ON_REGRESSION))
+		{
+			System.exit(1);
+		}
+	}
+}
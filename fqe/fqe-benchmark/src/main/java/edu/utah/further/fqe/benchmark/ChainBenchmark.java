@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.core.chain.RequestHandlerBuilder.chain;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.utah.further.core.api.chain.ChainRequest;
+import edu.utah.further.core.api.chain.RequestHandler;
+import edu.utah.further.core.api.chain.RequestProcessor;
+import edu.utah.further.core.chain.AbstractRequestProcessor;
+import edu.utah.further.core.chain.ChainRequestImpl;
+
+/**
+ * Benchmarks {@link ChainRequestImpl} attribute access and request dispatch through a
+ * processor chain. Every FQE and data source request passes through such a chain, and
+ * each processor reads and writes several request attributes.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ChainBenchmark
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Prefix of benchmark attribute names.
+	 */
+	private static final String ATTRIBUTE_PREFIX = "attribute.";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Number of attributes set on the request.
+	 */
+	@Param(
+	{ "8", "64" })
+	private int attributeCount;
+
+	/**
+	 * Number of processors in the chain.
+	 */
+	@Param(
+	{ "10" })
+	private int chainLength;
+
+	/**
+	 * Attribute names, pre-computed to keep string building out of the measurement.
+	 */
+	private String[] names;
+
+	/**
+	 * Request pre-populated with {@link #attributeCount} attributes.
+	 */
+	private ChainRequest request;
+
+	/**
+	 * Chain under test.
+	 */
+	private RequestHandler handler;
+
+	/**
+	 * Round-robin index into {@link #names}.
+	 */
+	private int index = 0;
+
+	// ========================= SETUP METHODS =============================
+
+	@Setup
+	public void setup()
+	{
+		names = new String[attributeCount];
+		request = new ChainRequestImpl();
+		for (int i = 0; i < attributeCount; i++)
+		{
+			names[i] = ATTRIBUTE_PREFIX + i;
+			request.setAttribute(names[i], Integer.valueOf(i));
+		}
+
+		final List<RequestProcessor> processors = newList();
+		for (int i = 0; i < chainLength; i++)
+		{
+			processors.add(new AttributeCopyProcessor(names[i % attributeCount],
+					names[(i + 1) % attributeCount]));
+		}
+		handler = chain(processors);
+	}
+
+	// ========================= BENCHMARK METHODS =========================
+
+	/**
+	 * Read a single attribute by name.
+	 *
+	 * @return attribute value
+	 */
+	@Benchmark
+	public Object getAttribute()
+	{
+		return request.getAttribute(nextName());
+	}
+
+	/**
+	 * Overwrite a single attribute.
+	 */
+	@Benchmark
+	public void setAttribute()
+	{
+		request.setAttribute(nextName(), Integer.valueOf(index));
+	}
+
+	/**
+	 * Create a request, populate it and discard it, as a web service call does.
+	 *
+	 * @return new request
+	 */
+	@Benchmark
+	public ChainRequest newRequest()
+	{
+		final ChainRequest newRequest = new ChainRequestImpl();
+		for (final String name : names)
+		{
+			newRequest.setAttribute(name, name);
+		}
+		return newRequest;
+	}
+
+	/**
+	 * Dispatch the request through all processors of the chain.
+	 *
+	 * @return <code>true</code> if a processor terminated the chain
+	 */
+	@Benchmark
+	public boolean dispatch()
+	{
+		return handler.handle(request);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return the next attribute name, round-robin
+	 */
+	private String nextName()
+	{
+		index = (index + 1) % names.length;
+		return names[index];
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * A processor that copies one attribute into another and lets the chain continue,
+	 * which is the typical work of the FQE processors between their I/O steps.
+	 */
+	private static final class AttributeCopyProcessor extends AbstractRequestProcessor
+	{
+		private final String from;
+
+		private final String to;
+
+		public AttributeCopyProcessor(final String from, final String to)
+		{
+			super();
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean process(final ChainRequest request)
+		{
+			final Object value = request.getAttribute(from);
+			request.setAttribute(to, value);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.simple.SimpleJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import edu.utah.further.fqe.ds.api.service.results.ResultType;
+import edu.utah.further.fqe.ds.model.common.service.results.ResultSummaryServiceImpl;
+
+/**
+ * Benchmarks the {@link ResultSummaryServiceImpl} set operations (sum, union and
+ * intersection of data source result sets) over an embedded HSQL identifier map.
+ * <p>
+ * Each data source returns <code>resultSize</code> records; consecutive data sources
+ * share half of their federated identifiers, and one in ten records has no federated
+ * identifier at all, so that all branches of the set operations are exercised.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ResultSummaryBenchmark
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Minimal schema of the identifier map columns read by the service.
+	 */
+	private static final String CREATE_TABLE = "CREATE TABLE virtual_obj_id_map "
+			+ "(virtual_obj_id_map_id BIGINT PRIMARY KEY, query_id VARCHAR(64), "
+			+ "fed_obj_id BIGINT, virtual_obj_id BIGINT, src_obj_id VARCHAR(64))";
+
+	private static final String CREATE_INDEX = "CREATE INDEX virtual_obj_id_map_qid "
+			+ "ON virtual_obj_id_map (query_id)";
+
+	private static final String INSERT = "INSERT INTO virtual_obj_id_map "
+			+ "(virtual_obj_id_map_id, query_id, fed_obj_id, virtual_obj_id, src_obj_id) "
+			+ "VALUES (?, ?, ?, ?, ?)";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Set operation to benchmark.
+	 */
+	@Param(
+	{ "SUM", "UNION", "INTERSECTION" })
+	private ResultType resultType;
+
+	/**
+	 * Number of data sources that answered the query.
+	 */
+	@Param(
+	{ "2", "4" })
+	private int dataSourceCount;
+
+	/**
+	 * Number of records returned by each data source.
+	 */
+	@Param(
+	{ "1000", "10000" })
+	private int resultSize;
+
+	/**
+	 * Embedded database.
+	 */
+	private SingleConnectionDataSource dataSource;
+
+	/**
+	 * Service under test.
+	 */
+	private ResultSummaryServiceImpl service;
+
+	/**
+	 * Data source query identifiers.
+	 */
+	private final List<String> queryIds = newList();
+
+	// ========================= SETUP METHODS =============================
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		dataSource = new SingleConnectionDataSource("jdbc:hsqldb:mem:results"
+				+ System.nanoTime(), "sa", "", true);
+		dataSource.setDriverClassName("org.hsqldb.jdbcDriver");
+		final SimpleJdbcTemplate jdbcTemplate = new SimpleJdbcTemplate(dataSource);
+		jdbcTemplate.update(CREATE_TABLE);
+		jdbcTemplate.update(CREATE_INDEX);
+
+		long id = 0;
+		for (int source = 0; source < dataSourceCount; source++)
+		{
+			final String queryId = "query-" + source;
+			queryIds.add(queryId);
+			final List<Object[]> rows = newList();
+			for (int i = 0; i < resultSize; i++)
+			{
+				// Shift by half a result set per data source to create overlaps
+				final long fedObjId = (source * resultSize) / 2 + i;
+				rows.add(new Object[]
+				{ Long.valueOf(id), queryId,
+						(i % 10 == 0) ? null : Long.valueOf(fedObjId), Long.valueOf(id),
+						String.valueOf(i) });
+				id++;
+			}
+			jdbcTemplate.batchUpdate(INSERT, rows);
+		}
+
+		service = new ResultSummaryServiceImpl();
+		service.setJdbcTemplate(jdbcTemplate);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		dataSource.destroy();
+	}
+
+	// ========================= BENCHMARK METHODS =========================
+
+	@Benchmark
+	public Long join()
+	{
+		return service.join(queryIds, resultType);
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.cfg.Environment;
+import org.hibernate.dialect.HSQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.utah.further.core.api.collections.page.IterableType;
+import edu.utah.further.core.api.collections.page.Pager;
+import edu.utah.further.core.api.collections.page.PagingProvider;
+import edu.utah.further.core.data.hibernate.page.PagingProviderHibernate;
+import edu.utah.further.core.util.collections.page.DefaultPagingStrategy;
+import edu.utah.further.fqe.benchmark.domain.BenchmarkPersonEntity;
+
+/**
+ * Benchmarks paging through a Hibernate {@link ScrollableResults} with the
+ * <code>ScrollableResultsPager</code>, the way data source result sets are streamed into
+ * pages, over an embedded HSQL database.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ScrollableResultsPagerBenchmark
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Query of all rows, in a stable order.
+	 */
+	private static final String QUERY = "from "
+			+ BenchmarkPersonEntity.class.getSimpleName() + " order by id";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Number of rows in the database.
+	 */
+	@Param(
+	{ "1000", "10000" })
+	private int rowCount;
+
+	/**
+	 * Result page size.
+	 */
+	@Param(
+	{ "100", "1000" })
+	private int pageSize;
+
+	/**
+	 * Session factory of the embedded database.
+	 */
+	private SessionFactory sessionFactory;
+
+	/**
+	 * Creates the pager under test.
+	 */
+	private final PagingProvider<ScrollableResults> pagingProvider = new PagingProviderHibernate();
+
+	// ========================= SETUP METHODS =============================
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		sessionFactory = new Configuration()
+				.addAnnotatedClass(BenchmarkPersonEntity.class)
+				.setProperty(Environment.DIALECT, HSQLDialect.class.getName())
+				.setProperty(Environment.DRIVER, "org.hsqldb.jdbcDriver")
+				.setProperty(Environment.URL, "jdbc:hsqldb:mem:pager" + rowCount)
+				.setProperty(Environment.USER, "sa")
+				.setProperty(Environment.PASS, "")
+				.setProperty(Environment.HBM2DDL_AUTO, "create")
+				.buildSessionFactory();
+
+		final StatelessSession session = sessionFactory.openStatelessSession();
+		try
+		{
+			final Transaction transaction = session.beginTransaction();
+			for (int i = 0; i < rowCount; i++)
+			{
+				final BenchmarkPersonEntity person = new BenchmarkPersonEntity();
+				person.setId(Long.valueOf(i));
+				person.setAge(Integer.valueOf(i % 100));
+				person.setGenderCd((i % 2 == 0) ? "F" : "M");
+				session.insert(person);
+			}
+			transaction.commit();
+		}
+		finally
+		{
+			session.close();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		sessionFactory.close();
+	}
+
+	// ========================= BENCHMARK METHODS =========================
+
+	/**
+	 * Read all rows page by page.
+	 *
+	 * @param blackhole
+	 *            consumes pages
+	 */
+	@Benchmark
+	public void pageAll(final Blackhole blackhole)
+	{
+		final Session session = sessionFactory.openSession();
+		try
+		{
+			final ScrollableResults results = session
+					.createQuery(QUERY)
+					.setReadOnly(true)
+					.setFetchSize(pageSize)
+					.scroll(ScrollMode.FORWARD_ONLY);
+			final Pager<?> pager = pagingProvider.newPager(results,
+					new DefaultPagingStrategy(IterableType.SCROLLABLE_RESULTS, pageSize));
+			while (pager.hasNext())
+			{
+				blackhole.consume(pager.next());
+				session.clear();
+			}
+			pager.close();
+		}
+		finally
+		{
+			session.close();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.xquery.XQDataSource;
+
+import net.sf.saxon.xqj.SaxonXQDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.utah.further.core.api.xml.XmlService;
+import edu.utah.further.core.query.domain.SearchQueryTo;
+import edu.utah.further.core.util.io.IoUtil;
+import edu.utah.further.core.xml.jaxb.JaxbConfig;
+import edu.utah.further.core.xml.jaxb.XmlServiceImpl;
+import edu.utah.further.core.xml.xquery.AbstractXQueryDataSource;
+import edu.utah.further.core.xml.xquery.XQueryService;
+import edu.utah.further.core.xml.xquery.XQueryServiceXQJImpl;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+
+/**
+ * Benchmarks search query translation through {@link XQueryServiceXQJImpl}, backed by
+ * the embedded Saxon XQJ data source (the same one wired by
+ * <code>core-xquery-datasource-saxon.xml</code>). The translation program is a
+ * representative attribute-renaming transform of a marshalled {@link SearchQueryTo}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class XQueryTranslationBenchmark
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Translation program.
+	 */
+	private static final String TRANSLATION_XQUERY = "translate-search-query.xq";
+
+	/**
+	 * Encoding of the benchmark inputs.
+	 */
+	private static final String ENCODING = "UTF-8";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Service under test.
+	 */
+	private XQueryService xqueryService;
+
+	/**
+	 * Encoded translation program.
+	 */
+	private byte[] xquery;
+
+	/**
+	 * Encoded marshalled search query.
+	 */
+	private byte[] searchQuery;
+
+	// ========================= SETUP METHODS =============================
+
+	@Setup
+	public void setup() throws JAXBException, UnsupportedEncodingException
+	{
+		final AbstractXQueryDataSource dataSource = new AbstractXQueryDataSource()
+		{
+			@Override
+			public XQDataSource newXQDataSource()
+			{
+				return new SaxonXQDataSource();
+			}
+		};
+		dataSource.setSupportsInlineVariables(true);
+		final XQueryServiceXQJImpl service = new XQueryServiceXQJImpl();
+		service.setXqueryDataSource(dataSource);
+		xqueryService = service;
+
+		final XmlServiceImpl xmlService = new XmlServiceImpl();
+		xmlService.setDefaultJaxbConfig(JaxbConfig.FURTHER.getJaxbConfig());
+		searchQuery = newSearchQueryXml(xmlService).getBytes(ENCODING);
+		xquery = IoUtil.getResourceAsString(TRANSLATION_XQUERY).getBytes(ENCODING);
+	}
+
+	// ========================= BENCHMARK METHODS =========================
+
+	@Benchmark
+	public String translate()
+	{
+		return xqueryService.executeIntoString(new ByteArrayInputStream(xquery),
+				new ByteArrayInputStream(searchQuery));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param xmlService
+	 *            XML service
+	 * @return the first search query of the sample query context, marshalled
+	 * @throws JAXBException
+	 *             if (un)marshalling fails
+	 */
+	private static String newSearchQueryXml(final XmlService xmlService)
+			throws JAXBException
+	{
+		final QueryContextToImpl queryContext = xmlService.unmarshal(
+				IoUtil.getResourceAsString(XmlServiceBenchmark.QUERY_CONTEXT_XML),
+				QueryContextToImpl.class);
+		return xmlService.marshal(SearchQueryTo.newCopy(queryContext
+				.getQueries()
+				.get(0)));
+	}
+}
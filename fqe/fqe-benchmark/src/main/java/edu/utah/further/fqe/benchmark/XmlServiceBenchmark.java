@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.utah.further.core.api.xml.XmlService;
+import edu.utah.further.core.query.domain.SearchQueryTo;
+import edu.utah.further.core.util.io.IoUtil;
+import edu.utah.further.core.xml.jaxb.JaxbConfig;
+import edu.utah.further.core.xml.jaxb.XmlServiceImpl;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+
+/**
+ * Benchmarks {@link XmlServiceImpl} marshalling and unmarshalling of the two transfer
+ * objects that cross the wire for every query: {@link QueryContextToImpl} (FQE to data
+ * sources) and {@link SearchQueryTo} (query translation input).
+ * <p>
+ * The service is called exactly as production code calls it, i.e. with a fresh
+ * marshaller options object per call, so that the cost of resolving the JAXB context is
+ * part of the measurement.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class XmlServiceBenchmark
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Sample query context with two search queries.
+	 */
+	static final String QUERY_CONTEXT_XML = "query-context-benchmark.xml";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Service under test.
+	 */
+	private XmlService xmlService;
+
+	/**
+	 * Marshalled query context.
+	 */
+	private String queryContextXml;
+
+	/**
+	 * Unmarshalled query context.
+	 */
+	private QueryContextToImpl queryContext;
+
+	/**
+	 * Marshalled search query.
+	 */
+	private String searchQueryXml;
+
+	/**
+	 * Unmarshalled search query.
+	 */
+	private SearchQueryTo searchQuery;
+
+	// ========================= SETUP METHODS =============================
+
+	@Setup
+	public void setup() throws JAXBException
+	{
+		final XmlServiceImpl service = new XmlServiceImpl();
+		service.setDefaultJaxbConfig(JaxbConfig.FURTHER.getJaxbConfig());
+		xmlService = service;
+
+		queryContextXml = IoUtil.getResourceAsString(QUERY_CONTEXT_XML);
+		queryContext = xmlService.unmarshal(queryContextXml, QueryContextToImpl.class);
+		searchQuery = SearchQueryTo.newCopy(queryContext.getQueries().get(0));
+		searchQueryXml = xmlService.marshal(searchQuery);
+	}
+
+	// ========================= BENCHMARK METHODS =========================
+
+	@Benchmark
+	public String marshalQueryContext() throws JAXBException
+	{
+		return xmlService.marshal(queryContext);
+	}
+
+	@Benchmark
+	public QueryContextToImpl unmarshalQueryContext() throws JAXBException
+	{
+		return xmlService.unmarshal(queryContextXml, QueryContextToImpl.class);
+	}
+
+	@Benchmark
+	public String marshalSearchQuery() throws JAXBException
+	{
+		return xmlService.marshal(searchQuery);
+	}
+
+	@Benchmark
+	public SearchQueryTo unmarshalSearchQuery() throws JAXBException
+	{
+		return xmlService.unmarshal(searchQueryXml, SearchQueryTo.class);
+	}
+}
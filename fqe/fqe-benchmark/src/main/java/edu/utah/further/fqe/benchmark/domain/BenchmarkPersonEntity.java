@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import edu.utah.further.core.api.data.PersistentEntity;
+
+/**
+ * A flat person row used to populate the in-memory database of the paging benchmarks.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Entity
+@Table(name = "BENCHMARK_PERSON")
+public class BenchmarkPersonEntity implements PersistentEntity<Long>
+{
+	// ========================= CONSTANTS =================================
+
+	private static final long serialVersionUID = 1L;
+
+	// ========================= FIELDS ====================================
+
+	@Id
+	@Column(name = "person_id")
+	private Long id;
+
+	@Column(name = "age", nullable = true)
+	private Integer age;
+
+	@Column(name = "gender_cd", nullable = true, length = 1)
+	private String genderCd;
+
+	// ========================= IMPLEMENTATION: Object ====================
+
+	@Override
+	public final boolean equals(final Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (obj == null)
+		{
+			return false;
+		}
+		if (getClass() != obj.getClass())
+		{
+			return false;
+		}
+		final BenchmarkPersonEntity that = (BenchmarkPersonEntity) obj;
+		return new EqualsBuilder().append(this.id, that.id).isEquals();
+	}
+
+	@Override
+	public final int hashCode()
+	{
+		return new HashCodeBuilder().append(id).toHashCode();
+	}
+
+	// ========================= IMPLEMENTATION: PersistentEntity ==========
+
+	@Override
+	public Long getId()
+	{
+		return id;
+	}
+
+	// ========================= GET & SET =================================
+
+	public void setId(final Long id)
+	{
+		this.id = id;
+	}
+
+	public Integer getAge()
+	{
+		return age;
+	}
+
+	public void setAge(final Integer age)
+	{
+		this.age = age;
+	}
+
+	public String getGenderCd()
+	{
+		return genderCd;
+	}
+
+	public void setGenderCd(final String genderCd)
+	{
+		this.genderCd = genderCd;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.benchmark;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.utah.further.fqe.benchmark.BaselineReport.Score;
+import edu.utah.further.fqe.benchmark.BaselineReport.Status;
+
+/**
+ * Unit test for {@link BaselineReport}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestBaselineReport
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String UNIT = "us/op";
+
+	// ========================= FIELDS ====================================
+
+	private Map<String, Score> baseline;
+
+	private Map<String, Score> current;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup()
+	{
+		baseline = new TreeMap<>();
+		current = new TreeMap<>();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * Time scores are better when lower.
+	 */
+	@Test
+	public void averageTime()
+	{
+		baseline.put("slower", new Score(100.0, 1.0, UNIT, false));
+		current.put("slower", new Score(120.0, 1.0, UNIT, false));
+		baseline.put("faster", new Score(100.0, 1.0, UNIT, false));
+		current.put("faster", new Score(80.0, 1.0, UNIT, false));
+		baseline.put("same", new Score(100.0, 1.0, UNIT, false));
+		current.put("same", new Score(105.0, 1.0, UNIT, false));
+
+		final BaselineReport report = new BaselineReport(baseline, current, 0.1);
+		assertThat(report.getStatus("slower"), is(Status.REGRESSION));
+		assertThat(report.getStatus("faster"), is(Status.IMPROVED));
+		assertThat(report.getStatus("same"), is(Status.OK));
+		assertThat(report.getRegressions(), is(asList("slower")));
+	}
+
+	/**
+	 * Throughput scores are better when higher.
+	 */
+	@Test
+	public void throughput()
+	{
+		baseline.put("slower", new Score(100.0, 1.0, "ops/s", true));
+		current.put("slower", new Score(80.0, 1.0, "ops/s", true));
+
+		final BaselineReport report = new BaselineReport(baseline, current, 0.1);
+		assertThat(report.getStatus("slower"), is(Status.REGRESSION));
+	}
+
+	/**
+	 * A change within the measurement error is not significant.
+	 */
+	@Test
+	public void noisyScore()
+	{
+		baseline.put("noisy", new Score(100.0, 15.0, UNIT, false));
+		current.put("noisy", new Score(125.0, 15.0, UNIT, false));
+
+		final BaselineReport report = new BaselineReport(baseline, current, 0.1);
+		assertThat(report.getStatus("noisy"), is(Status.OK));
+	}
+
+	/**
+	 * New and incomparable benchmarks are never regressions.
+	 */
+	@Test
+	public void newAndIncomparable()
+	{
+		current.put("new", new Score(100.0, 1.0, UNIT, false));
+		baseline.put("unit", new Score(100.0, 1.0, "ms/op", false));
+		current.put("unit", new Score(1000.0, 1.0, UNIT, false));
+
+		final BaselineReport report = new BaselineReport(baseline, current, 0.1);
+		assertThat(report.getStatus("new"), is(Status.NEW));
+		assertThat(report.getStatus("unit"), is(Status.INCOMPARABLE));
+		assertThat(report.getRegressions().isEmpty(), is(true));
+	}
+
+	/**
+	 * A saved baseline loads back with the same scores.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void saveAndLoad() throws IOException
+	{
+		current.put("ChainBenchmark.dispatch:chainLength=10", new Score(12.5, 0.25,
+				UNIT, false));
+		final File file = File.createTempFile("baseline", ".properties");
+		try
+		{
+			BaselineReport.save(current, file);
+			final Map<String, Score> loaded = BaselineReport.load(file);
+			assertThat(loaded.keySet(), is(current.keySet()));
+			final Score score = loaded.get("ChainBenchmark.dispatch:chainLength=10");
+			assertThat(Double.valueOf(score.getScore()), is(Double.valueOf(12.5)));
+			assertThat(Double.valueOf(score.getError()), is(Double.valueOf(0.25)));
+			assertThat(score.getUnit(), is(UNIT));
+			assertThat(Boolean.valueOf(score.isHigherIsBetter()), is(Boolean.FALSE));
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
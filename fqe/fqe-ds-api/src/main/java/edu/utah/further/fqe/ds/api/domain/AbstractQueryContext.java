@@ -188,6 +188,7 @@ public abstract class AbstractQueryContext implements QueryContext
 		setExecutionId(other.getExecutionId());
 		setDataSourceId(other.getDataSourceId());
 		setIdentityResolutionType(other.getIdentityResolutionType());
+		setBypassResultCache(other.isBypassResultCache());
 		setTargetNamespaceId(other.getTargetNamespaceId());
 		setQueryType(other.getQueryType());
 		setMinRespondingDataSources(other.getMinRespondingDataSources());
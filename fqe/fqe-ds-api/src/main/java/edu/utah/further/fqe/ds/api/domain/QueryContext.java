@@ -159,6 +159,22 @@ public interface QueryContext extends PersistentEntity<Long>,
 	 */
 	public void setIdentityResolutionType(IdentityResolutionType identityResolutionType);
 
+	/**
+	 * Return whether data sources should bypass their result caches and always execute
+	 * this query.
+	 *
+	 * @return the bypassResultCache flag
+	 */
+	boolean isBypassResultCache();
+
+	/**
+	 * Set whether data sources should bypass their result caches and always execute
+	 * this query.
+	 *
+	 * @param bypassResultCache the bypassResultCache flag to set
+	 */
+	void setBypassResultCache(boolean bypassResultCache);
+
 
 	/**
 	 * Returns the SearchQuery
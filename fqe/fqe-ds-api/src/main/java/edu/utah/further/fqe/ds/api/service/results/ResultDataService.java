@@ -74,4 +74,25 @@ public interface ResultDataService
 	 * @return
 	 */
 	<T> T getQueryResultsInList(final String hql, final String parameterName, final List<Object> orderedParameterValues);
+
+	/**
+	 * Delete the results of queries with set-based statements, without loading them.
+	 * 
+	 * @param queryIds
+	 *            the query identifiers whose results are deleted
+	 * @return the number of deleted result rows
+	 */
+	int deleteQueryResults(final List<String> queryIds);
+
+	/**
+	 * Copy the results of a query under another query identifier, e.g. to serve a cached
+	 * query result to a new query without re-executing it.
+	 * 
+	 * @param fromQueryId
+	 *            the query identifier whose results are copied
+	 * @param toQueryId
+	 *            the query identifier of the copies
+	 * @return the number of copied result rows
+	 */
+	int copyQueryResults(final String fromQueryId, final String toQueryId);
 }
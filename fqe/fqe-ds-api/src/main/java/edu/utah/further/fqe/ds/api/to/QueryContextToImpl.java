@@ -81,7 +81,7 @@ import edu.utah.further.fqe.ds.api.util.FqeDsApiResourceLocator;
 @XmlRootElement(namespace = XmlNamespace.FQE, name = QueryContextToImpl.ENTITY_NAME)
 @XmlType(name = "", propOrder =
 { "id", "originId", "executionId", "userId", "dataSourceId", "queryType",
-		"identityResolutionType", "state", "queueDate", "staleDateTime", "isStale",
+		"identityResolutionType", "bypassResultCache", "state", "queueDate", "staleDateTime", "isStale",
 		"minRespondingDataSources", "maxRespondingDataSources", "startDate", "endDate",
 		"parentId", "associatedResultId", "targetNamespaceId", "queries", "children",
 		"resultContext", "currentStatus", "statuses", "resultViews", "plan" })
@@ -159,6 +159,13 @@ public final class QueryContextToImpl extends AbstractQueryContext implements
 	@XmlElement(name = "identityResolutionType", required = false, namespace = XmlNamespace.FQE)
 	private IdentityResolutionType identityResolutionType;
 
+	/**
+	 * If <code>true</code>, data sources always execute this query instead of answering
+	 * it from their result caches.
+	 */
+	@XmlElement(name = "bypassResultCache", required = false, namespace = XmlNamespace.FQE)
+	private boolean bypassResultCache;
+
 	/**
 	 * Link to this asset's namespace entity's ID. TOs do not support deep copy of an
 	 * Asset entity because it is expensive, and the entity tree may have cycles.
@@ -753,6 +760,29 @@ public final class QueryContextToImpl extends AbstractQueryContext implements
 		this.identityResolutionType = identityResolutionType;
 	}
 
+	/**
+	 * Return the bypassResultCache property.
+	 * 
+	 * @return the bypassResultCache flag
+	 */
+	@Override
+	public boolean isBypassResultCache()
+	{
+		return bypassResultCache;
+	}
+
+	/**
+	 * Set a new value for the bypassResultCache property.
+	 * 
+	 * @param bypassResultCache
+	 *            the bypassResultCache flag to set
+	 */
+	@Override
+	public void setBypassResultCache(final boolean bypassResultCache)
+	{
+		this.bypassResultCache = bypassResultCache;
+	}
+
 	/**
 	 * Return the parent context's ID property. Doesn't have a public setter because it is
 	 * managed by {@link #setParent(QueryContext)}.
@@ -15,12 +15,36 @@
  */
 package edu.utah.further.fqe.ds.model.further.service.results;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.hibernate.EntityMode;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jdbc.Work;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.metadata.CollectionMetadata;
+import org.hibernate.type.CompositeType;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.ds.further.model.impl.domain.Person;
@@ -43,6 +67,17 @@ import edu.utah.further.fqe.ds.api.service.results.ResultDataService;
 @Service("resultDataService")
 public class ResultDataServiceImpl implements ResultDataService
 {
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ResultDataServiceImpl.class);
+
+	/**
+	 * Name of the composite identifier property that holds the query identifier of a
+	 * result row.
+	 */
+	private static final String DATASET_ID = "datasetId";
+
 	/**
 	 * Data sessionfactory
 	 */
@@ -113,4 +148,265 @@ public class ResultDataServiceImpl implements ResultDataService
 		return null;
 	}
 
+	/**
+	 * Deletes the rows of every result entity whose composite identifier has a dataset
+	 * identifier, using one bulk HQL statement per entity. Entities are deleted before the
+	 * entities that own collections of them so that foreign keys are never violated.
+	 * 
+	 * @see edu.utah.further.fqe.ds.api.service.results.ResultDataService#deleteQueryResults(java.util.List)
+	 */
+	@Override
+	@Transactional
+	public int deleteQueryResults(final List<String> queryIds)
+	{
+		if (queryIds.isEmpty())
+		{
+			return 0;
+		}
+		final Session session = sessionFactory.getCurrentSession();
+		int count = 0;
+		for (final String entityName : getDeletionOrder())
+		{
+			final Type datasetIdType = getDatasetIdType(entityName);
+			if (datasetIdType == null)
+			{
+				continue;
+			}
+			final List<?> values = toDatasetIds(queryIds, datasetIdType.getReturnedClass());
+			if (!values.isEmpty())
+			{
+				count += session
+						.createQuery(
+								"delete from " + entityName + " where "
+										+ sessionFactory
+												.getClassMetadata(entityName)
+												.getIdentifierPropertyName() + "."
+										+ DATASET_ID + " in (:queryIds)")
+						.setParameterList("queryIds", values)
+						.executeUpdate();
+			}
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Deleted " + count + " result rows of " + queryIds.size()
+					+ " queries");
+		}
+		return count;
+	}
+
+	/**
+	 * Copies the rows of every result entity whose composite identifier has a dataset
+	 * identifier through a stateless session that shares the current transaction's
+	 * connection. Rows are streamed, and owners are inserted before the entities they own
+	 * collections of. Collections are mapped by read-only join columns, so the copies are
+	 * associated with each other as the original rows are.
+	 * 
+	 * @see edu.utah.further.fqe.ds.api.service.results.ResultDataService#copyQueryResults(java.lang.String,
+	 *      java.lang.String)
+	 */
+	@Override
+	@Transactional
+	public int copyQueryResults(final String fromQueryId, final String toQueryId)
+	{
+		final List<String> insertionOrder = getDeletionOrder();
+		Collections.reverse(insertionOrder);
+		final int[] count = new int[1];
+		sessionFactory.getCurrentSession().doWork(new Work()
+		{
+			@Override
+			public void execute(final Connection connection)
+			{
+				final StatelessSession session = sessionFactory
+						.openStatelessSession(connection);
+				try
+				{
+					for (final String entityName : insertionOrder)
+					{
+						count[0] += copyEntities(session, entityName, fromQueryId,
+								toQueryId);
+					}
+				}
+				finally
+				{
+					session.close();
+				}
+			}
+		});
+		if (log.isDebugEnabled())
+		{
+			log.debug("Copied " + count[0] + " result rows of query " + fromQueryId
+					+ " to query " + toQueryId);
+		}
+		return count[0];
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Copy the rows of one entity from one dataset to another.
+	 * 
+	 * @param session
+	 *            stateless session to copy with
+	 * @param entityName
+	 *            entity name
+	 * @param fromQueryId
+	 *            source dataset's query identifier
+	 * @param toQueryId
+	 *            target dataset's query identifier
+	 * @return the number of copied rows
+	 */
+	private int copyEntities(final StatelessSession session, final String entityName,
+			final String fromQueryId, final String toQueryId)
+	{
+		final Type datasetIdType = getDatasetIdType(entityName);
+		if (datasetIdType == null)
+		{
+			return 0;
+		}
+		final List<?> from = toDatasetIds(Collections.singletonList(fromQueryId),
+				datasetIdType.getReturnedClass());
+		final List<?> to = toDatasetIds(Collections.singletonList(toQueryId),
+				datasetIdType.getReturnedClass());
+		if (from.isEmpty() || to.isEmpty())
+		{
+			return 0;
+		}
+
+		final ClassMetadata metadata = sessionFactory.getClassMetadata(entityName);
+		final CompositeType idType = (CompositeType) metadata.getIdentifierType();
+		final int datasetIdIndex = Arrays.asList(idType.getPropertyNames()).indexOf(
+				DATASET_ID);
+		final ScrollableResults rows = session.createQuery(
+				"from " + entityName + " where "
+						+ metadata.getIdentifierPropertyName() + "." + DATASET_ID
+						+ " = :queryId").setParameter("queryId", from.get(0)).scroll(
+				ScrollMode.FORWARD_ONLY);
+		int count = 0;
+		try
+		{
+			while (rows.next())
+			{
+				final Object entity = rows.get(0);
+				final Object id = metadata.getIdentifier(entity, EntityMode.POJO);
+				final Object[] idValues = idType.getPropertyValues(id, EntityMode.POJO);
+				idValues[datasetIdIndex] = to.get(0);
+				idType.setPropertyValues(id, idValues, EntityMode.POJO);
+				session.insert(entityName, entity);
+				count++;
+			}
+		}
+		finally
+		{
+			rows.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Order the mapped entities so that each entity comes before the entities that own a
+	 * collection of it.
+	 * 
+	 * @return entity names in deletion order
+	 */
+	@SuppressWarnings("unchecked")
+	private List<String> getDeletionOrder()
+	{
+		final Map<String, Set<String>> children = new HashMap<>();
+		for (final String entityName : ((Map<String, ?>) sessionFactory
+				.getAllClassMetadata()).keySet())
+		{
+			children.put(entityName, new HashSet<String>());
+		}
+		for (final Map.Entry<String, CollectionMetadata> entry : ((Map<String, CollectionMetadata>) sessionFactory
+				.getAllCollectionMetadata()).entrySet())
+		{
+			final Type elementType = entry.getValue().getElementType();
+			final String role = entry.getKey();
+			final Set<String> ownerChildren = children.get(role.substring(0,
+					role.lastIndexOf('.')));
+			if (elementType.isEntityType() && (ownerChildren != null))
+			{
+				ownerChildren.add(((EntityType) elementType).getAssociatedEntityName());
+			}
+		}
+
+		final List<String> order = new ArrayList<>();
+		while (!children.isEmpty())
+		{
+			final List<String> leaves = new ArrayList<>();
+			for (final Map.Entry<String, Set<String>> entry : children.entrySet())
+			{
+				entry.getValue().retainAll(children.keySet());
+				entry.getValue().remove(entry.getKey());
+				if (entry.getValue().isEmpty())
+				{
+					leaves.add(entry.getKey());
+				}
+			}
+			// Break a cycle, if any, by deleting the remaining entities in any order
+			final Collection<String> next = leaves.isEmpty() ? new ArrayList<String>(children
+					.keySet()) : leaves;
+			order.addAll(next);
+			children.keySet().removeAll(next);
+		}
+		return order;
+	}
+
+	/**
+	 * @param entityName
+	 *            entity name
+	 * @return type of the dataset identifier of the entity's composite identifier, or
+	 *         <code>null</code>, if it has none
+	 */
+	private Type getDatasetIdType(final String entityName)
+	{
+		final Type idType = sessionFactory.getClassMetadata(entityName).getIdentifierType();
+		if (!idType.isComponentType())
+		{
+			return null;
+		}
+		final CompositeType compositeType = (CompositeType) idType;
+		final String[] propertyNames = compositeType.getPropertyNames();
+		for (int i = 0; i < propertyNames.length; i++)
+		{
+			if (DATASET_ID.equals(propertyNames[i]))
+			{
+				return compositeType.getSubtypes()[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Convert query identifiers to dataset identifier values. Numeric dataset identifiers
+	 * can only match numeric query identifiers.
+	 * 
+	 * @param queryIds
+	 *            query identifiers
+	 * @param datasetIdClass
+	 *            dataset identifier type
+	 * @return dataset identifier values
+	 */
+	private static List<?> toDatasetIds(final List<String> queryIds,
+			final Class<?> datasetIdClass)
+	{
+		if (!Long.class.equals(datasetIdClass))
+		{
+			return queryIds;
+		}
+		final List<Long> values = new ArrayList<>();
+		for (final String queryId : queryIds)
+		{
+			try
+			{
+				values.add(Long.valueOf(queryId));
+			}
+			catch (final NumberFormatException e)
+			{
+				// Cannot be the dataset ID of this entity
+			}
+		}
+		return values;
+	}
+
 }
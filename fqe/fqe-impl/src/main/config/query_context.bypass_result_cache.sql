@@ -0,0 +1,21 @@
+--
+-- Copyright (C) [2013] [The FURTHeR Project]
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Adds the result cache bypass flag of QueryContextEntity. Run before deploying a
+-- release that maps the column: hibernate.hbm2ddl.auto=validate fails on a missing
+-- column. Existing queries did not bypass the cache.
+
+ALTER TABLE query_context ADD (bypass_result_cache NUMBER(1,0) DEFAULT 0 NOT NULL);
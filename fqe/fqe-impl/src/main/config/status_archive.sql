@@ -0,0 +1,35 @@
+--
+-- Copyright (C) [2013] [The FURTHeR Project]
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Creates the status archive of StatusArchiveEntity, to which the query context service
+-- moves statuses compacted out of a query context's status history. Run before deploying
+-- a release that maps the table: hibernate.hbm2ddl.auto=validate fails on a missing
+-- table. Identifiers are generated from hibernate_sequence, like those of
+-- status_meta_data. querycontext is the query context the status was reported for; owner
+-- is its federated parent, or the query context itself if it has no parent.
+
+CREATE TABLE status_archive (
+  id NUMBER(19,0) NOT NULL,
+  querycontext NUMBER(19,0) NOT NULL,
+  owner NUMBER(19,0) NOT NULL,
+  datasourceid VARCHAR2(255 CHAR),
+  status VARCHAR2(255 CHAR),
+  status_date TIMESTAMP,
+  duration NUMBER(19,0) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE INDEX status_archive_querycontext ON status_archive (querycontext);
@@ -15,9 +15,16 @@
  */
 package edu.utah.further.fqe.impl.data;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
+import edu.utah.further.fqe.impl.domain.StatusArchiveEntity;
 
 /**
  * Provides custom CRUD operations on {@link QueryContext}s.
@@ -61,4 +68,94 @@ public interface QueryContextDao
 	 * @return FQE query, or <code>null</code>, if not found
 	 */
 	QueryContext findQueryContextWithOriginId(Long originId);
-}
\ No newline at end of file
+
+	/**
+	 * Find the summary of a query context in a single-row projection.
+	 *
+	 * @param id
+	 *            query context ID
+	 * @return query context summary, or <code>null</code>, if not found
+	 */
+	QueryContextSummary findSummaryById(Long id);
+
+	/**
+	 * Find the summaries of the children of a query context in a single-row-per-child
+	 * projection.
+	 *
+	 * @param parentId
+	 *            parent query context ID
+	 * @return child summaries
+	 */
+	List<QueryContextSummary> findChildSummaries(Long parentId);
+
+	/**
+	 * Count the children of a query context in each state.
+	 *
+	 * @param parentId
+	 *            parent query context ID
+	 * @return number of children per state
+	 */
+	Map<QueryState, Long> countChildrenByState(Long parentId);
+
+	/**
+	 * Find the current status of a query context without loading the query context.
+	 *
+	 * @param id
+	 *            query context ID
+	 * @return current status, or <code>null</code>, if not found
+	 */
+	StatusMetaData findCurrentStatusById(Long id);
+
+	/**
+	 * Find the statuses that were compacted out of the status history of a query context
+	 * and moved to the status archive.
+	 *
+	 * @param id
+	 *            query context ID
+	 * @return archived statuses, in the order they were reported
+	 */
+	List<StatusArchiveEntity> findArchivedStatuses(Long id);
+
+	/**
+	 * Delete the archived statuses of a query context.
+	 *
+	 * @param id
+	 *            query context ID
+	 * @return number of deleted archived statuses
+	 */
+	int deleteArchivedStatuses(Long id);
+
+	/**
+	 * Find the oldest federated queries of a type that were queued before a date and are
+	 * no longer running.
+	 *
+	 * @param queryType
+	 *            query type
+	 * @param date
+	 *            queue date upper bound (exclusive)
+	 * @param maxResults
+	 *            maximum number of IDs to return
+	 * @return federated query context IDs, oldest first
+	 */
+	List<Long> findExpiredQueryIds(QueryType queryType, Date date, int maxResults);
+
+	/**
+	 * Find the execution IDs of federated queries and all of their children. Result sets
+	 * and identifier maps are keyed by these IDs.
+	 *
+	 * @param ids
+	 *            federated query context IDs
+	 * @return execution IDs of the queries and their children
+	 */
+	List<String> findExecutionIds(List<Long> ids);
+
+	/**
+	 * Delete federated queries, their children and all of their dependent rows with
+	 * set-based statements, without loading any entity.
+	 *
+	 * @param ids
+	 *            federated query context IDs
+	 * @return number of deleted query contexts
+	 */
+	int deleteQueries(List<Long> ids);
+}
@@ -17,19 +17,35 @@ package edu.utah.further.fqe.impl.data;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
 import org.springframework.stereotype.Repository;
 
+import edu.utah.further.core.api.collections.CollectionUtil;
 import edu.utah.further.core.api.context.Implementation;
 import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.core.data.util.HibernateUtil;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
+import edu.utah.further.fqe.impl.domain.ResultContextEntity;
+import edu.utah.further.fqe.impl.domain.SearchQueryEntity;
+import edu.utah.further.fqe.impl.domain.StatusArchiveEntity;
+import edu.utah.further.fqe.impl.domain.StatusMetaDataEntity;
 
 /**
  * A custom Hibernate DAO implementation for {@link QueryContext} CRUD operations.
@@ -57,6 +73,22 @@ public class QueryContextDaoHibernateImpl extends HibernateDaoSupport implements
 	 */
 	private static final Logger log = getLogger(QueryContextDaoHibernateImpl.class);
 
+	/**
+	 * States of queries that are still running and must not be deleted.
+	 */
+	private static final List<QueryState> RUNNING_STATES = Arrays.asList(
+			QueryState.QUEUED, QueryState.EXECUTING);
+
+	/**
+	 * Summary projection. Joins only the one-row associations that hold the record count
+	 * and current status; the parent ID is read from the foreign key.
+	 */
+	private static final String SUMMARY_SELECT = "select new "
+			+ QueryContextSummary.class.getName()
+			+ "(qc.id, qc.parent.id, qc.executionId, qc.dataSourceId, qc.state, "
+			+ "qc.isStale, qc.staleDateTime, rc.numRecords, cs.status) from %s qc "
+			+ "left join qc.resultContext rc left join qc.currentStatus cs where ";
+
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
@@ -145,5 +177,308 @@ public class QueryContextDaoHibernateImpl extends HibernateDaoSupport implements
 		return queryContexts.isEmpty() ? null : queryContexts.get(0);
 	}
 
+	/**
+	 * @param id
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findSummaryById(java.lang.Long)
+	 */
+	@Override
+	public QueryContextSummary findSummaryById(final Long id)
+	{
+		final List<QueryContextSummary> summaries = find(
+				String.format(SUMMARY_SELECT, getEntityName()) + "qc.id = ?", id);
+		return summaries.isEmpty() ? null : summaries.get(0);
+	}
+
+	/**
+	 * @param parentId
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findChildSummaries(java.lang.Long)
+	 */
+	@Override
+	public List<QueryContextSummary> findChildSummaries(final Long parentId)
+	{
+		return find(String.format(SUMMARY_SELECT, getEntityName())
+				+ "qc.parent.id = ? order by qc.id", parentId);
+	}
+
+	/**
+	 * @param parentId
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#countChildrenByState(java.lang.Long)
+	 */
+	@Override
+	public Map<QueryState, Long> countChildrenByState(final Long parentId)
+	{
+		final List<Object[]> rows = find("select qc.state, count(qc.id) from "
+				+ getEntityName() + " qc where qc.parent.id = ? group by qc.state",
+				parentId);
+		final Map<QueryState, Long> counts = new EnumMap<>(QueryState.class);
+		for (final Object[] row : rows)
+		{
+			counts.put((QueryState) row[0], Long.valueOf(((Number) row[1]).longValue()));
+		}
+		return counts;
+	}
+
+	/**
+	 * @param id
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findCurrentStatusById(java.lang.Long)
+	 */
+	@Override
+	public StatusMetaData findCurrentStatusById(final Long id)
+	{
+		final List<StatusMetaData> statuses = find("select qc.currentStatus from "
+				+ getEntityName() + " qc where qc.id = ?", id);
+		return statuses.isEmpty() ? null : statuses.get(0);
+	}
+
+	/**
+	 * @param id
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findArchivedStatuses(java.lang.Long)
+	 */
+	@Override
+	public List<StatusArchiveEntity> findArchivedStatuses(final Long id)
+	{
+		return find("from " + StatusArchiveEntity.class.getName() + " s where s."
+				+ StatusArchiveEntity.PROPERTY_QUERY_CONTEXT_ID
+				+ " = ? order by s.id", id);
+	}
+
+	/**
+	 * @param id
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#deleteArchivedStatuses(java.lang.Long)
+	 */
+	@Override
+	public int deleteArchivedStatuses(final Long id)
+	{
+		return getHibernateTemplate().bulkUpdate(
+				"delete from " + StatusArchiveEntity.class.getName() + " where "
+						+ StatusArchiveEntity.PROPERTY_QUERY_CONTEXT_ID + " = ?", id);
+	}
+
+	/**
+	 * @param queryType
+	 * @param date
+	 * @param maxResults
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findExpiredQueryIds(edu.utah.further.fqe.ds.api.domain.QueryType,
+	 *      java.util.Date, int)
+	 */
+	@Override
+	public List<Long> findExpiredQueryIds(final QueryType queryType, final Date date,
+			final int maxResults)
+	{
+		final String hql = "select qc.id from " + getEntityName()
+				+ " qc where qc.parent is null and qc.queryType = :queryType"
+				+ " and coalesce(qc.queueDate, qc.staleDateTime) < :date"
+				+ " and qc.state not in (:running) order by qc.id";
+		return getHibernateTemplate().execute(new HibernateCallback<List<Long>>()
+		{
+			@Override
+			@SuppressWarnings("unchecked")
+			public List<Long> doInHibernate(final Session session)
+			{
+				return session
+						.createQuery(hql)
+						.setParameter("queryType", queryType)
+						.setParameter("date", date)
+						.setParameterList("running", RUNNING_STATES)
+						.setMaxResults(maxResults)
+						.list();
+			}
+		});
+	}
+
+	/**
+	 * @param ids
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#findExecutionIds(java.util.List)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<String> findExecutionIds(final List<Long> ids)
+	{
+		if (ids.isEmpty())
+		{
+			return CollectionUtil.newList();
+		}
+		return getHibernateTemplate().findByNamedParam(
+				"select qc.executionId from " + getEntityName()
+						+ " qc where qc.executionId is not null"
+						+ " and (qc.id in (:ids) or qc.parent.id in (:ids))", "ids", ids);
+	}
+
+	/**
+	 * Deletes dependent rows first: result views, statuses, archived statuses and search
+	 * queries, then the query contexts (children before parents), and finally their
+	 * result contexts. References between query contexts are cleared beforehand so that
+	 * the deletion order does not depend on foreign keys; this includes the associated
+	 * result references of retained queries to deleted queries, which would otherwise
+	 * fail the deletion.
+	 *
+	 * @param ids
+	 * @return
+	 * @see edu.utah.further.fqe.impl.data.QueryContextDao#deleteQueries(java.util.List)
+	 */
+	@Override
+	public int deleteQueries(final List<Long> ids)
+	{
+		if (ids.isEmpty())
+		{
+			return 0;
+		}
+		final String entityName = getEntityName();
+		final int count = getHibernateTemplate().execute(new HibernateCallback<Integer>()
+		{
+			@Override
+			@SuppressWarnings("unchecked")
+			public Integer doInHibernate(final Session session)
+			{
+				final List<Long> contextIds = session
+						.createQuery(
+								"select qc.id from " + entityName
+										+ " qc where qc.id in (:ids) or qc.parent.id in (:ids)")
+						.setParameterList("ids", ids)
+						.list();
+				final List<Long> resultContextIds = CollectionUtil.newList();
+				resultContextIds.addAll(session
+						.createQuery(
+								"select qc.resultContext.id from " + entityName
+										+ " qc where qc.id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.list());
+				for (final Object id : session
+						.createSQLQuery(
+								"select value_id from result_views where query_context_id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.list())
+				{
+					resultContextIds.add(Long.valueOf(((Number) id).longValue()));
+				}
+				resultContextIds.removeAll(Collections.singleton(null));
+
+				session
+						.createQuery(
+								"update "
+										+ entityName
+										+ " set currentStatus = null, associatedResult = null,"
+										+ " resultContext = null where id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.executeUpdate();
+				session
+						.createQuery(
+								"update " + entityName
+										+ " set associatedResult = null"
+										+ " where associatedResult.id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.executeUpdate();
+				session
+						.createSQLQuery(
+								"delete from result_views where query_context_id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.executeUpdate();
+				executeDelete(session, StatusMetaDataEntity.class, "queryContext.id",
+						contextIds);
+				executeDelete(session, StatusArchiveEntity.class,
+						StatusArchiveEntity.PROPERTY_QUERY_CONTEXT_ID, contextIds);
+				executeDelete(session, SearchQueryEntity.class, "queryContext.id",
+						contextIds);
+				session
+						.createQuery(
+								"delete from " + entityName
+										+ " where parent is not null and id in (:ids)")
+						.setParameterList("ids", contextIds)
+						.executeUpdate();
+				final int deleted = contextIds.size();
+				executeDelete(session, entityName, "id", ids);
+				if (!resultContextIds.isEmpty())
+				{
+					executeDelete(session, ResultContextEntity.class.getName(), "id",
+							resultContextIds);
+				}
+				return Integer.valueOf(deleted);
+			}
+		}).intValue();
+		if (log.isDebugEnabled())
+		{
+			log.debug("Deleted " + count + " queries of federated queries " + ids);
+		}
+		return count;
+	}
+
 	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Run a bulk HQL delete.
+	 *
+	 * @param session
+	 *            Hibernate session
+	 * @param entityClass
+	 *            entity to delete
+	 * @param propertyName
+	 *            property to match
+	 * @param values
+	 *            property values to delete
+	 * @return number of deleted rows
+	 */
+	private static int executeDelete(final Session session, final Class<?> entityClass,
+			final String propertyName, final List<Long> values)
+	{
+		return executeDelete(session, entityClass.getName(), propertyName, values);
+	}
+
+	/**
+	 * Run a bulk HQL delete.
+	 *
+	 * @param session
+	 *            Hibernate session
+	 * @param entityName
+	 *            HQL name of the entity to delete
+	 * @param propertyName
+	 *            property to match
+	 * @param values
+	 *            property values to delete
+	 * @return number of deleted rows
+	 */
+	private static int executeDelete(final Session session, final String entityName,
+			final String propertyName, final List<Long> values)
+	{
+		return session
+				.createQuery(
+						"delete from " + entityName + " where " + propertyName
+								+ " in (:values)")
+				.setParameterList("values", values)
+				.executeUpdate();
+	}
+
+	/**
+	 * @return HQL entity name of the query context entity
+	 */
+	private String getEntityName()
+	{
+		return dao.getEntityClass(QueryContext.class).getName();
+	}
+
+	/**
+	 * Run an HQL query.
+	 *
+	 * @param hql
+	 *            HQL query string
+	 * @param value
+	 *            query parameter value
+	 * @return query results
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> List<T> find(final String hql, final Object value)
+	{
+		if (log.isTraceEnabled())
+		{
+			log.trace("Query: " + hql + " parameter " + value);
+		}
+		return getHibernateTemplate().find(hql, value);
+	}
 }
@@ -42,11 +42,15 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.OrderBy;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
 import org.apache.commons.lang.Validate;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.slf4j.Logger;
@@ -101,6 +105,16 @@ public class QueryContextEntity extends AbstractQueryContext
 	 */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Number of contexts whose collections are initialized by a single secondary
+	 * select. Collections are fetched by separate selects rather than outer joins so
+	 * that loading a context does not multiply its queries, statuses and result views
+	 * into one cartesian result set. Hot paths that only need scalar fields should use
+	 * the {@link edu.utah.further.fqe.api.service.query.QueryContextSummary}
+	 * projections instead of loading entities.
+	 */
+	private static final int ASSOCIATION_BATCH_SIZE = 16;
+
 	// ========================= FIELDS ====================================
 
 	/**
@@ -156,6 +170,13 @@ public class QueryContextEntity extends AbstractQueryContext
 	@Enumerated(EnumType.STRING)
 	private IdentityResolutionType identityResolutionType;
 
+	/**
+	 * If <code>true</code>, data sources always execute this query instead of answering
+	 * it from their result caches.
+	 */
+	@Column(name = "bypass_result_cache")
+	private boolean bypassResultCache;
+
 	/**
 	 * Link to this asset's namespace entity's ID. TOs do not support deep copy of an
 	 * Asset entity because it is expensive, and the entity tree may have cycles.
@@ -213,6 +234,8 @@ public class QueryContextEntity extends AbstractQueryContext
 	 * The history of status change events of this context.
 	 */
 	@OneToMany(fetch = FetchType.EAGER, targetEntity = SearchQueryEntity.class, mappedBy = "queryContext")
+	@Fetch(FetchMode.SELECT)
+	@BatchSize(size = ASSOCIATION_BATCH_SIZE)
 	@Cascade(
 	{ ALL })
 	@OnDelete(action = OnDeleteAction.CASCADE)
@@ -258,9 +281,13 @@ public class QueryContextEntity extends AbstractQueryContext
 	private StatusMetaDataEntity currentStatus;
 
 	/**
-	 * The history of status change events of this context.
+	 * The recent history of status change events of this context. Bounded by the query
+	 * context service, which moves older progress statuses to {@link StatusArchiveEntity}.
 	 */
 	@OneToMany(fetch = FetchType.EAGER, targetEntity = StatusMetaDataEntity.class, mappedBy = "queryContext")
+	@Fetch(FetchMode.SELECT)
+	@BatchSize(size = ASSOCIATION_BATCH_SIZE)
+	@OrderBy("id")
 	@Cascade(
 	{ ALL })
 	@OnDelete(action = OnDeleteAction.CASCADE)
@@ -272,6 +299,8 @@ public class QueryContextEntity extends AbstractQueryContext
 	 * https://jira.chpc.utah.edu/browse/FUR-1348 .
 	 */
 	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, targetEntity = ResultContextKeyEntity.class)
+	@Fetch(FetchMode.SELECT)
+	@BatchSize(size = ASSOCIATION_BATCH_SIZE)
 	@JoinColumn(name = "query_context_id")
 	private final Set<ResultContextEntry> resultViews = CollectionUtil.newSet();
 
@@ -573,6 +602,28 @@ public class QueryContextEntity extends AbstractQueryContext
 		this.identityResolutionType = identityResolutionType;
 	}
 
+	/**
+	 * Return the bypassResultCache property.
+	 *
+	 * @return the bypassResultCache flag
+	 */
+	@Override
+	public boolean isBypassResultCache()
+	{
+		return bypassResultCache;
+	}
+
+	/**
+	 * Set a new value for the bypassResultCache property.
+	 *
+	 * @param bypassResultCache the bypassResultCache flag to set
+	 */
+	@Override
+	public void setBypassResultCache(final boolean bypassResultCache)
+	{
+		this.bypassResultCache = bypassResultCache;
+	}
+
 	/**
 	 * Return the parent {@link QueryContext} of this object, if this is a child
 	 * {@link QueryContext}. Otherwise returns <code>null</code>.
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.domain;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Index;
+
+import edu.utah.further.core.api.data.PersistentEntity;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
+import edu.utah.further.fqe.ds.api.to.StatusMetaDataToImpl;
+
+/**
+ * An archived query status message. Status messages that are compacted out of a
+ * {@link QueryContextEntity}'s status history are moved to this append-only table, which
+ * is not mapped as an association of the query context and is only read when the full
+ * status history of a query is requested.
+ * <p>
+ * Archived statuses are read-only and are not {@link StatusMetaData}s; they refer to
+ * their query context and to the query that owns it (the federated parent of a child
+ * query, or the query itself) by identifier only. Use {@link #toStatus(QueryContext)} to
+ * obtain a status message view of an archived status.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Entity
+@Table(name = "status_archive")
+public class StatusArchiveEntity implements PersistentEntity<Long>
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * @serial Serializable version identifier.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Query context identifier property name.
+	 */
+	public static final String PROPERTY_QUERY_CONTEXT_ID = "queryContextId";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * This entity's unique identifier.
+	 */
+	@Id
+	@GeneratedValue
+	@Column
+	private Long id;
+
+	/**
+	 * The identifier of the query context this status was reported for.
+	 */
+	@Column(name = "querycontext", nullable = false)
+	@Index(name = "status_archive_querycontext")
+	private Long queryContextId;
+
+	/**
+	 * The identifier of the query context that owns this status: the federated parent of
+	 * {@link #queryContextId} if it is a child query, otherwise {@link #queryContextId}
+	 * itself.
+	 */
+	@Column(name = "owner", nullable = false)
+	private Long ownerId;
+
+	/**
+	 * The unique identifier of the data source that generated this status message.
+	 */
+	@Column(name = "datasourceid")
+	private String dataSourceId;
+
+	/**
+	 * Status message.
+	 */
+	@Column
+	private String status;
+
+	/**
+	 * Status date.
+	 */
+	@Column(name = "status_date")
+	private Date statusDate;
+
+	/**
+	 * Duration of the process reporting this status, in milliseconds.
+	 */
+	@Column(name = "duration")
+	private long duration = 0l;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Required for Hibernate.
+	 */
+	protected StatusArchiveEntity()
+	{
+		super();
+	}
+
+	/**
+	 * Archive a status message. The identifier of the status is not copied.
+	 *
+	 * @param other
+	 *            status to archive
+	 * @param queryContext
+	 *            persistent query context the status was reported for
+	 * @return a new archived status with the fields of <code>other</code>
+	 */
+	public static StatusArchiveEntity newCopy(final StatusMetaData other,
+			final QueryContext queryContext)
+	{
+		final QueryContext parent = queryContext.getParent();
+		final StatusArchiveEntity entity = new StatusArchiveEntity();
+		entity.queryContextId = queryContext.getId();
+		entity.ownerId = (parent == null) ? queryContext.getId() : parent.getId();
+		entity.dataSourceId = other.getDataSourceId();
+		entity.status = other.getStatus();
+		entity.statusDate = other.getStatusDate();
+		entity.duration = other.getDuration();
+		return entity;
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return a status message view of this archived status.
+	 *
+	 * @param queryContext
+	 *            the query context this status was reported for, i.e. whose identifier
+	 *            is {@link #getQueryContextId()}
+	 * @return a detached copy of this archived status, associated with
+	 *         <code>queryContext</code>
+	 */
+	public StatusMetaData toStatus(final QueryContext queryContext)
+	{
+		final StatusMetaData copy = StatusMetaDataToImpl.newInstance(dataSourceId,
+				status, duration);
+		copy.setStatusDate(statusDate);
+		copy.setQueryContext(queryContext);
+		return copy;
+	}
+
+	// ========================= GET METHODS ===============================
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.utah.further.core.api.discrete.HasIdentifier#getId()
+	 */
+	@Override
+	public Long getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Return the queryContextId property.
+	 *
+	 * @return the identifier of the query context this status was reported for
+	 */
+	public Long getQueryContextId()
+	{
+		return queryContextId;
+	}
+
+	/**
+	 * Return the ownerId property.
+	 *
+	 * @return the identifier of the query context that owns this status
+	 */
+	public Long getOwnerId()
+	{
+		return ownerId;
+	}
+
+	/**
+	 * Return the dataSourceId property.
+	 *
+	 * @return the unique identifier of the data source that generated this status
+	 */
+	public String getDataSourceId()
+	{
+		return dataSourceId;
+	}
+
+	/**
+	 * Return the status property.
+	 *
+	 * @return the status message
+	 */
+	public String getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Return the statusDate property.
+	 *
+	 * @return the status date
+	 */
+	public Date getStatusDate()
+	{
+		return statusDate;
+	}
+
+	/**
+	 * Return the duration property.
+	 *
+	 * @return the duration of the process reporting this status, in milliseconds
+	 */
+	public long getDuration()
+	{
+		return duration;
+	}
+}
@@ -75,6 +75,17 @@ public class FqeServiceMockImpl implements FqeService
 		return null;
 	}
 
+	/**
+	 * @param countQuery
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.route.FqeService#promoteQuery(edu.utah.further.fqe.ds.api.domain.QueryContext)
+	 */
+	@Override
+	public QueryContext promoteQuery(final QueryContext countQuery)
+	{
+		return null;
+	}
+
 	/**
 	 * @param queryContext
 	 * @see edu.utah.further.fqe.api.service.route.FqeService#stopQuery(edu.utah.further.fqe.ds.api.domain.QueryContext)
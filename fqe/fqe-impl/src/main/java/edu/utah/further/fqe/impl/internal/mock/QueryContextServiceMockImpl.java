@@ -19,7 +19,9 @@ import static edu.utah.further.core.api.collections.CollectionUtil.newList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
@@ -30,8 +32,10 @@ import edu.utah.further.core.api.context.Mock;
 import edu.utah.further.core.api.lang.ReflectionUtil;
 import edu.utah.further.core.api.time.TimeService;
 import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
 import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
 import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
 import edu.utah.further.fqe.ds.api.to.QueryContextTo;
 import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
@@ -225,6 +229,45 @@ public class QueryContextServiceMockImpl implements QueryContextService
 		return null;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#findSummaryById(java
+	 * .lang.Long)
+	 */
+	@Override
+	public QueryContextSummary findSummaryById(final Long queryContextId)
+	{
+		return QueryContextSummary.newInstance(findById(queryContextId));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#findChildSummaries(java
+	 * .lang.Long)
+	 */
+	@Override
+	public List<QueryContextSummary> findChildSummaries(final Long parentId)
+	{
+		return CollectionUtil.newList();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#countChildrenByState(
+	 * java.lang.Long)
+	 */
+	@Override
+	public Map<QueryState, Long> countChildrenByState(final Long parentId)
+	{
+		return new EnumMap<>(QueryState.class);
+	}
+
 	/**
 	 * @param queryContext
 	 * @return
@@ -315,6 +358,43 @@ public class QueryContextServiceMockImpl implements QueryContextService
 		return null;
 	}
 
+	/**
+	 * @param queryType
+	 * @param date
+	 * @param maxResults
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#findExpiredQueryIds(edu.utah.further.fqe.ds.api.domain.QueryType,
+	 *      java.util.Date, int)
+	 */
+	@Override
+	public List<Long> findExpiredQueryIds(final QueryType queryType, final Date date,
+			final int maxResults)
+	{
+		return newList();
+	}
+
+	/**
+	 * @param queryContextIds
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#findExecutionIds(java.util.List)
+	 */
+	@Override
+	public List<String> findExecutionIds(final List<Long> queryContextIds)
+	{
+		return newList();
+	}
+
+	/**
+	 * @param queryContextIds
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#deleteQueries(java.util.List)
+	 */
+	@Override
+	public int deleteQueries(final List<Long> queryContextIds)
+	{
+		return 0;
+	}
+
 	// ========================= FIELDS ====================================
 
 	// ========================= CONSTRUCTORS ==============================
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.scheduler.jobs;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import edu.utah.further.core.api.time.TimeService;
+import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.service.results.ResultDataService;
+import edu.utah.further.fqe.mpi.api.service.IdentifierService;
+
+/**
+ * Expires old query generations. A generation is a federated query together with its
+ * data source child queries; all of its rows are keyed by the children's execution IDs:
+ * in-memory result rows by their data set ID and virtual ID map rows by their query ID.
+ * Each generation older than the retention period of its query type is dropped as a
+ * whole with set-based deletes, without loading any query context or result entity.
+ * This class is typically ran as a scheduled job at a configured interval.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+// Non-final to allow AOP addition in the future, e.g. performance timers
+public class QueryPurger implements Runnable
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(QueryPurger.class);
+
+	/**
+	 * Milliseconds per day.
+	 */
+	private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+
+	/**
+	 * Default number of federated queries purged per transaction.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 50;
+
+	/**
+	 * Maximum number of execution IDs bound in a single <code>IN</code> list.
+	 */
+	private static final int MAX_IN_LIST_SIZE = 500;
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Provides {@link QueryContext} CRUD operations.
+	 */
+	@Autowired
+	private QueryContextService qcService;
+
+	/**
+	 * Deletes in-memory result rows.
+	 */
+	@Autowired
+	private ResultDataService resultDataService;
+
+	/**
+	 * Deletes virtual ID map rows.
+	 */
+	@Autowired
+	private IdentifierService identifierService;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Retention period [days] per query type. Types with no positive retention period
+	 * are never purged.
+	 */
+	private final Map<QueryType, Integer> retentionDays = new EnumMap<>(
+			QueryType.class);
+
+	/**
+	 * Number of federated queries purged per transaction.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	// ========================= Impl: Runnable ============================
+
+	/**
+	 * Run the purger.
+	 *
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run()
+	{
+		final Date now = TimeService.getDate();
+		for (final Map.Entry<QueryType, Integer> entry : retentionDays.entrySet())
+		{
+			final int days = entry.getValue().intValue();
+			if (days > 0)
+			{
+				final int purged = purge(entry.getKey(), new Date(now.getTime() - days
+						* DAY_MS));
+				if ((purged > 0) && log.isInfoEnabled())
+				{
+					log.info("Purged " + purged + " " + entry.getKey()
+							+ " query contexts older than " + days + " days");
+				}
+			}
+		}
+	}
+
+	// ========================= GET/SET ===================================
+
+	/**
+	 * @param qcService
+	 *            the qcService to set
+	 */
+	public void setQcService(final QueryContextService qcService)
+	{
+		this.qcService = qcService;
+	}
+
+	/**
+	 * @param resultDataService
+	 *            the resultDataService to set
+	 */
+	public void setResultDataService(final ResultDataService resultDataService)
+	{
+		this.resultDataService = resultDataService;
+	}
+
+	/**
+	 * @param identifierService
+	 *            the identifierService to set
+	 */
+	public void setIdentifierService(final IdentifierService identifierService)
+	{
+		this.identifierService = identifierService;
+	}
+
+	/**
+	 * Set the retention periods per query type.
+	 *
+	 * @param retentionDays
+	 *            retention period [days] per query type. A non-positive period disables
+	 *            purging of that type
+	 */
+	public void setRetentionDays(final Map<QueryType, Integer> retentionDays)
+	{
+		this.retentionDays.clear();
+		this.retentionDays.putAll(retentionDays);
+	}
+
+	/**
+	 * @param batchSize
+	 *            the number of federated queries purged per transaction to set
+	 */
+	public void setBatchSize(final int batchSize)
+	{
+		isTrue(batchSize > 0, "Batch size must be positive");
+		this.batchSize = batchSize;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Purge all generations of a query type that were queued before a cut-off date.
+	 *
+	 * @param queryType
+	 *            query type
+	 * @param cutoff
+	 *            cut-off date
+	 * @return number of deleted query contexts
+	 */
+	private int purge(final QueryType queryType, final Date cutoff)
+	{
+		int purged = 0;
+		List<Long> ids;
+		do
+		{
+			ids = qcService.findExpiredQueryIds(queryType, cutoff, batchSize);
+			if (!ids.isEmpty())
+			{
+				final List<String> executionIds = qcService.findExecutionIds(ids);
+				for (int i = 0; i < executionIds.size(); i += MAX_IN_LIST_SIZE)
+				{
+					final List<String> chunk = executionIds.subList(i,
+							Math.min(i + MAX_IN_LIST_SIZE, executionIds.size()));
+					resultDataService.deleteQueryResults(chunk);
+					identifierService.deleteIdentifiers(chunk);
+				}
+				purged += qcService.deleteQueries(ids);
+			}
+		}
+		while (ids.size() == batchSize);
+		return purged;
+	}
+}
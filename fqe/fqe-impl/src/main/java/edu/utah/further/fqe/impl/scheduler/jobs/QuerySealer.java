@@ -19,6 +19,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.camel.ProducerTemplate;
 import org.slf4j.Logger;
@@ -252,16 +253,20 @@ public class QuerySealer implements Runnable
 
 		for (final QueryContext queryContext : executingQueries)
 		{
-			final int children = qcService.findChildren(queryContext).size();
+			// Count children in the database instead of loading them
+			final Map<QueryState, Long> counts = qcService
+					.countChildrenByState(queryContext.getId());
+			long children = 0;
+			for (final Long count : counts.values())
+			{
+				children += count.longValue();
+			}
 			if (children > 0)
 			{
-				final int completed = qcService
-						.findCompletedChildren(queryContext)
-						.size();
-				final int failed = qcService.findFailedChildren(queryContext).size();
+				final long completed = getCount(counts, QueryState.COMPLETED);
+				final long failed = getCount(counts, QueryState.FAILED);
 
-				if ((completed == children) || (failed == children)
-						|| (completed + failed) == children)
+				if ((completed + failed) == children)
 				{
 					finishAndPostProcess(queryContext);
 					dao.update(queryContext);
@@ -350,7 +355,8 @@ public class QuerySealer implements Runnable
 	 */
 	private void updateExecutingQueryState(final QueryContext parent)
 	{
-		final int numRespondingDs = qcService.findCompletedChildren(parent).size();
+		final long numRespondingDs = getCount(
+				qcService.countChildrenByState(parent.getId()), QueryState.COMPLETED);
 		final int minRespondingDs = parent.getMinRespondingDataSources();
 		if (numRespondingDs >= minRespondingDs)
 		{
@@ -387,6 +393,20 @@ public class QuerySealer implements Runnable
 		}
 	}
 
+	/**
+	 * @param counts
+	 *            number of children per state
+	 * @param state
+	 *            query state
+	 * @return number of children in <code>state</code>
+	 */
+	private static long getCount(final Map<QueryState, Long> counts,
+			final QueryState state)
+	{
+		final Long count = counts.get(state);
+		return (count == null) ? 0L : count.longValue();
+	}
+
 	/**
 	 * Return the producerTemplate property.
 	 * 
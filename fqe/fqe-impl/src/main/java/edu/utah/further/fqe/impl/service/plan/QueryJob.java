@@ -372,6 +372,26 @@ public final class QueryJob implements QueryContext
 		delegate.setIdentityResolutionType(identityResolutionType);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see edu.utah.further.fqe.ds.api.domain.QueryContext#isBypassResultCache()
+	 */
+	@Override
+	public boolean isBypassResultCache()
+	{
+		return delegate.isBypassResultCache();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see edu.utah.further.fqe.ds.api.domain.QueryContext#setBypassResultCache(boolean)
+	 */
+	@Override
+	public void setBypassResultCache(final boolean bypassResultCache)
+	{
+		delegate.setBypassResultCache(bypassResultCache);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Object#clone()
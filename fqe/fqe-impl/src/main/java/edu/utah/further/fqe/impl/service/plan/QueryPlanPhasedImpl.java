@@ -85,13 +85,16 @@ final class QueryPlanPhasedImpl extends AbstractQueryPlan
 	 *            runs our query jobs; we get notifications on them
 	 * @param queryContext
 	 *            federated query contexts whose plan this is
+	 * @param maxConcurrentJobs
+	 *            maximum number of plan queries that may run at the same time
 	 */
 	public QueryPlanPhasedImpl(final JobRunnerNotifier<QueryJob> notifier,
-			final QueryContext queryContext)
+			final QueryContext queryContext, final int maxConcurrentJobs)
 	{
 		super(notifier, queryContext);
 		this.graph = buildGraph();
-		this.graphScheduler = new JobSchedulerGraphImpl<>(notifier, this.graph);
+		this.graphScheduler = new JobSchedulerGraphImpl<>(notifier, this.graph,
+				maxConcurrentJobs);
 		if (log.isDebugEnabled())
 		{
 			log.debug("Creating phased plan for " + queryContext);
@@ -179,6 +182,22 @@ final class QueryPlanPhasedImpl extends AbstractQueryPlan
 		}
 	}
 
+	/**
+	 * @param job
+	 * @see edu.utah.further.core.math.schedule.AbstractJobScheduler#onJobFailed(java.lang.Object)
+	 */
+	@Override
+	public void onJobFailed(final QueryJob job)
+	{
+		graphScheduler.onJobFailed(job);
+
+		// Cancelling the failed job's dependents may have completed the graph scheduler
+		if (graphScheduler.isCompleted())
+		{
+			stop();
+		}
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
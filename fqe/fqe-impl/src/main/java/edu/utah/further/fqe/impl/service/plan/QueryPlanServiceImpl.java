@@ -18,6 +18,7 @@ package edu.utah.further.fqe.impl.service.plan;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.apache.camel.ProducerTemplate;
+import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -55,6 +56,11 @@ public class QueryPlanServiceImpl implements QueryPlanService
 	 */
 	private static final Logger log = getLogger(QueryPlanServiceImpl.class);
 
+	/**
+	 * Default maximum number of queries of a phased plan that may run at the same time.
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_JOBS = 8;
+
 	// ========================= FIELDS ====================================
 
 	/**
@@ -63,6 +69,11 @@ public class QueryPlanServiceImpl implements QueryPlanService
 	private final JobRunnerNotifier<QueryJob> notifier = new JobRunnerNotifier<>(
 			this);
 
+	/**
+	 * Maximum number of queries of a phased plan that may run at the same time.
+	 */
+	private int maxConcurrentJobs = DEFAULT_MAX_CONCURRENT_JOBS;
+
 	// ========================= DEPENDENCIES ==============================
 
 	/**
@@ -126,7 +137,8 @@ public class QueryPlanServiceImpl implements QueryPlanService
 			}
 			if (child.isFailed())
 			{
-				stopPlan(queryId);
+				// Cancels the jobs that depend on the failed child
+				notifier.failJob(new QueryJob(child));
 			}
 			else if (child.isInFinalState())
 			{
@@ -183,6 +195,19 @@ public class QueryPlanServiceImpl implements QueryPlanService
 		}
 	}
 
+	// ========================= GET/SET ===================================
+
+	/**
+	 * @param maxConcurrentJobs
+	 *            the maximum number of queries of a phased plan that may run at the same
+	 *            time to set
+	 */
+	public void setMaxConcurrentJobs(final int maxConcurrentJobs)
+	{
+		Validate.isTrue(maxConcurrentJobs > 0, "Max concurrent jobs must be positive");
+		this.maxConcurrentJobs = maxConcurrentJobs;
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -217,7 +242,8 @@ public class QueryPlanServiceImpl implements QueryPlanService
 
 			case PHASED:
 			{
-				return new QueryPlanPhasedImpl(notifier, queryContext);
+				return new QueryPlanPhasedImpl(notifier, queryContext,
+						maxConcurrentJobs);
 			}
 
 			default:
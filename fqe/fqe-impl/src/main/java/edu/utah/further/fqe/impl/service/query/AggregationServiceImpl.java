@@ -36,6 +36,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.constant.Constants;
 import edu.utah.further.core.api.constant.Strings;
 import edu.utah.further.core.api.data.Dao;
@@ -352,16 +353,16 @@ public class AggregationServiceImpl implements AggregationService
 		final AggregatedResults aggregatedResults = new AggregatedResultsTo();
 
 		// get all virtual ids for intersection
-		final Map<Long, Set<Long>> commonToVirtualMap = identifierService
-				.getCommonIdToVirtualIdMap(queryIds, true);
+		final LongMultimap commonToVirtuals = identifierService.getCommonIdToVirtualIds(
+				queryIds, true);
 		final List<Long> idsInIntersection = CollectionUtil.newList();
-		for (final Set<Long> virtuals : commonToVirtualMap.values())
+		for (final long common : commonToVirtuals.keys())
 		{
 			// Add the first virtual id, ignore all the others and make very big
 			// assumption
 			// that because they're the same person, they'll also have the same record
 			// information
-			idsInIntersection.add(virtuals.iterator().next());
+			idsInIntersection.add(Long.valueOf(commonToVirtuals.getFirst(common)));
 		}
 
 		if (queryIds.size() > 1)
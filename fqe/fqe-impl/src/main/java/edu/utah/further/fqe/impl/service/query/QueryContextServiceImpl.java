@@ -27,6 +27,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -41,11 +42,14 @@ import edu.utah.further.core.query.domain.SearchCriterion;
 import edu.utah.further.core.query.domain.SearchEngine;
 import edu.utah.further.core.query.domain.SearchType;
 import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
 import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
 import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
 import edu.utah.further.fqe.impl.data.QueryContextDao;
 import edu.utah.further.fqe.impl.domain.FqeDomainFactory;
+import edu.utah.further.fqe.impl.domain.StatusArchiveEntity;
 import edu.utah.further.fqe.impl.domain.StatusMetaDataEntity;
 
 /**
@@ -83,6 +87,11 @@ public class QueryContextServiceImpl implements QueryContextService
 	 */
 	private static final Class<StatusMetaDataEntity> STATUS_DOMAIN_CLASS = StatusMetaDataEntity.class;
 
+	/**
+	 * Default maximum number of statuses retained in a query context's status history.
+	 */
+	private static final int DEFAULT_MAX_STATUS_HISTORY = 32;
+
 	// ========================= DEPENDENCIES ==============================
 
 	/**
@@ -103,6 +112,15 @@ public class QueryContextServiceImpl implements QueryContextService
 	@Qualifier("queryContextDao")
 	private QueryContextDao queryContextDao;
 
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Maximum number of statuses retained in a query context's status history. The first
+	 * status and the most recent ones are retained; the statuses in between are moved to
+	 * the status archive.
+	 */
+	private int maxStatusHistory = DEFAULT_MAX_STATUS_HISTORY;
+
 	// ========================= IMPLEMENTATION: QueryContextService =======
 
 	/**
@@ -222,9 +240,9 @@ public class QueryContextServiceImpl implements QueryContextService
 		final List<QueryContext> children = findChildren(entity);
 		for (final QueryContext child : children)
 		{
-			dao.delete(child);
+			deleteWithArchive(child);
 		}
-		dao.delete(entity);
+		deleteWithArchive(entity);
 	}
 
 	/**
@@ -248,6 +266,7 @@ public class QueryContextServiceImpl implements QueryContextService
 
 		// Delete all queries.
 		dao.deleteAll(DOMAIN_CLASS);
+		dao.deleteAll(StatusArchiveEntity.class);
 	}
 
 	/**
@@ -271,9 +290,9 @@ public class QueryContextServiceImpl implements QueryContextService
 				final List<QueryContext> children = findChildren(queryContext);
 				for (final QueryContext child : children)
 				{
-					dao.delete(child);
+					deleteWithArchive(child);
 				}
-				dao.delete(queryContext);
+				deleteWithArchive(queryContext);
 			}
 		}
 
@@ -375,6 +394,45 @@ public class QueryContextServiceImpl implements QueryContextService
 		return findChildrenByState(parent, QueryState.FAILED);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#findSummaryById(java
+	 * .lang.Long)
+	 */
+	@Override
+	public QueryContextSummary findSummaryById(final Long queryContextId)
+	{
+		return queryContextDao.findSummaryById(queryContextId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#findChildSummaries(java
+	 * .lang.Long)
+	 */
+	@Override
+	public List<QueryContextSummary> findChildSummaries(final Long parentId)
+	{
+		return queryContextDao.findChildSummaries(parentId);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.api.service.query.QueryContextService#countChildrenByState(
+	 * java.lang.Long)
+	 */
+	@Override
+	public Map<QueryState, Long> countChildrenByState(final Long parentId)
+	{
+		return queryContextDao.countChildrenByState(parentId);
+	}
+
 	/**
 	 * @param id
 	 * @return
@@ -431,8 +489,12 @@ public class QueryContextServiceImpl implements QueryContextService
 		return CollectionUtil.<StatusMetaData> newList(dao.findAll(STATUS_DOMAIN_CLASS));
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Returns the full status history of a query context. Archived statuses were
+	 * compacted out from between the first and the most recent retained statuses, so
+	 * they are placed in between them. Archived statuses are returned as detached copies
+	 * associated with the query that owns them, i.e. the federated parent of a child
+	 * query.
 	 * 
 	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#findAllStatus(long)
 	 */
@@ -440,8 +502,32 @@ public class QueryContextServiceImpl implements QueryContextService
 	public List<StatusMetaData> findAllStatuses(final Long id)
 	{
 		final QueryContext queryContext = findById(id);
-		return (queryContext == null) ? CollectionUtil.<StatusMetaData> newList()
-				: queryContext.getStatuses();
+		if (queryContext == null)
+		{
+			return CollectionUtil.<StatusMetaData> newList();
+		}
+		final List<StatusMetaData> statuses = CollectionUtil.newList(queryContext
+				.getStatuses());
+		final List<StatusArchiveEntity> archived = queryContextDao
+				.findArchivedStatuses(id);
+		if (!archived.isEmpty())
+		{
+			final Map<Long, QueryContext> owners = CollectionUtil.newMap();
+			owners.put(queryContext.getId(), queryContext);
+			final List<StatusMetaData> archivedStatuses = CollectionUtil.newList();
+			for (final StatusArchiveEntity archivedStatus : archived)
+			{
+				QueryContext owner = owners.get(archivedStatus.getOwnerId());
+				if (owner == null)
+				{
+					owner = findById(archivedStatus.getOwnerId());
+					owners.put(archivedStatus.getOwnerId(), owner);
+				}
+				archivedStatuses.add(archivedStatus.toStatus(owner));
+			}
+			statuses.addAll(1, archivedStatuses);
+		}
+		return statuses;
 	}
 
 	/*
@@ -454,8 +540,7 @@ public class QueryContextServiceImpl implements QueryContextService
 	@Override
 	public StatusMetaData findCurrentStatusById(final Long id)
 	{
-		/* This should work since we are in within a session */
-		return findById(id).getCurrentStatus();
+		return queryContextDao.findCurrentStatusById(id);
 	}
 
 	/**
@@ -470,6 +555,44 @@ public class QueryContextServiceImpl implements QueryContextService
 				STATUS_DOMAIN_CLASS, StatusMetaData.PROPERTY_STATUS_DATE, date));
 	}
 
+	/**
+	 * @param queryType
+	 * @param date
+	 * @param maxResults
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#findExpiredQueryIds(edu.utah.further.fqe.ds.api.domain.QueryType,
+	 *      java.util.Date, int)
+	 */
+	@Override
+	public List<Long> findExpiredQueryIds(final QueryType queryType, final Date date,
+			final int maxResults)
+	{
+		return queryContextDao.findExpiredQueryIds(queryType, date, maxResults);
+	}
+
+	/**
+	 * @param queryContextIds
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#findExecutionIds(java.util.List)
+	 */
+	@Override
+	public List<String> findExecutionIds(final List<Long> queryContextIds)
+	{
+		return queryContextDao.findExecutionIds(queryContextIds);
+	}
+
+	/**
+	 * @param queryContextIds
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryContextService#deleteQueries(java.util.List)
+	 */
+	@Override
+	@Transactional(propagation = REQUIRED, readOnly = false)
+	public int deleteQueries(final List<Long> queryContextIds)
+	{
+		return queryContextDao.deleteQueries(queryContextIds);
+	}
+
 	// ========================= GET/SET METHODS ===========================
 
 	/**
@@ -483,6 +606,20 @@ public class QueryContextServiceImpl implements QueryContextService
 		this.dao = dao;
 	}
 
+	/**
+	 * Set a new value for the maxStatusHistory property.
+	 * 
+	 * @param maxStatusHistory
+	 *            the maxStatusHistory to set. Must be at least <code>2</code> so that
+	 *            both the first and the current status are retained
+	 */
+	public void setMaxStatusHistory(final int maxStatusHistory)
+	{
+		Validate.isTrue(maxStatusHistory >= 2,
+				"Status history must retain at least the first and current statuses");
+		this.maxStatusHistory = maxStatusHistory;
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -541,10 +678,56 @@ public class QueryContextServiceImpl implements QueryContextService
 			log.trace("Existing query, updating " + currentContext + " with "
 					+ newContext);
 		}
+		compactStatusHistory(currentContext);
 		// Parent state is updated as well because we cascade updates in the QC entity
 		dao.update(currentContext);
 	}
 
+	/**
+	 * Keep the status history of a persistent query context bounded. The first status and
+	 * the most recent <code>maxStatusHistory - 1</code> statuses (including the current
+	 * one) are retained; the progress statuses in between are copied to the append-only
+	 * status archive and removed from the query context.
+	 * 
+	 * @param queryContext
+	 *            persistent query context
+	 */
+	private void compactStatusHistory(final QueryContext queryContext)
+	{
+		final List<StatusMetaData> statuses = queryContext.getStatuses();
+		final int excess = statuses.size() - maxStatusHistory;
+		if (excess <= 0)
+		{
+			return;
+		}
+		final List<StatusMetaData> evicted = statuses.subList(1, 1 + excess);
+		for (final StatusMetaData status : evicted)
+		{
+			dao.save(StatusArchiveEntity.newCopy(status, queryContext));
+			if (status.getId() != null)
+			{
+				dao.delete(status);
+			}
+		}
+		evicted.clear();
+		if (log.isDebugEnabled())
+		{
+			log.debug("Archived " + excess + " statuses of query " + queryContext.getId());
+		}
+	}
+
+	/**
+	 * Delete a query context and its archived statuses.
+	 * 
+	 * @param queryContext
+	 *            persistent query context
+	 */
+	private void deleteWithArchive(final QueryContext queryContext)
+	{
+		queryContextDao.deleteArchivedStatuses(queryContext.getId());
+		dao.delete(queryContext);
+	}
+
 	/**
 	 * Decide whether a prospective query to be updated into the database is stale by
 	 * examining its state, i.e. there exists a more recent version of this query in the
@@ -0,0 +1,604 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.service.query;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.core.api.collections.CollectionUtil.newMap;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
+import edu.utah.further.fqe.api.service.query.QueryStatusBroker;
+import edu.utah.further.fqe.api.service.query.QueryStatusListener;
+import edu.utah.further.fqe.api.ws.to.status.DataSourceStatusChangeTo;
+import edu.utah.further.fqe.api.ws.to.status.QueryStatusChangeTo;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.to.QueryContextTo;
+
+/**
+ * Default implementation of the query status broker. Keeps a versioned status record
+ * of each federated query that a client asked about. A record is seeded from the
+ * database when a client first asks for changes or subscribes to them; the status routes
+ * then update it from their message bodies, and publishing a query that nobody tracks
+ * is a no-op. A record is dropped once it has not changed for
+ * {@link #setRetentionMillis(long)} and no client is waiting on it; a later request
+ * simply seeds it again.
+ * <p>
+ * Every field of the federated query and of each data source query remembers the
+ * version in which it last changed, so that a client only receives the fields that
+ * changed since the version it last saw. Versions are drawn from a single broker-wide
+ * sequence, so a record that is dropped and seeded again only issues versions newer than
+ * any token a client holds, and such a stale client receives a full snapshot.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Service("queryStatusBroker")
+@Transactional
+public class QueryStatusBrokerImpl implements QueryStatusBroker
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(QueryStatusBrokerImpl.class);
+
+	/**
+	 * Default time to keep an unchanged status record [ms].
+	 */
+	private static final long DEFAULT_RETENTION_MILLIS = 10 * 60 * 1000L;
+
+	/**
+	 * Minimum time between purges of expired status records [ms].
+	 */
+	private static final long PURGE_INTERVAL_MILLIS = 60 * 1000L;
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * {@link QueryContext} CRUD service.
+	 */
+	@Autowired
+	private QueryContextService qcService;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Time to keep an unchanged status record that no client waits on [ms].
+	 */
+	private long retentionMillis = DEFAULT_RETENTION_MILLIS;
+
+	/**
+	 * Status records, by federated query context ID.
+	 */
+	private final ConcurrentMap<Long, QueryStatus> statuses = new ConcurrentHashMap<>();
+
+	/**
+	 * Time of the last purge of expired status records.
+	 */
+	private final AtomicLong lastPurge = new AtomicLong(System.currentTimeMillis());
+
+	/**
+	 * Last status version issued to any record. Starts at the current time so that
+	 * versions of an earlier broker instance are older as well.
+	 */
+	private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+	// ========================= IMPLEMENTATION: QueryStatusBroker =========
+
+	/**
+	 * @param queryContext
+	 * @see edu.utah.further.fqe.api.service.query.QueryStatusBroker#publish(edu.utah.further.fqe.ds.api.domain.QueryContext)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public void publish(final QueryContext queryContext)
+	{
+		if ((queryContext == null) || (queryContext.getId() == null))
+		{
+			return;
+		}
+		// Only queries that a client already asked about are tracked. The update is
+		// built from the route body, so publishing never hits the database
+		final QueryContextSummary summary = newSummary(queryContext);
+		final QueryStatus status = statuses.get(summary.isFederated() ? summary.getId()
+				: summary.getParentId());
+		if (status != null)
+		{
+			final List<QueryStatusListener> listeners = summary.isFederated() ? status
+					.updateParent(summary) : status.updateChild(summary);
+			// Notify outside the record lock
+			for (final QueryStatusListener listener : listeners)
+			{
+				notifyListener(status.getId(), listener);
+			}
+		}
+		purgeExpired();
+	}
+
+	/**
+	 * @param queryId
+	 * @param since
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryStatusBroker#getChanges(java.lang.Long,
+	 *      long)
+	 */
+	@Override
+	public QueryStatusChangeTo getChanges(final Long queryId, final long since)
+	{
+		final QueryStatus status = getOrLoad(queryId);
+		if (status == null)
+		{
+			final QueryStatusChangeTo invalid = new QueryStatusChangeTo(queryId, 0L);
+			invalid.setState(QueryState.INVALID);
+			return invalid;
+		}
+		return status.getChanges(since);
+	}
+
+	/**
+	 * @param queryId
+	 * @param since
+	 * @param listener
+	 * @return
+	 * @see edu.utah.further.fqe.api.service.query.QueryStatusBroker#addListener(java.lang.Long,
+	 *      long, edu.utah.further.fqe.api.service.query.QueryStatusListener)
+	 */
+	@Override
+	public boolean addListener(final Long queryId, final long since,
+			final QueryStatusListener listener)
+	{
+		final QueryStatus status = getOrLoad(queryId);
+		return (status != null) && status.addListener(since, listener);
+	}
+
+	/**
+	 * @param queryId
+	 * @param listener
+	 * @see edu.utah.further.fqe.api.service.query.QueryStatusBroker#removeListener(java.lang.Long,
+	 *      edu.utah.further.fqe.api.service.query.QueryStatusListener)
+	 */
+	@Override
+	public void removeListener(final Long queryId, final QueryStatusListener listener)
+	{
+		final QueryStatus status = statuses.get(queryId);
+		if (status != null)
+		{
+			status.removeListener(listener);
+		}
+	}
+
+	// ========================= GET & SET =================================
+
+	/**
+	 * Set a new value for the retentionMillis property.
+	 *
+	 * @param retentionMillis
+	 *            time to keep an unchanged status record that no client waits on [ms]
+	 */
+	public void setRetentionMillis(final long retentionMillis)
+	{
+		this.retentionMillis = retentionMillis;
+	}
+
+	/**
+	 * Set a new value for the qcService property.
+	 *
+	 * @param qcService
+	 *            the qcService to set
+	 */
+	public void setQcService(final QueryContextService qcService)
+	{
+		this.qcService = qcService;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Return the status record of a federated query, seeding it from the database if
+	 * necessary.
+	 *
+	 * @param queryId
+	 *            federated query context ID
+	 * @return status record, or <code>null</code> if the ID does not identify a
+	 *         persistent federated query
+	 */
+	private QueryStatus getOrLoad(final Long queryId)
+	{
+		final QueryStatus existing = statuses.get(queryId);
+		if (existing != null)
+		{
+			return existing;
+		}
+		final QueryContextSummary parent = qcService.findSummaryById(queryId);
+		if ((parent == null) || !parent.isFederated())
+		{
+			return null;
+		}
+
+		final QueryStatus status = new QueryStatus(queryId, versions);
+		status.updateParent(parent);
+		final List<QueryContextSummary> children = qcService.findChildSummaries(queryId);
+		if (children != null)
+		{
+			for (final QueryContextSummary child : children)
+			{
+				status.updateChild(child);
+			}
+		}
+		final QueryStatus raced = statuses.putIfAbsent(queryId, status);
+		if (log.isDebugEnabled() && (raced == null))
+		{
+			log.debug("Tracking status of federated query " + queryId);
+		}
+		return (raced == null) ? status : raced;
+	}
+
+	/**
+	 * Summarize a route body without reloading it.
+	 *
+	 * @param queryContext
+	 *            query context published by a status route
+	 * @return query context summary
+	 */
+	private static QueryContextSummary newSummary(final QueryContext queryContext)
+	{
+		// Data source status messages are unmarshalled transfer objects that only carry
+		// their parent's ID
+		if (queryContext instanceof QueryContextTo)
+		{
+			final QueryContextTo queryContextTo = (QueryContextTo) queryContext;
+			return new QueryContextSummary(queryContextTo.getId(),
+					queryContextTo.getParentId(), queryContextTo.getExecutionId(),
+					queryContextTo.getDataSourceId(), queryContextTo.getState(),
+					queryContextTo.isStale(), queryContextTo.getStaleDateTime(),
+					Long.valueOf(queryContextTo.getNumRecords()),
+					(queryContextTo.getCurrentStatus() == null) ? null : queryContextTo
+							.getCurrentStatus()
+							.getStatus());
+		}
+		return QueryContextSummary.newInstance(queryContext);
+	}
+
+	/**
+	 * Drop status records that have not changed within the retention period and that
+	 * no client waits on. Runs at most once per {@link #PURGE_INTERVAL_MILLIS}.
+	 */
+	private void purgeExpired()
+	{
+		final long now = System.currentTimeMillis();
+		final long last = lastPurge.get();
+		if ((now - last < PURGE_INTERVAL_MILLIS) || !lastPurge.compareAndSet(last, now))
+		{
+			return;
+		}
+		for (final Iterator<QueryStatus> it = statuses.values().iterator(); it.hasNext();)
+		{
+			if (it.next().isExpired(now - retentionMillis))
+			{
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Notify a listener of a change, isolating the publisher from listener failures.
+	 *
+	 * @param queryId
+	 *            federated query context ID
+	 * @param listener
+	 *            listener to notify
+	 */
+	private static void notifyListener(final Long queryId,
+			final QueryStatusListener listener)
+	{
+		try
+		{
+			listener.onChange(queryId);
+		}
+		catch (final RuntimeException e)
+		{
+			log.warn("Query status listener failed for query " + queryId, e);
+		}
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * The last known fields of a single query context and the versions in which they
+	 * changed.
+	 */
+	private static final class Snapshot
+	{
+		private QueryState state;
+
+		private long stateVersion;
+
+		private long numRecords = -1L;
+
+		private long numRecordsVersion;
+
+		private String status;
+
+		private long statusVersion;
+
+		/**
+		 * Copy the fields of a query context, stamping those that changed.
+		 *
+		 * @param queryContext
+		 *            query context
+		 * @param version
+		 *            version of this update
+		 * @return <code>true</code> if any field changed
+		 */
+		boolean update(final QueryContextSummary queryContext, final long version)
+		{
+			boolean changed = false;
+			if (queryContext.getState() != state)
+			{
+				state = queryContext.getState();
+				stateVersion = version;
+				changed = true;
+			}
+			if (queryContext.getNumRecords() != numRecords)
+			{
+				numRecords = queryContext.getNumRecords();
+				numRecordsVersion = version;
+				changed = true;
+			}
+			final String newStatus = queryContext.getCurrentStatus();
+			if ((newStatus != null) && !newStatus.equals(status))
+			{
+				status = newStatus;
+				statusVersion = version;
+				changed = true;
+			}
+			return changed;
+		}
+
+		/**
+		 * @param since
+		 *            status version
+		 * @return <code>true</code> if any field changed after <code>since</code>
+		 */
+		boolean changedSince(final long since)
+		{
+			return (stateVersion > since) || (numRecordsVersion > since)
+					|| (statusVersion > since);
+		}
+
+		/**
+		 * @param since
+		 *            status version
+		 * @return the state if it changed after <code>since</code>, otherwise
+		 *         <code>null</code>
+		 */
+		QueryState getStateSince(final long since)
+		{
+			return (stateVersion > since) ? state : null;
+		}
+
+		/**
+		 * @param since
+		 *            status version
+		 * @return the result set size if it changed after <code>since</code>, otherwise
+		 *         <code>null</code>
+		 */
+		Long getNumRecordsSince(final long since)
+		{
+			return (numRecordsVersion > since) ? Long.valueOf(numRecords) : null;
+		}
+
+		/**
+		 * @param since
+		 *            status version
+		 * @return the status message if it changed after <code>since</code>, otherwise
+		 *         <code>null</code>
+		 */
+		String getStatusSince(final long since)
+		{
+			return (statusVersion > since) ? status : null;
+		}
+	}
+
+	/**
+	 * Status record of a federated query and its data source queries. All access is
+	 * synchronized on the record.
+	 */
+	private static final class QueryStatus
+	{
+		private final Long id;
+
+		private final Snapshot parent = new Snapshot();
+
+		/**
+		 * Data source query snapshots, by data source ID.
+		 */
+		private final Map<String, Snapshot> children = newMap();
+
+		/**
+		 * One-time listeners waiting for the next change.
+		 */
+		private final List<QueryStatusListener> listeners = newList();
+
+		/**
+		 * Broker-wide version sequence.
+		 */
+		private final AtomicLong versions;
+
+		private long version;
+
+		private long lastUpdate = System.currentTimeMillis();
+
+		QueryStatus(final Long id, final AtomicLong versions)
+		{
+			this.id = id;
+			this.versions = versions;
+		}
+
+		Long getId()
+		{
+			return id;
+		}
+
+		/**
+		 * @param queryContext
+		 *            federated query context
+		 * @return listeners to notify
+		 */
+		synchronized List<QueryStatusListener> updateParent(
+				final QueryContextSummary queryContext)
+		{
+			final long next = versions.incrementAndGet();
+			return stamp(parent.update(queryContext, next), next);
+		}
+
+		/**
+		 * @param queryContext
+		 *            data source query context
+		 * @return listeners to notify
+		 */
+		synchronized List<QueryStatusListener> updateChild(
+				final QueryContextSummary queryContext)
+		{
+			final String dataSourceId = (queryContext.getDataSourceId() == null) ? String
+					.valueOf(queryContext.getId()) : queryContext.getDataSourceId();
+			Snapshot child = children.get(dataSourceId);
+			if (child == null)
+			{
+				child = new Snapshot();
+				children.put(dataSourceId, child);
+			}
+			final long next = versions.incrementAndGet();
+			return stamp(child.update(queryContext, next), next);
+		}
+
+		/**
+		 * @param since
+		 *            last status version the client saw
+		 * @return changes, or <code>null</code> if none
+		 */
+		synchronized QueryStatusChangeTo getChanges(final long since)
+		{
+			// A version this record never issued: send everything. A version from
+			// before this record was (re)seeded is older than all of its fields anyway
+			final long from = (since > version) ? 0L : since;
+			if (version <= from)
+			{
+				return null;
+			}
+			final QueryStatusChangeTo change = new QueryStatusChangeTo(id, version);
+			change.setState(parent.getStateSince(from));
+			change.setNumRecords(parent.getNumRecordsSince(from));
+			change.setStatus(parent.getStatusSince(from));
+			for (final Map.Entry<String, Snapshot> entry : children.entrySet())
+			{
+				final Snapshot child = entry.getValue();
+				if (child.changedSince(from))
+				{
+					final DataSourceStatusChangeTo dataSource = new DataSourceStatusChangeTo(
+							entry.getKey());
+					dataSource.setState(child.getStateSince(from));
+					dataSource.setNumRecords(child.getNumRecordsSince(from));
+					dataSource.setStatus(child.getStatusSince(from));
+					change.addDataSource(dataSource);
+				}
+			}
+			return change;
+		}
+
+		/**
+		 * @param since
+		 *            last status version the client saw
+		 * @param listener
+		 *            listener to register
+		 * @return <code>true</code> if registered, <code>false</code> if there are
+		 *         already changes since <code>since</code>
+		 */
+		synchronized boolean addListener(final long since,
+				final QueryStatusListener listener)
+		{
+			// Older versions have pending changes; others were not issued by this record
+			if (since != version)
+			{
+				return false;
+			}
+			listeners.add(listener);
+			return true;
+		}
+
+		synchronized void removeListener(final QueryStatusListener listener)
+		{
+			listeners.remove(listener);
+		}
+
+		/**
+		 * @param threshold
+		 *            expiry time threshold
+		 * @return <code>true</code> if this record has not changed since
+		 *         <code>threshold</code> and nobody is listening to it
+		 */
+		synchronized boolean isExpired(final long threshold)
+		{
+			return (lastUpdate < threshold) && listeners.isEmpty();
+		}
+
+		/**
+		 * Advance the version after a change and hand off the listeners to notify.
+		 *
+		 * @param changed
+		 *            whether a snapshot changed
+		 * @param next
+		 *            version of the change
+		 * @return listeners to notify
+		 */
+		private List<QueryStatusListener> stamp(final boolean changed, final long next)
+		{
+			if (!changed)
+			{
+				return newList();
+			}
+			version = next;
+			lastUpdate = System.currentTimeMillis();
+			final List<QueryStatusListener> toNotify = newList(listeners);
+			listeners.clear();
+			return toNotify;
+		}
+	}
+}
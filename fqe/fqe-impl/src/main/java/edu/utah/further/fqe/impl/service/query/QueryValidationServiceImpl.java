@@ -78,11 +78,13 @@ public class QueryValidationServiceImpl implements QueryValidationService<Valida
 	private boolean executeRules(SearchQuery query, List<ValidationRule> rules)
 	{
 
+		// The rule list is cached by ruleUtil, so the executor only recompiles the
+		// rules when the rule set changes
 		boolean valid = true;
-		for (ValidationRule rule : rules)
+		for (Boolean result : executor.executeEachRule(query, rules))
 		{
 
-			valid = executor.executeRule(query, rule);
+			valid = result.booleanValue();
 		}
 
 		return valid;
@@ -15,7 +15,10 @@
  */
 package edu.utah.further.fqe.impl.service.route;
 
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
@@ -30,8 +33,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import edu.utah.further.core.api.constant.ErrorCode;
+import edu.utah.further.core.api.exception.ApplicationException;
 import edu.utah.further.core.api.scope.NamespaceService;
 import edu.utah.further.core.api.scope.Namespaces;
+import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.fqe.api.service.query.QueryContextService;
 import edu.utah.further.fqe.api.service.query.QueryValidationService;
 import edu.utah.further.fqe.api.service.route.FqeService;
@@ -39,6 +45,12 @@ import edu.utah.further.fqe.ds.api.domain.Data;
 import edu.utah.further.fqe.ds.api.domain.DsMetaData;
 import edu.utah.further.fqe.ds.api.domain.DsState;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.domain.plan.ExecutionRule;
+import edu.utah.further.fqe.ds.api.domain.plan.Plan;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+import edu.utah.further.fqe.ds.api.to.plan.ExecutionRuleToImpl;
+import edu.utah.further.fqe.ds.api.to.plan.PlanToImpl;
 import edu.utah.further.fqe.ds.api.util.CommandType;
 import edu.utah.further.fqe.ds.api.util.FqeEndpointNames;
 import edu.utah.further.fqe.ds.api.util.MessageHeader;
@@ -224,6 +236,77 @@ public class FqeServiceImpl implements FqeService
 		return queryContext;
 	}
 
+	/**
+	 * Promote a count-only query to a full data query directed to the data sources that
+	 * answered the count query. The count query's plan is not persisted, so it is
+	 * reconstructed from its children; this is only possible for single-query count
+	 * queries.
+	 *
+	 * @param countQuery
+	 *            a persistent FURTHeR logical count query context
+	 * @return the new data query context with a populated identifier
+	 * @see edu.utah.further.fqe.api.service.route.FqeService#promoteQuery(edu.utah.further.fqe.ds.api.domain.QueryContext)
+	 */
+	@Override
+	public QueryContext promoteQuery(final QueryContext countQuery)
+	{
+		if (countQuery.getQueryType() != QueryType.COUNT_QUERY)
+		{
+			return countQuery;
+		}
+		if (countQuery.getNumQueries() != 1)
+		{
+			throw new ApplicationException(ErrorCode.INVALID_INPUT_ARGUMENT_VALUE,
+					"Only single-query count queries can be promoted");
+		}
+
+		final QueryContextToImpl dataQuery = QueryContextToImpl
+				.newInstanceWithExecutionId();
+		dataQuery.setUserId(countQuery.getUserId());
+		dataQuery.setQuery(countQuery.getQuery());
+		dataQuery.setQueryType(QueryType.DATA_QUERY);
+		dataQuery.setIdentityResolutionType(countQuery.getIdentityResolutionType());
+		dataQuery.setTargetNamespaceId(countQuery.getTargetNamespaceId());
+		dataQuery.setAssociatedResult(countQuery.getAssociatedResult());
+		dataQuery.setBypassResultCache(countQuery.isBypassResultCache());
+
+		// Direct the data query to the data sources that answered the count query
+		final SearchQuery searchQuery = dataQuery.getQuery();
+		if (searchQuery.getId() == null)
+		{
+			searchQuery.setId(new Long(1));
+		}
+		final Plan plan = new PlanToImpl();
+		final List<String> dataSourceIds = newList();
+		for (final QueryContext child : queryContextService.findChildren(countQuery))
+		{
+			final String dataSourceId = child.getDataSourceId();
+			if ((dataSourceId != null) && !dataSourceIds.contains(dataSourceId))
+			{
+				dataSourceIds.add(dataSourceId);
+				final ExecutionRule executionRule = new ExecutionRuleToImpl();
+				executionRule.setId(UUID.randomUUID().toString());
+				executionRule.setDataSourceId(dataSourceId);
+				executionRule.setSearchQueryId(searchQuery.getId());
+				plan.addExecutionRule(executionRule);
+			}
+		}
+		if (!dataSourceIds.isEmpty())
+		{
+			dataQuery.setPlan(plan);
+			dataQuery.setMaxRespondingDataSources(dataSourceIds.size());
+			dataQuery.setMinRespondingDataSources(dataSourceIds.size());
+		}
+
+		final QueryContext promoted = triggerQuery(dataQuery);
+		if (log.isInfoEnabled())
+		{
+			log.info("Promoted count query " + countQuery.getId() + " to data query "
+					+ promoted.getId() + " on data sources " + dataSourceIds);
+		}
+		return promoted;
+	}
+
 	/**
 	 * @param queryContext
 	 * @see edu.utah.further.fqe.api.service.route.FqeService#stopQuery(edu.utah.further.fqe.ds.api.domain.QueryContext)
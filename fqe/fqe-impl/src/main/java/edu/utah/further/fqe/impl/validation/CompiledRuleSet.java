@@ -0,0 +1,394 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.validation;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static edu.utah.further.core.api.collections.CollectionUtil.newMap;
+import static edu.utah.further.core.api.collections.CollectionUtil.newSet;
+import static edu.utah.further.fqe.api.validation.RuleExecutor.PATH_TO_CONJUNCTION_SEARCHTYPE;
+import static edu.utah.further.fqe.api.validation.RuleExecutor.PATH_TO_DISJUNCTION_SEARCHTYPE;
+import static edu.utah.further.fqe.api.validation.RuleExecutor.PATH_TO_IN_SEARCHTYPE;
+import static edu.utah.further.fqe.api.validation.RuleExecutor.PATH_TO_PARAMETERS;
+import static edu.utah.further.fqe.api.validation.RuleExecutor.PATH_TO_PARAMETER_VAL;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathConstants;
+
+import org.w3c.dom.Document;
+
+import edu.utah.further.core.xml.xpath.XPathParser;
+import edu.utah.further.fqe.impl.validation.domain.ActionType;
+import edu.utah.further.fqe.impl.validation.domain.RelationshipType;
+import edu.utah.further.fqe.impl.validation.domain.RuleCondition;
+import edu.utah.further.fqe.impl.validation.domain.RuleType;
+import edu.utah.further.fqe.impl.validation.domain.ValidationRule;
+
+/**
+ * A list of {@link ValidationRule}s whose XPath expressions are compiled once, and that
+ * is evaluated against a single DOM document per search query shared by all rules.
+ * Expressions common to several rules (e.g. the criteria-type lookups) are compiled and
+ * evaluated only once per document.
+ * <p>
+ * Compiled XPath expressions are not thread-safe, so each thread compiles its own copy
+ * of the expressions the first time it evaluates the set; expression results are kept
+ * per evaluation. The set may therefore be evaluated concurrently without locking.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Andrew Iskander {@code <andrew.iskander@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class CompiledRuleSet
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * The rule list this set was compiled from.
+	 */
+	private final List<ValidationRule> source;
+
+	/**
+	 * Compiled rules, in source order. A <code>null</code> element stands for a source
+	 * rule that always passes.
+	 */
+	private final List<CompiledRule> rules = newList();
+
+	/**
+	 * XPath expressions shared by all rules.
+	 */
+	private final Set<String> expressions = newSet();
+
+	/**
+	 * Compiled expressions of the current thread, keyed by XPath expression string.
+	 */
+	private final ThreadLocal<Map<String, XPathParser>> parsers = new ThreadLocal<Map<String, XPathParser>>()
+	{
+		@Override
+		protected Map<String, XPathParser> initialValue()
+		{
+			final Map<String, XPathParser> threadParsers = newMap();
+			for (final String xpathExpression : expressions)
+			{
+				threadParsers.put(xpathExpression, new XPathParser(xpathExpression,
+						namespaceContext));
+			}
+			return threadParsers;
+		}
+	};
+
+	/**
+	 * Namespace context of all expressions.
+	 */
+	private final NamespaceContext namespaceContext;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Compile a list of rules.
+	 *
+	 * @param source
+	 *            rules to compile
+	 * @param namespaceContext
+	 *            namespace context of the rule XPath expressions
+	 */
+	public CompiledRuleSet(final List<ValidationRule> source,
+			final NamespaceContext namespaceContext)
+	{
+		this.source = source;
+		this.namespaceContext = namespaceContext;
+		for (final ValidationRule rule : source)
+		{
+			rules.add(compile(rule));
+		}
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Evaluate all rules against a search query document.
+	 *
+	 * @param searchQuery
+	 *            marshalled search query
+	 * @return <code>true</code> if and only if the query passes all rules
+	 */
+	public boolean execute(final Document searchQuery)
+	{
+		final Evaluation evaluation = new Evaluation(searchQuery);
+		for (final CompiledRule rule : rules)
+		{
+			if ((rule != null) && !rule.execute(evaluation))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Evaluate each rule against a search query document.
+	 *
+	 * @param searchQuery
+	 *            marshalled search query
+	 * @return the outcome of each source rule, in source order
+	 */
+	public List<Boolean> executeEach(final Document searchQuery)
+	{
+		final Evaluation evaluation = new Evaluation(searchQuery);
+		final List<Boolean> outcomes = newList();
+		for (final CompiledRule rule : rules)
+		{
+			outcomes.add(Boolean.valueOf((rule == null) || rule.execute(evaluation)));
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Return the rule list this set was compiled from.
+	 *
+	 * @return the source rule list
+	 */
+	public List<ValidationRule> getSource()
+	{
+		return source;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Compile a single rule.
+	 *
+	 * @param rule
+	 *            rule definition
+	 * @return compiled rule, or <code>null</code> if the rule always passes
+	 */
+	private CompiledRule compile(final ValidationRule rule)
+	{
+		final String matchingSearches = getMatchingSearchTypesPath(rule
+				.getCriteriaIdentifier()
+				.getRelationship());
+		if (matchingSearches == null)
+		{
+			return null;
+		}
+		final RuleType ruleType = rule.getRule().getRuleDefinition().getRuleType();
+		switch (ruleType)
+		{
+			case DATA_TYPE_RESTRICTION:
+			{
+				final List<String> observationPaths = newList();
+				for (final String observation : rule
+						.getCriteriaIdentifier()
+						.getObservation())
+				{
+					observationPaths.add(register(String.format(PATH_TO_PARAMETER_VAL,
+							observation)));
+				}
+				return new CompiledRule(rule, register(matchingSearches),
+						observationPaths, null);
+			}
+			case OBSERVATION_RESTRICTION:
+			{
+				return new CompiledRule(rule, register(matchingSearches),
+						Collections.<String> emptyList(), register("count("
+								+ PATH_TO_PARAMETERS + ")"));
+			}
+			default:
+			{
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Register an expression shared by all rules. The expression is compiled eagerly so
+	 * that syntax errors surface when the rules are compiled.
+	 *
+	 * @param xpathExpression
+	 *            XPath expression
+	 * @return the expression, to be used as a key into {@link #parsers}
+	 */
+	private String register(final String xpathExpression)
+	{
+		if (expressions.add(xpathExpression))
+		{
+			new XPathParser(xpathExpression, namespaceContext);
+		}
+		return xpathExpression;
+	}
+
+	/**
+	 * Return the XPath expression that finds all criteria matching a rule relationship
+	 * type.
+	 *
+	 * @param relationship
+	 *            rule relationship type
+	 * @return XPath expression, or <code>null</code> if the relationship type never
+	 *         matches any criterion
+	 */
+	private static String getMatchingSearchTypesPath(final RelationshipType relationship)
+	{
+		switch (relationship)
+		{
+			case DISJUNCTION:
+			{
+				return PATH_TO_DISJUNCTION_SEARCHTYPE;
+			}
+			case CONJUNCTION:
+			{
+				return PATH_TO_CONJUNCTION_SEARCHTYPE;
+			}
+			case IN:
+			{
+				return PATH_TO_IN_SEARCHTYPE;
+			}
+			default:
+			{
+				return null;
+			}
+		}
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * The evaluation of this rule set against a single document. Holds the results of
+	 * the shared expressions so that each is evaluated at most once per document.
+	 */
+	private final class Evaluation
+	{
+		private final Document document;
+
+		private final Map<String, XPathParser> threadParsers = parsers.get();
+
+		private final Map<String, Object> results = newMap();
+
+		public Evaluation(final Document document)
+		{
+			this.document = document;
+		}
+
+		public Object evaluate(final String xpathExpression, final QName returnType)
+		{
+			Object result = results.get(xpathExpression);
+			if (result == null)
+			{
+				result = threadParsers.get(xpathExpression).evaluateXPath(document,
+						returnType);
+				results.put(xpathExpression, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A single compiled rule.
+	 * <p>
+	 * The parameter paths of {@link RuleExecutorXMLImpl} are absolute, so their values do
+	 * not depend on which matching criterion they are evaluated for. A rule therefore
+	 * fails if and only if any criterion matches and the document-wide count satisfies
+	 * the rule condition.
+	 */
+	private final class CompiledRule
+	{
+		private final String matchingSearches;
+
+		private final List<String> observationPaths;
+
+		private final String parameterCount;
+
+		private final RuleCondition ruleCondition;
+
+		private final int ruleParameter;
+
+		private final boolean failAction;
+
+		public CompiledRule(final ValidationRule rule, final String matchingSearches,
+				final List<String> observationPaths, final String parameterCount)
+		{
+			this.matchingSearches = matchingSearches;
+			this.observationPaths = observationPaths;
+			this.parameterCount = parameterCount;
+			this.ruleCondition = rule.getRule().getRuleDefinition().getRuleCondition();
+			this.ruleParameter = rule.getRule().getParameter().intValue();
+			this.failAction = ActionType.FAIL.equals(rule.getAction());
+		}
+
+		public boolean execute(final Evaluation evaluation)
+		{
+			if (!failAction
+					|| !((Boolean) evaluation.evaluate(matchingSearches,
+							XPathConstants.BOOLEAN)).booleanValue())
+			{
+				return true;
+			}
+			return !determineResult(count(evaluation));
+		}
+
+		private int count(final Evaluation evaluation)
+		{
+			if (parameterCount != null)
+			{
+				return ((Double) evaluation.evaluate(parameterCount,
+						XPathConstants.NUMBER)).intValue();
+			}
+			int obsCount = 0;
+			for (final String observationPath : observationPaths)
+			{
+				if (((Boolean) evaluation.evaluate(observationPath,
+						XPathConstants.BOOLEAN)).booleanValue())
+				{
+					obsCount++;
+				}
+			}
+			return obsCount;
+		}
+
+		private boolean determineResult(final int count)
+		{
+			switch (ruleCondition)
+			{
+				case GREATER:
+				{
+					return count > ruleParameter;
+				}
+				case LESSTHAN:
+				{
+					return count < ruleParameter;
+				}
+				case EQUALS:
+				{
+					return count == ruleParameter;
+				}
+				default:
+				{
+					return false;
+				}
+			}
+		}
+	}
+}
@@ -15,8 +15,10 @@
  */
 package edu.utah.further.fqe.impl.validation;
 
+import static java.util.Collections.singletonList;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.xml.bind.JAXBException;
@@ -27,26 +29,25 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
-import edu.utah.further.core.api.collections.CollectionUtil;
 import edu.utah.further.core.api.exception.ApplicationException;
 import edu.utah.further.core.api.xml.XmlNamespace;
 import edu.utah.further.core.api.xml.XmlService;
 import edu.utah.further.core.api.xml.XmlUtil;
 import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.core.xml.xpath.XPathNamespaceContext;
-import edu.utah.further.core.xml.xpath.XPathUtil;
 import edu.utah.further.fqe.api.validation.RuleExecutor;
-import edu.utah.further.fqe.impl.validation.domain.ActionType;
-import edu.utah.further.fqe.impl.validation.domain.RelationshipType;
-import edu.utah.further.fqe.impl.validation.domain.RuleCondition;
-import edu.utah.further.fqe.impl.validation.domain.RuleType;
 import edu.utah.further.fqe.impl.validation.domain.ValidationRule;
 
 /**
  * Rule execution Implementation using XML based rule definitions
  * <p>
+ * Rules are compiled into a {@link CompiledRuleSet} and evaluated against a single DOM
+ * document per query. The compiled form of the last rule list passed to
+ * {@link #executeRules(SearchQuery, List)} or {@link #executeEachRule(SearchQuery, List)}
+ * is cached and only rebuilt when a different rule list is passed in. A compiled rule set
+ * may be evaluated by several threads at once.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -65,52 +66,21 @@ public class RuleExecutorXMLImpl implements RuleExecutor<ValidationRule>
 	/**
 	 * A logger that helps identify this class' printouts.
 	 */
-	@SuppressWarnings("unused")
-	private static final Logger log = getLogger(RuleListUtilXMLImpl.class);
+	private static final Logger log = getLogger(RuleExecutorXMLImpl.class);
 
 	// ========================= Instance Variables ==============================
 
-	/**
-	 * The query criteria relation that the rule is checking for
-	 */
-	private RelationshipType relationship;
-
-	/**
-	 * A list of observation properties that rule is checking for
-	 */
-	private List<String> observations;
-
-	/**
-	 * The type of rule that is being run on the query
-	 */
-	private RuleType ruleType;
-
-	/**
-	 * A conditional for the rule parameter
-	 */
-	private RuleCondition ruleCondition;
-
-	/**
-	 * The action that is taken if the validation rule catches the case it's checking for
-	 */
-	private ActionType action;
-
-	/**
-	 * The parameter of the ruleCondition
-	 */
-	private int ruleParameter;
-
-	/**
-	 * The search query that is being validated
-	 */
-	private Document searchQuery;
-
 	/**
 	 * The {@link NamespaceContext} for which all xpaths in this class should execute
 	 * under.
 	 */
 	private final XPathNamespaceContext namespaceContext;
 
+	/**
+	 * Compiled form of the most recently executed rule list.
+	 */
+	private volatile CompiledRuleSet compiledRules;
+
 	// ========================= Services ==============================
 
 	/**
@@ -138,164 +108,77 @@ public class RuleExecutorXMLImpl implements RuleExecutor<ValidationRule>
 	@Override
 	public boolean executeRule(final SearchQuery query, final ValidationRule rule)
 	{
-
-		observations = rule.getCriteriaIdentifier().getObservation();
-		relationship = rule.getCriteriaIdentifier().getRelationship();
-		ruleType = rule.getRule().getRuleDefinition().getRuleType();
-		ruleCondition = rule.getRule().getRuleDefinition().getRuleCondition();
-		ruleParameter = rule.getRule().getParameter().intValue();
-		action = rule.getAction();
-
-		searchQuery = toDocument(query);
-
-		switch (ruleType)
-		{
-			case DATA_TYPE_RESTRICTION:
-			{
-				return dataTypeRuleExecutor();
-			}
-			case OBSERVATION_RESTRICTION:
-			{
-				return observationRuleExecutor();
-			}
-			default:
-			{
-				return true;
-			}
-		}
+		return compile(singletonList(rule)).execute(toDocument(query));
 	}
 
-	/**
-	 * Executes a data type condition rule
+	/*
+	 * (non-Javadoc)
 	 * 
-	 * @return
+	 * @see
+	 * edu.utah.further.fqe.api.validation.RuleExecutor#executeRules(edu.utah.further.
+	 * core.query.domain.SearchQuery, java.util.List)
 	 */
-	public boolean dataTypeRuleExecutor()
+	@Override
+	public boolean executeRules(final SearchQuery query, final List<ValidationRule> rules)
 	{
-		final List<Node> matchingSearches = getMatchingSearchTypes();
-
-		if (!matchingSearches.isEmpty())
+		if (rules.isEmpty())
 		{
-			for (final Node search : matchingSearches)
-			{
-				int obsCount = 0;
-				for (final String observation : observations)
-				{
-
-					if (!XPathUtil.executeXPathExpression(search,
-							String.format(PATH_TO_PARAMETER_VAL, observation),
-							namespaceContext).isEmpty())
-					{
-						obsCount++;
-					}
-				}
-				if (determineResult(obsCount) && action.equals(ActionType.FAIL))
-				{
-
-					return false;
-				}
-			}
+			return true;
 		}
-
-		return true;
+		return getCompiledRules(rules).execute(toDocument(query));
 	}
 
-	/**
-	 * 
-	 * Executes an observation count rule
+	/*
+	 * (non-Javadoc)
 	 * 
-	 * @return
+	 * @see
+	 * edu.utah.further.fqe.api.validation.RuleExecutor#executeEachRule(edu.utah.further
+	 * .core.query.domain.SearchQuery, java.util.List)
 	 */
-	public boolean observationRuleExecutor()
+	@Override
+	public List<Boolean> executeEachRule(final SearchQuery query,
+			final List<ValidationRule> rules)
 	{
-
-		final List<Node> matchingSearches = getMatchingSearchTypes();
-
-		if (!matchingSearches.isEmpty())
+		if (rules.isEmpty())
 		{
-			for (final Node search : matchingSearches)
-			{
-				if (determineResult(XPathUtil.executeXPathExpression(search,
-						PATH_TO_PARAMETERS, namespaceContext).size())
-						&& action.equals(ActionType.FAIL))
-				{
-					return false;
-				}
-			}
+			return Collections.emptyList();
 		}
-
-		return true;
+		return getCompiledRules(rules).executeEach(toDocument(query));
 	}
 
 	/**
+	 * Compile a list of rules.
 	 * 
-	 * Finds all nodes in a search query that matches rule relationship type
-	 * 
-	 * @return nodes
+	 * @param rules
+	 *            rule definitions
+	 * @return compiled rules
 	 */
-	private List<Node> getMatchingSearchTypes()
+	public CompiledRuleSet compile(final List<ValidationRule> rules)
 	{
-
-		String xpathExpression = null;
-
-		switch (relationship)
-		{
-			case DISJUNCTION:
-			{
-				xpathExpression = PATH_TO_DISJUNCTION_SEARCHTYPE;
-				break;
-			}
-			case CONJUNCTION:
-			{
-				xpathExpression = PATH_TO_CONJUNCTION_SEARCHTYPE;
-				break;
-			}
-			case IN:
-			{
-				xpathExpression = PATH_TO_IN_SEARCHTYPE;
-				break;
-			}
-			default:
-			{
-				return CollectionUtil.newList();
-			}
-		}
-
-		return XPathUtil.executeXPathExpression(searchQuery, xpathExpression,
-				namespaceContext);
-
+		return new CompiledRuleSet(rules, namespaceContext);
 	}
 
 	/**
-	 * Determines the result based on the rule condition and parameter
+	 * Return the compiled form of a rule list, compiling it unless it is the list
+	 * compiled last.
 	 * 
-	 * @param count
-	 * @return
+	 * @param rules
+	 *            rule definitions
+	 * @return compiled rules
 	 */
-	private boolean determineResult(final int count)
+	private CompiledRuleSet getCompiledRules(final List<ValidationRule> rules)
 	{
-
-		switch (ruleCondition)
+		CompiledRuleSet current = compiledRules;
+		if ((current == null) || (current.getSource() != rules))
 		{
-			case GREATER:
-			{
-				return count > ruleParameter;
-			}
-
-			case LESSTHAN:
-			{
-				return count < ruleParameter;
-			}
-
-			case EQUALS:
-			{
-				return count == ruleParameter;
-			}
-			default:
+			if (log.isDebugEnabled())
 			{
-				return false;
+				log.debug("Compiling " + rules.size() + " validation rule(s)");
 			}
+			current = compile(rules);
+			compiledRules = current;
 		}
+		return current;
 	}
 
 	/**
@@ -19,6 +19,7 @@ import static edu.utah.further.core.api.collections.CollectionUtil.newList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import javax.xml.bind.JAXBException;
@@ -37,6 +38,12 @@ import edu.utah.further.fqe.impl.validation.domain.ValidationRule;
 /**
  * Utility implementation for returning a list of rules using XML based rule definitions
  * <p>
+ * The rule list is loaded once and cached; {@link #getRules()} never scans the rule
+ * directory after the first load. {@link #refresh()}, which is normally scheduled, rescans
+ * the directory and replaces the list only when the set of rule files or any of their
+ * modification times change, so that callers may cache derived (compiled) forms of the
+ * list by identity.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -80,6 +87,17 @@ public class RuleListUtilXMLImpl implements RuleListUtil<ValidationRule>
 	@Autowired
 	private ResourceLoader resourceLoader;
 
+	/**
+	 * Cached rule list.
+	 */
+	private volatile List<ValidationRule> rules;
+
+	/**
+	 * Signature of the rule files the cached rule list was loaded from. Guarded by this
+	 * object.
+	 */
+	private String rulesSignature;
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -88,8 +106,38 @@ public class RuleListUtilXMLImpl implements RuleListUtil<ValidationRule>
 	@Override
 	public List<ValidationRule> getRules()
 	{
+		final List<ValidationRule> current = rules;
+		if (current != null)
+		{
+			return current;
+		}
+		synchronized (this)
+		{
+			if (rules == null)
+			{
+				load();
+			}
+			return rules;
+		}
+	}
 
-		final List<ValidationRule> rules = newList();
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.utah.further.fqe.api.validation.RuleListUtil#refresh()
+	 */
+	@Override
+	public synchronized void refresh()
+	{
+		load();
+	}
+
+	/**
+	 * Scans the rule directory and reloads the rule list if it was never loaded or the
+	 * rule files changed. Must be called while holding this object's lock.
+	 */
+	private void load()
+	{
 		final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(
 				resourceLoader);
 		Resource[] ruleNames = new Resource[0];
@@ -102,12 +150,49 @@ public class RuleListUtilXMLImpl implements RuleListUtil<ValidationRule>
 		{
 			log.error("An IOException occurred", e);
 		}
-		for (final Resource name : ruleNames)
+
+		final String signature = getSignature(ruleNames);
+		if ((rules == null) || !signature.equals(rulesSignature))
 		{
-			rules.add(loadRuleFromClassPath(name));
+			final List<ValidationRule> newRules = newList();
+			for (final Resource name : ruleNames)
+			{
+				newRules.add(loadRuleFromClassPath(name));
+			}
+			rulesSignature = signature;
+			rules = Collections.unmodifiableList(newRules);
+			if (log.isDebugEnabled())
+			{
+				log.debug("Loaded " + newRules.size() + " validation rule(s)");
+			}
 		}
+	}
 
-		return rules;
+	/**
+	 * Returns a string that changes whenever a rule file is added, removed or modified.
+	 * 
+	 * @param ruleNames
+	 *            rule file resources
+	 * @return rule file signature
+	 */
+	private String getSignature(final Resource[] ruleNames)
+	{
+		final StringBuilder signature = new StringBuilder();
+		for (final Resource name : ruleNames)
+		{
+			signature.append(name.getDescription()).append('@');
+			try
+			{
+				signature.append(name.lastModified());
+			}
+			catch (final IOException e)
+			{
+				// Modification time unavailable; rely on the resource name only
+				signature.append('?');
+			}
+			signature.append(';');
+		}
+		return signature.toString();
 	}
 
 	/**
@@ -143,9 +228,11 @@ public class RuleListUtilXMLImpl implements RuleListUtil<ValidationRule>
 	 * @see edu.utah.further.fqe.api.validation.RuleListUtil#setRuleDir(java.lang.String)
 	 */
 	@Override
-	public void setRuleDir(final String ruleDir)
+	public synchronized void setRuleDir(final String ruleDir)
 	{
 
 		this.ruleDir = ruleDir;
+		this.rules = null;
+		this.rulesSignature = null;
 	}
 }
@@ -34,7 +34,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestQuerySealer.class })
+{ UTestQuerySealer.class, UTestQueryPurger.class })
 public final class SuiteJobs
 {
 }
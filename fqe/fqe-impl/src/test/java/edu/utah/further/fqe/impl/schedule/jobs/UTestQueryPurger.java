@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.schedule.jobs;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+import edu.utah.further.core.api.data.Dao;
+import edu.utah.further.core.api.time.TimeService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.service.results.ResultDataService;
+import edu.utah.further.fqe.impl.domain.QueryContextEntity;
+import edu.utah.further.fqe.impl.fixture.FqeImplUtestFixture;
+import edu.utah.further.fqe.impl.scheduler.jobs.QueryPurger;
+import edu.utah.further.fqe.mpi.api.service.IdentifierService;
+
+/**
+ * Tests expiring old query generations with {@link QueryPurger}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public final class UTestQueryPurger extends FqeImplUtestFixture
+{
+	// ========================= CONSTANTS ==========================
+
+	/**
+	 * Milliseconds per day.
+	 */
+	private static final long DAY_MS = 24L * 60L * 60L * 1000L;
+
+	// ========================= DEPENDENCIES =======================
+
+	/**
+	 * Inserts QC's in a specific state directly.
+	 */
+	@Autowired
+	@Qualifier("dao")
+	private Dao dao;
+
+	// ========================= FIELDS =============================
+
+	/**
+	 * Purger under test - no need to use Spring in this case to instantiate it.
+	 */
+	private QueryPurger queryPurger;
+
+	/**
+	 * Mock result data service.
+	 */
+	private ResultDataService resultDataService;
+
+	/**
+	 * Mock virtual ID service.
+	 */
+	private IdentifierService identifierService;
+
+	// ========================= SETUP METHODS ======================
+
+	/**
+	 * Clean up database and wire the purger.
+	 */
+	@Before
+	public void setup()
+	{
+		queryContextService.deleteAll();
+		assertNumberQueryContextsInDatabase(0);
+
+		resultDataService = createMock(ResultDataService.class);
+		identifierService = createMock(IdentifierService.class);
+		queryPurger = new QueryPurger();
+		queryPurger.setQcService(queryContextService);
+		queryPurger.setResultDataService(resultDataService);
+		queryPurger.setIdentifierService(identifierService);
+		final Map<QueryType, Integer> retentionDays = new EnumMap<>(QueryType.class);
+		retentionDays.put(QueryType.DATA_QUERY, Integer.valueOf(7));
+		retentionDays.put(QueryType.COUNT_QUERY, Integer.valueOf(0));
+		queryPurger.setRetentionDays(retentionDays);
+	}
+
+	/**
+	 * Reset environment. Clean up database.
+	 */
+	@After
+	public void tearDown()
+	{
+		TimeService.reset();
+		queryContextService.deleteAll();
+		assertNumberQueryContextsInDatabase(0);
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * An expired generation is dropped together with its results and virtual IDs; a
+	 * recent generation is kept.
+	 */
+	@Test
+	public void expiredGenerationIsPurged()
+	{
+		final long now = TimeService.getMillis();
+		TimeService.fixSystemTime(now - 10 * DAY_MS);
+		final QueryContext expired = saveGeneration();
+		TimeService.fixSystemTime(now);
+		final QueryContext recent = saveGeneration();
+		assertNumberQueryContextsInDatabase(4);
+
+		expect(
+				resultDataService.deleteQueryResults(EasyMock
+						.<List<String>> anyObject())).andReturn(Integer.valueOf(2))
+				.once();
+		expect(
+				identifierService.deleteIdentifiers(EasyMock.<List<String>> anyObject()))
+				.andReturn(Integer.valueOf(2)).once();
+		replay(resultDataService, identifierService);
+
+		queryPurger.run();
+
+		verify(resultDataService, identifierService);
+		assertNumberQueryContextsInDatabase(2);
+		assertThat(queryContextService.findExecutionIds(
+				asIdList(expired.getId())).isEmpty(), is(true));
+		assertThat(Integer.valueOf(queryContextService.findExecutionIds(
+				asIdList(recent.getId())).size()), is(Integer.valueOf(2)));
+	}
+
+	/**
+	 * Query types without a retention period are never purged.
+	 */
+	@Test
+	public void disabledQueryTypeIsKept()
+	{
+		final long now = TimeService.getMillis();
+		TimeService.fixSystemTime(now - 100 * DAY_MS);
+		final QueryContext parent = newQueryContextEntity();
+		parent.setQueryType(QueryType.COUNT_QUERY);
+		finish(parent);
+		dao.save(parent);
+		TimeService.fixSystemTime(now);
+		replay(resultDataService, identifierService);
+
+		queryPurger.run();
+
+		verify(resultDataService, identifierService);
+		assertNumberQueryContextsInDatabase(1);
+	}
+
+	/**
+	 * A retained query whose associated result is an expired query does not block the
+	 * purge; it is kept without the association.
+	 */
+	@Test
+	public void expiredAssociatedResultIsPurged()
+	{
+		final long now = TimeService.getMillis();
+		TimeService.fixSystemTime(now - 10 * DAY_MS);
+		final QueryContext expired = saveGeneration();
+		TimeService.fixSystemTime(now);
+		final QueryContext retained = newQueryContextEntity();
+		retained.setQueryType(QueryType.COUNT_QUERY);
+		retained.setAssociatedResult(expired);
+		finish(retained);
+		dao.save(retained);
+		assertNumberQueryContextsInDatabase(3);
+
+		expect(
+				resultDataService.deleteQueryResults(EasyMock
+						.<List<String>> anyObject())).andReturn(Integer.valueOf(2))
+				.once();
+		expect(
+				identifierService.deleteIdentifiers(EasyMock.<List<String>> anyObject()))
+				.andReturn(Integer.valueOf(2)).once();
+		replay(resultDataService, identifierService);
+
+		queryPurger.run();
+
+		verify(resultDataService, identifierService);
+		assertNumberQueryContextsInDatabase(1);
+		assertThat(queryContextService.findById(retained.getId()).getAssociatedResult(),
+				nullValue());
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Save a completed federated query with one completed child.
+	 * 
+	 * @return parent query context
+	 */
+	private QueryContext saveGeneration()
+	{
+		final QueryContext parent = QueryContextEntity.newInstanceWithExecutionId();
+		parent.setQueryType(QueryType.DATA_QUERY);
+		parent.setQuery(newQueryContextEntity().getQuery());
+		finish(parent);
+		dao.save(parent);
+
+		final QueryContext child = QueryContextEntity.newInstanceWithExecutionId();
+		child.setQueryType(QueryType.DATA_QUERY);
+		child.setQuery(newQueryContextEntity().getQuery());
+		child.setParent(parent);
+		finish(child);
+		dao.save(child);
+		return parent;
+	}
+
+	/**
+	 * @param queryContext
+	 *            query context to move to the COMPLETED state
+	 */
+	private static void finish(final QueryContext queryContext)
+	{
+		queryContext.queue();
+		queryContext.start();
+		queryContext.finish();
+	}
+
+	/**
+	 * @param id
+	 *            query context ID
+	 * @return singleton ID list
+	 */
+	private static List<Long> asIdList(final Long id)
+	{
+		return Collections.singletonList(id);
+	}
+}
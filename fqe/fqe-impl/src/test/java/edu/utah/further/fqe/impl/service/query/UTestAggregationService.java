@@ -26,10 +26,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import javax.xml.bind.JAXBException;
 
@@ -40,6 +38,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.xml.sax.SAXException;
 
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.core.api.xml.XmlService;
 import edu.utah.further.core.util.io.IoUtil;
@@ -141,14 +140,12 @@ public class UTestAggregationService extends FqeImplUtestFixture
 				.andStubReturn(idsInSum);
 
 		// ids (1,3) are the same and have a common identifier (1337)
-		final Map<Long, Set<Long>> commonToVirtual = new HashMap<>();
-		final Set<Long> virtuals = new HashSet<>();
-		virtuals.add(new Long(1));
-		virtuals.add(new Long(3));
-		commonToVirtual.put(new Long(1337), virtuals);
+		final LongMultimap commonToVirtual = new LongMultimap();
+		commonToVirtual.put(1337L, 1L);
+		commonToVirtual.put(1337L, 3L);
 
 		expect(
-				identifierService.getCommonIdToVirtualIdMap(anyObject(List.class),
+				identifierService.getCommonIdToVirtualIds(anyObject(List.class),
 						anyBoolean())).andStubReturn(commonToVirtual);
 
 		// id (2) is unresolved
@@ -25,22 +25,29 @@ import static edu.utah.further.fqe.ds.test.QueryContextTestUtil.newQueryContextT
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.core.api.time.TimeService;
 import edu.utah.further.core.test.annotation.UnitTest;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
 import edu.utah.further.fqe.ds.api.domain.ResultContext;
 import edu.utah.further.fqe.ds.api.domain.StatusMetaData;
 import edu.utah.further.fqe.ds.api.to.QueryContextTo;
@@ -75,6 +82,15 @@ public final class UTestQueryContextService extends FqeImplUtestFixture
 
 	// ========================= FIELDS ====================================
 
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Saves entities without the service's state checks.
+	 */
+	@Autowired
+	@Qualifier("dao")
+	private Dao dao;
+
 	// ========================= SETUP METHODS =============================
 
 	/**
@@ -300,6 +316,138 @@ public final class UTestQueryContextService extends FqeImplUtestFixture
 		assertThatStatusesQueryContextEquals(statuses, queryContext);
 	}
 
+	/**
+	 * The retained status history is bounded; older progress statuses are archived and
+	 * still returned as part of the full history.
+	 */
+	@Test
+	public void statusHistoryIsCompacted()
+	{
+		QueryContext queryContext = newQueryContextEntity();
+		queryContext = queryContextService.queue(queryContext);
+
+		final int numStatuses = 50;
+		for (int i = 0; i < numStatuses; i++)
+		{
+			final StatusMetaData statusMetaData = StatusMetaDataEntity.newInstance();
+			statusMetaData.setStatus("Status " + i);
+			queryContext.setCurrentStatus(statusMetaData);
+			queryContextService.update(queryContext);
+		}
+
+		final QueryContext loaded = queryContextService.findById(queryContext.getId());
+		final List<StatusMetaData> retained = loaded.getStatuses();
+		assertThat(Integer.valueOf(retained.size()), lessThan(Integer
+				.valueOf(numStatuses)));
+		assertThat(retained.get(0).getStatus(), is("Status 0"));
+		assertThat(retained.get(retained.size() - 1).getStatus(), is("Status "
+				+ (numStatuses - 1)));
+		assertThat(loaded.getCurrentStatus().getStatus(), is("Status "
+				+ (numStatuses - 1)));
+
+		final List<StatusMetaData> statuses = queryContextService
+				.findAllStatuses(queryContext.getId());
+		assertSizeEquals(statuses, numStatuses);
+		for (int i = 0; i < numStatuses; i++)
+		{
+			assertThat(statuses.get(i).getStatus(), is("Status " + i));
+		}
+	}
+
+	/**
+	 * Archived statuses of a child query are associated with its federated parent.
+	 */
+	@Test
+	public void archivedChildStatusesBelongToParent()
+	{
+		final QueryContext parent = queryContextService.queue(newQueryContextEntity());
+		final QueryContext child = newQueryContextEntity();
+		child.setParent(parent);
+		child.queue();
+		dao.save(child);
+
+		final int numStatuses = 50;
+		for (int i = 0; i < numStatuses; i++)
+		{
+			final StatusMetaData statusMetaData = StatusMetaDataEntity.newInstance();
+			statusMetaData.setStatus("Status " + i);
+			child.setCurrentStatus(statusMetaData);
+			queryContextService.update(child);
+		}
+
+		final int numRetained = queryContextService
+				.findById(child.getId())
+				.getStatuses()
+				.size();
+		final List<StatusMetaData> statuses = queryContextService.findAllStatuses(child
+				.getId());
+		assertSizeEquals(statuses, numStatuses);
+		for (int i = 1; i <= numStatuses - numRetained; i++)
+		{
+			assertThat(statuses.get(i).getStatus(), is("Status " + i));
+			assertThat(statuses.get(i).getQueryContextId(), is(parent.getId()));
+		}
+	}
+
+	/**
+	 * A summary holds the query context's state and counts.
+	 */
+	@Test
+	public void findSummaryById()
+	{
+		QueryContext queryContext = queryContextService.queue(newQueryContextEntity());
+		final StatusMetaData statusMetaData = StatusMetaDataEntity.newInstance();
+		statusMetaData.setStatus("Status 1");
+		queryContext.setCurrentStatus(statusMetaData);
+		queryContext.setNumRecords(15);
+		queryContext = queryContextService.update(queryContext);
+
+		final QueryContextSummary summary = queryContextService
+				.findSummaryById(queryContext.getId());
+		assertThat(summary.getId(), is(queryContext.getId()));
+		assertThat(summary.getParentId(), nullValue());
+		assertThat(summary.getExecutionId(), is(queryContext.getExecutionId()));
+		assertThat(summary.getState(), is(QueryState.QUEUED));
+		assertThat(new Long(summary.getNumRecords()), is(new Long(15)));
+		assertThat(summary.getCurrentStatus(), is("Status 1"));
+		assertThat(queryContextService.findSummaryById(new Long(-1)), nullValue());
+	}
+
+	/**
+	 * Children are summarized and counted by state without loading them.
+	 */
+	@Test
+	public void childSummariesAndCounts()
+	{
+		final QueryContext parent = queryContextService.queue(newQueryContextEntity());
+		for (int i = 0; i < 3; i++)
+		{
+			final QueryContext child = newQueryContextEntity();
+			child.setParent(parent);
+			child.queue();
+			child.start();
+			if (i < 2)
+			{
+				child.finish();
+			}
+			dao.save(child);
+		}
+
+		final List<QueryContextSummary> children = queryContextService
+				.findChildSummaries(parent.getId());
+		assertSizeEquals(children, 3);
+		for (final QueryContextSummary child : children)
+		{
+			assertThat(child.getParentId(), is(parent.getId()));
+		}
+
+		final Map<QueryState, Long> counts = queryContextService
+				.countChildrenByState(parent.getId());
+		assertThat(counts.get(QueryState.COMPLETED), is(new Long(2)));
+		assertThat(counts.get(QueryState.EXECUTING), is(new Long(1)));
+		assertThat(counts.get(QueryState.FAILED), nullValue());
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -0,0 +1,280 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.service.query;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.utah.further.core.api.data.Dao;
+import edu.utah.further.fqe.api.service.query.QueryStatusListener;
+import edu.utah.further.fqe.api.ws.to.status.DataSourceStatusChangeTo;
+import edu.utah.further.fqe.api.ws.to.status.QueryStatusChangeTo;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryState;
+import edu.utah.further.fqe.ds.api.to.QueryContextTo;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+import edu.utah.further.fqe.impl.fixture.FqeImplUtestFixture;
+
+/**
+ * Tests tracking and pushing federated query status changes with
+ * {@link QueryStatusBrokerImpl}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestQueryStatusBroker extends FqeImplUtestFixture
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Data source of the child query.
+	 */
+	private static final String DATA_SOURCE_ID = "UUEDW";
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Saves query contexts in a specific state.
+	 */
+	@Autowired
+	@Qualifier("dao")
+	private Dao dao;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Broker under test.
+	 */
+	private QueryStatusBrokerImpl broker;
+
+	/**
+	 * Federated query.
+	 */
+	private QueryContext parent;
+
+	/**
+	 * Data source query.
+	 */
+	private QueryContext child;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Save a running federated query with one data source query.
+	 */
+	@Before
+	public void setup()
+	{
+		queryContextService.deleteAll();
+		broker = new QueryStatusBrokerImpl();
+		broker.setQcService(queryContextService);
+
+		parent = newQueryContextEntity();
+		parent.queue();
+		parent.start();
+		dao.save(parent);
+
+		child = newQueryContextEntity();
+		child.setParent(parent);
+		child.setDataSourceId(DATA_SOURCE_ID);
+		child.queue();
+		dao.save(child);
+	}
+
+	/**
+	 * Clean up database.
+	 */
+	@After
+	public void tearDown()
+	{
+		queryContextService.deleteAll();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * The first request returns the entire status; a repeated request returns nothing.
+	 */
+	@Test
+	public void entireStatusSinceZero()
+	{
+		final QueryStatusChangeTo changes = broker.getChanges(parent.getId(), 0L);
+		assertThat(changes.getState(), is(QueryState.EXECUTING));
+		assertThat(changes.getNumRecords(), is(Long.valueOf(NUM_RECORDS)));
+		assertThat(changes.getDataSources().size(), is(1));
+		final DataSourceStatusChangeTo dataSource = changes.getDataSources().get(0);
+		assertThat(dataSource.getDataSourceId(), is(DATA_SOURCE_ID));
+		assertThat(dataSource.getState(), is(QueryState.QUEUED));
+
+		assertThat(broker.getChanges(parent.getId(), changes.getVersion()), nullValue());
+	}
+
+	/**
+	 * A published child update notifies listeners and carries only the changed fields.
+	 */
+	@Test
+	public void publishChildChange()
+	{
+		final long version = broker.getChanges(parent.getId(), 0L).getVersion();
+		final AtomicInteger notifications = new AtomicInteger();
+		assertTrue(broker.addListener(parent.getId(), version, new QueryStatusListener()
+		{
+			@Override
+			public void onChange(final Long queryId)
+			{
+				notifications.incrementAndGet();
+			}
+		}));
+
+		child.start();
+		dao.update(child);
+		broker.publish(child);
+
+		assertThat(notifications.get(), is(1));
+		final QueryStatusChangeTo changes = broker.getChanges(parent.getId(), version);
+		assertThat(changes.getVersion(), is(version + 1));
+		assertThat(changes.getState(), nullValue());
+		assertThat(changes.getNumRecords(), nullValue());
+		assertThat(changes.getDataSources().size(), is(1));
+		final DataSourceStatusChangeTo dataSource = changes.getDataSources().get(0);
+		assertThat(dataSource.getState(), is(QueryState.EXECUTING));
+		assertThat(dataSource.getNumRecords(), nullValue());
+
+		// Publishing an unchanged query is not a change
+		broker.publish(child);
+		assertThat(notifications.get(), is(1));
+		assertThat(broker.getChanges(parent.getId(), version + 1), nullValue());
+	}
+
+	/**
+	 * A listener is not registered if the client is behind.
+	 */
+	@Test
+	public void listenerBehind()
+	{
+		final long version = broker.getChanges(parent.getId(), 0L).getVersion();
+		child.start();
+		dao.update(child);
+		broker.publish(child);
+
+		assertFalse(broker.addListener(parent.getId(), version, new QueryStatusListener()
+		{
+			@Override
+			public void onChange(final Long queryId)
+			{
+			}
+		}));
+	}
+
+	/**
+	 * Publishing a query that no client asked about neither loads nor tracks it.
+	 */
+	@Test
+	public void publishUntrackedQuery()
+	{
+		// Any database access would fail
+		broker.setQcService(null);
+		child.start();
+		dao.update(child);
+		broker.publish(child);
+		broker.publish(parent);
+
+		// The first request seeds the record from the database
+		broker.setQcService(queryContextService);
+		final QueryStatusChangeTo changes = broker.getChanges(parent.getId(), 0L);
+		assertThat(changes.getDataSources().get(0).getState(), is(QueryState.EXECUTING));
+	}
+
+	/**
+	 * A data source status message, which only carries its parent's ID, updates the
+	 * tracked federated query without reloading it.
+	 */
+	@Test
+	public void publishTransferObject()
+	{
+		final long version = broker.getChanges(parent.getId(), 0L).getVersion();
+		broker.setQcService(null);
+
+		final QueryContextTo message = QueryContextToImpl.newCopy(child);
+		message.start();
+		broker.publish(message);
+
+		final QueryStatusChangeTo changes = broker.getChanges(parent.getId(), version);
+		assertThat(changes.getVersion(), is(version + 1));
+		assertThat(changes.getDataSources().get(0).getState(), is(QueryState.EXECUTING));
+	}
+
+	/**
+	 * A client whose version predates a dropped and re-seeded record receives the entire
+	 * status, including changes published while the record was not tracked.
+	 */
+	@Test
+	public void reseededRecordSendsEntireStatus()
+	{
+		final long version = broker.getChanges(parent.getId(), 0L).getVersion();
+
+		// Drop the record upon the next publication, then change the untracked query
+		broker.setRetentionMillis(-1L);
+		ReflectionTestUtils.setField(broker, "lastPurge", new AtomicLong(0L));
+		broker.publish(parent);
+		child.start();
+		dao.update(child);
+		broker.publish(child);
+
+		assertFalse(broker.addListener(parent.getId(), version, new QueryStatusListener()
+		{
+			@Override
+			public void onChange(final Long queryId)
+			{
+			}
+		}));
+		final QueryStatusChangeTo changes = broker.getChanges(parent.getId(), version);
+		assertTrue(changes.getVersion() > version);
+		assertThat(changes.getState(), is(QueryState.EXECUTING));
+		assertThat(changes.getDataSources().get(0).getState(), is(QueryState.EXECUTING));
+	}
+
+	/**
+	 * An unknown query is reported as invalid.
+	 */
+	@Test
+	public void unknownQuery()
+	{
+		final QueryStatusChangeTo changes = broker.getChanges(Long.valueOf(-1L), 0L);
+		assertThat(changes.getState(), is(QueryState.INVALID));
+	}
+}
@@ -34,7 +34,7 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-{ UTestAsynchronousRoute.class, UTestSynchronousRoute.class })
+{ UTestAsynchronousRoute.class, UTestSynchronousRoute.class, UTestQueryPromotion.class })
 public final class SuiteRoute
 {
 }
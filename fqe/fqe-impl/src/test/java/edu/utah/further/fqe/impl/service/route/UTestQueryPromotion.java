@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.fqe.impl.service.route;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.easymock.Capture;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.core.api.scope.NamespaceService;
+import edu.utah.further.core.query.domain.Relation;
+import edu.utah.further.core.query.domain.SearchCriteria;
+import edu.utah.further.core.query.domain.SearchQuery;
+import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.api.service.query.QueryValidationService;
+import edu.utah.further.fqe.ds.api.domain.QueryContext;
+import edu.utah.further.fqe.ds.api.domain.QueryType;
+import edu.utah.further.fqe.ds.api.domain.plan.ExecutionRule;
+import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
+import edu.utah.further.fqe.impl.service.plan.QueryPlanService;
+import edu.utah.further.fqe.impl.validation.domain.ValidationRule;
+import edu.utah.further.security.api.authentication.PreAuthenticatedFederatedAuthenticationProvider;
+
+/**
+ * Unit test of promoting a count query to a data query: the data query is triggered with
+ * the count query's criteria and user, and directed to the data sources that answered the
+ * count query.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestQueryPromotion
+{
+	// ========================= CONSTANTS =================================
+
+	private static final String USER_ID = "1";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Service under test.
+	 */
+	private FqeServiceImpl fqeService;
+
+	/**
+	 * Finds the count query's children and queues the data query.
+	 */
+	private QueryContextService queryContextService;
+
+	/**
+	 * Receives the promoted data query.
+	 */
+	private QueryPlanService queryPlanService;
+
+	/**
+	 * Validates the promoted data query.
+	 */
+	private QueryValidationService<ValidationRule> queryValidationService;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Set up a service with mock collaborators.
+	 */
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp()
+	{
+		queryContextService = createMock(QueryContextService.class);
+		queryPlanService = createMock(QueryPlanService.class);
+		queryValidationService = createMock(QueryValidationService.class);
+
+		fqeService = new FqeServiceImpl();
+		ReflectionTestUtils.setField(fqeService, "queryContextService",
+				queryContextService);
+		ReflectionTestUtils.setField(fqeService, "queryPlanService", queryPlanService);
+		ReflectionTestUtils.setField(fqeService, "queryValidationService",
+				queryValidationService);
+		ReflectionTestUtils.setField(fqeService, "authenticationProvider",
+				createNiceMock(PreAuthenticatedFederatedAuthenticationProvider.class));
+		final NamespaceService namespaceService = createNiceMock(NamespaceService.class);
+		replay(namespaceService);
+		ReflectionTestUtils.setField(fqeService, "namespaceService", namespaceService);
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * A count query is promoted to a data query with the same criteria, planned against
+	 * each distinct data source that answered the count query.
+	 */
+	@Test
+	public void promoteCountQuery()
+	{
+		final QueryContext countQuery = newQueryContext(QueryType.COUNT_QUERY,
+				newSearchQuery());
+		expect(queryContextService.findChildren(countQuery)).andReturn(
+				asList(newChild("UUEDW"), newChild("IH"), newChild("UUEDW"),
+						newChild(null)));
+		expect(queryContextService.queue(isA(QueryContext.class))).andAnswer(
+				new IAnswer<QueryContext>()
+				{
+					@Override
+					public QueryContext answer()
+					{
+						return (QueryContext) getCurrentArguments()[0];
+					}
+				});
+		expect(
+				Boolean.valueOf(queryValidationService.validateQuery(isA(QueryContext.class))))
+				.andReturn(Boolean.TRUE);
+		final Capture<QueryContext> planned = new Capture<>();
+		queryPlanService.createPlan(capture(planned));
+		expectLastCall();
+		replay(queryContextService, queryPlanService, queryValidationService);
+
+		final QueryContext dataQuery = fqeService.promoteQuery(countQuery);
+
+		verify(queryContextService, queryPlanService, queryValidationService);
+		assertThat(planned.getValue(), sameInstance(dataQuery));
+		assertThat(dataQuery, not(sameInstance(countQuery)));
+		assertThat(dataQuery.getQueryType(), is(QueryType.DATA_QUERY));
+		assertThat(dataQuery.getUserId(), is(USER_ID));
+		assertThat(dataQuery.getQuery(), is(countQuery.getQuery()));
+		assertThat(Integer.valueOf(dataQuery.getMinRespondingDataSources()),
+				is(Integer.valueOf(2)));
+		assertThat(Integer.valueOf(dataQuery.getMaxRespondingDataSources()),
+				is(Integer.valueOf(2)));
+
+		final List<String> dataSourceIds = CollectionUtil.newList();
+		for (final ExecutionRule executionRule : dataQuery.getPlan().getExecutionRules())
+		{
+			dataSourceIds.add(executionRule.getDataSourceId());
+			assertThat(executionRule.getSearchQueryId(), is(new Long(1)));
+		}
+		assertThat(dataSourceIds, is(asList("UUEDW", "IH")));
+	}
+
+	/**
+	 * A data query is already promoted and is returned without triggering anything.
+	 */
+	@Test
+	public void dataQueryIsReturnedAsIs()
+	{
+		final QueryContext dataQuery = newQueryContext(QueryType.DATA_QUERY,
+				newSearchQuery());
+		replay(queryContextService, queryPlanService, queryValidationService);
+
+		assertThat(fqeService.promoteQuery(dataQuery), sameInstance(dataQuery));
+		verify(queryContextService, queryPlanService, queryValidationService);
+	}
+
+	/**
+	 * The plan of a multi-query count query cannot be reconstructed.
+	 */
+	@Test(expected = ApplicationException.class)
+	public void multiQueryCountQueryIsRejected()
+	{
+		final QueryContext countQuery = newQueryContext(QueryType.COUNT_QUERY,
+				newSearchQuery(), newSearchQuery());
+		replay(queryContextService, queryPlanService, queryValidationService);
+
+		fqeService.promoteQuery(countQuery);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return a new search query with a fixed identifier
+	 */
+	private static SearchQuery newSearchQuery()
+	{
+		final SearchQuery searchQuery = SearchCriteria.query(
+				SearchCriteria.simpleExpression(Relation.EQ, "genderCd", "F"), "Person");
+		searchQuery.setId(new Long(1));
+		return searchQuery;
+	}
+
+	/**
+	 * @param queryType
+	 *            query type
+	 * @param searchQueries
+	 *            search queries
+	 * @return a new parent query context
+	 */
+	private static QueryContext newQueryContext(final QueryType queryType,
+			final SearchQuery... searchQueries)
+	{
+		final QueryContextToImpl queryContext = QueryContextToImpl
+				.newInstanceWithExecutionId();
+		queryContext.setId(new Long(1));
+		queryContext.setUserId(USER_ID);
+		queryContext.setQueryType(queryType);
+		queryContext.setQueries(asList(searchQueries));
+		return queryContext;
+	}
+
+	/**
+	 * @param dataSourceId
+	 *            data source that answered the parent query
+	 * @return a new child query context
+	 */
+	private static QueryContext newChild(final String dataSourceId)
+	{
+		final QueryContextToImpl child = QueryContextToImpl.newInstanceWithExecutionId();
+		child.setDataSourceId(dataSourceId);
+		return child;
+	}
+}
@@ -15,9 +15,18 @@
  */
 package edu.utah.further.fqe.impl.validation;
 
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -103,4 +112,80 @@ public class UTestRuleExecutor extends FqeImplValidationRulesFixture
 		assertFalse(result);
 	}
 
+	@Test
+	public void testRuleSet() throws Exception
+	{
+
+		final List<ValidationRule> rules = testRules();
+		final SearchQuery dataTypeQuery = xmlService.unmarshalResource(
+				MULTIPLE_DATATYPE_QUERY, SearchQueryTo.class);
+		final SearchQuery icdQuery = xmlService.unmarshalResource(ICD_EXCESS_QUERY,
+				SearchQueryTo.class);
+		// Second call reuses the rules compiled by the first one
+		assertFalse(ruleExecutor.executeRules(dataTypeQuery, rules));
+		assertFalse(ruleExecutor.executeRules(icdQuery, rules));
+		assertTrue(ruleExecutor.executeRules(icdQuery,
+				Collections.<ValidationRule> emptyList()));
+	}
+
+	@Test
+	public void testEachRule() throws Exception
+	{
+
+		final List<ValidationRule> rules = testRules();
+		final SearchQuery dataTypeQuery = xmlService.unmarshalResource(
+				MULTIPLE_DATATYPE_QUERY, SearchQueryTo.class);
+		final List<Boolean> outcomes = ruleExecutor.executeEachRule(dataTypeQuery, rules);
+		assertEquals(rules.size(), outcomes.size());
+		for (int i = 0; i < rules.size(); i++)
+		{
+			assertEquals(Boolean.valueOf(ruleExecutor.executeRule(dataTypeQuery,
+					rules.get(i))), outcomes.get(i));
+		}
+		assertFalse(outcomes.get(0).booleanValue());
+	}
+
+	@Test
+	public void testRuleSetConcurrently() throws Exception
+	{
+
+		final List<ValidationRule> rules = testRules();
+		final SearchQuery dataTypeQuery = xmlService.unmarshalResource(
+				MULTIPLE_DATATYPE_QUERY, SearchQueryTo.class);
+		final SearchQuery icdQuery = xmlService.unmarshalResource(ICD_EXCESS_QUERY,
+				SearchQueryTo.class);
+		final List<Boolean> dataTypeOutcomes = ruleExecutor.executeEachRule(
+				dataTypeQuery, rules);
+		final List<Boolean> icdOutcomes = ruleExecutor.executeEachRule(icdQuery, rules);
+
+		// All threads share the rule set compiled above
+		final ExecutorService executorService = Executors.newFixedThreadPool(8);
+		try
+		{
+			final List<Future<List<Boolean>>> futures = newList();
+			for (int i = 0; i < 200; i++)
+			{
+				final SearchQuery query = (i % 2 == 0) ? dataTypeQuery : icdQuery;
+				futures.add(executorService.submit(new Callable<List<Boolean>>()
+				{
+					@Override
+					public List<Boolean> call()
+					{
+						return ruleExecutor.executeEachRule(query, rules);
+					}
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++)
+			{
+				assertEquals((i % 2 == 0) ? dataTypeOutcomes : icdOutcomes, futures
+						.get(i)
+						.get());
+			}
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+
 }
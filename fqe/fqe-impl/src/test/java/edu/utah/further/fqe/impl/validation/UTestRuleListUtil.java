@@ -16,6 +16,7 @@
 package edu.utah.further.fqe.impl.validation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.List;
 
@@ -66,4 +67,15 @@ public class UTestRuleListUtil extends FqeImplValidationRulesFixture
 		assertEquals(rules.size(), testRules().size());
 	}
 
+	@Test
+	public void testRulesAreCached()
+	{
+
+		List<ValidationRule> rules = ruleListUtil.getRules();
+		assertSame(rules, ruleListUtil.getRules());
+		// Rule files did not change, so a refresh keeps the same list instance
+		ruleListUtil.refresh();
+		assertSame(rules, ruleListUtil.getRules());
+	}
+
 }
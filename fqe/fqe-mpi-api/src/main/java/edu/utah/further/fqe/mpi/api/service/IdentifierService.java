@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.data.PersistentEntity;
 import edu.utah.further.fqe.mpi.api.Identifier;
 
@@ -136,4 +137,65 @@ public interface IdentifierService
 	 */
 	Map<Long, Set<Long>> getCommonIdToVirtualIdMap(List<String> queryIds,
 			boolean orderedVirtualIds);
+
+	/**
+	 * For the given queryIds, return a primitive map of each common identifier to the
+	 * virtual identifiers linked to it. Distinct (common, virtual) pairs are streamed
+	 * from the identifier store without materializing a row object per pair.
+	 * 
+	 * @param queryIds
+	 *            the query ids to search
+	 * @param orderedVirtualIds
+	 *            whether or not to order the virtual identifiers of each common
+	 *            identifier in ascending order
+	 * @return common identifier-to-virtual identifiers map
+	 */
+	LongMultimap getCommonIdToVirtualIds(List<String> queryIds,
+			boolean orderedVirtualIds);
+
+	/**
+	 * Returns the identifiers of a query that have not been resolved to a common
+	 * identifier, as a primitive map of numeric source identifier to the persistent IDs
+	 * of the identifiers with that source identifier.
+	 * 
+	 * @param queryId
+	 *            the query id to search
+	 * @return source identifier-to-identifier IDs map
+	 */
+	LongMultimap getUnresolvedIdentifierIds(String queryId);
+
+	/**
+	 * Sets the common identifier of already saved identifiers with a single batched
+	 * statement, without loading them.
+	 * 
+	 * @param commonIdToIdentifierIds
+	 *            common identifier-to-identifier IDs map; each identifier whose
+	 *            persistent ID is listed under a common identifier is resolved to it
+	 * @return the number of updated identifiers
+	 */
+	int updateCommonIds(LongMultimap commonIdToIdentifierIds);
+
+	/**
+	 * Deletes the identifiers of the given queries with a single set-based statement,
+	 * without loading them.
+	 * 
+	 * @param queryIds
+	 *            the query ids whose identifiers are deleted
+	 * @return the number of deleted identifiers
+	 */
+	int deleteIdentifiers(List<String> queryIds);
+
+	/**
+	 * Copies the identifiers of one query to another query, keeping their virtual
+	 * identifiers so that copied results still map to them. The copies are unresolved,
+	 * i.e. their common identifiers are left for the identity resolution of the target
+	 * query.
+	 * 
+	 * @param fromQueryId
+	 *            the query id whose identifiers are copied
+	 * @param toQueryId
+	 *            the query id of the copies
+	 * @return the number of copied identifiers
+	 */
+	int copyIdentifiers(String fromQueryId, String toQueryId);
 }
@@ -15,15 +15,16 @@
  */
 package edu.utah.further.fqe.mpi.impl.resolution;
 
-import static edu.utah.further.core.query.domain.SearchCriteria.simpleExpression;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.lang.invoke.MethodHandles;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang.Validate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,22 +32,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import edu.utah.further.core.api.collections.CollectionUtil;
-import edu.utah.further.core.data.hibernate.adapter.CriteriaType;
-import edu.utah.further.core.data.hibernate.query.QueryBuilderHibernateImpl;
-import edu.utah.further.core.query.domain.Relation;
-import edu.utah.further.core.query.domain.SearchCriteria;
-import edu.utah.further.core.query.domain.SearchCriterion;
-import edu.utah.further.core.query.domain.SearchQuery;
-import edu.utah.further.core.query.domain.SearchType;
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
-import edu.utah.further.fqe.mpi.api.Identifier;
 import edu.utah.further.fqe.mpi.api.IdentityResolutionStrategy;
 import edu.utah.further.fqe.mpi.api.service.IdentifierService;
-import edu.utah.further.fqe.mpi.impl.domain.IdentifierEntity;
-import edu.utah.further.fqe.mpi.impl.domain.LookupEntity;
 
 /**
- * An identity resolution strategy that resolves identities by looking up
+ * An identity resolution strategy that resolves identities by looking up their common
+ * ids in a lookup table.
+ * <p>
+ * The unresolved identifiers of a query are read into a primitive source id-to-identifier
+ * IDs map, the lookup table is scrolled for their common ids in bounded <code>IN</code>
+ * lists, and the resolved common ids are written back in JDBC batches, so no identifier
+ * entity is loaded or updated one at a time.
  * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2012 FURTHeR Project, Health Sciences IT, University of Utah<br>
@@ -70,6 +68,11 @@ public class IdentityResolutionLookupTable implements IdentityResolutionStrategy
 	 */
 	private static final Logger log = getLogger(MethodHandles.lookup().lookupClass());
 
+	/**
+	 * Maximum number of source ids bound in a single <code>IN</code> list.
+	 */
+	private static final int MAX_IN_LIST_SIZE = 500;
+
 	// ========================= DEPENDENCIES ==============================
 
 	/**
@@ -103,45 +106,70 @@ public class IdentityResolutionLookupTable implements IdentityResolutionStrategy
 			return;
 		}
 
-		final List<Identifier> identifiers = identifierService
-				.getUnresolvedIdentifiers(queryContext.getExecutionId());
-		
-		if (identifiers.size() == 0) {
-			log.info("No unresolved identifiers to process, returning.");
-			return;
-		}
+		final LongMultimap sourceToIdentifierIds = identifierService
+				.getUnresolvedIdentifierIds(queryContext.getExecutionId());
 
-		// Maintain a map of sourceId to identifier so we can easily set the federated id
-		final Map<Long, IdentifierEntity> identifiersMap = new HashMap<>();
-		for (final Identifier identifier : identifiers)
+		if (sourceToIdentifierIds.isEmpty())
 		{
-			identifiersMap.put(Long.valueOf(identifier.getSourceId()),
-					(IdentifierEntity) identifier);
+			log.info("No unresolved identifiers to process, returning.");
+			return;
 		}
 
 		final Long namespaceId = queryContext.getTargetNamespaceId();
 		Validate.notNull(namespaceId, "namespaceId required for identity resolution");
 
-		final SearchCriterion rootAnd = SearchCriteria.junction(SearchType.CONJUNCTION);
-		rootAnd.addCriterion(simpleExpression(Relation.EQ, "namespaceId", namespaceId));
-		rootAnd.addCriterion(SearchCriteria.collection(SearchType.IN, "sourceId",
-				identifiersMap.keySet().toArray()));
+		// Sorted source ids keep each IN list within a narrow index range
+		final long[] sourceIds = sourceToIdentifierIds.keys();
+		Arrays.sort(sourceIds);
 
-		final SearchQuery query = SearchCriteria.query(rootAnd, "LookupEntity");
-		final List<LookupEntity> lookups = QueryBuilderHibernateImpl.convert(
-				CriteriaType.CRITERIA, "edu.utah.further.fqe.mpi.impl.domain",
-				lookupSessionFactory, query).list();
-
-		// Set the federated id for the identifier and save
-		for (final LookupEntity lookup : lookups)
+		final Session session = lookupSessionFactory.getCurrentSession();
+		final LongMultimap commonToIdentifierIds = new LongMultimap(sourceIds.length);
+		for (int i = 0; i < sourceIds.length; i += MAX_IN_LIST_SIZE)
 		{
-			final IdentifierEntity identifierEntity = identifiersMap.get(lookup
-					.getSourceId());
-			identifierEntity.setCommonId(lookup.getCommonId());
+			final List<Long> chunk = CollectionUtil.newList();
+			for (int j = i; j < Math.min(i + MAX_IN_LIST_SIZE, sourceIds.length); j++)
+			{
+				chunk.add(Long.valueOf(sourceIds[j]));
+			}
+
+			final ScrollableResults lookups = session
+					.createQuery(
+							"select lookup.sourceId, lookup.commonId "
+									+ "from LookupEntity as lookup "
+									+ "where lookup.namespaceId = :namespaceId "
+									+ "and lookup.commonId is not null "
+									+ "and lookup.sourceId IN (:sourceIds)")
+					.setParameter("namespaceId", namespaceId)
+					.setParameterList("sourceIds", chunk)
+					.setReadOnly(true)
+					.scroll(ScrollMode.FORWARD_ONLY);
+			try
+			{
+				// Set the federated id of each identifier with this source id
+				while (lookups.next())
+				{
+					final long commonId = lookups.getLong(1).longValue();
+					for (final long identifierId : sourceToIdentifierIds.get(lookups
+							.getLong(0)
+							.longValue()))
+					{
+						commonToIdentifierIds.put(commonId, identifierId);
+					}
+				}
+			}
+			finally
+			{
+				lookups.close();
+			}
 		}
 
-		identifierService.updateSavedIdentifiers(CollectionUtil.newList(identifiersMap
-				.values()));
+		final int resolved = identifierService.updateCommonIds(commonToIdentifierIds);
+		if (log.isDebugEnabled())
+		{
+			log.debug("Resolved " + resolved + " of "
+					+ sourceToIdentifierIds.valueCount() + " identifiers of query "
+					+ queryContext.getExecutionId());
+		}
 	}
 
 	/**
@@ -17,6 +17,10 @@ package edu.utah.further.fqe.mpi.impl.service;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -32,16 +36,20 @@ import javax.annotation.Resource;
 
 import org.apache.commons.lang.Validate;
 import org.hibernate.Query;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.ParameterizedSingleColumnRowMapper;
 import org.springframework.jdbc.core.simple.SimpleJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.core.api.data.PersistentEntity;
 import edu.utah.further.core.api.exception.ApplicationException;
@@ -78,6 +86,11 @@ public final class IdentifierServiceImpl implements IdentifierService
 	 */
 	private static final Logger log = getLogger(IdentifierServiceImpl.class);
 
+	/**
+	 * Maximum number of identifiers updated or copied per batch.
+	 */
+	private static final int UPDATE_BATCH_SIZE = 1000;
+
 	// ========================= FIELDS =================================
 
 	/**
@@ -369,50 +382,256 @@ public final class IdentifierServiceImpl implements IdentifierService
 	@Transactional(value = "identifierTransactionManager")
 	public Map<Long, Set<Long>> getCommonIdToVirtualIdMap(final List<String> queryIds,
 			final boolean orderedVirtualIds)
+	{
+		final LongMultimap commonToVirtuals = getCommonIdToVirtualIds(queryIds,
+				orderedVirtualIds);
+		final Map<Long, Set<Long>> commonToVirtualMap = new HashMap<>();
+		for (final long common : commonToVirtuals.keys())
+		{
+			final Set<Long> virtuals = orderedVirtualIds ? new TreeSet<Long>()
+					: new HashSet<Long>();
+			for (final long virtual : commonToVirtuals.get(common))
+			{
+				virtuals.add(Long.valueOf(virtual));
+			}
+			commonToVirtualMap.put(Long.valueOf(common), virtuals);
+		}
+
+		return commonToVirtualMap;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.mpi.api.service.IdentifierService#getCommonIdToVirtualIds(java
+	 * .util.List, boolean)
+	 */
+	@Override
+	@Transactional(value = "identifierTransactionManager")
+	public LongMultimap getCommonIdToVirtualIds(final List<String> queryIds,
+			final boolean orderedVirtualIds)
 	{
 		Validate.notNull(queryIds,
 				"queryIds are required for create a common id to virtual id mapping");
 
-		// get all identifiers that have a null federated id so we can fill them in
-		final Query identifierQuery = identifierSessionFactory
-				.getCurrentSession()
-				.createQuery(
-						"SELECT DISTINCT "
-								+ "new map(identifier.commonId as common, identifier.virtualId as virtual) "
-								+ "from IdentifierEntity as identifier "
-								+ "where identifier.commonId is not null "
-								+ "and identifier.queryId IN (:queryIds)");
-		identifierQuery.setParameterList("queryIds", queryIds);
+		final LongMultimap commonToVirtuals = new LongMultimap();
+		if (queryIds.isEmpty())
+		{
+			return commonToVirtuals;
+		}
 
-		final List<Map<String, Long>> results = identifierQuery.list();
-		final Map<Long, Set<Long>> commonToVirtualMap = new HashMap<>();
-		for (final Map<String, Long> result : results)
+		// Ordering by virtual id within each common id appends the virtual ids in
+		// ascending order
+		final String sql = "SELECT DISTINCT fed_obj_id, virtual_obj_id "
+				+ "FROM virtual_obj_id_map WHERE fed_obj_id IS NOT NULL "
+				+ "AND query_id IN (:queryIds)"
+				+ (orderedVirtualIds ? " ORDER BY fed_obj_id, virtual_obj_id" : "");
+		getSimpleJdbcTemplate().getNamedParameterJdbcOperations().query(sql,
+				Collections.singletonMap("queryIds", queryIds), new RowCallbackHandler()
+				{
+					@Override
+					public void processRow(final ResultSet rs) throws SQLException
+					{
+						commonToVirtuals.put(rs.getLong(1), rs.getLong(2));
+					}
+				});
+
+		return commonToVirtuals;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.mpi.api.service.IdentifierService#getUnresolvedIdentifierIds
+	 * (java.lang.String)
+	 */
+	@Override
+	@Transactional(value = "identifierTransactionManager")
+	public LongMultimap getUnresolvedIdentifierIds(final String queryId)
+	{
+		Validate.notNull(queryId, "queryId is required for identity resolution");
+
+		final LongMultimap sourceToIdentifierIds = new LongMultimap();
+		identifierJdbcTemplate.query(
+				"SELECT src_obj_id, virtual_obj_id_map_id FROM virtual_obj_id_map "
+						+ "WHERE fed_obj_id IS NULL AND query_id = ?", new Object[]
+				{ queryId }, new RowCallbackHandler()
+				{
+					@Override
+					public void processRow(final ResultSet rs) throws SQLException
+					{
+						sourceToIdentifierIds.put(parseSourceId(rs.getString(1)),
+								rs.getLong(2));
+					}
+				});
+
+		return sourceToIdentifierIds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.mpi.api.service.IdentifierService#updateCommonIds(edu.utah
+	 * .further.core.api.collections.LongMultimap)
+	 */
+	@Override
+	@Transactional(value = "identifierTransactionManager")
+	public int updateCommonIds(final LongMultimap commonIdToIdentifierIds)
+	{
+		Validate.notNull(commonIdToIdentifierIds,
+				"commonIdToIdentifierIds are required for updating common ids");
+
+		// Flatten to parallel (common id, identifier id) arrays
+		final int size = commonIdToIdentifierIds.valueCount();
+		final long[] commonIds = new long[size];
+		final long[] identifierIds = new long[size];
+		int i = 0;
+		for (final long commonId : commonIdToIdentifierIds.keys())
 		{
-			final Long common = result.get("common");
-			if (commonToVirtualMap.containsKey(common))
+			for (final long identifierId : commonIdToIdentifierIds.get(commonId))
 			{
-				commonToVirtualMap.get(common).add(result.get("virtual"));
+				commonIds[i] = commonId;
+				identifierIds[i] = identifierId;
+				i++;
 			}
-			else
+		}
+
+		int count = 0;
+		for (int start = 0; start < size; start += UPDATE_BATCH_SIZE)
+		{
+			final int offset = start;
+			final int batchSize = Math.min(UPDATE_BATCH_SIZE, size - start);
+			final int[] counts = identifierJdbcTemplate.batchUpdate(
+					"UPDATE virtual_obj_id_map SET fed_obj_id = ? "
+							+ "WHERE virtual_obj_id_map_id = ?",
+					new BatchPreparedStatementSetter()
+					{
+						@Override
+						public void setValues(final PreparedStatement ps, final int j)
+								throws SQLException
+						{
+							ps.setLong(1, commonIds[offset + j]);
+							ps.setLong(2, identifierIds[offset + j]);
+						}
+
+						@Override
+						public int getBatchSize()
+						{
+							return batchSize;
+						}
+					});
+			for (final int updated : counts)
 			{
-				Set<Long> virtuals = null;
+				// Some drivers only report that a batched statement succeeded
+				count += (updated == Statement.SUCCESS_NO_INFO) ? 1 : updated;
+			}
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Updated the common ids of " + count + " identifiers");
+		}
+		return count;
+	}
 
-				if (orderedVirtualIds)
-				{
-					virtuals = new TreeSet<>();
-				}
-				else
-				{
-					virtuals = new HashSet<>();
-				}
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.mpi.api.service.IdentifierService#deleteIdentifiers(java.util
+	 * .List)
+	 */
+	@Override
+	@Transactional(value = "identifierTransactionManager")
+	public int deleteIdentifiers(final List<String> queryIds)
+	{
+		Validate.notNull(queryIds, "queryIds are required for deleting identifiers");
+		if (queryIds.isEmpty())
+		{
+			return 0;
+		}
 
-				virtuals.add(result.get("virtual"));
+		final int count = identifierSessionFactory
+				.getCurrentSession()
+				.createQuery(
+						"delete from IdentifierEntity as identifier "
+								+ "where identifier.queryId IN (:queryIds)")
+				.setParameterList("queryIds", queryIds)
+				.executeUpdate();
+		if (log.isDebugEnabled())
+		{
+			log.debug("Deleted " + count + " identifiers of " + queryIds.size()
+					+ " queries");
+		}
+		return count;
+	}
 
-				commonToVirtualMap.put(common, virtuals);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.fqe.mpi.api.service.IdentifierService#copyIdentifiers(java.lang
+	 * .String, java.lang.String)
+	 */
+	@Override
+	@Transactional(value = "identifierTransactionManager")
+	public int copyIdentifiers(final String fromQueryId, final String toQueryId)
+	{
+		Validate.notNull(fromQueryId, "fromQueryId is required for copying identifiers");
+		Validate.notNull(toQueryId, "toQueryId is required for copying identifiers");
+
+		final Session session = identifierSessionFactory.getCurrentSession();
+		final List<IdentifierEntity> identifiers = session
+				.createQuery(
+						"from IdentifierEntity as identifier "
+								+ "where identifier.queryId = :queryId")
+				.setParameter("queryId", fromQueryId)
+				.list();
+		int count = 0;
+		for (final IdentifierEntity identifier : identifiers)
+		{
+			final IdentifierEntity copy = IdentifierEntity.newCopy(identifier);
+			copy.setVirtualId(identifier.getVirtualId());
+			copy.setQueryId(toQueryId);
+			session.save(copy);
+			if (++count % UPDATE_BATCH_SIZE == 0)
+			{
+				session.flush();
+				session.clear();
 			}
 		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Copied " + count + " identifiers of query " + fromQueryId
+					+ " to query " + toQueryId);
+		}
+		return count;
+	}
 
-		return commonToVirtualMap;
+	/**
+	 * Parse a persisted source identifier to its numeric value.
+	 * 
+	 * @param sourceId
+	 *            source identifier
+	 * @return numeric source identifier
+	 */
+	private static long parseSourceId(final String sourceId)
+	{
+		if (sourceId == null)
+		{
+			throw new ApplicationException("Null source identifier cannot be resolved");
+		}
+		try
+		{
+			return Long.parseLong(sourceId.trim());
+		}
+		catch (final NumberFormatException e)
+		{
+			throw new ApplicationException("Source identifier " + sourceId
+					+ " is not numeric and cannot be resolved", e);
+		}
 	}
 
 	/**
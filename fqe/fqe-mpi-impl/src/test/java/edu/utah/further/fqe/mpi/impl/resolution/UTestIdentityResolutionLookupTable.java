@@ -15,8 +15,13 @@
  */
 package edu.utah.further.fqe.mpi.impl.resolution;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,10 +32,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.fqe.ds.api.domain.QueryContext;
 import edu.utah.further.fqe.ds.api.to.QueryContextToImpl;
 import edu.utah.further.fqe.mpi.api.IdentityResolutionStrategy;
+import edu.utah.further.fqe.mpi.api.service.IdentifierService;
 import edu.utah.further.fqe.mpi.impl.domain.IdentifierEntity;
 import edu.utah.further.fqe.mpi.impl.domain.LookupEntity;
 
@@ -73,6 +80,12 @@ public class UTestIdentityResolutionLookupTable
 	@Autowired
 	private IdentityResolutionStrategy identityResolutionLookupTable;
 
+	/**
+	 * Copies identifiers like a result cache hit.
+	 */
+	@Autowired
+	private IdentifierService identifierService;
+
 	/**
 	 * Test query 1
 	 */
@@ -172,4 +185,35 @@ public class UTestIdentityResolutionLookupTable
 			}
 		}
 	}
+
+	/**
+	 * Resolve the identifiers that a result cache hit copied from an already resolved
+	 * query to the query served from the cache.
+	 */
+	@Test
+	public void resolveCopiedIdentifiers()
+	{
+		final QueryContext cacheHit = QueryContextToImpl.newInstanceWithExecutionId();
+		cacheHit.setTargetNamespaceId(new Long(1));
+		cacheHit.setParent(queryContextOne.getParent());
+
+		identityResolutionLookupTable.doIdentityResolution(queryContextOne);
+		assertThat(Integer.valueOf(identifierService.copyIdentifiers(
+				queryContextOne.getExecutionId(), cacheHit.getExecutionId())),
+				is(Integer.valueOf(2)));
+		identityResolutionLookupTable.doIdentityResolution(queryContextTwo);
+		identityResolutionLookupTable.doIdentityResolution(cacheHit);
+
+		// The cache hit has the cached virtual ids, resolved like the cached query's
+		final List<Long> virtualIds = identifierService.getVirtualIdentifiers(Arrays
+				.asList(cacheHit.getExecutionId()));
+		Collections.sort(virtualIds);
+		assertThat(virtualIds, is(Arrays.asList(new Long(1), new Long(2))));
+		final LongMultimap commonToVirtuals = identifierService.getCommonIdToVirtualIds(
+				Arrays.asList(cacheHit.getExecutionId(), queryContextTwo.getExecutionId()),
+				true);
+		assertThat(Integer.valueOf(commonToVirtuals.size()), is(Integer.valueOf(1)));
+		assertArrayEquals(new long[]
+		{ 1L, 3L }, commonToVirtuals.get(1L));
+	}
 }
@@ -15,6 +15,7 @@
  */
 package edu.utah.further.fqe.mpi.impl.service;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -28,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import edu.utah.further.core.api.collections.LongMultimap;
 import edu.utah.further.core.api.data.Dao;
 import edu.utah.further.fqe.mpi.api.service.IdentifierService;
 import edu.utah.further.fqe.mpi.impl.domain.IdentifierEntity;
@@ -105,4 +107,20 @@ public class UTestIdentifierService
 		assertTrue(mapping.get(new Long(1)).size() == 2);
 		assertTrue(mapping.get(new Long(2)).size() == 2);
 	}
+
+	/**
+	 * Ordered virtual ids of each common id, expected like: {1=[1, 3], 2=[2, 4]}
+	 */
+	@Test
+	public void getCommonToVirtualIds()
+	{
+		final LongMultimap mapping = identifierService.getCommonIdToVirtualIds(
+				Arrays.asList("A", "B"), true);
+
+		assertTrue(mapping.size() == 2);
+		assertArrayEquals(new long[]
+		{ 1L, 3L }, mapping.get(1L));
+		assertArrayEquals(new long[]
+		{ 2L, 4L }, mapping.get(2L));
+	}
 }
@@ -25,6 +25,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -33,11 +35,16 @@ import javax.ws.rs.core.Response.Status;
 import javax.xml.bind.JAXBException;
 
 import org.apache.commons.lang.Validate;
+import org.apache.cxf.continuations.Continuation;
+import org.apache.cxf.continuations.ContinuationProvider;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import edu.utah.further.core.api.constant.ErrorCode;
@@ -45,16 +52,19 @@ import edu.utah.further.core.api.constant.Strings;
 import edu.utah.further.core.api.exception.ApplicationException;
 import edu.utah.further.core.api.exception.WsException;
 import edu.utah.further.core.api.lang.ReflectionUtil;
-import edu.utah.further.core.api.text.StringUtil;
 import edu.utah.further.core.api.xml.XmlService;
 import edu.utah.further.core.query.domain.SearchQuery;
 import edu.utah.further.fqe.api.service.export.ExportService;
 import edu.utah.further.fqe.api.service.query.AggregationService;
 import edu.utah.further.fqe.api.service.query.QueryContextService;
+import edu.utah.further.fqe.api.service.query.QueryContextSummary;
+import edu.utah.further.fqe.api.service.query.QueryStatusBroker;
+import edu.utah.further.fqe.api.service.query.QueryStatusListener;
 import edu.utah.further.fqe.api.service.route.FqeService;
 import edu.utah.further.fqe.api.ws.FqeServiceRest;
 import edu.utah.further.fqe.api.ws.to.aggregate.AggregatedResults;
 import edu.utah.further.fqe.api.ws.to.aggregate.AggregatedResultsTo;
+import edu.utah.further.fqe.api.ws.to.status.QueryStatusChangeTo;
 import edu.utah.further.fqe.ds.api.domain.Data;
 import edu.utah.further.fqe.ds.api.domain.DsMetaData;
 import edu.utah.further.fqe.ds.api.domain.DsState;
@@ -107,6 +117,11 @@ public class FqeServiceRestImpl implements FqeServiceRest
 	 */
 	private static final Logger log = LoggerFactory.getLogger(FqeServiceRestImpl.class);
 
+	/**
+	 * Upper bound on the time a client may wait for query status changes [ms].
+	 */
+	private static final long MAX_STATUS_WAIT_MILLIS = 120000L;
+
 	// ========================= DEPENEDENCIES =============================
 
 	/**
@@ -129,6 +144,11 @@ public class FqeServiceRestImpl implements FqeServiceRest
 	 */
 	private I2b2QueryService i2b2QueryService;
 
+	/**
+	 * Pushes query status changes to waiting clients.
+	 */
+	private QueryStatusBroker queryStatusBroker;
+
 	/**
 	 * Marshals/unmarshals to/from XML.
 	 */
@@ -335,10 +355,38 @@ public class FqeServiceRestImpl implements FqeServiceRest
 		else
 		{
 			fqeService.stopQuery(queryContext);
+			queryStatusBroker.publish(queryContext);
 			return Response.status(Status.ACCEPTED).build();
 		}
 	}
 
+	/**
+	 * @param id
+	 * @return
+	 * @see edu.utah.further.fqe.api.ws.FqeServiceRest#promoteQuery(long)
+	 */
+	@Override
+	public QueryContextToImpl promoteQuery(final long id)
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("promoteQuery(" + id + ")");
+		}
+
+		final QueryContext queryContext = queryContextService.findById(new Long(id));
+		if (queryContext == null)
+		{
+			throw new ApplicationException(ErrorCode.INVALID_INPUT_ARGUMENT_VALUE,
+					"Unable to find query context with id " + id);
+		}
+		if (queryContext.getQueryType() != QueryType.COUNT_QUERY)
+		{
+			return queryById(id);
+		}
+		final QueryContext promoted = fqeService.promoteQuery(queryContext);
+		return QueryContextToImpl.newCopy(promoted);
+	}
+
 	/**
 	 * @param id
 	 * @return
@@ -499,13 +547,58 @@ public class FqeServiceRestImpl implements FqeServiceRest
 	@Override
 	public QueryContextStateTo queryStateById(final long id)
 	{
-		final QueryContext queryContext = queryContextService.findById(new Long(id));
+		final QueryContextSummary summary = queryContextService.findSummaryById(new Long(
+				id));
 		final QueryContextStateTo queryContextState = new QueryContextStateTo();
-		queryContextState.setState(queryContext == null ? QueryState.INVALID
-				: queryContext.getState());
+		queryContextState.setState(summary == null ? QueryState.INVALID : summary
+				.getState());
 		return queryContextState;
 	}
 
+	/**
+	 * Long-polls for status changes. When the transport supports continuations, the
+	 * request is suspended until the broker reports a change or the timeout expires,
+	 * and this method is invoked again to produce the response; otherwise the request
+	 * thread blocks.
+	 * 
+	 * @see edu.utah.further.fqe.api.ws.FqeServiceRest#queryStatusChanges(long, long,
+	 *      long)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public QueryStatusChangeTo queryStatusChanges(final long id, final long since,
+			final long timeout)
+	{
+		final Long queryId = new Long(id);
+		final long wait = Math.max(0L, Math.min(timeout, MAX_STATUS_WAIT_MILLIS));
+		final Continuation continuation = getContinuation();
+		if (continuation == null)
+		{
+			return waitForStatusChanges(queryId, since, wait);
+		}
+
+		synchronized (continuation)
+		{
+			if (continuation.isNew())
+			{
+				final QueryStatusListener listener = new ResumingListener(continuation);
+				if ((wait > 0) && queryStatusBroker.addListener(queryId, since, listener))
+				{
+					continuation.setObject(listener);
+					continuation.suspend(wait);
+					return null;
+				}
+			}
+			else if (!continuation.isResumed())
+			{
+				// Timed out: nobody will resume this request anymore
+				queryStatusBroker.removeListener(queryId,
+						(QueryStatusListener) continuation.getObject());
+			}
+		}
+		return getStatusChanges(queryId, since);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -702,8 +795,91 @@ public class FqeServiceRestImpl implements FqeServiceRest
 		this.i2b2QueryService = i2b2QueryService;
 	}
 
+	/**
+	 * Set a new value for the queryStatusBroker property.
+	 * 
+	 * @param queryStatusBroker
+	 *            the queryStatusBroker to set
+	 */
+	public void setQueryStatusBroker(final QueryStatusBroker queryStatusBroker)
+	{
+		this.queryStatusBroker = queryStatusBroker;
+	}
+
 	// ========================= PRIVATE METHODS =========================
 
+	/**
+	 * Return the continuation of the current request, if the transport supports it.
+	 * 
+	 * @return continuation, or <code>null</code> if not available
+	 */
+	private static Continuation getContinuation()
+	{
+		final Message message = PhaseInterceptorChain.getCurrentMessage();
+		final ContinuationProvider provider = (message == null) ? null
+				: (ContinuationProvider) message.get(ContinuationProvider.class
+						.getName());
+		return (provider == null) ? null : provider.getContinuation();
+	}
+
+	/**
+	 * Block the current thread until a query's status changes or a timeout expires.
+	 * Used when the transport does not support continuations.
+	 * 
+	 * @param queryId
+	 *            federated query context ID
+	 * @param since
+	 *            last status version the client saw
+	 * @param wait
+	 *            maximum time to wait [ms]
+	 * @return status changes
+	 */
+	private QueryStatusChangeTo waitForStatusChanges(final Long queryId,
+			final long since, final long wait)
+	{
+		final CountDownLatch changed = new CountDownLatch(1);
+		final QueryStatusListener listener = new QueryStatusListener()
+		{
+			@Override
+			public void onChange(final Long changedQueryId)
+			{
+				changed.countDown();
+			}
+		};
+		if ((wait > 0) && queryStatusBroker.addListener(queryId, since, listener))
+		{
+			try
+			{
+				changed.await(wait, TimeUnit.MILLISECONDS);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				queryStatusBroker.removeListener(queryId, listener);
+			}
+		}
+		return getStatusChanges(queryId, since);
+	}
+
+	/**
+	 * Return a query's status changes, or an empty change at the client's version if
+	 * there are none.
+	 * 
+	 * @param queryId
+	 *            federated query context ID
+	 * @param since
+	 *            last status version the client saw
+	 * @return status changes
+	 */
+	private QueryStatusChangeTo getStatusChanges(final Long queryId, final long since)
+	{
+		final QueryStatusChangeTo changes = queryStatusBroker.getChanges(queryId, since);
+		return (changes == null) ? new QueryStatusChangeTo(queryId, since) : changes;
+	}
+
 	/**
 	 * Private helper method to wrap statuses with wrapper transfer objects. Also sets the
 	 * returned statuses to point to the federated {@link QueryContext} parent instead of
@@ -783,14 +959,17 @@ public class FqeServiceRestImpl implements FqeServiceRest
 			log.debug("triggerQueryFromI2b2Raw() i2b2QueryId " + i2b2QueryId);
 			log.debug("rawI2b2Xml:" + Strings.NEW_LINE_STRING + rawI2b2Xml);
 		}
-		final String i2b2QueryXml = i2b2QueryService.toI2b2Query(rawI2b2Xml);
+		final I2b2QueryTo i2b2Query = i2b2QueryService.readI2b2Query(rawI2b2Xml);
+		if (i2b2Query == null)
+		{
+			throw new ApplicationException(ErrorCode.INVALID_INPUT_ARGUMENT_VALUE,
+					"Invalid i2b2 query XML");
+		}
 
 		try
 		{
 			final I2b2FurtherConfigTo furtherConfig = xmlService.unmarshal(rawI2b2Xml,
 					I2b2FurtherConfigTo.class);
-			final I2b2QueryTo i2b2Query = xmlService.unmarshal(
-					StringUtil.stripNewLinesAndTabs(i2b2QueryXml), I2b2QueryTo.class);
 			return triggerQueryFromI2b2(i2b2Query, furtherConfig, i2b2QueryId);
 		}
 		catch (final JAXBException e)
@@ -922,7 +1101,8 @@ public class FqeServiceRestImpl implements FqeServiceRest
 		}
 		
 		if (federatedQueryContext.getQueryType() == QueryType.COUNT_QUERY) {
-			throw new ApplicationException("Data cannot be aggregated for count-only queries");
+			throw new ApplicationException(
+					"Data cannot be aggregated for count-only queries; promote the query first");
 		}
 		
 		
@@ -953,4 +1133,31 @@ public class FqeServiceRestImpl implements FqeServiceRest
 		// AggregationResult into the TO. Here we know they're the same.
 		return (AggregatedResultsTo) scrubbedResult;
 	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Resumes a suspended request upon a query status change.
+	 */
+	private static final class ResumingListener implements QueryStatusListener
+	{
+		private final Continuation continuation;
+
+		ResumingListener(final Continuation continuation)
+		{
+			this.continuation = continuation;
+		}
+
+		@Override
+		public void onChange(final Long queryId)
+		{
+			synchronized (continuation)
+			{
+				if (continuation.isPending())
+				{
+					continuation.resume();
+				}
+			}
+		}
+	}
 }
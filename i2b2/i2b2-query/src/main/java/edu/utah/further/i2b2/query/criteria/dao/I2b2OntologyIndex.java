@@ -0,0 +1,466 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.i2b2.query.criteria.dao;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An in-memory prefix index (radix trie) over the i2b2 ontology <code>c_fullname</code>
+ * paths. Maps an item key to the basecodes of its domain in time proportional to the
+ * key length plus the domain size, instead of issuing a non-indexable
+ * <code>LIKE</code> query per item.
+ * <p>
+ * Keys are normalized the same way the SQL domain query normalizes them (
+ * <code>trim(upper(...))</code>). Lookup patterns follow SQL <code>LIKE</code>
+ * semantics for the forms produced by the i2b2 query service: <code>_</code> matches any
+ * single character and a trailing <code>%</code> matches any suffix. Patterns with a
+ * <code>%</code> anywhere else are not supported by the index; {@link #findDomain(String)}
+ * returns <code>null</code> for them so that callers can fall back to the database.
+ * <p>
+ * Instances are built by a single thread using {@link #add(String, String, int)} and are
+ * read-only afterwards; they may then be safely shared among threads once published
+ * (e.g. through a <code>volatile</code> field).
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author N. Dustin Schultz {@code <dustin.schultz@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class I2b2OntologyIndex
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * SQL <code>LIKE</code> single-character wildcard.
+	 */
+	private static final char ANY_CHAR = '_';
+
+	/**
+	 * SQL <code>LIKE</code> multi-character wildcard.
+	 */
+	private static final char ANY_STRING = '%';
+
+	/**
+	 * Orders domain entries by hierarchy level, like the SQL domain query does.
+	 */
+	private static final Comparator<Entry> BY_LEVEL = new Comparator<Entry>()
+	{
+		@Override
+		public int compare(final Entry o1, final Entry o2)
+		{
+			return (o1.level < o2.level) ? -1 : ((o1.level == o2.level) ? 0 : 1);
+		}
+	};
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Trie root. Its label is always empty.
+	 */
+	private final Node root = new Node("");
+
+	/**
+	 * Number of ontology rows indexed so far.
+	 */
+	private int size = 0;
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Normalize a full name or a lookup pattern the way the i2b2 SQL domain query does.
+	 *
+	 * @param string
+	 *            raw string
+	 * @return normalized string
+	 */
+	public static String normalize(final String string)
+	{
+		return string.trim().toUpperCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * Add an ontology row to the index. Rows with a <code>null</code> full name or
+	 * basecode are ignored, as they never contribute to a domain.
+	 *
+	 * @param fullName
+	 *            <code>c_fullname</code> value
+	 * @param baseCode
+	 *            <code>c_basecode</code> value
+	 * @param level
+	 *            <code>c_hlevel</code> value
+	 */
+	public void add(final String fullName, final String baseCode, final int level)
+	{
+		if ((fullName == null) || (baseCode == null))
+		{
+			return;
+		}
+		final String key = normalize(fullName);
+		Node node = root;
+		int position = 0;
+		while (position < key.length())
+		{
+			final Node child = node.getChild(key.charAt(position));
+			if (child == null)
+			{
+				final Node leaf = new Node(key.substring(position));
+				node.addChild(leaf);
+				node = leaf;
+				position = key.length();
+				break;
+			}
+			final int common = commonPrefixLength(child.label, key, position);
+			if (common < child.label.length())
+			{
+				// Split the edge into a common head and the existing tail
+				final Node head = new Node(child.label.substring(0, common));
+				node.replaceChild(head);
+				child.label = child.label.substring(common);
+				head.addChild(child);
+				node = head;
+			}
+			else
+			{
+				node = child;
+			}
+			position += common;
+		}
+		node.addEntry(new Entry(baseCode, level));
+		size++;
+	}
+
+	/**
+	 * Return the domain of an i2b2 item key pattern: the distinct basecodes of all
+	 * ontology rows whose full name matches the pattern, ordered by hierarchy level.
+	 *
+	 * @param pattern
+	 *            SQL <code>LIKE</code>-style pattern, e.g. an item key followed by
+	 *            <code>%</code>
+	 * @return list of basecodes, or <code>null</code> if the pattern cannot be evaluated
+	 *         by this index
+	 */
+	public List<String> findDomain(final String pattern)
+	{
+		String key = normalize(pattern);
+		boolean prefix = false;
+		int end = key.length();
+		while ((end > 0) && (key.charAt(end - 1) == ANY_STRING))
+		{
+			end--;
+			prefix = true;
+		}
+		key = key.substring(0, end);
+		if (key.indexOf(ANY_STRING) >= 0)
+		{
+			return null;
+		}
+
+		final List<Entry> matches = newList();
+		match(root, key, 0, prefix, matches);
+
+		// Emulate SELECT DISTINCT c_basecode, c_hlevel ... ORDER BY c_hlevel
+		final List<Entry> distinct = newList(new LinkedHashSet<Entry>(matches));
+		Collections.sort(distinct, BY_LEVEL);
+		final List<String> baseCodes = newList();
+		for (final Entry entry : distinct)
+		{
+			baseCodes.add(entry.baseCode);
+		}
+		return baseCodes;
+	}
+
+	/**
+	 * Return the number of ontology rows in this index.
+	 *
+	 * @return the number of indexed rows
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Collect the entries of all nodes below <code>node</code> that match the remainder
+	 * of a pattern.
+	 *
+	 * @param node
+	 *            node whose label has been fully matched
+	 * @param key
+	 *            pattern, without trailing multi-character wildcards
+	 * @param position
+	 *            number of pattern characters matched so far
+	 * @param prefix
+	 *            if <code>true</code>, any suffix is allowed after the pattern
+	 * @param matches
+	 *            collects matched entries
+	 */
+	private static void match(final Node node, final String key, final int position,
+			final boolean prefix, final List<Entry> matches)
+	{
+		if (position == key.length())
+		{
+			if (prefix)
+			{
+				collectSubtree(node, matches);
+			}
+			else
+			{
+				node.collectEntries(matches);
+			}
+			return;
+		}
+
+		final char c = key.charAt(position);
+		if (c == ANY_CHAR)
+		{
+			for (final Node child : node.children)
+			{
+				matchEdge(child, key, position, prefix, matches);
+			}
+		}
+		else
+		{
+			final Node child = node.getChild(c);
+			if (child != null)
+			{
+				matchEdge(child, key, position, prefix, matches);
+			}
+		}
+	}
+
+	/**
+	 * Match the label of <code>child</code> against the pattern, then continue below it.
+	 *
+	 * @param child
+	 *            child node
+	 * @param key
+	 *            pattern
+	 * @param position
+	 *            number of pattern characters matched before this edge
+	 * @param prefix
+	 *            if <code>true</code>, any suffix is allowed after the pattern
+	 * @param matches
+	 *            collects matched entries
+	 */
+	private static void matchEdge(final Node child, final String key,
+			final int position, final boolean prefix, final List<Entry> matches)
+	{
+		final String label = child.label;
+		for (int i = 0; i < label.length(); i++)
+		{
+			final int k = position + i;
+			if (k == key.length())
+			{
+				// Pattern ends in the middle of this edge
+				if (prefix)
+				{
+					collectSubtree(child, matches);
+				}
+				return;
+			}
+			final char p = key.charAt(k);
+			if ((p != ANY_CHAR) && (p != label.charAt(i)))
+			{
+				return;
+			}
+		}
+		match(child, key, position + label.length(), prefix, matches);
+	}
+
+	/**
+	 * Collect the entries of a node and all of its descendants.
+	 *
+	 * @param node
+	 *            sub-tree root
+	 * @param matches
+	 *            collects matched entries
+	 */
+	private static void collectSubtree(final Node node, final List<Entry> matches)
+	{
+		final Deque<Node> stack = new ArrayDeque<>();
+		stack.push(node);
+		while (!stack.isEmpty())
+		{
+			final Node current = stack.pop();
+			current.collectEntries(matches);
+			for (final Node child : current.children)
+			{
+				stack.push(child);
+			}
+		}
+	}
+
+	/**
+	 * Return the length of the longest common prefix of <code>label</code> and
+	 * <code>key</code> starting at <code>offset</code>.
+	 *
+	 * @param label
+	 *            edge label
+	 * @param key
+	 *            key being inserted
+	 * @param offset
+	 *            start offset within the key
+	 * @return common prefix length
+	 */
+	private static int commonPrefixLength(final String label, final String key,
+			final int offset)
+	{
+		final int max = Math.min(label.length(), key.length() - offset);
+		int i = 0;
+		while ((i < max) && (label.charAt(i) == key.charAt(offset + i)))
+		{
+			i++;
+		}
+		return i;
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * A single ontology row stored in the index.
+	 */
+	private static final class Entry
+	{
+		private final String baseCode;
+
+		private final int level;
+
+		public Entry(final String baseCode, final int level)
+		{
+			this.baseCode = baseCode;
+			this.level = level;
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass()))
+			{
+				return false;
+			}
+			final Entry that = (Entry) obj;
+			return (level == that.level) && baseCode.equals(that.baseCode);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * baseCode.hashCode() + level;
+		}
+	}
+
+	/**
+	 * A radix trie node. Children are kept sorted by the first character of their label.
+	 */
+	private static final class Node
+	{
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private static final Entry[] NO_ENTRIES = new Entry[0];
+
+		private String label;
+
+		private Node[] children = NO_CHILDREN;
+
+		private Entry[] entries = NO_ENTRIES;
+
+		public Node(final String label)
+		{
+			this.label = label;
+		}
+
+		public Node getChild(final char c)
+		{
+			final int index = indexOf(c);
+			return (index >= 0) ? children[index] : null;
+		}
+
+		public void addChild(final Node child)
+		{
+			final int index = -indexOf(child.label.charAt(0)) - 1;
+			final Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(children, 0, newChildren, 0, index);
+			newChildren[index] = child;
+			System.arraycopy(children, index, newChildren, index + 1, children.length
+					- index);
+			children = newChildren;
+		}
+
+		public void replaceChild(final Node child)
+		{
+			children[indexOf(child.label.charAt(0))] = child;
+		}
+
+		public void addEntry(final Entry entry)
+		{
+			entries = Arrays.copyOf(entries, entries.length + 1);
+			entries[entries.length - 1] = entry;
+		}
+
+		public void collectEntries(final List<Entry> matches)
+		{
+			for (final Entry entry : entries)
+			{
+				matches.add(entry);
+			}
+		}
+
+		private int indexOf(final char c)
+		{
+			int low = 0;
+			int high = children.length - 1;
+			while (low <= high)
+			{
+				final int mid = (low + high) >>> 1;
+				final char midChar = children[mid].label.charAt(0);
+				if (midChar < c)
+				{
+					low = mid + 1;
+				}
+				else if (midChar > c)
+				{
+					high = mid - 1;
+				}
+				else
+				{
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+	}
+}
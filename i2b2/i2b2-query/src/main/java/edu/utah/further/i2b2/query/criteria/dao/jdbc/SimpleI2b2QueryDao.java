@@ -17,23 +17,41 @@ package edu.utah.further.i2b2.query.criteria.dao.jdbc;
 
 import static edu.utah.further.core.api.collections.CollectionUtil.newList;
 import static edu.utah.further.core.api.text.StringUtil.newStringBuilder;
+import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
+import static org.slf4j.LoggerFactory.getLogger;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.simple.SimpleJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import edu.utah.further.i2b2.query.criteria.dao.I2b2OntologyIndex;
 import edu.utah.further.i2b2.query.criteria.dao.I2b2QueryDao;
 
 /**
  * A simple implementation of the {@link I2b2QueryDao} which uses native SQL.
  * <p>
+ * Domains are resolved against an in-memory {@link I2b2OntologyIndex} of the ontology
+ * table, which is loaded on start-up and periodically refreshed when the table's
+ * signature (row count and latest update date) changes. The <code>LIKE</code> query is
+ * only issued when the index is disabled, not yet loaded, or cannot evaluate the item
+ * key pattern.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -50,6 +68,11 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 {
 	// ========================= CONSTANTS ===========================
 
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(SimpleI2b2QueryDao.class);
+
 	private static final String CODE = "C_BASECODE";
 
 	// ========================= DEPENDENCIES ==============================
@@ -65,16 +88,71 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 	 */
 	private String tableName;
 
+	/**
+	 * If <code>true</code>, domains are resolved against an in-memory ontology index.
+	 */
+	private boolean indexEnabled = true;
+
+	/**
+	 * Ontology index refresh check interval [seconds]. If non-positive, the index is only
+	 * loaded on start-up.
+	 */
+	private long indexRefreshInterval = 300;
+
+	/**
+	 * Column used to detect ontology table changes, together with the table's row count.
+	 */
+	private String lastUpdateColumn = "update_date";
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Current ontology index. <code>null</code> until the first successful load.
+	 */
+	private volatile I2b2OntologyIndex index;
+
+	/**
+	 * Ontology table signature at the time the current index was loaded.
+	 */
+	private volatile String indexSignature;
+
+	/**
+	 * Runs periodic index refresh checks.
+	 */
+	private ScheduledExecutorService refreshExecutor;
+
 	// ========================= CONSTRUCTORS ==============================
 
 	/**
-	 * Validate dependencies.
+	 * Validate dependencies and load the ontology index.
 	 */
 	@PostConstruct
 	public void afterPropertiesSet()
 	{
 		notNull(jdbcTemplate);
 		notNull(tableName);
+		if (indexEnabled)
+		{
+			notNull(lastUpdateColumn);
+			refreshIndex();
+			if (indexRefreshInterval > 0)
+			{
+				startRefreshExecutor();
+			}
+		}
+	}
+
+	/**
+	 * Stop the index refresh thread.
+	 */
+	@PreDestroy
+	public void destroy()
+	{
+		if (refreshExecutor != null)
+		{
+			refreshExecutor.shutdownNow();
+			refreshExecutor = null;
+		}
 	}
 
 	// ================ IMPLEMENTATION: I2b2QueryDao ==================
@@ -87,6 +165,21 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 	@Override
 	public List<String> findDomain(final String itemKey)
 	{
+		final I2b2OntologyIndex currentIndex = index;
+		if (currentIndex != null)
+		{
+			final List<String> domain = currentIndex.findDomain(itemKey);
+			if (domain != null)
+			{
+				return domain;
+			}
+			if (log.isDebugEnabled())
+			{
+				log.debug("Item key " + itemKey
+						+ " not supported by the ontology index, querying database");
+			}
+		}
+
 		final List<Map<String, Object>> childrenListMap = queryForChildren(itemKey);
 		final List<String> childrenList = newList();
 		for (final Map<String, Object> childrenMap : childrenListMap)
@@ -100,6 +193,39 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 		return childrenList;
 	}
 
+	// ========================= METHODS ===================================
+
+	/**
+	 * Reload the ontology index if the ontology table has changed since it was last
+	 * loaded. Failures are logged and leave the current index in place.
+	 */
+	public synchronized void refreshIndex()
+	{
+		try
+		{
+			final String signature = querySignature();
+			if ((index != null) && signature.equals(indexSignature))
+			{
+				return;
+			}
+			final long start = System.currentTimeMillis();
+			final I2b2OntologyIndex newIndex = loadIndex();
+			index = newIndex;
+			indexSignature = signature;
+			if (log.isInfoEnabled())
+			{
+				log.info("Loaded i2b2 ontology index from " + tableName + ": "
+						+ newIndex.size() + " entries in "
+						+ (System.currentTimeMillis() - start) + " ms");
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			log.error("Could not refresh i2b2 ontology index from " + tableName
+					+ ", keeping the current index", e);
+		}
+	}
+
 	// ========================= SETTERS ==============================
 
 	/**
@@ -124,6 +250,41 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 		this.tableName = tableName;
 	}
 
+	/**
+	 * Set a new value for the indexEnabled property.
+	 * 
+	 * @param indexEnabled
+	 *            the indexEnabled to set
+	 */
+	public void setIndexEnabled(final boolean indexEnabled)
+	{
+		this.indexEnabled = indexEnabled;
+	}
+
+	/**
+	 * Set a new value for the indexRefreshInterval property.
+	 * 
+	 * @param indexRefreshInterval
+	 *            the indexRefreshInterval to set [seconds]
+	 */
+	public void setIndexRefreshInterval(final long indexRefreshInterval)
+	{
+		this.indexRefreshInterval = indexRefreshInterval;
+	}
+
+	/**
+	 * Set a new value for the lastUpdateColumn property.
+	 * 
+	 * @param lastUpdateColumn
+	 *            the lastUpdateColumn to set
+	 */
+	public void setLastUpdateColumn(final String lastUpdateColumn)
+	{
+		isTrue(lastUpdateColumn.matches("\\w+"), "Invalid column name "
+				+ lastUpdateColumn);
+		this.lastUpdateColumn = lastUpdateColumn;
+	}
+
 	// ========================= PRIVATE METHODS ==============================
 
 	/**
@@ -144,4 +305,72 @@ public class SimpleI2b2QueryDao implements I2b2QueryDao
 				Collections.singletonMap("fullname", itemKey));
 	}
 
+	/**
+	 * Return a cheap signature of the ontology table contents that changes whenever rows
+	 * are added, removed or updated.
+	 * 
+	 * @return ontology table signature
+	 */
+	private String querySignature()
+	{
+		final String sql = newStringBuilder()
+				.append("SELECT COUNT(*) AS row_count, MAX(")
+				.append(lastUpdateColumn)
+				.append(") AS last_update FROM ")
+				.append(tableName)
+				.toString();
+		final Map<String, Object> row = jdbcTemplate.queryForMap(sql);
+		return row.get("row_count") + "/" + row.get("last_update");
+	}
+
+	/**
+	 * Stream all ontology rows into a new index.
+	 * 
+	 * @return newly-loaded ontology index
+	 */
+	private I2b2OntologyIndex loadIndex()
+	{
+		final String sql = newStringBuilder()
+				.append("SELECT c_fullname, c_basecode, c_hlevel FROM ")
+				.append(tableName)
+				.append(" WHERE c_basecode IS NOT NULL")
+				.toString();
+		final I2b2OntologyIndex newIndex = new I2b2OntologyIndex();
+		jdbcTemplate.getJdbcOperations().query(sql, new RowCallbackHandler()
+		{
+			@Override
+			public void processRow(final ResultSet rs) throws SQLException
+			{
+				newIndex.add(rs.getString(1), rs.getString(2), rs.getInt(3));
+			}
+		});
+		return newIndex;
+	}
+
+	/**
+	 * Start a daemon thread that periodically checks the ontology table for changes.
+	 */
+	private void startRefreshExecutor()
+	{
+		refreshExecutor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(final Runnable r)
+					{
+						final Thread thread = new Thread(r, "I2b2OntologyIndexRefresh");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		refreshExecutor.scheduleWithFixedDelay(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				refreshIndex();
+			}
+		}, indexRefreshInterval, indexRefreshInterval, TimeUnit.SECONDS);
+	}
+
 }
@@ -37,6 +37,7 @@ import edu.utah.further.i2b2.query.criteria.service.I2b2QueryService;
 import edu.utah.further.i2b2.query.model.I2b2Query;
 import edu.utah.further.i2b2.query.model.I2b2QueryGroup;
 import edu.utah.further.i2b2.query.model.I2b2QueryItem;
+import edu.utah.further.i2b2.query.model.I2b2QueryTo;
 
 /**
  * Implementation of the {@link I2b2QueryService}.
@@ -122,6 +123,19 @@ public class I2b2QueryServiceImpl implements I2b2QueryService
 		return rawToI2b2QueryConverter.toI2b2Query(i2b2MessageXml);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * edu.utah.further.i2b2.query.criteria.service.impl.RawToI2b2QueryConverter#readI2b2Query
+	 * (java.lang.String)
+	 */
+	@Override
+	public I2b2QueryTo readI2b2Query(final String rawI2b2Xml)
+	{
+		return rawToI2b2QueryConverter.readI2b2Query(rawI2b2Xml);
+	}
+
 	/**
 	 * Adapt an i2b2 query to a FURTHeR logical query.
 	 * 
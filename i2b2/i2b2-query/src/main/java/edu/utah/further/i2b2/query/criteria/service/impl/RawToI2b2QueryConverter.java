@@ -18,6 +18,7 @@ package edu.utah.further.i2b2.query.criteria.service.impl;
 import java.io.IOException;
 
 import edu.utah.further.i2b2.query.model.I2b2Query;
+import edu.utah.further.i2b2.query.model.I2b2QueryTo;
 
 /**
  * Converts raw i2b2 message XMLs to {@link I2b2Query} objects.
@@ -47,4 +48,16 @@ public interface RawToI2b2QueryConverter
 	 * @throws IOException
 	 */
 	String toI2b2Query(String i2b2MessageXml);
+
+	/**
+	 * Read the i2b2 query of a raw i2b2 request XML in a single pass, without producing an
+	 * intermediate query XML. Equivalent to unmarshalling the {@link #toI2b2Query(String)}
+	 * output after stripping its new lines and tabs.
+	 *
+	 * @param rawI2b2Xml
+	 *            i2b2 request XML document
+	 * @return the i2b2 query. If this is not a recognized request, returns
+	 *         <code>null</code>
+	 */
+	I2b2QueryTo readI2b2Query(String rawI2b2Xml);
 }
\ No newline at end of file
@@ -0,0 +1,830 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.i2b2.query.criteria.service.impl;
+
+import static edu.utah.further.core.api.text.StringUtil.quote;
+import static edu.utah.further.core.api.xml.XmlUtil.closeTag;
+import static edu.utah.further.core.api.xml.XmlUtil.openTag;
+import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNames.NS1;
+import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNames.QUERY_DEFINITION;
+import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNames.REQUEST_XML_NAMESPACE;
+import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNames.USER;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.ENTITY_REFERENCE;
+import static javax.xml.stream.XMLStreamConstants.PROCESSING_INSTRUCTION;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.core.api.constant.Strings;
+import edu.utah.further.core.api.exception.ApplicationException;
+import edu.utah.further.i2b2.query.model.I2b2QueryTo;
+
+/**
+ * Pre-processes the i2b2 XML request to a friendlier format to be sent to FURTHeR. The
+ * request is read once with a StAX reader: the <code>user</code> and
+ * <code>query_definition</code> sub-trees are either printed on the way to a FURTHeR
+ * query XML, or the query definition is bound by JAXB directly from the stream to an
+ * {@link I2b2QueryTo}. No DOM tree or XPath evaluation is built.
+ * <p>
+ * The FURTHeR query XML is identical to the one produced by the former XPath-based
+ * converter: sub-trees are printed in the format of
+ * {@link edu.utah.further.core.api.xml.transform.SimpleDocumentSerializer}, and the
+ * query definition's root element is qualified and followed by the user element in the
+ * same way.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, AVP Health Sciences IT Office, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+@Service("rawToI2b2QueryConverter")
+public class RawToI2b2QueryConverterStaxImpl implements RawToI2b2QueryConverter
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(RawToI2b2QueryConverterStaxImpl.class);
+
+	/**
+	 * JDK StAX reader property that reports CDATA sections as {@link #CDATA} events
+	 * instead of text events.
+	 */
+	private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+	/**
+	 * Creates request readers that report text, CDATA sections and comments as separate
+	 * events, like DOM nodes. Thread-safe once configured.
+	 */
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory(false);
+
+	/**
+	 * Creates request readers that merge adjacent text, for JAXB binding. Thread-safe
+	 * once configured.
+	 */
+	private static final XMLInputFactory BINDING_INPUT_FACTORY = createInputFactory(true);
+
+	/**
+	 * Namespace-qualified query definition root element of a FURTHeR query XML.
+	 */
+	private static final String QUALIFIED_ROOT_ELEMENT = openTag(NS1,
+			REQUEST_XML_NAMESPACE, QUERY_DEFINITION).toString();
+
+	/**
+	 * Indentation added at each sub-tree level.
+	 */
+	private static final String INDENT = "    ";
+
+	// ========================= NESTED TYPES ==============================
+
+	/**
+	 * Prints an element sub-tree from a stream of reader events, in the format of
+	 * {@link edu.utah.further.core.api.xml.transform.SimpleDocumentSerializer}: one tag
+	 * or trimmed text node per line, indented by nesting level, with attributes and
+	 * namespace declarations sorted by name like a DOM attribute map.
+	 */
+	private static final class SubTreePrinter
+	{
+		/**
+		 * Printed sub-tree.
+		 */
+		private final StringWriter out = new StringWriter();
+
+		/**
+		 * Prints lines to {@link #out}.
+		 */
+		private final PrintWriter writer = new PrintWriter(out);
+
+		/**
+		 * Adjacent text events that make up a single DOM text node.
+		 */
+		private final StringBuilder text = new StringBuilder();
+
+		/**
+		 * Adjacent CDATA events that make up a single DOM CDATA section.
+		 */
+		private final StringBuilder cdata = new StringBuilder();
+
+		/**
+		 * Indentation of the current nesting level.
+		 */
+		private String indent = Strings.EMPTY_STRING;
+
+		/**
+		 * Number of open elements.
+		 */
+		private int depth;
+
+		/**
+		 * Has the sub-tree root element been closed.
+		 */
+		private boolean complete;
+
+		/**
+		 * Print the reader's current event.
+		 *
+		 * @param reader
+		 *            request reader, positioned at the sub-tree root start tag or at an
+		 *            event inside the sub-tree
+		 */
+		void print(final XMLStreamReader reader)
+		{
+			final int event = reader.getEventType();
+			if (event == CDATA)
+			{
+				flushText();
+				cdata.append(reader.getText());
+				return;
+			}
+			flushCdata();
+			switch (event)
+			{
+				case CHARACTERS:
+				case SPACE:
+				case ENTITY_REFERENCE:
+				{
+					text.append(reader.getText());
+					break;
+				}
+
+				case START_ELEMENT:
+				{
+					flushText();
+					printStartTag(reader);
+					indent += INDENT;
+					depth++;
+					break;
+				}
+
+				case END_ELEMENT:
+				{
+					flushText();
+					depth--;
+					indent = indent.substring(INDENT.length());
+					writer.println(indent + closeTag(getTagName(reader)));
+					complete = (depth == 0);
+					break;
+				}
+
+				case COMMENT:
+				{
+					flushText();
+					writer.println(indent + "<!--" + reader.getText() + "-->");
+					break;
+				}
+
+				case PROCESSING_INSTRUCTION:
+				{
+					flushText();
+					final String data = reader.getPIData();
+					writer.println(indent + "<?" + reader.getPITarget() + " "
+							+ ((data == null) ? Strings.EMPTY_STRING : data) + "?>");
+					break;
+				}
+
+				default:
+				{
+					// Irrelevant event
+					break;
+				}
+			}
+		}
+
+		/**
+		 * @return has the sub-tree root element been closed
+		 */
+		boolean isComplete()
+		{
+			return complete;
+		}
+
+		/**
+		 * @return printed sub-tree
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString()
+		{
+			writer.flush();
+			return out.toString();
+		}
+
+		/**
+		 * @param reader
+		 *            request reader, positioned at a start tag
+		 */
+		private void printStartTag(final XMLStreamReader reader)
+		{
+			final SortedMap<String, String> attributes = CollectionUtil.newSortedMap();
+			for (int i = 0; i < reader.getNamespaceCount(); i++)
+			{
+				final String prefix = reader.getNamespacePrefix(i);
+				final String uri = reader.getNamespaceURI(i);
+				attributes.put(isEmpty(prefix) ? "xmlns" : ("xmlns:" + prefix),
+						(uri == null) ? Strings.EMPTY_STRING : uri);
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++)
+			{
+				attributes.put(
+						getQualifiedName(reader.getAttributePrefix(i),
+								reader.getAttributeLocalName(i)),
+						reader.getAttributeValue(i));
+			}
+			writer.print(indent + "<" + getTagName(reader));
+			for (final Map.Entry<String, String> attribute : attributes.entrySet())
+			{
+				writer.print(" " + attribute.getKey() + "="
+						+ quote(escape(attribute.getValue())));
+			}
+			writer.println(">");
+		}
+
+		/**
+		 * Print the pending text node, if it is not blank.
+		 */
+		private void flushText()
+		{
+			final String value = text.toString().trim();
+			if (value.length() > 0)
+			{
+				writer.println(indent + escape(value));
+			}
+			text.setLength(0);
+		}
+
+		/**
+		 * Print the pending CDATA section, if any.
+		 */
+		private void flushCdata()
+		{
+			if (cdata.length() > 0)
+			{
+				writer.println(indent + "<![CDATA[" + cdata + "]]>");
+				cdata.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * Normalizes the text of a query definition the same way that
+	 * {@link edu.utah.further.core.api.text.StringUtil#stripNewLinesAndTabs(String)} does
+	 * to a query XML before JAXB binds it: new lines are removed, other white space
+	 * sequences become a single space, and white space next to tags is trimmed.
+	 */
+	private static final class NewLineStrippingReader extends StreamReaderDelegate
+	{
+		/**
+		 * Normalized text of the current event, if computed.
+		 */
+		private char[] text;
+
+		/**
+		 * @param reader
+		 *            reader to decorate
+		 */
+		NewLineStrippingReader(final XMLStreamReader reader)
+		{
+			super(reader);
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#next()
+		 */
+		@Override
+		public int next() throws XMLStreamException
+		{
+			text = null;
+			return super.next();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#nextTag()
+		 */
+		@Override
+		public int nextTag() throws XMLStreamException
+		{
+			text = null;
+			return super.nextTag();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getText()
+		 */
+		@Override
+		public String getText()
+		{
+			return isText() ? new String(normalizedText()) : super.getText();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getTextCharacters()
+		 */
+		@Override
+		public char[] getTextCharacters()
+		{
+			return isText() ? normalizedText() : super.getTextCharacters();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getTextCharacters(int, char[],
+		 *      int, int)
+		 */
+		@Override
+		public int getTextCharacters(final int sourceStart, final char[] target,
+				final int targetStart, final int length) throws XMLStreamException
+		{
+			if (!isText())
+			{
+				return super.getTextCharacters(sourceStart, target, targetStart, length);
+			}
+			final char[] source = normalizedText();
+			final int copied = Math.max(0, Math.min(length, source.length - sourceStart));
+			System.arraycopy(source, sourceStart, target, targetStart, copied);
+			return copied;
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getTextStart()
+		 */
+		@Override
+		public int getTextStart()
+		{
+			return isText() ? 0 : super.getTextStart();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getTextLength()
+		 */
+		@Override
+		public int getTextLength()
+		{
+			return isText() ? normalizedText().length : super.getTextLength();
+		}
+
+		/**
+		 * @see javax.xml.stream.util.StreamReaderDelegate#getElementText()
+		 */
+		@Override
+		public String getElementText() throws XMLStreamException
+		{
+			final StringBuilder s = new StringBuilder();
+			int event = next();
+			while (event != END_ELEMENT)
+			{
+				if (isText())
+				{
+					s.append(normalizedText());
+				}
+				else if (event == START_ELEMENT)
+				{
+					throw new XMLStreamException("Element text expected", getLocation());
+				}
+				event = next();
+			}
+			return s.toString();
+		}
+
+		/**
+		 * @return is the current event a text event
+		 */
+		private boolean isText()
+		{
+			final int event = getEventType();
+			return (event == CHARACTERS) || (event == SPACE) || (event == CDATA);
+		}
+
+		/**
+		 * @return normalized text of the current event
+		 */
+		private char[] normalizedText()
+		{
+			if (text == null)
+			{
+				text = normalize(super.getText()).toCharArray();
+			}
+			return text;
+		}
+	}
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Binds query definitions to {@link I2b2QueryTo}s.
+	 */
+	private final JAXBContext jaxbContext;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Create a converter.
+	 */
+	public RawToI2b2QueryConverterStaxImpl()
+	{
+		try
+		{
+			this.jaxbContext = JAXBContext.newInstance(I2b2QueryTo.class);
+		}
+		catch (final JAXBException e)
+		{
+			throw new ApplicationException("Could not create i2b2 query JAXB context", e);
+		}
+	}
+
+	// ========================= IMPL: RawToI2b2QueryConverter =============
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.i2b2.query.criteria.service.impl.RawToI2b2QueryConverter#toI2b2Query
+	 * (java.lang.String)
+	 */
+	@Override
+	public String toI2b2Query(final String rawI2b2Xml)
+	{
+		final XMLStreamReader reader = createReader(INPUT_FACTORY, rawI2b2Xml);
+		try
+		{
+			// Print the first query definition and user sub-trees, as the XPath
+			// expressions //query_definition and //user used to select
+			SubTreePrinter query = null;
+			SubTreePrinter user = null;
+			while (!(isComplete(query) && isComplete(user)) && reader.hasNext())
+			{
+				if ((reader.next() == START_ELEMENT) && isEmpty(reader.getNamespaceURI()))
+				{
+					final String name = reader.getLocalName();
+					if ((query == null) && QUERY_DEFINITION.equals(name))
+					{
+						query = new SubTreePrinter();
+					}
+					else if ((user == null) && USER.equals(name))
+					{
+						user = new SubTreePrinter();
+					}
+				}
+				printIfOpen(query, reader);
+				printIfOpen(user, reader);
+			}
+			if (query == null)
+			{
+				return null;
+			}
+			if (user == null)
+			{
+				throw new ApplicationException("i2b2 request has no " + USER + " element");
+			}
+			final String queryXml = toFurtherQueryXml(query.toString(), user.toString());
+			if (log.isDebugEnabled())
+			{
+				log.debug("FURTHeR request:\n" + queryXml);
+			}
+			return queryXml;
+		}
+		catch (final XMLStreamException e)
+		{
+			throw new ApplicationException("Invalid i2b2 request XML", e);
+		}
+		finally
+		{
+			close(reader);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * edu.utah.further.i2b2.query.criteria.service.impl.RawToI2b2QueryConverter#readI2b2Query
+	 * (java.lang.String)
+	 */
+	@Override
+	public I2b2QueryTo readI2b2Query(final String rawI2b2Xml)
+	{
+		final XMLStreamReader reader = new NewLineStrippingReader(createReader(
+				BINDING_INPUT_FACTORY, rawI2b2Xml));
+		try
+		{
+			String userId = null;
+			I2b2QueryTo query = null;
+			int event = reader.next();
+			while ((userId == null) || (query == null))
+			{
+				boolean consumed = false;
+				if (event == START_ELEMENT)
+				{
+					final String name = reader.getLocalName();
+					if ((userId == null) && USER.equals(name))
+					{
+						userId = reader.getElementText();
+					}
+					else if ((query == null) && QUERY_DEFINITION.equals(name))
+					{
+						// Leaves the reader right after the query definition's end tag
+						query = jaxbContext
+								.createUnmarshaller()
+								.unmarshal(reader, I2b2QueryTo.class)
+								.getValue();
+						consumed = true;
+					}
+				}
+				if (consumed)
+				{
+					event = reader.getEventType();
+				}
+				else if (reader.hasNext())
+				{
+					event = reader.next();
+				}
+				else
+				{
+					break;
+				}
+			}
+			if (query != null)
+			{
+				query.setUserId(userId);
+			}
+			return query;
+		}
+		catch (final XMLStreamException | JAXBException e)
+		{
+			throw new ApplicationException("Invalid i2b2 request XML", e);
+		}
+		finally
+		{
+			close(reader);
+		}
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param coalescing
+	 *            whether to merge adjacent text and CDATA events
+	 * @return a request reader factory
+	 */
+	private static XMLInputFactory createInputFactory(final boolean coalescing)
+	{
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.valueOf(coalescing));
+		if (!coalescing && factory.isPropertySupported(REPORT_CDATA))
+		{
+			factory.setProperty(REPORT_CDATA, Boolean.TRUE);
+		}
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		return factory;
+	}
+
+	/**
+	 * @param factory
+	 *            reader factory
+	 * @param rawI2b2Xml
+	 *            i2b2 request XML document
+	 * @return reader of the document
+	 */
+	private static XMLStreamReader createReader(final XMLInputFactory factory,
+			final String rawI2b2Xml)
+	{
+		try
+		{
+			return factory.createXMLStreamReader(new StringReader(rawI2b2Xml));
+		}
+		catch (final XMLStreamException e)
+		{
+			throw new ApplicationException("Invalid i2b2 request XML", e);
+		}
+	}
+
+	/**
+	 * @param reader
+	 *            reader to close
+	 */
+	private static void close(final XMLStreamReader reader)
+	{
+		try
+		{
+			reader.close();
+		}
+		catch (final XMLStreamException e)
+		{
+			log.warn("Could not close i2b2 request reader", e);
+		}
+	}
+
+	/**
+	 * Convert the printed query definition and user sub-trees to a FURTHeR query XML
+	 * whose root element is namespace-qualified and whose first child is the user
+	 * element.
+	 *
+	 * @param queryXml
+	 *            printed query definition sub-tree
+	 * @param userXml
+	 *            printed user sub-tree
+	 * @return FURTHeR query XML
+	 */
+	private static String toFurtherQueryXml(final String queryXml, final String userXml)
+	{
+		// Convert root element to be namespace-qualified
+		String result = queryXml.replaceFirst(openTag(QUERY_DEFINITION).toString(),
+				QUALIFIED_ROOT_ELEMENT);
+		result = result.replaceFirst(closeTag(QUERY_DEFINITION).toString(),
+				closeTag(NS1, QUERY_DEFINITION).toString());
+
+		// Replace single quotes by double quotes, which is the standard used for the FQE
+		// and works with Javascript escaping in portal JSF pages
+		return result.replaceFirst(QUALIFIED_ROOT_ELEMENT, QUALIFIED_ROOT_ELEMENT + "\n"
+				+ userXml.replace(Strings.SINGLE_QUOTE, Strings.DOUBLE_QUOTE));
+	}
+
+	/**
+	 * Pass the reader's current event to a sub-tree printer that has started and not yet
+	 * completed.
+	 *
+	 * @param printer
+	 *            sub-tree printer; <code>null</code> if its sub-tree has not started
+	 * @param reader
+	 *            request reader
+	 */
+	private static void printIfOpen(final SubTreePrinter printer,
+			final XMLStreamReader reader)
+	{
+		if ((printer != null) && !printer.isComplete())
+		{
+			printer.print(reader);
+		}
+	}
+
+	/**
+	 * @param printer
+	 *            sub-tree printer; <code>null</code> if its sub-tree has not started
+	 * @return has the printer's sub-tree been printed completely
+	 */
+	private static boolean isComplete(final SubTreePrinter printer)
+	{
+		return (printer != null) && printer.isComplete();
+	}
+
+	/**
+	 * @param s
+	 *            string
+	 * @return is the string <code>null</code> or empty
+	 */
+	private static boolean isEmpty(final String s)
+	{
+		return (s == null) || s.isEmpty();
+	}
+
+	/**
+	 * @param prefix
+	 *            namespace prefix; may be <code>null</code> or empty
+	 * @param localName
+	 *            local name
+	 * @return name as written in the request
+	 */
+	private static String getQualifiedName(final String prefix, final String localName)
+	{
+		return isEmpty(prefix) ? localName : (prefix + ":" + localName);
+	}
+
+	/**
+	 * @param reader
+	 *            request reader, positioned at a start or end tag
+	 * @return tag name as written in the request
+	 */
+	private static String getTagName(final XMLStreamReader reader)
+	{
+		return getQualifiedName(reader.getPrefix(), reader.getLocalName());
+	}
+
+	/**
+	 * Replace reserved characters by entities, like
+	 * {@link edu.utah.further.core.api.xml.transform.SimpleDocumentSerializer} does.
+	 *
+	 * @param s
+	 *            text or attribute value
+	 * @return escaped string
+	 */
+	private static String escape(final String s)
+	{
+		final StringBuilder result = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++)
+		{
+			final char c = s.charAt(i);
+			switch (c)
+			{
+				case '<':
+				{
+					result.append("&lt;");
+					break;
+				}
+
+				case '>':
+				{
+					result.append("&gt;");
+					break;
+				}
+
+				case '&':
+				{
+					result.append("&amp;");
+					break;
+				}
+
+				case '"':
+				{
+					result.append("&quot;");
+					break;
+				}
+
+				case '\'':
+				{
+					result.append("&apos;");
+					break;
+				}
+
+				default:
+				{
+					result.append(c);
+					break;
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Remove new lines from a text node, replace every other white space sequence by a
+	 * single space, and trim the result.
+	 *
+	 * @param s
+	 *            text node value
+	 * @return normalized text
+	 */
+	private static String normalize(final String s)
+	{
+		final StringBuilder result = new StringBuilder(s.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < s.length(); i++)
+		{
+			final char c = s.charAt(i);
+			if (c == '\n')
+			{
+				continue;
+			}
+			if (Character.isWhitespace(c))
+			{
+				pendingSpace = true;
+				continue;
+			}
+			if (pendingSpace && (result.length() > 0))
+			{
+				result.append(' ');
+			}
+			pendingSpace = false;
+			result.append(c);
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.i2b2.query.criteria.dao;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link I2b2OntologyIndex}
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author N. Dustin Schultz {@code <dustin.schultz@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestI2b2OntologyIndex
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Index under test.
+	 */
+	private I2b2OntologyIndex index;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Index a small ontology fragment.
+	 */
+	@Before
+	public void setup()
+	{
+		index = new I2b2OntologyIndex();
+		index.add("\\FURTHER\\Demographics\\Gender\\", "DEM:GENDER", 2);
+		index.add("\\FURTHER\\Demographics\\Gender\\Male\\", "DEM:M", 3);
+		index.add("\\FURTHER\\Demographics\\Gender\\Female\\", "DEM:F", 3);
+		index.add("\\FURTHER\\Demographics\\Gen\\", "DEM:GEN", 2);
+		index.add("\\FURTHER\\Demographics\\Race\\", "DEM:RACE", 2);
+		index.add("  \\FURTHER\\Demographics\\Race\\White\\  ", "DEM:W", 3);
+		index.add("\\FURTHER\\Demographics\\Race\\Other\\", null, 3);
+		// Same basecode under a second path
+		index.add("\\FURTHER\\Demographics\\Gender\\Male (2)\\", "DEM:M", 3);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * A trailing wildcard returns the whole sub-tree, distinct and ordered by level.
+	 */
+	@Test
+	public void prefixDomain()
+	{
+		final List<String> domain = index
+				.findDomain("\\FURTHER\\Demographics\\Gender\\%");
+		assertThat(domain, containsInAnyOrder("DEM:GENDER", "DEM:F", "DEM:M"));
+		assertThat(domain.get(0), is("DEM:GENDER"));
+	}
+
+	/**
+	 * A prefix that ends in the middle of a path segment also matches longer segments.
+	 */
+	@Test
+	public void prefixEndingInsideEdge()
+	{
+		final List<String> domain = index.findDomain("\\FURTHER\\Demographics\\Gen%");
+		assertThat(domain,
+				containsInAnyOrder("DEM:GEN", "DEM:GENDER", "DEM:F", "DEM:M"));
+		assertThat(domain.subList(2, 4), containsInAnyOrder("DEM:F", "DEM:M"));
+	}
+
+	/**
+	 * Lookups are case-insensitive and ignore surrounding whitespace.
+	 */
+	@Test
+	public void normalizedLookup()
+	{
+		assertThat(index.findDomain(" \\further\\demographics\\race\\%"),
+				is(asList("DEM:RACE", "DEM:W")));
+	}
+
+	/**
+	 * Without a trailing wildcard only exact matches are returned; an underscore matches
+	 * any single character.
+	 */
+	@Test
+	public void exactAndSingleCharacterWildcard()
+	{
+		assertThat(index.findDomain("\\FURTHER\\Demographics\\Gender\\"),
+				is(asList("DEM:GENDER")));
+		assertThat(index.findDomain("\\FURTHER\\Demographics\\G_nder\\M_le\\"),
+				is(asList("DEM:M")));
+		assertThat(index.findDomain("\\FURTHER\\Demographics\\Unknown\\%").isEmpty(),
+				is(true));
+	}
+
+	/**
+	 * Inner multi-character wildcards are left to the database.
+	 */
+	@Test
+	public void unsupportedPattern()
+	{
+		assertThat(index.findDomain("\\FURTHER\\%\\Gender\\%"), is(nullValue()));
+	}
+
+	/**
+	 * Rows without a basecode are not indexed.
+	 */
+	@Test
+	public void size()
+	{
+		assertThat(new Integer(index.size()), is(new Integer(7)));
+	}
+}
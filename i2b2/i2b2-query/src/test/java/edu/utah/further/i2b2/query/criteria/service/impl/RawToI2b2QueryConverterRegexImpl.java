@@ -28,7 +28,6 @@ import java.io.ByteArrayInputStream;
 import javax.xml.namespace.NamespaceContext;
 
 import org.slf4j.Logger;
-import org.springframework.stereotype.Service;
 
 import edu.utah.further.core.api.constant.Strings;
 import edu.utah.further.core.xml.xpath.XPathNamespaceContext;
@@ -36,6 +35,10 @@ import edu.utah.further.core.xml.xpath.XPathNamespaceContext;
 /**
  * Pre-processes the i2b2 XML request to a friendlier format to be sent to FURTHeR.
  * <p>
+ * The former XPath and regular expression based converter. Not a bean; kept as a
+ * reference that {@link RawToI2b2QueryConverterStaxImpl#toI2b2Query(String)} must match
+ * byte for byte.
+ * <p>
  * -----------------------------------------------------------------------------------<br>
  * (c) 2008-2013 FURTHeR Project, AVP Health Sciences IT Office, University of Utah<br>
  * Contact: {@code <further@utah.edu>}<br>
@@ -47,8 +50,7 @@ import edu.utah.further.core.xml.xpath.XPathNamespaceContext;
  * @author Oren E. Livne {@code <oren.livne@utah.edu>}
  * @version Dec 27, 2008
  */
-@Service("rawToI2b2QueryConverter")
-public class RawToI2b2QueryConverterRegexImpl implements RawToI2b2QueryConverter
+public class RawToI2b2QueryConverterRegexImpl
 {
 	// ========================= CONSTANTS =================================
 
@@ -72,14 +74,13 @@ public class RawToI2b2QueryConverterRegexImpl implements RawToI2b2QueryConverter
 
 	// ========================= HOOKS =====================================
 
-	/*
-	 * (non-Javadoc)
-	 *
-	 * @see
-	 * edu.utah.further.i2b2.query.criteria.service.impl.RawToI2b2QueryConverter#toI2b2Query
-	 * (java.lang.String)
+	/**
+	 * @param rawI2b2Xml
+	 *            i2b2 request XML document
+	 * @return FURTHeR query XML, or <code>null</code> if the request has no query
+	 *         definition
+	 * @see RawToI2b2QueryConverter#toI2b2Query(String)
 	 */
-	@Override
 	public String toI2b2Query(final String rawI2b2Xml)
 	{
 		final ByteArrayInputStream inputXmlBytes = new ByteArrayInputStream(
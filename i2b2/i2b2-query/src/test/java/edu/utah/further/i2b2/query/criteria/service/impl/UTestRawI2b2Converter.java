@@ -19,12 +19,17 @@ import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNa
 import static edu.utah.further.i2b2.query.criteria.service.impl.RequestElementNames.REQUEST_XML_NAMESPACE;
 import static javax.xml.xpath.XPathConstants.NODESET;
 import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 
 import javax.annotation.Resource;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,17 +38,20 @@ import org.custommonkey.xmlunit.Diff;
 import org.custommonkey.xmlunit.XMLUnit;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import edu.utah.further.core.api.chain.RequestProcessor;
 import edu.utah.further.core.api.lang.CoreUtil;
+import edu.utah.further.core.api.text.StringUtil;
 import edu.utah.further.core.api.xml.transform.XmlTransformUtil;
 import edu.utah.further.core.util.io.IoUtil;
 import edu.utah.further.core.xml.xpath.XPathNamespaceContext;
 import edu.utah.further.core.xml.xpath.XPathParser;
 import edu.utah.further.i2b2.query.fixture.I2b2QueryFixture;
+import edu.utah.further.i2b2.query.model.I2b2QueryTo;
 
 /**
  * Learning how to parse an XML document using the Java XPath API.
@@ -70,6 +78,19 @@ public final class UTestRawI2b2Converter extends I2b2QueryFixture
 	@SuppressWarnings("unused")
 	private static final Log log = LogFactory.getLog(UTestRawI2b2Converter.class);
 
+	/**
+	 * A request whose user element has quoted attributes and text and follows the query
+	 * definition, which has entities, a CDATA section, a comment and attributes out of
+	 * order.
+	 */
+	private static final String RAW_I2b2_XML_EDGE_CASES = "<ns6:request "
+			+ "xmlns:ns6=\"http://www.i2b2.org/xsd/hive/msg/1.1/\"><message_body>"
+			+ "<query_definition><query_name>a &amp; b &lt; 'c'</query_name>"
+			+ "<panel z='2' b=\"1\"><!-- comment --><![CDATA[ <raw> ]]>text<item/></panel>"
+			+ "</query_definition></message_body><message_header>"
+			+ "<user login=\"o'brien\" group='FURTHeR'>O'Brien &amp; \"co\"</user>"
+			+ "</message_header></ns6:request>";
+
 	// ========================= FIELDS ====================================
 
 	// ========================= DEPENDENCIES ==============================
@@ -135,6 +156,61 @@ public final class UTestRawI2b2Converter extends I2b2QueryFixture
 		convertRawI2b2ToI2b2Query(RAW_I2b2_XML_MCLAIN, I2B2_QUERY_XML_MCLAIN);
 	}
 
+	/**
+	 * {@link RawToI2b2QueryConverter#toI2b2Query(String)} must return exactly the same
+	 * string as the former XPath and regular expression based converter for every request
+	 * fixture.
+	 */
+	@Test
+	public void toI2b2QueryMatchesRegexConverter() throws Exception
+	{
+		final org.springframework.core.io.Resource[] resources = new PathMatchingResourcePatternResolver()
+				.getResources("classpath:" + REQ_DIR + "*.xml");
+		assertFalse(resources.length == 0);
+		final RawToI2b2QueryConverterRegexImpl regexConverter = new RawToI2b2QueryConverterRegexImpl();
+		for (final org.springframework.core.io.Resource resource : resources)
+		{
+			final String rawI2b2Xml = IoUtil.getInputStreamAsString(resource
+					.getInputStream());
+			assertEquals(resource.getFilename(), regexConverter.toI2b2Query(rawI2b2Xml),
+					rawToI2b2QueryConverter.toI2b2Query(rawI2b2Xml));
+		}
+	}
+
+	/**
+	 * {@link RawToI2b2QueryConverter#toI2b2Query(String)} must return exactly the same
+	 * string as the former XPath and regular expression based converter, including the
+	 * single-to-double quote replacement in the user element.
+	 */
+	@Test
+	public void toI2b2QueryMatchesRegexConverterOnEdgeCases()
+	{
+		final String i2b2QueryXml = rawToI2b2QueryConverter
+				.toI2b2Query(RAW_I2b2_XML_EDGE_CASES);
+		assertEquals(new RawToI2b2QueryConverterRegexImpl()
+				.toI2b2Query(RAW_I2b2_XML_EDGE_CASES), i2b2QueryXml);
+		assertTrue(i2b2QueryXml
+				.contains("<user group=\"FURTHeR\" login=\"o&apos;brien\">"));
+	}
+
+	/**
+	 * Test {@link RawToI2b2QueryConverter#readI2b2Query(String)}.
+	 */
+	@Test
+	public void readI2b2QuerySimple() throws Exception
+	{
+		readI2b2Query(RAW_I2b2_XML_SIMPLE, I2B2_QUERY_XML_SIMPLE);
+	}
+
+	/**
+	 * Test {@link RawToI2b2QueryConverter#readI2b2Query(String)}.
+	 */
+	@Test
+	public void readI2b2QueryMcLain() throws Exception
+	{
+		readI2b2Query(RAW_I2b2_XML_MCLAIN, I2B2_QUERY_XML_MCLAIN);
+	}
+
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
@@ -154,4 +230,32 @@ public final class UTestRawI2b2Converter extends I2b2QueryFixture
 		final DetailedDiff diff = new DetailedDiff(new Diff(expected, i2b2QueryXml));
 		assertTrue("XML is different" + diff.getAllDifferences(), diff.similar());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Reading the query directly from the raw request must bind the same object as
+	 * unmarshalling the stripped query XML.
+	 *
+	 * @param rawRequestResource
+	 * @param i2b2RequestResource
+	 * @throws IOException
+	 * @throws JAXBException
+	 */
+	private void readI2b2Query(final String rawRequestResource,
+			final String i2b2RequestResource) throws IOException, JAXBException
+	{
+		final String rawI2b2Xml = IoUtil.getInputStreamAsString(CoreUtil
+				.getResourceAsStream(rawRequestResource));
+		final String expectedXml = IoUtil.getInputStreamAsString(CoreUtil
+				.getResourceAsStream(i2b2RequestResource));
+		final I2b2QueryTo expected = JAXBContext
+				.newInstance(I2b2QueryTo.class)
+				.createUnmarshaller()
+				.unmarshal(
+						new StreamSource(new StringReader(StringUtil
+								.stripNewLinesAndTabs(expectedXml))), I2b2QueryTo.class)
+				.getValue();
+		final I2b2QueryTo actual = rawToI2b2QueryConverter.readI2b2Query(rawI2b2Xml);
+		assertEquals(expected.getUserId(), actual.getUserId());
+		assertEquals(expected.toString(), actual.toString());
+	}
+}
@@ -15,6 +15,7 @@
  */
 package edu.utah.further.mdr.api.service.asset;
 
+import java.io.InputStream;
 import java.util.Properties;
 
 import edu.utah.further.core.api.text.PlaceHolderResolver;
@@ -59,6 +60,18 @@ public interface ResourceContentService
 	 */
 	byte[] getResourceContent(Resource resource);
 
+	/**
+	 * Return the content field of a resource corresponding to this storage code as a
+	 * stream. Large contents (BLOBs, remote URL contents) are streamed rather than copied
+	 * into memory. The caller must close the stream.
+	 *
+	 * @param resource
+	 *            MDR resource
+	 * @return resource content stream, or <code>null</code> if the resource has no
+	 *         content
+	 */
+	InputStream getResourceContentAsStream(Resource resource);
+
 	/**
 	 * Convert a resource raw byte content into the corresponding resource type.
 	 *
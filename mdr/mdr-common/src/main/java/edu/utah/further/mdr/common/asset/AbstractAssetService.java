@@ -17,7 +17,6 @@ package edu.utah.further.mdr.common.asset;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import org.slf4j.Logger;
@@ -104,7 +103,12 @@ public abstract class AbstractAssetService implements AssetService
 	@Override
 	public InputStream getActiveResourceInputstreamByPath(final String path)
 	{
-		return new ByteArrayInputStream(getActiveResourceContentByPath(path).getBytes());
+		if (log.isDebugEnabled())
+		{
+			log.debug("Getting resource filtered content stream by path " + path);
+		}
+		final Resource resource = getActiveResourceByPath(path);
+		return getResourceContentService().getResourceContentAsStream(resource);
 	}
 
 	/*
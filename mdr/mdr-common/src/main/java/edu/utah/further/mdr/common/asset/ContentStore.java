@@ -0,0 +1,290 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.mdr.common.asset;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.springframework.util.FileCopyUtils;
+
+import edu.utah.further.core.api.exception.ApplicationException;
+
+/**
+ * A local content-addressed store of large resource contents. Each content is saved once
+ * in a file named after its SHA-256 hash, so identical contents (e.g. the same XSD
+ * served from two URLs) share storage, and a stored content never changes under a
+ * reader. The store does not track who refers to a content; callers delete contents
+ * they no longer need with {@link #delete(String)} and {@link #retainAll(Collection)}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class ContentStore
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(ContentStore.class);
+
+	/**
+	 * Content hash algorithm.
+	 */
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * Hexadecimal digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Prefix of temporary files of contents being saved.
+	 */
+	private static final String TEMP_PREFIX = "content";
+
+	/**
+	 * Suffix of temporary files of contents being saved.
+	 */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	/**
+	 * Matches the names of stored content files.
+	 */
+	private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Store directory.
+	 */
+	private final File directory;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Create a store in a directory. The directory is created if it does not exist.
+	 *
+	 * @param directory
+	 *            store directory
+	 */
+	public ContentStore(final File directory)
+	{
+		this.directory = directory;
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new ApplicationException("Could not create content store directory "
+					+ directory);
+		}
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Save a content in the store. The stream is read to its end and closed.
+	 *
+	 * @param inputStream
+	 *            content stream
+	 * @return content hash, to be passed to {@link #open(String)}
+	 * @throws IOException
+	 *             if the content could not be read or saved
+	 */
+	public String put(final InputStream inputStream) throws IOException
+	{
+		final MessageDigest digest = newDigest();
+		final File temp = File.createTempFile(TEMP_PREFIX, TEMP_SUFFIX, directory);
+		try
+		{
+			try (final InputStream in = new DigestInputStream(inputStream, digest);
+					final OutputStream out = new FileOutputStream(temp))
+			{
+				FileCopyUtils.copy(in, out);
+			}
+			final String hash = toHex(digest.digest());
+			final File file = getFile(hash);
+			// Identical content may already be stored
+			if (!file.exists() && !temp.renameTo(file) && !file.exists())
+			{
+				throw new IOException("Could not save content " + hash + " in "
+						+ directory);
+			}
+			if (log.isDebugEnabled())
+			{
+				log.debug("Stored content " + hash + " (" + file.length() + " bytes)");
+			}
+			return hash;
+		}
+		finally
+		{
+			if (temp.exists() && !temp.delete())
+			{
+				temp.deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * @param hash
+	 *            content hash
+	 * @return <code>true</code> if and only if this store contains the content
+	 */
+	public boolean contains(final String hash)
+	{
+		return getFile(hash).isFile();
+	}
+
+	/**
+	 * Open a stored content. The caller must close the stream.
+	 *
+	 * @param hash
+	 *            content hash
+	 * @return content stream
+	 * @throws FileNotFoundException
+	 *             if the content is not in the store
+	 */
+	public InputStream open(final String hash) throws FileNotFoundException
+	{
+		return new FileInputStream(getFile(hash));
+	}
+
+	/**
+	 * Delete a stored content. Streams already opened on it can still be read to their
+	 * end on platforms that allow deleting open files.
+	 *
+	 * @param hash
+	 *            content hash
+	 * @return <code>true</code> if and only if the content was deleted
+	 */
+	public boolean delete(final String hash)
+	{
+		final boolean deleted = getFile(hash).delete();
+		if (deleted && log.isDebugEnabled())
+		{
+			log.debug("Deleted content " + hash);
+		}
+		return deleted;
+	}
+
+	/**
+	 * Delete all stored contents except the given ones, and the temporary files of
+	 * contents whose saving was interrupted. Meant to be called at start-up, before any
+	 * content is saved, to drop contents that were orphaned by a previous process.
+	 *
+	 * @param hashes
+	 *            hashes of the contents to keep
+	 * @return number of deleted files
+	 */
+	public int retainAll(final Collection<String> hashes)
+	{
+		int deleted = 0;
+		final File[] files = directory.listFiles();
+		if (files == null)
+		{
+			return deleted;
+		}
+		for (final File file : files)
+		{
+			final String name = file.getName();
+			final boolean orphan = HASH_PATTERN.matcher(name).matches() ? !hashes
+					.contains(name) : (name.startsWith(TEMP_PREFIX) && name
+					.endsWith(TEMP_SUFFIX));
+			if (orphan && file.isFile() && file.delete())
+			{
+				deleted++;
+			}
+		}
+		if ((deleted > 0) && log.isInfoEnabled())
+		{
+			log.info("Deleted " + deleted + " orphaned content file(s) from " + directory);
+		}
+		return deleted;
+	}
+
+	/**
+	 * @param hash
+	 *            content hash
+	 * @return content size [bytes], or <code>0</code> if the content is not in the store
+	 */
+	public long size(final String hash)
+	{
+		return getFile(hash).length();
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @param hash
+	 *            content hash
+	 * @return content file
+	 */
+	private File getFile(final String hash)
+	{
+		return new File(directory, hash);
+	}
+
+	/**
+	 * @return a new content hash digest
+	 */
+	private static MessageDigest newDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		}
+		catch (final NoSuchAlgorithmException e)
+		{
+			throw new ApplicationException("Hash algorithm " + HASH_ALGORITHM
+					+ " not found", e);
+		}
+	}
+
+	/**
+	 * @param bytes
+	 *            digest bytes
+	 * @return hexadecimal string
+	 */
+	private static String toHex(final byte[] bytes)
+	{
+		final char[] chars = new char[2 * bytes.length];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+}
@@ -16,24 +16,23 @@
 package edu.utah.further.mdr.common.asset;
 
 import static edu.utah.further.core.util.io.LoggingUtil.tracePrintAndCenter;
-import static edu.utah.further.core.ws.HttpUtil.getHttpGetResponseBody;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.SQLException;
 import java.util.Properties;
 
 import javax.sql.rowset.serial.SerialBlob;
-import javax.ws.rs.core.MediaType;
 
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileCopyUtils;
 
 import edu.utah.further.core.api.exception.ApplicationException;
-import edu.utah.further.core.api.exception.WsException;
 import edu.utah.further.core.api.text.PlaceHolderResolver;
-import edu.utah.further.core.ws.HttpResponseTo;
 import edu.utah.further.mdr.api.domain.asset.Resource;
 import edu.utah.further.mdr.api.domain.asset.StorageCode;
 import edu.utah.further.mdr.api.service.asset.MdrNames;
@@ -75,12 +74,48 @@ public class ResourceContentServiceImpl implements ResourceContentService
 	 */
 	private static final int HTTP_TIMEOUT_SECS = 10;
 
+	/**
+	 * Default directory of the local content-addressed cache of URL resources.
+	 */
+	private static final String DEFAULT_CACHE_DIRECTORY = System
+			.getProperty("java.io.tmpdir")
+			+ File.separator
+			+ "further-mdr-content";
+
+	/**
+	 * Name of the index file of cached URL resources in the cache directory.
+	 */
+	private static final String URL_CACHE_INDEX = "url-index.properties";
+
 	// ========================= DEPENDENCIES ==============================
 
 	// ========================= FIELDS ====================================
 
+	/**
+	 * Caches URL resource contents and revalidates them with conditional GETs. Lazily
+	 * initialized so that no directory is created unless a URL resource is read.
+	 */
+	private volatile UrlResourceCache urlResourceCache;
+
+	/**
+	 * Directory of the local content-addressed cache of URL resources.
+	 */
+	private String cacheDirectory = DEFAULT_CACHE_DIRECTORY;
+
 	// ========================= GETTERS & SETTERS =========================
 
+	/**
+	 * Set a new value for the cacheDirectory property. Must be called before the first
+	 * URL resource is read.
+	 *
+	 * @param cacheDirectory
+	 *            directory of the local content-addressed cache of URL resources
+	 */
+	public void setCacheDirectory(final String cacheDirectory)
+	{
+		this.cacheDirectory = cacheDirectory;
+	}
+
 	// ========================= IMPLEMENTATION: ResourceContentService ====
 
 	/**
@@ -169,7 +204,7 @@ public class ResourceContentServiceImpl implements ResourceContentService
 				// field
 				if (clob == null)
 				{
-					resource.setClob(getUrlResourceContent(resource, storageCode));
+					resource.setClob(getUrlResourceContent(resource));
 				}
 				final String updatedClob = resource.getClob();
 				return (updatedClob == null) ? null : updatedClob.getBytes();
@@ -183,6 +218,59 @@ public class ResourceContentServiceImpl implements ResourceContentService
 		}
 	}
 
+	/**
+	 * Stream BLOB and non-cached URL contents instead of copying them into memory.
+	 *
+	 * @param resource
+	 * @return
+	 * @see edu.utah.further.mdr.api.service.asset.ResourceContentService#getResourceContentAsStream(edu.utah.further.mdr.api.domain.asset.Resource)
+	 */
+	@Override
+	public InputStream getResourceContentAsStream(final Resource resource)
+	{
+		final StorageCode storageCode = resource.getStorageCode();
+		if (storageCode == null)
+		{
+			if (log.isWarnEnabled())
+			{
+				log.warn("Resource with no storage code! " + resource);
+			}
+			return null;
+		}
+
+		switch (storageCode)
+		{
+			case RESOURCE_BLOB:
+			{
+				try
+				{
+					return resource.getBlob().getBinaryStream();
+				}
+				catch (final SQLException e)
+				{
+					throw new IllegalStateException(
+							"Error reading resource BLOB content", e);
+				}
+			}
+
+			case RESOURCE_URL:
+			{
+				// Content set on the resource, e.g. filtered XQuery, takes precedence
+				if (resource.getClob() != null)
+				{
+					return new ByteArrayInputStream(resource.getClob().getBytes());
+				}
+				return openUrlResourceContent(resource);
+			}
+
+			default:
+			{
+				final byte[] content = getResourceContent(resource);
+				return (content == null) ? null : new ByteArrayInputStream(content);
+			}
+		}
+	}
+
 	/**
 	 * @param storageCode
 	 * @param content
@@ -384,94 +472,77 @@ public class ResourceContentServiceImpl implements ResourceContentService
 	// ========================= PRIVATE METHODS ===========================
 
 	/**
-	 * Open a remote HTTP connection and retrieve a resource's content from a URL.
-	 * 
-	 * @param url
-	 *            absolute remote URL
-	 * @return HTTP response bytes
+	 * Read a URL resource's content.
+	 *
+	 * @param resource
+	 *            URL resource
+	 * @return content string, or <code>null</code> if the URL is down and the content was
+	 *         never cached
 	 */
-	private static HttpResponseTo getResourceContentFromUrl(final String url)
+	private String getUrlResourceContent(final Resource resource)
 	{
-		try
+		try (final InputStream inputStream = openUrlResourceContent(resource))
 		{
-			if (log.isDebugEnabled())
-			{
-				log.debug("Trying to download resource from url " + url);
-			}
-			return getHttpGetResponseBody(url, HTTP_TIMEOUT_SECS);
-		}
-		catch (final WsException e)
-		{
-			switch (e.getCode())
-			{
-				case TRANSPORT_ERROR:
-				{
-					// Remote resource URL is not up, do not crash
-					return null;
-				}
-
-				default:
-				{
-					throw new ApplicationException(
-							"Web service error reading resource content from remote URL "
-									+ url, e);
-				}
-			}
+			return (inputStream == null) ? null : new String(
+					FileCopyUtils.copyToByteArray(inputStream));
 		}
-		catch (final Exception e)
+		catch (final IOException e)
 		{
 			throw new ApplicationException(
-					"Error reading resource content from remote URL " + url, e);
+					"Error reading resource content from remote URL " + resource.getUrl(),
+					e);
 		}
 	}
 
 	/**
+	 * Open a URL resource's content from the URL cache, downloading it if it changed
+	 * since it was cached. Sets the resource's MIME type to the HTTP response's.
+	 *
 	 * @param resource
-	 * @param storageCode
-	 * @return
+	 *            URL resource
+	 * @return content stream, or <code>null</code> if the URL is down and the content
+	 *         was never cached
 	 */
-	private HttpResponseTo getRemoteResourceViaHttp(final Resource resource,
-			final StorageCode storageCode)
+	private InputStream openUrlResourceContent(final Resource resource)
 	{
-		switch (storageCode)
+		final String url = resource.getUrl();
+		final UrlResourceCache.Entry entry = getUrlResourceCache().get(url);
+		if (entry == null)
 		{
-			case RESOURCE_URL:
-			{
-				// final String filteredUrl =
-				// resolver.resolvePlaceholders(resource.getUrl());
-				final String filteredUrl = resource.getUrl();
-				return getResourceContentFromUrl(filteredUrl);
-			}
-
-			default:
-			{
-				throw new UnsupportedOperationException(
-						"Unrecognized remote resource storage code: " + storageCode);
-			}
+			return null;
+		}
+		resource.setMimeType(entry.getMimeType());
+		try
+		{
+			return getUrlResourceCache().open(entry);
+		}
+		catch (final IOException e)
+		{
+			throw new ApplicationException(
+					"Error reading cached resource content of remote URL " + url, e);
 		}
 	}
 
 	/**
-	 * @param resource
-	 * @param storageCode
-	 * @return
+	 * @return the URL resource cache
 	 */
-	private String getUrlResourceContent(final Resource resource,
-			final StorageCode storageCode)
+	private UrlResourceCache getUrlResourceCache()
 	{
-		final HttpResponseTo response = getRemoteResourceViaHttp(resource, storageCode);
-		if (response == null)
+		UrlResourceCache cache = urlResourceCache;
+		if (cache == null)
 		{
-			return null;
+			synchronized (this)
+			{
+				cache = urlResourceCache;
+				if (cache == null)
+				{
+					final File directory = new File(cacheDirectory);
+					cache = new UrlResourceCache(new ContentStore(directory), new File(
+							directory, URL_CACHE_INDEX), HTTP_TIMEOUT_SECS);
+					urlResourceCache = cache;
+				}
+			}
 		}
-		// Forward mime type from HTTP response. If not found, use text
-		// as a default.
-		final MediaType httpMediaType = response.getMediaType();
-		final String mimeTypeString = (httpMediaType == null) ? "text/plain"
-				: httpMediaType.toString();
-		resource.setMimeType(mimeTypeString);
-
-		// Copy HTTP body to the CLOB storage field
-		return new String(response.getResponseBody());
+		return cache;
 	}
 }
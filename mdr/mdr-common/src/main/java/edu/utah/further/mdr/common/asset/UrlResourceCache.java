@@ -0,0 +1,457 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.mdr.common.asset;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.SimpleHttpConnectionManager;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.slf4j.Logger;
+
+import edu.utah.further.core.ws.HttpUtil;
+
+/**
+ * Caches the contents of URL-stored MDR resources. A cached URL is revalidated with a
+ * conditional HTTP GET (<code>If-None-Match</code>/<code>If-Modified-Since</code>), so an
+ * unchanged resource costs a <code>304 Not Modified</code> response instead of a
+ * download. Contents are kept in a {@link ContentStore} and streamed from there.
+ * <p>
+ * The cached entries are saved in an index file, so that a restarted process still
+ * revalidates instead of downloading, and still serves the cached copy when the origin
+ * is down. Contents that are no longer referenced by any entry are deleted from the
+ * store when an entry is replaced, and at start-up (for files orphaned by a previous
+ * process).
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UrlResourceCache
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(UrlResourceCache.class);
+
+	/**
+	 * MIME type of responses without a content type.
+	 */
+	private static final String DEFAULT_MIME_TYPE = "text/plain";
+
+	/**
+	 * Separates entry fields in the index file. Cannot occur in HTTP header values.
+	 */
+	private static final String INDEX_SEPARATOR = "\n";
+
+	// ========================= NESTED TYPES ==============================
+
+	/**
+	 * A cached URL content.
+	 */
+	public static final class Entry
+	{
+		private final String etag;
+
+		private final String lastModified;
+
+		private final String mimeType;
+
+		private final String hash;
+
+		/**
+		 * @param etag
+		 * @param lastModified
+		 * @param mimeType
+		 * @param hash
+		 */
+		Entry(final String etag, final String lastModified, final String mimeType,
+				final String hash)
+		{
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.mimeType = mimeType;
+			this.hash = hash;
+		}
+
+		/**
+		 * @return the response MIME type
+		 */
+		public String getMimeType()
+		{
+			return mimeType;
+		}
+
+		/**
+		 * @return the content hash in the content store
+		 */
+		public String getHash()
+		{
+			return hash;
+		}
+	}
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Stores URL contents.
+	 */
+	private final ContentStore contentStore;
+
+	/**
+	 * HTTP timeout [seconds].
+	 */
+	private final int timeoutSecs;
+
+	/**
+	 * Saves the cached entries across restarts.
+	 */
+	private final File indexFile;
+
+	/**
+	 * Cached entries by URL.
+	 */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Saving a content and registering its entry hold the read lock; deleting a content
+	 * that no entry refers to holds the write lock, so that a content is never deleted
+	 * between being saved and being referenced.
+	 */
+	private final ReadWriteLock contentLock = new ReentrantReadWriteLock();
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Create a cache and load the entries saved by a previous process. Entries whose
+	 * content is missing are dropped, and stored contents that no entry refers to are
+	 * deleted.
+	 *
+	 * @param contentStore
+	 *            stores URL contents
+	 * @param indexFile
+	 *            saves the cached entries across restarts
+	 * @param timeoutSecs
+	 *            HTTP timeout [seconds]
+	 */
+	public UrlResourceCache(final ContentStore contentStore, final File indexFile,
+			final int timeoutSecs)
+	{
+		this.contentStore = contentStore;
+		this.indexFile = indexFile;
+		this.timeoutSecs = timeoutSecs;
+		loadIndex();
+		final Set<String> hashes = new HashSet<>();
+		for (final Entry entry : entries.values())
+		{
+			hashes.add(entry.hash);
+		}
+		contentStore.retainAll(hashes);
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Return the up-to-date content of a URL, downloading it only if it changed since it
+	 * was cached.
+	 *
+	 * @param url
+	 *            absolute remote URL
+	 * @return cached entry. If the URL cannot be reached, the last cached entry, or
+	 *         <code>null</code> if there is none
+	 */
+	public Entry get(final String url)
+	{
+		final Entry cached = entries.get(url);
+		final GetMethod method = new GetMethod(url);
+		method.getParams().setParameter(HttpMethodParams.RETRY_HANDLER,
+				new DefaultHttpMethodRetryHandler(HttpUtil.NUMBER_HTTP_REQUEST_TRIALS,
+						false));
+		if ((cached != null) && contentStore.contains(cached.hash))
+		{
+			if (cached.etag != null)
+			{
+				method.setRequestHeader("If-None-Match", cached.etag);
+			}
+			if (cached.lastModified != null)
+			{
+				method.setRequestHeader("If-Modified-Since", cached.lastModified);
+			}
+		}
+		try
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Trying to download resource from url " + url);
+			}
+			final int statusCode = newHttpClient().executeMethod(method);
+			if ((statusCode == HttpStatus.SC_NOT_MODIFIED) && (cached != null))
+			{
+				return cached;
+			}
+			if (statusCode >= 400)
+			{
+				log.error("Failed to download resource: " + method.getStatusLine());
+				return cached;
+			}
+			final InputStream body = method.getResponseBodyAsStream();
+			final Entry entry;
+			final Entry previous;
+			contentLock.readLock().lock();
+			try
+			{
+				entry = new Entry(getHeader(method, "ETag"), getHeader(method,
+						"Last-Modified"), getMimeType(method),
+						contentStore.put((body == null) ? new ByteArrayInputStream(
+								new byte[0]) : body));
+				previous = entries.put(url, entry);
+			}
+			finally
+			{
+				contentLock.readLock().unlock();
+			}
+			saveIndex();
+			if ((previous != null) && !previous.hash.equals(entry.hash))
+			{
+				deleteIfUnreferenced(previous.hash);
+			}
+			return entry;
+		}
+		catch (final IOException e)
+		{
+			// Remote resource URL is not up, do not crash
+			if (log.isInfoEnabled())
+			{
+				log.info("Failed to download resource from " + url + ": "
+						+ e.getMessage());
+			}
+			return cached;
+		}
+		finally
+		{
+			// Important: release the connection
+			method.releaseConnection();
+		}
+	}
+
+	/**
+	 * Open a cached content. The caller must close the stream.
+	 *
+	 * @param entry
+	 *            cached entry
+	 * @return content stream
+	 * @throws IOException
+	 *             if the content is no longer stored
+	 */
+	public InputStream open(final Entry entry) throws IOException
+	{
+		return contentStore.open(entry.hash);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Delete a superseded content unless another URL has the same content.
+	 *
+	 * @param hash
+	 *            content hash
+	 */
+	private void deleteIfUnreferenced(final String hash)
+	{
+		contentLock.writeLock().lock();
+		try
+		{
+			for (final Entry entry : entries.values())
+			{
+				if (entry.hash.equals(hash))
+				{
+					return;
+				}
+			}
+			contentStore.delete(hash);
+		}
+		finally
+		{
+			contentLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Load the entries saved by a previous process, dropping those whose content is no
+	 * longer stored.
+	 */
+	private void loadIndex()
+	{
+		if (!indexFile.isFile())
+		{
+			return;
+		}
+		final Properties index = new Properties();
+		try (final InputStream in = new FileInputStream(indexFile))
+		{
+			index.load(in);
+		}
+		catch (final IOException e)
+		{
+			log.warn("Could not load URL resource cache index " + indexFile
+					+ ", starting empty: " + e.getMessage());
+			return;
+		}
+		for (final String url : index.stringPropertyNames())
+		{
+			final String[] fields = index.getProperty(url).split(INDEX_SEPARATOR, -1);
+			if ((fields.length == 4) && contentStore.contains(fields[0]))
+			{
+				entries.put(url, new Entry(emptyToNull(fields[2]),
+						emptyToNull(fields[3]), fields[1], fields[0]));
+			}
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Loaded " + entries.size() + " cached URL resource(s) from "
+					+ indexFile);
+		}
+	}
+
+	/**
+	 * Save the current entries. The index is replaced atomically, so a crash leaves
+	 * either the previous or the new index.
+	 */
+	private synchronized void saveIndex()
+	{
+		final Properties index = new Properties();
+		for (final Map.Entry<String, Entry> mapEntry : entries.entrySet())
+		{
+			final Entry entry = mapEntry.getValue();
+			index.setProperty(mapEntry.getKey(), entry.hash + INDEX_SEPARATOR
+					+ entry.mimeType + INDEX_SEPARATOR + nullToEmpty(entry.etag)
+					+ INDEX_SEPARATOR + nullToEmpty(entry.lastModified));
+		}
+		try
+		{
+			final File temp = File.createTempFile("index", ".tmp",
+					indexFile.getAbsoluteFile().getParentFile());
+			try (final OutputStream out = new FileOutputStream(temp))
+			{
+				index.store(out, "URL resource cache index");
+			}
+			Files.move(temp.toPath(), indexFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final IOException e)
+		{
+			// The in-memory cache is still valid; only a restart loses it
+			log.warn("Could not save URL resource cache index " + indexFile + ": "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * @param s
+	 *            a string
+	 * @return <code>s</code>, or <code>null</code> if it is empty
+	 */
+	private static String emptyToNull(final String s)
+	{
+		return s.isEmpty() ? null : s;
+	}
+
+	/**
+	 * @param s
+	 *            a string
+	 * @return <code>s</code>, or an empty string if it is <code>null</code>
+	 */
+	private static String nullToEmpty(final String s)
+	{
+		return (s == null) ? "" : s;
+	}
+
+	/**
+	 * @return an HTTP client with the configured timeouts
+	 */
+	private HttpClient newHttpClient()
+	{
+		final SimpleHttpConnectionManager cm = new SimpleHttpConnectionManager();
+		final HttpConnectionManagerParams params = cm.getParams();
+		params.setConnectionTimeout(timeoutSecs * 1000);
+		params.setSoTimeout(timeoutSecs * 1000);
+		return new HttpClient(cm);
+	}
+
+	/**
+	 * @param method
+	 *            executed method
+	 * @param name
+	 *            response header name
+	 * @return response header value, or <code>null</code> if not found
+	 */
+	private static String getHeader(final GetMethod method, final String name)
+	{
+		final Header header = method.getResponseHeader(name);
+		return (header == null) ? null : header.getValue();
+	}
+
+	/**
+	 * Forward the MIME type from the HTTP response. If not found, use text as a default.
+	 *
+	 * @param method
+	 *            executed method
+	 * @return response MIME type
+	 */
+	private static String getMimeType(final GetMethod method)
+	{
+		final String contentType = getHeader(method, "Content-Type");
+		if (contentType == null)
+		{
+			return DEFAULT_MIME_TYPE;
+		}
+		// Strip parameters such as the charset
+		final int semicolon = contentType.indexOf(';');
+		return ((semicolon < 0) ? contentType : contentType.substring(0, semicolon))
+				.trim();
+	}
+}
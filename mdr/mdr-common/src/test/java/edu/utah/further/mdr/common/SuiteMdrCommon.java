@@ -18,6 +18,9 @@ package edu.utah.further.mdr.common;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import edu.utah.further.mdr.common.asset.UTestContentStore;
+import edu.utah.further.mdr.common.asset.UTestUrlResourceCache;
+
 /**
  * A test suite that includes all tests in the MDR common implementation module.
  * <p>
@@ -33,7 +36,8 @@ import org.junit.runners.Suite;
  * @version Feb 17, 2009
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses( {})
+@Suite.SuiteClasses(
+{ UTestContentStore.class, UTestUrlResourceCache.class })
 public final class SuiteMdrCommon
 {
 }
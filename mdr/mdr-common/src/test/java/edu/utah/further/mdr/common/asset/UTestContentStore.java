@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.mdr.common.asset;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Unit test for {@link ContentStore}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestContentStore
+{
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Store directory.
+	 */
+	private File directory;
+
+	/**
+	 * Store under test.
+	 */
+	private ContentStore store;
+
+	// ========================= SETUP METHODS =============================
+
+	/**
+	 * Create an empty store.
+	 *
+	 * @throws IOException
+	 */
+	@Before
+	public void setup() throws IOException
+	{
+		directory = File.createTempFile("content", "");
+		directory.delete();
+		store = new ContentStore(directory);
+	}
+
+	/**
+	 * Delete the store.
+	 */
+	@After
+	public void tearDown()
+	{
+		for (final File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * A stored content is read back by its SHA-256 hash.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void putAndOpen() throws IOException
+	{
+		final String hash = store.put(new ByteArrayInputStream("abc".getBytes("UTF-8")));
+		assertThat(hash,
+				is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+		assertThat(Boolean.valueOf(store.contains(hash)), is(Boolean.TRUE));
+		assertThat(Long.valueOf(store.size(hash)), is(Long.valueOf(3L)));
+		try (final InputStream in = store.open(hash))
+		{
+			assertThat(new String(FileCopyUtils.copyToByteArray(in), "UTF-8"), is("abc"));
+		}
+	}
+
+	/**
+	 * Identical contents share a single stored file.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void identicalContentsAreStoredOnce() throws IOException
+	{
+		final String hash1 = store.put(new ByteArrayInputStream("<xsd/>".getBytes("UTF-8")));
+		final String hash2 = store.put(new ByteArrayInputStream("<xsd/>".getBytes("UTF-8")));
+		final String hash3 = store.put(new ByteArrayInputStream("<xq/>".getBytes("UTF-8")));
+		assertThat(hash2, is(hash1));
+		assertThat(Boolean.valueOf(hash3.equals(hash1)), is(Boolean.FALSE));
+		assertThat(Integer.valueOf(directory.listFiles().length), is(Integer.valueOf(2)));
+	}
+}
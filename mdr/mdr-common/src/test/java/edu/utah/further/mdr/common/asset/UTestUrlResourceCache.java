@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.mdr.common.asset;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.FileCopyUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the conditional GETs, content replacement and restart behavior of
+ * {@link UrlResourceCache} against an embedded HTTP stub.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ *
+ * @author Oren E. Livne {@code <oren.livne@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class UTestUrlResourceCache
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * HTTP timeout [seconds].
+	 */
+	private static final int TIMEOUT_SECS = 5;
+
+	// ========================= FIELDS ====================================
+
+	private HttpServer server;
+
+	private String url;
+
+	/**
+	 * Current stub resource body.
+	 */
+	private volatile String body = "<xsd>v1</xsd>";
+
+	/**
+	 * Current stub resource entity tag.
+	 */
+	private volatile String etag = "\"v1\"";
+
+	/**
+	 * <code>If-None-Match</code> request header of each request the stub served;
+	 * <code>null</code> for unconditional requests.
+	 */
+	private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Store directory.
+	 */
+	private File directory;
+
+	private ContentStore store;
+
+	private UrlResourceCache cache;
+
+	// ========================= SETUP METHODS =============================
+
+	@Before
+	public void setup() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/resource", new StubHandler());
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort() + "/resource";
+
+		directory = File.createTempFile("content", "");
+		directory.delete();
+		store = new ContentStore(directory);
+		cache = newCache();
+	}
+
+	@After
+	public void tearDown()
+	{
+		server.stop(0);
+		for (final File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	// ========================= TESTING METHODS ===========================
+
+	/**
+	 * A cached URL is revalidated with its entity tag, and a <code>304</code> response
+	 * serves the cached copy.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void notModifiedServesCachedCopy() throws IOException
+	{
+		final UrlResourceCache.Entry entry = cache.get(url);
+		assertThat(read(entry), is("<xsd>v1</xsd>"));
+		assertThat(entry.getMimeType(), is("application/xml"));
+
+		assertThat(cache.get(url), sameInstance(entry));
+		assertThat(read(entry), is("<xsd>v1</xsd>"));
+		assertThat(Integer.valueOf(ifNoneMatch.size()), is(Integer.valueOf(2)));
+		assertThat(ifNoneMatch.get(0), nullValue());
+		assertThat(ifNoneMatch.get(1), is("\"v1\""));
+	}
+
+	/**
+	 * The cached copy is served when the origin is down.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void originDownServesCachedCopy() throws IOException
+	{
+		final UrlResourceCache.Entry entry = cache.get(url);
+		server.stop(0);
+		assertThat(cache.get(url), sameInstance(entry));
+		assertThat(read(entry), is("<xsd>v1</xsd>"));
+	}
+
+	/**
+	 * A changed resource replaces the cached copy, and the superseded content is deleted
+	 * from the store.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void changedResourceDeletesSupersededContent() throws IOException
+	{
+		final UrlResourceCache.Entry entry1 = cache.get(url);
+		body = "<xsd>v2</xsd>";
+		etag = "\"v2\"";
+		final UrlResourceCache.Entry entry2 = cache.get(url);
+		assertThat(read(entry2), is("<xsd>v2</xsd>"));
+		assertThat(Boolean.valueOf(store.contains(entry1.getHash())), is(Boolean.FALSE));
+		assertThat(Boolean.valueOf(store.contains(entry2.getHash())), is(Boolean.TRUE));
+	}
+
+	/**
+	 * A superseded content that another URL still refers to is kept.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void sharedContentIsKept() throws IOException
+	{
+		final UrlResourceCache.Entry entry1 = cache.get(url);
+		final UrlResourceCache.Entry other = cache.get(url + "?copy");
+		assertThat(other.getHash(), is(entry1.getHash()));
+		body = "<xsd>v2</xsd>";
+		etag = "\"v2\"";
+		cache.get(url);
+		assertThat(read(other), is("<xsd>v1</xsd>"));
+	}
+
+	/**
+	 * A restarted cache revalidates its saved entries, serves them when the origin is
+	 * down, and deletes orphaned contents.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void restartKeepsEntriesAndDeletesOrphans() throws IOException
+	{
+		final UrlResourceCache.Entry entry = cache.get(url);
+		final String orphan = store.put(new ByteArrayInputStream("orphan"
+				.getBytes("UTF-8")));
+
+		cache = newCache();
+		assertThat(Boolean.valueOf(store.contains(orphan)), is(Boolean.FALSE));
+		assertThat(Boolean.valueOf(store.contains(entry.getHash())), is(Boolean.TRUE));
+		assertThat(read(cache.get(url)), is("<xsd>v1</xsd>"));
+		assertThat(ifNoneMatch.get(ifNoneMatch.size() - 1), is("\"v1\""));
+
+		server.stop(0);
+		cache = newCache();
+		final UrlResourceCache.Entry cached = cache.get(url);
+		assertThat(cached.getHash(), is(entry.getHash()));
+		assertThat(cached.getMimeType(), is("application/xml"));
+		assertThat(read(cached), is("<xsd>v1</xsd>"));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * @return a new cache over the test store
+	 */
+	private UrlResourceCache newCache()
+	{
+		return new UrlResourceCache(store, new File(directory, "index.properties"),
+				TIMEOUT_SECS);
+	}
+
+	/**
+	 * @param entry
+	 *            cached entry
+	 * @return cached content
+	 * @throws IOException
+	 */
+	private String read(final UrlResourceCache.Entry entry) throws IOException
+	{
+		try (final InputStream in = cache.open(entry))
+		{
+			return new String(FileCopyUtils.copyToByteArray(in), "UTF-8");
+		}
+	}
+
+	// ========================= PRIVATE TYPES =============================
+
+	/**
+	 * Serves the current body with its entity tag, or <code>304</code> if the request
+	 * carries the current entity tag.
+	 */
+	private final class StubHandler implements HttpHandler
+	{
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException
+		{
+			final String requestTag = exchange.getRequestHeaders().getFirst(
+					"If-None-Match");
+			ifNoneMatch.add(requestTag);
+			final String currentTag = etag;
+			exchange.getResponseHeaders().set("ETag", currentTag);
+			if (currentTag.equals(requestTag))
+			{
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			final byte[] bytes = body.getBytes("UTF-8");
+			exchange.getResponseHeaders().set("Content-Type",
+					"application/xml; charset=UTF-8");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (final OutputStream out = exchange.getResponseBody())
+			{
+				out.write(bytes);
+			}
+		}
+	}
+}
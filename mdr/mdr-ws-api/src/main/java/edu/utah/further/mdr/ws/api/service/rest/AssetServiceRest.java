@@ -151,6 +151,32 @@ public interface AssetServiceRest
 			@PathParam("id") @Documentation(description = "asset identifier") Long id)
 			throws WsException;
 
+	/**
+	 * Get the storage field of the currently active resource with a specified MDR path,
+	 * streamed as-is. Unlike {@link #getActiveResourceContentByPath(String)}, the content
+	 * is not converted to a string, so this method is suitable for large and binary
+	 * resources. A response header with the name {@link HttpHeader#RESOURCE_STORAGE_CODE}
+	 * is added, whose value is the resource's storage code.
+	 * 
+	 * @param path
+	 *            MDR path
+	 * @return web service response whose entity and MIME type match the resource's
+	 *         storage code
+	 * @throws WsException
+	 *             if no active resource is found at <code>path</code>
+	 */
+	@GET
+	@Documentation(name = "Get resource content by path", description = "Return a "
+			+ "response whose entity and MIME type match the storage code of the active "
+			+ "resource with the specified MDR path. The content is streamed. "
+			+ "A response header with the name {@link HttpHeader#RESOURCE_STORAGE_CODE}"
+			+ " is added, whose value is the resource's storage code.")
+	@Path("/resource/storage/path/{path:.*}")
+	@ExamplePath("/resource/storage/path/fqe/further/xq/constants.xq")
+	Response getActiveResourceStorageByPath(
+			@PathParam("path") @Documentation(description = "resource path") String path)
+			throws WsException;
+
 	/**
 	 * Gets a resource from the MDR and transforms that resource using another resource
 	 * from the MDR ultimately returning the application of the transformer artifact to
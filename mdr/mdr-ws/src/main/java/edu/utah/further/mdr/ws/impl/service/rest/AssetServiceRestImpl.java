@@ -17,11 +17,15 @@ package edu.utah.further.mdr.ws.impl.service.rest;
 
 import static edu.utah.further.core.api.constant.ErrorCode.INVALID_INPUT_ARGUMENT_VALUE;
 import static edu.utah.further.core.api.constant.ErrorCode.PROPERTY_NOT_FOUND;
+import static edu.utah.further.core.api.constant.ErrorCode.RESOURCE_NOT_FOUND;
 import static edu.utah.further.core.api.constant.Strings.VIRTUAL_DIRECTORY;
 import static edu.utah.further.core.cxf.util.JaxRsUtil.toSingleValuedMap;
 import static edu.utah.further.mdr.ws.impl.util.MdrWsNames.SOAP_ASSET_SERVICE_SPRING_NAME;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +33,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.core.PathSegment;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
@@ -91,6 +96,11 @@ public class AssetServiceRestImpl implements AssetServiceRest
 	@SuppressWarnings("unused")
 	private static final String DOUBLE_SLASH = VIRTUAL_DIRECTORY + VIRTUAL_DIRECTORY;
 
+	/**
+	 * Buffer size [bytes] for streaming resource contents.
+	 */
+	private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
 	// ========================= DEPENDENCIES ==============================
 
 	/**
@@ -308,35 +318,91 @@ public class AssetServiceRestImpl implements AssetServiceRest
 			log.debug("Getting resource storage field by ID " + id);
 		}
 
-		// ==================================================
-		// Find the resource and validate its fields
-		// ==================================================
 		final Resource resource = findResourceById(id);
-		final StorageCode storageCode = resource.getStorageCode();
-		final String mimeType = resource.getMimeType();
 		if (log.isDebugEnabled())
 		{
-			log.debug("Resource ID " + id + ": storage code " + storageCode
-					+ " MIME-type " + mimeType);
+			log.debug("Resource ID " + id + ": storage code "
+					+ resource.getStorageCode() + " MIME-type " + resource.getMimeType());
+		}
+		return toStorageResponse(resource);
+	}
+
+	/**
+	 * @param path
+	 * @return
+	 * @throws WsException
+	 * @see edu.utah.further.mdr.ws.api.service.rest.AssetServiceRest#getActiveResourceStorageByPath(java.lang.String)
+	 */
+	@Override
+	public Response getActiveResourceStorageByPath(final String path) throws WsException
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("Getting resource storage field by path " + path);
 		}
-		validateStorageCodeFields(storageCode, mimeType);
+		final Resource resource = assetService.getActiveResourceByPath(path);
+		if (resource == null)
+		{
+			throw new WsException(RESOURCE_NOT_FOUND, "No active resource found at path "
+					+ path);
+		}
+		return toStorageResponse(resource);
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Build a response that streams a resource's storage field.
+	 *
+	 * @param resource
+	 *            resource
+	 * @return web service response whose entity and MIME type match the resource's
+	 *         storage code
+	 * @throws WsException
+	 *             if the resource's storage fields are invalid
+	 */
+	private Response toStorageResponse(final Resource resource) throws WsException
+	{
+		// ==================================================
+		// Validate the resource's fields
+		// ==================================================
+		final StorageCode storageCode = resource.getStorageCode();
+		validateStorageCodeFields(storageCode, resource.getMimeType());
 
 		// ==================================================
 		// Build the response
 		// ==================================================
+		// Open the content now: this also sets the MIME type of remote resources
+		final InputStream content = resourceContentService
+				.getResourceContentAsStream(resource);
 		final ResponseBuilder builder = Response.ok();
-		builder.entity(resourceContentService.getResourceContent(resource));
+		if (content != null)
+		{
+			builder.entity(new StreamingOutput()
+			{
+				@Override
+				public void write(final OutputStream output) throws IOException
+				{
+					try (final InputStream input = content)
+					{
+						final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+						int count;
+						while ((count = input.read(buffer)) != -1)
+						{
+							output.write(buffer, 0, count);
+						}
+					}
+				}
+			});
+		}
 		builder.type(HttpUtil.newMediaType(resource.getMimeType()));
 		final Response response = builder.build();
 		// Attach storage code as custom response header
 		response.getMetadata().add(HttpHeader.RESOURCE_STORAGE_CODE.getName(),
 				storageCode.toString());
-		// httpResponse.getOutputStream().write(resourceContentService.getResourceContent(resource));
 		return response;
 	}
 
-	// ========================= PRIVATE METHODS ===========================
-
 	/**
 	 * @param storageCode
 	 * @param mimeType
@@ -15,6 +15,8 @@
  */
 package edu.utah.further.security.api.dao;
 
+import java.util.List;
+
 import edu.utah.further.security.api.domain.AuditableEvent;
 
 /**
@@ -42,4 +44,12 @@ public interface AuditDao
 	 */
 	void logEvent(final AuditableEvent event);
 
+	/**
+	 * Log (persist, etc) a batch of {@link AuditableEvent}s in a single unit of work.
+	 * 
+	 * @param events
+	 *            the events to log
+	 */
+	void logEvents(final List<AuditableEvent> events);
+
 }
@@ -0,0 +1,691 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.security.impl.audit;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+
+import edu.utah.further.security.api.dao.AuditDao;
+import edu.utah.further.security.api.domain.AuditableEvent;
+
+/**
+ * An {@link AuditDao} decorator that takes audit writes off the caller's thread. Events
+ * are put on a bounded in-memory queue and a dedicated writer thread persists them in
+ * batches through the delegate's {@link AuditDao#logEvents(List)}, flushing whenever a
+ * batch is full or the oldest queued event has waited for the flush interval.
+ * <p>
+ * When the queue is full, the configured {@link AuditOverflowPolicy} applies. Batches the
+ * delegate fails to write, and events still queued at shutdown, are appended to a local
+ * {@link AuditJournal} that is replayed on start-up and after every successful flush, so
+ * that no events are lost as long as a journal file is configured.
+ * <p>
+ * A failed batch is retried one event at a time. If some of its events are written, the
+ * database is reachable and the events that still fail are rejected by it; they are
+ * moved to a dead letter journal next to the journal file instead of being retried
+ * forever. If none are written, the database is considered down and the events are
+ * journaled.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author Shan He {@code <shan.he@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class AsyncAuditDao implements AuditDao
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(AsyncAuditDao.class);
+
+	// ========================= DEPENDENCIES ==============================
+
+	/**
+	 * Synchronously persists audit events.
+	 */
+	private AuditDao delegate;
+
+	/**
+	 * Maximum number of queued events.
+	 */
+	private int queueCapacity = 10000;
+
+	/**
+	 * Maximum number of events written per batch.
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * Maximum time an event waits in the queue before its batch is flushed [ms].
+	 */
+	private long flushInterval = 1000;
+
+	/**
+	 * Maximum time to wait for the writer to drain the queue on shutdown [ms].
+	 */
+	private long shutdownTimeout = 30000;
+
+	/**
+	 * Queue overflow policy.
+	 */
+	private AuditOverflowPolicy overflowPolicy = AuditOverflowPolicy.BLOCK;
+
+	/**
+	 * Local journal file path. If empty, failed batches are logged and discarded.
+	 */
+	private String journalFile;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Pending events.
+	 */
+	private BlockingQueue<AuditableEvent> queue;
+
+	/**
+	 * Local journal; <code>null</code> if not configured.
+	 */
+	private AuditJournal journal;
+
+	/**
+	 * Events rejected by the database; <code>null</code> if no journal is configured.
+	 */
+	private AuditJournal deadLetters;
+
+	/**
+	 * Writer thread.
+	 */
+	private Thread writer;
+
+	/**
+	 * Set to <code>false</code> to make the writer exit once the queue is empty.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Number of events written to the database.
+	 */
+	private final AtomicLong writtenCount = new AtomicLong();
+
+	/**
+	 * Number of events dropped because the queue was full.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * Number of events appended to the journal.
+	 */
+	private final AtomicLong journaledCount = new AtomicLong();
+
+	/**
+	 * Number of events rejected by the database.
+	 */
+	private final AtomicLong deadLetterCount = new AtomicLong();
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * Validate dependencies, replay the journal and start the writer thread.
+	 */
+	@PostConstruct
+	public void afterPropertiesSet()
+	{
+		notNull(delegate, "A delegate audit DAO must be set");
+		notNull(overflowPolicy, "An overflow policy must be set");
+		isTrue(queueCapacity > 0, "Queue capacity must be positive");
+		isTrue(batchSize > 0, "Batch size must be positive");
+		final boolean hasJournal = (journalFile != null)
+				&& (journalFile.trim().length() > 0);
+		isTrue(hasJournal || (overflowPolicy != AuditOverflowPolicy.SPILL),
+				"The SPILL overflow policy requires a journal file");
+
+		journal = hasJournal ? new AuditJournal(new File(journalFile.trim())) : null;
+		deadLetters = hasJournal ? new AuditJournal(new File(journalFile.trim() + ".dead"))
+				: null;
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		replayJournal(false);
+
+		running = true;
+		writer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				writeLoop();
+			}
+		}, "AuditWriter");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Stop accepting events, let the writer drain the queue, and journal whatever it
+	 * could not write in time.
+	 */
+	@PreDestroy
+	public void destroy()
+	{
+		running = false;
+		if (writer != null)
+		{
+			try
+			{
+				writer.join(shutdownTimeout);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		final List<AuditableEvent> remaining = newList();
+		queue.drainTo(remaining);
+		if (!remaining.isEmpty())
+		{
+			log.warn("Audit writer did not drain " + remaining.size()
+					+ " events before shutdown");
+			journal(remaining);
+		}
+	}
+
+	// ========================= IMPLEMENTATION: AuditDao ==================
+
+	/**
+	 * Queue an event for asynchronous persistence.
+	 * 
+	 * @param event
+	 *            the event to log
+	 * @see edu.utah.further.security.api.dao.AuditDao#logEvent(edu.utah.further.security.api.domain.AuditableEvent)
+	 */
+	@Override
+	public void logEvent(final AuditableEvent event)
+	{
+		if (!running)
+		{
+			// Shutting down; don't let the event slip past the final drain
+			journal(singletonList(event));
+			return;
+		}
+		if (queue.offer(event))
+		{
+			return;
+		}
+		switch (overflowPolicy)
+		{
+			case BLOCK:
+			{
+				try
+				{
+					queue.put(event);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					journal(singletonList(event));
+				}
+				break;
+			}
+			case DROP:
+			{
+				final long dropped = droppedCount.incrementAndGet();
+				if (log.isWarnEnabled())
+				{
+					log.warn("Audit queue full, dropped event " + event.getEventType()
+							+ " of user " + event.getUserId() + " (" + dropped
+							+ " dropped so far)");
+				}
+				break;
+			}
+			case SPILL:
+			{
+				journal(singletonList(event));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Queue a batch of events for asynchronous persistence.
+	 * 
+	 * @param events
+	 *            the events to log
+	 * @see edu.utah.further.security.api.dao.AuditDao#logEvents(java.util.List)
+	 */
+	@Override
+	public void logEvents(final List<AuditableEvent> events)
+	{
+		for (final AuditableEvent event : events)
+		{
+			logEvent(event);
+		}
+	}
+
+	// ========================= GETTERS & SETTERS =========================
+
+	/**
+	 * Return the number of events waiting to be written.
+	 * 
+	 * @return the current queue size
+	 */
+	public int getQueueSize()
+	{
+		return (queue == null) ? 0 : queue.size();
+	}
+
+	/**
+	 * Return the number of events written to the database.
+	 * 
+	 * @return the written event count
+	 */
+	public long getWrittenCount()
+	{
+		return writtenCount.get();
+	}
+
+	/**
+	 * Return the number of events dropped because the queue was full.
+	 * 
+	 * @return the dropped event count
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount.get();
+	}
+
+	/**
+	 * Return the number of events appended to the local journal.
+	 * 
+	 * @return the journaled event count
+	 */
+	public long getJournaledCount()
+	{
+		return journaledCount.get();
+	}
+
+	/**
+	 * Return the number of events rejected by the database and moved to the dead letter
+	 * journal.
+	 * 
+	 * @return the dead letter event count
+	 */
+	public long getDeadLetterCount()
+	{
+		return deadLetterCount.get();
+	}
+
+	/**
+	 * Set a new value for the delegate property.
+	 * 
+	 * @param delegate
+	 *            the delegate to set
+	 */
+	public void setDelegate(final AuditDao delegate)
+	{
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Set a new value for the queueCapacity property.
+	 * 
+	 * @param queueCapacity
+	 *            the queueCapacity to set
+	 */
+	public void setQueueCapacity(final int queueCapacity)
+	{
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set a new value for the batchSize property.
+	 * 
+	 * @param batchSize
+	 *            the batchSize to set
+	 */
+	public void setBatchSize(final int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set a new value for the flushInterval property.
+	 * 
+	 * @param flushInterval
+	 *            the flushInterval to set [ms]
+	 */
+	public void setFlushInterval(final long flushInterval)
+	{
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Set a new value for the shutdownTimeout property.
+	 * 
+	 * @param shutdownTimeout
+	 *            the shutdownTimeout to set [ms]
+	 */
+	public void setShutdownTimeout(final long shutdownTimeout)
+	{
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	/**
+	 * Set a new value for the overflowPolicy property.
+	 * 
+	 * @param overflowPolicy
+	 *            the overflowPolicy to set
+	 */
+	public void setOverflowPolicy(final AuditOverflowPolicy overflowPolicy)
+	{
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Set a new value for the journalFile property.
+	 * 
+	 * @param journalFile
+	 *            the journalFile to set
+	 */
+	public void setJournalFile(final String journalFile)
+	{
+		this.journalFile = journalFile;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Writer thread main loop: collect batches and write them until stopped and the
+	 * queue is empty.
+	 */
+	private void writeLoop()
+	{
+		final List<AuditableEvent> batch = newList();
+		while (running || !queue.isEmpty())
+		{
+			try
+			{
+				final AuditableEvent first = queue.poll(flushInterval,
+						TimeUnit.MILLISECONDS);
+				if (first == null)
+				{
+					continue;
+				}
+				batch.add(first);
+				final long deadline = System.currentTimeMillis() + flushInterval;
+				while (running && (batch.size() < batchSize))
+				{
+					final long wait = deadline - System.currentTimeMillis();
+					if (wait <= 0)
+					{
+						break;
+					}
+					final AuditableEvent next = queue.poll(wait, TimeUnit.MILLISECONDS);
+					if (next == null)
+					{
+						break;
+					}
+					batch.add(next);
+					queue.drainTo(batch, batchSize - batch.size());
+				}
+				// Shutting down: don't wait for the deadline
+				queue.drainTo(batch, batchSize - batch.size());
+				if (flush(batch) && (journal != null) && !journal.isEmpty())
+				{
+					replayJournal(true);
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				running = false;
+				Thread.currentThread().interrupt();
+			}
+			catch (final RuntimeException e)
+			{
+				log.error("Unexpected audit writer failure", e);
+			}
+			finally
+			{
+				if (!batch.isEmpty())
+				{
+					// Not flushed because of an interruption or failure
+					journal(newList(batch));
+					batch.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write a batch to the delegate, journaling it on failure. Clears the batch.
+	 * 
+	 * @param batch
+	 *            events to write
+	 * @return <code>true</code> if and only if the batch was written to the database
+	 */
+	private boolean flush(final List<AuditableEvent> batch)
+	{
+		final List<AuditableEvent> events = newList(batch);
+		batch.clear();
+		final List<AuditableEvent> unwritten = write(events, false);
+		if (unwritten.isEmpty())
+		{
+			return true;
+		}
+		journal(unwritten);
+		return false;
+	}
+
+	/**
+	 * Write events to the delegate in one batch. If the batch fails, write them one at a
+	 * time and dead-letter the events the database rejects.
+	 * 
+	 * @param events
+	 *            events to write
+	 * @param reachable
+	 *            if <code>true</code>, the database is known to be reachable, so that
+	 *            events that fail individually are rejected even if no other event is
+	 *            written
+	 * @return events that were not written because the database is unreachable
+	 */
+	private List<AuditableEvent> write(final List<AuditableEvent> events,
+			final boolean reachable)
+	{
+		try
+		{
+			delegate.logEvents(events);
+			writtenCount.addAndGet(events.size());
+			return Collections.emptyList();
+		}
+		catch (final RuntimeException e)
+		{
+			if ((events.size() == 1) && !reachable)
+			{
+				log.error("Failed to write an audit event", e);
+				return events;
+			}
+			log.warn("Failed to write " + events.size()
+					+ " audit events as a batch, retrying one at a time", e);
+		}
+
+		boolean written = reachable;
+		RuntimeException failure = null;
+		final List<AuditableEvent> failed = newList();
+		for (final AuditableEvent event : events)
+		{
+			try
+			{
+				delegate.logEvent(event);
+				writtenCount.incrementAndGet();
+				written = true;
+			}
+			catch (final RuntimeException e)
+			{
+				failed.add(event);
+				failure = e;
+			}
+		}
+		if (failed.isEmpty())
+		{
+			return failed;
+		}
+		if (!written)
+		{
+			log.error("Failed to write " + failed.size() + " audit events", failure);
+			return failed;
+		}
+		log.error("The audit database rejected " + failed.size() + " events", failure);
+		deadLetter(failed);
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Write all journaled events to the delegate. Events that could not be written are
+	 * journaled again before the replayed journal is removed, so that a crash during the
+	 * replay loses no events.
+	 * 
+	 * @param reachable
+	 *            if <code>true</code>, the database is known to be reachable
+	 */
+	private void replayJournal(final boolean reachable)
+	{
+		if (journal == null)
+		{
+			return;
+		}
+		final List<AuditableEvent> events;
+		try
+		{
+			events = journal.drain();
+		}
+		catch (final IOException e)
+		{
+			log.error("Could not read audit journal " + journal.getFile(), e);
+			return;
+		}
+		if (!events.isEmpty())
+		{
+			if (log.isInfoEnabled())
+			{
+				log.info("Replaying " + events.size() + " audit events from journal "
+						+ journal.getFile());
+			}
+			final List<AuditableEvent> unwritten = newList();
+			for (int i = 0; i < events.size(); i += batchSize)
+			{
+				final List<AuditableEvent> batch = newList(events.subList(i, Math.min(i
+						+ batchSize, events.size())));
+				if (!unwritten.isEmpty())
+				{
+					// The database is down, don't try the rest
+					unwritten.addAll(batch);
+					continue;
+				}
+				unwritten.addAll(write(batch, reachable));
+			}
+			try
+			{
+				journal.append(unwritten);
+			}
+			catch (final IOException e)
+			{
+				// Keep the replay file, it is read again by the next replay
+				log.error("Could not append to audit journal " + journal.getFile(), e);
+				return;
+			}
+		}
+		try
+		{
+			journal.commit();
+		}
+		catch (final IOException e)
+		{
+			log.error("Could not commit audit journal replay " + journal.getFile(), e);
+		}
+	}
+
+	/**
+	 * Append events rejected by the database to the dead letter journal. If no journal
+	 * is configured or the append fails, the events are lost and logged as such.
+	 * 
+	 * @param events
+	 *            events to dead-letter
+	 */
+	private void deadLetter(final List<AuditableEvent> events)
+	{
+		deadLetterCount.addAndGet(events.size());
+		if (deadLetters != null)
+		{
+			try
+			{
+				deadLetters.append(events);
+				return;
+			}
+			catch (final IOException e)
+			{
+				log.error("Could not append to audit dead letter journal "
+						+ deadLetters.getFile(), e);
+			}
+		}
+		log.error("Lost " + events.size() + " audit events");
+	}
+
+	/**
+	 * Append events to the journal. If no journal is configured or the append fails,
+	 * the events are lost and logged as such.
+	 * 
+	 * @param events
+	 *            events to journal
+	 */
+	private void journal(final List<AuditableEvent> events)
+	{
+		if (journal != null)
+		{
+			try
+			{
+				journal.append(events);
+				journaledCount.addAndGet(events.size());
+				return;
+			}
+			catch (final IOException e)
+			{
+				log.error("Could not append to audit journal " + journal.getFile(), e);
+			}
+		}
+		log.error("Lost " + events.size() + " audit events");
+	}
+}
@@ -0,0 +1,453 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.security.impl.audit;
+
+import static edu.utah.further.core.api.collections.CollectionUtil.newList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+import edu.utah.further.security.api.domain.AuditableEvent;
+import edu.utah.further.security.impl.domain.AuditableEventEntity;
+
+/**
+ * An append-only local file of audit events that could not (yet) be written to the
+ * audit database. Each event is stored on one line as tab-separated, escaped fields.
+ * Appends are forced to disk before returning so that journaled events survive a
+ * process crash.
+ * <p>
+ * Replay is two-phase: {@link #drain()} moves the journal aside to a
+ * <code>.replaying</code> file and reads it, and {@link #commit()} removes that file
+ * once the caller has persisted the events. A crash in between leaves the replay file
+ * in place, and the next {@link #drain()} reads it again, so events are delivered at
+ * least once.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author Shan He {@code <shan.he@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public final class AuditJournal
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * A logger that helps identify this class' printouts.
+	 */
+	private static final Logger log = getLogger(AuditJournal.class);
+
+	/**
+	 * Journal file encoding.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Field separator.
+	 */
+	private static final char SEPARATOR = '\t';
+
+	/**
+	 * Escape character.
+	 */
+	private static final char ESCAPE = '\\';
+
+	/**
+	 * Encoded <code>null</code> field.
+	 */
+	private static final String NULL = "\\0";
+
+	/**
+	 * Number of fields per event.
+	 */
+	private static final int NUM_FIELDS = 8;
+
+	// ========================= FIELDS ====================================
+
+	/**
+	 * Journal file.
+	 */
+	private final File file;
+
+	/**
+	 * Events read by the last {@link #drain()} and not yet committed.
+	 */
+	private final File replayFile;
+
+	// ========================= CONSTRUCTORS ==============================
+
+	/**
+	 * @param file
+	 *            journal file. Its parent directory is created if necessary
+	 */
+	public AuditJournal(final File file)
+	{
+		this.file = file;
+		this.replayFile = new File(file.getPath() + ".replaying");
+	}
+
+	// ========================= METHODS ===================================
+
+	/**
+	 * Durably append events to the journal.
+	 * 
+	 * @param events
+	 *            events to append
+	 * @throws IOException
+	 *             if the journal could not be written
+	 */
+	public synchronized void append(final List<AuditableEvent> events)
+			throws IOException
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+		final File parent = file.getAbsoluteFile().getParentFile();
+		if ((parent != null) && !parent.exists() && !parent.mkdirs())
+		{
+			throw new IOException("Could not create journal directory " + parent);
+		}
+		final FileOutputStream out = new FileOutputStream(file, true);
+		try
+		{
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF8));
+			for (final AuditableEvent event : events)
+			{
+				writeEvent(writer, event);
+			}
+			writer.flush();
+			out.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * Move the journal aside to the replay file and read all events it holds. If a
+	 * previous replay was not committed, the journal is appended to its replay file, and
+	 * all its events are returned again. Call {@link #commit()} once the returned events
+	 * have been persisted or re-appended.
+	 * 
+	 * @return journaled events, in append order
+	 * @throws IOException
+	 *             if the journal could not be moved or read
+	 */
+	public synchronized List<AuditableEvent> drain() throws IOException
+	{
+		if (file.exists())
+		{
+			if (replayFile.exists())
+			{
+				copy(file, replayFile);
+				if (!file.delete())
+				{
+					throw new IOException("Could not remove audit journal " + file);
+				}
+			}
+			else if (!file.renameTo(replayFile))
+			{
+				throw new IOException("Could not move audit journal " + file + " to "
+						+ replayFile);
+			}
+		}
+		if (!replayFile.exists())
+		{
+			return Collections.emptyList();
+		}
+		final List<AuditableEvent> events = newList();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(replayFile), UTF8));
+		try
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.length() == 0)
+				{
+					continue;
+				}
+				try
+				{
+					events.add(readEvent(line));
+				}
+				catch (final IOException | NumberFormatException e)
+				{
+					// E.g. a line truncated by a crash in the middle of an append
+					log.warn("Skipping unreadable audit journal line in " + replayFile, e);
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+		return events;
+	}
+
+	/**
+	 * Remove the replay file of the last {@link #drain()}, after its events were
+	 * persisted or re-appended to the journal.
+	 * 
+	 * @throws IOException
+	 *             if the replay file could not be removed
+	 */
+	public synchronized void commit() throws IOException
+	{
+		if (replayFile.exists() && !replayFile.delete())
+		{
+			throw new IOException("Could not remove audit replay file " + replayFile);
+		}
+	}
+
+	/**
+	 * Return <code>true</code> if the journal holds any events.
+	 * 
+	 * @return <code>true</code> if and only if the journal and replay files are empty
+	 */
+	public boolean isEmpty()
+	{
+		return (file.length() == 0) && (replayFile.length() == 0);
+	}
+
+	/**
+	 * Return the journal file.
+	 * 
+	 * @return the journal file
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Durably append the contents of one file to another.
+	 * 
+	 * @param from
+	 *            source file
+	 * @param to
+	 *            target file
+	 * @throws IOException
+	 */
+	private static void copy(final File from, final File to) throws IOException
+	{
+		final FileInputStream in = new FileInputStream(from);
+		try
+		{
+			final FileOutputStream out = new FileOutputStream(to, true);
+			try
+			{
+				final byte[] buffer = new byte[8192];
+				int n;
+				while ((n = in.read(buffer)) >= 0)
+				{
+					out.write(buffer, 0, n);
+				}
+				out.getFD().sync();
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Write an event as a single journal line.
+	 * 
+	 * @param writer
+	 *            journal writer
+	 * @param event
+	 *            event to write
+	 * @throws IOException
+	 */
+	private static void writeEvent(final Writer writer, final AuditableEvent event)
+			throws IOException
+	{
+		final Date date = event.getDate();
+		final String[] fields =
+		{ event.getEventType(), (date == null) ? null : Long.toString(date.getTime()),
+				event.getEventStatus(), event.getEventSource(), event.getUserId(),
+				event.getEventDescription(), event.getAuthorizationBody(),
+				event.getAuthorizationDetail() };
+		for (int i = 0; i < fields.length; i++)
+		{
+			if (i > 0)
+			{
+				writer.write(SEPARATOR);
+			}
+			writer.write(escape(fields[i]));
+		}
+		writer.write('\n');
+	}
+
+	/**
+	 * Parse an event from a journal line.
+	 * 
+	 * @param line
+	 *            journal line
+	 * @return event
+	 * @throws IOException
+	 *             if the line is malformed
+	 */
+	private static AuditableEvent readEvent(final String line) throws IOException
+	{
+		final String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+		if (fields.length != NUM_FIELDS)
+		{
+			throw new IOException("Malformed audit journal line: " + line);
+		}
+		final AuditableEvent event = new AuditableEventEntity();
+		event.setEventType(unescape(fields[0]));
+		final String date = unescape(fields[1]);
+		event.setDate((date == null) ? null : new Date(Long.parseLong(date)));
+		event.setEventStatus(unescape(fields[2]));
+		event.setEventSource(unescape(fields[3]));
+		event.setUserId(unescape(fields[4]));
+		event.setEventDespription(unescape(fields[5]));
+		event.setAuthorizationBody(unescape(fields[6]));
+		event.setAuthorizationDetail(unescape(fields[7]));
+		return event;
+	}
+
+	/**
+	 * Escape a field so that it contains no separators or line breaks.
+	 * 
+	 * @param value
+	 *            raw field value
+	 * @return escaped field value
+	 */
+	private static String escape(final String value)
+	{
+		if (value == null)
+		{
+			return NULL;
+		}
+		final StringBuilder sb = new StringBuilder(value.length() + 16);
+		for (int i = 0; i < value.length(); i++)
+		{
+			final char c = value.charAt(i);
+			switch (c)
+			{
+				case ESCAPE:
+				{
+					sb.append(ESCAPE).append(ESCAPE);
+					break;
+				}
+				case SEPARATOR:
+				{
+					sb.append(ESCAPE).append('t');
+					break;
+				}
+				case '\n':
+				{
+					sb.append(ESCAPE).append('n');
+					break;
+				}
+				case '\r':
+				{
+					sb.append(ESCAPE).append('r');
+					break;
+				}
+				default:
+				{
+					sb.append(c);
+					break;
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reverse {@link #escape(String)}.
+	 * 
+	 * @param value
+	 *            escaped field value
+	 * @return raw field value
+	 */
+	private static String unescape(final String value)
+	{
+		if (NULL.equals(value))
+		{
+			return null;
+		}
+		final StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++)
+		{
+			final char c = value.charAt(i);
+			if ((c == ESCAPE) && (i + 1 < value.length()))
+			{
+				final char next = value.charAt(++i);
+				switch (next)
+				{
+					case 't':
+					{
+						sb.append(SEPARATOR);
+						break;
+					}
+					case 'n':
+					{
+						sb.append('\n');
+						break;
+					}
+					case 'r':
+					{
+						sb.append('\r');
+						break;
+					}
+					default:
+					{
+						sb.append(next);
+						break;
+					}
+				}
+			}
+			else
+			{
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+}
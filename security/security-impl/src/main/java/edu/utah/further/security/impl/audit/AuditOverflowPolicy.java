@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.security.impl.audit;
+
+/**
+ * What {@link AsyncAuditDao} does with an audit event when its queue is full.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author Shan He {@code <shan.he@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public enum AuditOverflowPolicy
+{
+	// ========================= CONSTANTS =================================
+
+	/**
+	 * Block the caller until the writer frees up queue space.
+	 */
+	BLOCK,
+
+	/**
+	 * Discard the event and increment a dropped-event counter.
+	 */
+	DROP,
+
+	/**
+	 * Append the event to the local journal file; it is written to the database once
+	 * the writer catches up.
+	 */
+	SPILL;
+}
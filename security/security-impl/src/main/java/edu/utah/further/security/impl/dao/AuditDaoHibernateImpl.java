@@ -18,6 +18,11 @@ package edu.utah.further.security.impl.dao;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -64,6 +69,13 @@ public class AuditDaoHibernateImpl implements AuditDao
 	@Autowired
 	@Qualifier("dao")
 	private Dao dao;
+
+	/**
+	 * Opens stateless sessions for batch inserts.
+	 */
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
 	
 	
 	// ========================= IMPLEMENTATION: AuditDAOHibernateImpl ===================
@@ -85,4 +97,45 @@ public class AuditDaoHibernateImpl implements AuditDao
 		dao.save(event);
 	}
 
+	/**
+	 * Log a batch of events using a stateless session in its own transaction, so that
+	 * the inserts are sent as JDBC batches (of size <code>hibernate.jdbc.batch_size</code>)
+	 * without first-level cache overhead.
+	 * 
+	 * @param events
+	 *            the events to log
+	 * @see edu.utah.further.security.api.dao.AuditDao#logEvents(java.util.List)
+	 */
+	@Override
+	public void logEvents(final List<AuditableEvent> events)
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug("Logging " + events.size() + " audit events");
+		}
+		final StatelessSession session = sessionFactory.openStatelessSession();
+		final Transaction tx = session.beginTransaction();
+		try
+		{
+			for (final AuditableEvent event : events)
+			{
+				session.insert(event);
+			}
+			tx.commit();
+		}
+		catch (final RuntimeException e)
+		{
+			tx.rollback();
+			throw e;
+		}
+		finally
+		{
+			session.close();
+		}
+	}
+
 }
@@ -73,10 +73,10 @@ public class AuditServiceImpl implements AuditService
 	// ========================= DEPENDENCIES ==============================
 
 	/**
-	 * Handles generic DAO operations and searches.
+	 * Persists audit events asynchronously, off the caller's thread and transaction.
 	 */
 	@Autowired
-	@Qualifier("auditDao")
+	@Qualifier("asyncAuditDao")
 	private AuditDao auditDao;
 
 	/**
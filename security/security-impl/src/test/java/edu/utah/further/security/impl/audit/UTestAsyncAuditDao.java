@@ -0,0 +1,288 @@
+/**
+ * Copyright (C) [2013] [The FURTHeR Project]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.utah.further.security.impl.audit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.utah.further.core.api.collections.CollectionUtil;
+import edu.utah.further.security.api.dao.AuditDao;
+import edu.utah.further.security.api.domain.AuditableEvent;
+import edu.utah.further.security.impl.domain.AuditableEventEntity;
+
+/**
+ * Tests the {@link AsyncAuditDao} batching writer and its {@link AuditJournal}.
+ * <p>
+ * -----------------------------------------------------------------------------------<br>
+ * (c) 2008-2013 FURTHeR Project, Health Sciences IT, University of Utah<br>
+ * Contact: {@code <further@utah.edu>}<br>
+ * Biomedical Informatics, 26 South 2000 East<br>
+ * Room 5775 HSEB, Salt Lake City, UT 84112<br>
+ * Day Phone: 1-801-581-4080<br>
+ * -----------------------------------------------------------------------------------
+ * 
+ * @author Shan He {@code <shan.he@utah.edu>}
+ * @version Oct 19, 2026
+ */
+public class UTestAsyncAuditDao
+{
+	private static final String POISON = "poison";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private RecordingAuditDao delegate;
+
+	private File journalFile;
+
+	@Before
+	public void setup()
+	{
+		delegate = new RecordingAuditDao();
+		journalFile = new File(folder.getRoot(), "audit-journal.log");
+	}
+
+	/**
+	 * All queued events are written by shutdown.
+	 */
+	@Test
+	public void writesAllEventsBeforeShutdown()
+	{
+		final AsyncAuditDao auditDao = newAuditDao(AuditOverflowPolicy.BLOCK);
+		for (int i = 0; i < 25; i++)
+		{
+			auditDao.logEvent(newEvent("event " + i));
+		}
+		auditDao.destroy();
+
+		assertThat(new Integer(delegate.events.size()), is(new Integer(25)));
+		assertThat(delegate.events.get(24).getEventDescription(), is("event 24"));
+		assertThat(new Long(auditDao.getWrittenCount()), is(new Long(25)));
+	}
+
+	/**
+	 * Events of a failed batch are journaled and replayed on the next start-up.
+	 */
+	@Test
+	public void failedBatchIsReplayedFromJournal()
+	{
+		delegate.fail = true;
+		final AsyncAuditDao failing = newAuditDao(AuditOverflowPolicy.BLOCK);
+		failing.logEvent(newEvent("line 1\nline 2\twith tab \\ and backslash"));
+		failing.destroy();
+		assertThat(new Boolean(journalFile.exists()), is(Boolean.TRUE));
+		assertThat(new Boolean(delegate.events.isEmpty()), is(Boolean.TRUE));
+
+		delegate.fail = false;
+		final AsyncAuditDao recovered = newAuditDao(AuditOverflowPolicy.BLOCK);
+		recovered.destroy();
+		assertThat(new Integer(delegate.events.size()), is(new Integer(1)));
+		assertThat(delegate.events.get(0).getEventDescription(),
+				is("line 1\nline 2\twith tab \\ and backslash"));
+		assertThat(delegate.events.get(0).getEventSource(), is((String) null));
+		assertThat(new Boolean(journalFile.exists()), is(Boolean.FALSE));
+		assertThat(new Long(recovered.getDeadLetterCount()), is(new Long(0)));
+	}
+
+	/**
+	 * A journal replay that was not committed is read again by the next replay.
+	 */
+	@Test
+	public void uncommittedReplayIsReadAgain() throws Exception
+	{
+		final AuditJournal journal = new AuditJournal(journalFile);
+		journal.append(Arrays.asList(newEvent("event 1"), newEvent("event 2")));
+		assertThat(new Integer(journal.drain().size()), is(new Integer(2)));
+		assertThat(new Boolean(journalFile.exists()), is(Boolean.FALSE));
+		assertThat(new Boolean(journal.isEmpty()), is(Boolean.FALSE));
+
+		// Crash before commit(); more events are journaled in the meantime
+		journal.append(Arrays.asList(newEvent("event 3")));
+		final List<AuditableEvent> events = journal.drain();
+		assertThat(new Integer(events.size()), is(new Integer(3)));
+		assertThat(events.get(2).getEventDescription(), is("event 3"));
+
+		journal.commit();
+		assertThat(new Boolean(journal.isEmpty()), is(Boolean.TRUE));
+	}
+
+	/**
+	 * An event the database rejects is dead-lettered; the rest of its batch is written.
+	 */
+	@Test
+	public void poisonEventIsDeadLettered() throws Exception
+	{
+		new AuditJournal(journalFile).append(Arrays.asList(newEvent("event 1"),
+				newEvent(POISON), newEvent("event 2")));
+
+		final AsyncAuditDao auditDao = newAuditDao(AuditOverflowPolicy.BLOCK);
+		auditDao.destroy();
+
+		assertThat(new Integer(delegate.events.size()), is(new Integer(2)));
+		assertThat(new Long(auditDao.getDeadLetterCount()), is(new Long(1)));
+		assertThat(new Boolean(new AuditJournal(journalFile).isEmpty()), is(Boolean.TRUE));
+		final List<AuditableEvent> deadLetters = new AuditJournal(new File(journalFile
+				.getPath()
+				+ ".dead")).drain();
+		assertThat(new Integer(deadLetters.size()), is(new Integer(1)));
+		assertThat(deadLetters.get(0).getEventDescription(), is(POISON));
+	}
+
+	/**
+	 * The DROP policy discards events that do not fit in the queue.
+	 */
+	@Test
+	public void dropPolicyDiscardsOverflow() throws Exception
+	{
+		final AsyncAuditDao auditDao = fillQueue(AuditOverflowPolicy.DROP);
+		delegate.gate.countDown();
+		auditDao.destroy();
+
+		assertThat(new Long(auditDao.getDroppedCount()), is(new Long(1)));
+		assertThat(new Long(auditDao.getJournaledCount()), is(new Long(0)));
+		assertThat(new Integer(delegate.events.size()), is(new Integer(2)));
+	}
+
+	/**
+	 * The SPILL policy journals events that do not fit in the queue; they are replayed
+	 * after the next successful flush.
+	 */
+	@Test
+	public void spillPolicyJournalsOverflow() throws Exception
+	{
+		final AsyncAuditDao auditDao = fillQueue(AuditOverflowPolicy.SPILL);
+		assertThat(new Long(auditDao.getJournaledCount()), is(new Long(1)));
+		assertThat(new Boolean(journalFile.exists()), is(Boolean.TRUE));
+		delegate.gate.countDown();
+		auditDao.destroy();
+
+		assertThat(new Long(auditDao.getDroppedCount()), is(new Long(0)));
+		assertThat(new Integer(delegate.events.size()), is(new Integer(3)));
+		assertThat(new Boolean(new AuditJournal(journalFile).isEmpty()), is(Boolean.TRUE));
+	}
+
+	// ========================= PRIVATE METHODS ===========================
+
+	/**
+	 * Hold the writer in the delegate with one event, fill the single-event queue, and
+	 * log one more event that overflows it.
+	 */
+	private AsyncAuditDao fillQueue(final AuditOverflowPolicy overflowPolicy)
+			throws InterruptedException
+	{
+		delegate.gate = new CountDownLatch(1);
+		final AsyncAuditDao auditDao = newAuditDao(overflowPolicy, 1);
+		auditDao.logEvent(newEvent("written"));
+		assertThat(new Boolean(delegate.entered.await(5, TimeUnit.SECONDS)),
+				is(Boolean.TRUE));
+		auditDao.logEvent(newEvent("queued"));
+		auditDao.logEvent(newEvent("overflow"));
+		return auditDao;
+	}
+
+	private AsyncAuditDao newAuditDao(final AuditOverflowPolicy overflowPolicy)
+	{
+		return newAuditDao(overflowPolicy, 10000);
+	}
+
+	private AsyncAuditDao newAuditDao(final AuditOverflowPolicy overflowPolicy,
+			final int queueCapacity)
+	{
+		final AsyncAuditDao auditDao = new AsyncAuditDao();
+		auditDao.setDelegate(delegate);
+		auditDao.setQueueCapacity(queueCapacity);
+		auditDao.setBatchSize(10);
+		auditDao.setFlushInterval(50);
+		auditDao.setOverflowPolicy(overflowPolicy);
+		auditDao.setJournalFile(journalFile.getPath());
+		auditDao.afterPropertiesSet();
+		return auditDao;
+	}
+
+	private static AuditableEvent newEvent(final String description)
+	{
+		final AuditableEvent event = new AuditableEventEntity();
+		event.setDate(new Date());
+		event.setEventType("QUERY");
+		event.setUserId("user");
+		event.setEventDespription(description);
+		return event;
+	}
+
+	/**
+	 * Records written events, fails on demand, rejects poison events, and optionally
+	 * holds writes until a gate opens.
+	 */
+	private static final class RecordingAuditDao implements AuditDao
+	{
+		private final List<AuditableEvent> events = Collections
+				.synchronizedList(CollectionUtil.<AuditableEvent> newList());
+
+		private volatile boolean fail;
+
+		private volatile CountDownLatch gate;
+
+		private final CountDownLatch entered = new CountDownLatch(1);
+
+		@Override
+		public void logEvent(final AuditableEvent event)
+		{
+			logEvents(Collections.singletonList(event));
+		}
+
+		@Override
+		public void logEvents(final List<AuditableEvent> batch)
+		{
+			entered.countDown();
+			if (gate != null)
+			{
+				try
+				{
+					gate.await();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (fail)
+			{
+				throw new IllegalStateException("Audit database unavailable");
+			}
+			for (final AuditableEvent event : batch)
+			{
+				if (POISON.equals(event.getEventDescription()))
+				{
+					throw new IllegalArgumentException("Rejected audit event");
+				}
+			}
+			events.addAll(batch);
+		}
+	}
+}